@@ -1,4 +1,6 @@
 import org.gradle.jvm.toolchain.JvmVendorSpec
+import java.io.ByteArrayOutputStream
+import java.io.OutputStream
 
 plugins {
     java
@@ -15,9 +17,13 @@ repositories {
     mavenCentral()
 }
 
+// The toolchain that compiles, tests and runs the application; -PjavaVersion=21 switches to a
+// Java 21 JDK, on which requests run on virtual threads (see RequestThreads)
+val javaVersion = providers.gradleProperty("javaVersion").map(String::toInt).getOrElse(17)
+
 java {
     toolchain {
-        languageVersion.set(JavaLanguageVersion.of(17))
+        languageVersion.set(JavaLanguageVersion.of(javaVersion))
         vendor.set(JvmVendorSpec.ADOPTIUM)
     }
 }
@@ -49,6 +55,10 @@ sourceSets {
         // compileClasspath = sourceSets.main.get().output + configurations.getByName("e2eTestImplementation") // Reverted
         // runtimeClasspath = output + compileClasspath + configurations.getByName("e2eTestRuntimeOnly") // Reverted
     }
+    // JMH microbenchmarks, run with the `jmh` task below
+    create("jmh") {
+        java.srcDirs("src/jmh/java")
+    }
 }
 
 // Configure the implicitly created e2eTest configurations SECOND
@@ -59,6 +69,13 @@ configurations {
     getByName("e2eTestRuntimeOnly") {
         extendsFrom(configurations.testRuntimeOnly.get()) // Keep this
     }
+    // Benchmarks run against the application's own dependencies (Logback, Hibernate Validator)
+    getByName("jmhImplementation") {
+        extendsFrom(configurations.implementation.get())
+    }
+    getByName("jmhRuntimeOnly") {
+        extendsFrom(configurations.runtimeOnly.get())
+    }
 }
 
 // Define dependencies THIRD
@@ -81,6 +98,11 @@ dependencies {
 
     // CLI Argument Parsing
     implementation("info.picocli:picocli:4.7.6")
+    // Generates the command model and factory at compile time (no reflection at start-up)
+    annotationProcessor(project(":processor"))
+
+    // Line editing, history and completion for the interactive shell
+    implementation("org.jline:jline:3.26.3")
 
     // Jakarta Bean Validation API
     implementation("jakarta.validation:jakarta.validation-api:3.0.2")
@@ -93,6 +115,7 @@ dependencies {
     implementation("org.slf4j:slf4j-api:2.0.12") // Use a recent 2.x version
     // Logging Implementation (Logback)
     runtimeOnly("ch.qos.logback:logback-classic:1.4.14") // Added for runtime
+    compileOnly("ch.qos.logback:logback-classic:1.4.14") // For the programmatic configurator
     testImplementation("ch.qos.logback:logback-classic:1.4.14") // Kept for ListAppender in tests
 
     // E2E Test Dependencies
@@ -104,6 +127,11 @@ dependencies {
     "e2eTestRuntimeOnly"("org.junit.jupiter:junit-jupiter-engine") // KEEP
     "e2eTestRuntimeOnly"("org.junit.platform:junit-platform-launcher") // KEEP
 
+    // JMH benchmarks; the annotation processor generates the benchmark harness classes
+    "jmhImplementation"(sourceSets.main.get().output)
+    "jmhImplementation"("org.openjdk.jmh:jmh-core:1.37")
+    "jmhAnnotationProcessor"("org.openjdk.jmh:jmh-generator-annprocess:1.37")
+
     // Runtime dependencies should be covered by extendsFrom in the configurations block - This comment might now be less relevant as we explicitly declare them.
 }
 
@@ -126,6 +154,147 @@ tasks.jar {
     }
 }
 
+// --- Fast start: AppCDS archive ---
+// installDist is followed by a training run (config/cds/training.txt through `spantry batch`) that
+// records the classes it loads into lib/spantry.jsa. The start scripts point the JVM at that
+// archive, so later starts map the classes instead of loading and verifying them again. The JVM
+// silently ignores the archive if it is missing or was recorded by a different JVM build.
+val cdsArchiveName = "spantry.jsa"
+val appHomeToken = "__APP_HOME__"
+
+tasks.named<CreateStartScripts>("startScripts") {
+    defaultJvmOpts = listOf("-XX:SharedArchiveFile=$appHomeToken/lib/$cdsArchiveName")
+    doLast {
+        // DEFAULT_JVM_OPTS is assigned after APP_HOME in both scripts, so it can refer to it
+        unixScript.writeText(unixScript.readText().replace(appHomeToken, "'\"\$APP_HOME\"'"))
+        windowsScript.writeText(windowsScript.readText().replace(appHomeToken, "%APP_HOME%"))
+    }
+}
+
+// Class path of the installed distribution, in start script order: the archive is only used when
+// the runtime class path matches the one it was recorded with
+fun installedClasspath(): List<File> {
+    val libDir = tasks.installDist.get().destinationDir.canonicalFile.resolve("lib")
+    return tasks.startScripts.get().classpath!!.map { libDir.resolve(it.name) }
+}
+
+val cdsArchive by tasks.registering(JavaExec::class) {
+    description = "Records the AppCDS archive of the installed distribution with a training run."
+    group = "distribution"
+    dependsOn(tasks.installDist)
+
+    val trainingDir = layout.buildDirectory.dir("cds-training").get().asFile
+    val archive = tasks.installDist.get().destinationDir.resolve("lib/$cdsArchiveName")
+    classpath = files(provider { installedClasspath() })
+    mainClass.set(application.mainClass)
+    args("batch", "--continue-on-error", file("config/cds/training.txt").absolutePath)
+    workingDir = trainingDir // Scratch inventory
+    environment("SPANTRY_NO_DAEMON", "1")
+    jvmArgs("-XX:ArchiveClassesAtExit=${archive.absolutePath}", "-Xlog:cds=error")
+    // The script fails one line on purpose, so the batch exits with 1; checked below instead
+    isIgnoreExitValue = true
+    standardOutput = OutputStream.nullOutputStream()
+    val trainingLog = ByteArrayOutputStream()
+    errorOutput = trainingLog
+    outputs.file(archive)
+
+    doFirst {
+        delete(trainingDir, archive)
+        trainingDir.mkdirs()
+    }
+    doLast {
+        // Exactly the one validation failure: any other failing line leaves its path untrained
+        val failures =
+            Regex("""Line \d+: FAILED \(exit code (\d+)\)""")
+                .findAll(trainingLog.toString())
+                .map { it.groupValues[1] }
+                .toList()
+        if (executionResult.get().exitValue != 1 || failures != listOf("1")) {
+            throw GradleException("The AppCDS training run did not go as scripted:\n$trainingLog")
+        }
+    }
+}
+
+tasks.installDist {
+    // Keep the archive across re-syncs; cdsArchive re-records it whenever the class path changes
+    preserve { include("lib/$cdsArchiveName") }
+    finalizedBy(cdsArchive)
+}
+
+// Time-to-exit of typical invocations, without and with the AppCDS archive: the mean wall-clock
+// time of 10 runs, after 2 warm-up runs that fill the OS file cache
+tasks.register("startupBenchmark") {
+    description = "Measures CLI start-up time without and with the AppCDS archive."
+    group = "verification"
+    dependsOn(cdsArchive)
+
+    doLast {
+        val javaExecutable = javaToolchains.launcherFor(java.toolchain).get().executablePath.asFile
+        val classpath = installedClasspath().joinToString(File.pathSeparator)
+        val archive = tasks.installDist.get().destinationDir.resolve("lib/$cdsArchiveName")
+        val workDir = layout.buildDirectory.dir("startup-benchmark").get().asFile
+        delete(workDir)
+        workDir.mkdirs()
+
+        val scenarios =
+            listOf(
+                listOf("--help"),
+                listOf("item", "list"),
+                listOf("item", "add", "-n", "Milk", "-q", "1", "-l", "FRIDGE"),
+            )
+        val variants =
+            mapOf(
+                "without archive" to emptyList<String>(),
+                "with archive" to listOf("-XX:SharedArchiveFile=${archive.absolutePath}"),
+            )
+        for ((variant, jvmOptions) in variants) {
+            for (scenario in scenarios) {
+                val command =
+                    listOf(javaExecutable.absolutePath) + jvmOptions +
+                        listOf("-cp", classpath, application.mainClass.get()) + scenario
+                val millis =
+                    (1..12).map {
+                        val builder =
+                            ProcessBuilder(command)
+                                .directory(workDir)
+                                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                                .redirectError(ProcessBuilder.Redirect.DISCARD)
+                        builder.environment()["SPANTRY_NO_DAEMON"] = "1"
+                        val start = System.nanoTime()
+                        builder.start().waitFor()
+                        (System.nanoTime() - start) / 1_000_000
+                    }.drop(2)
+                println("%-16s %-40s %5d ms".format(variant, scenario.joinToString(" "), millis.average().toLong()))
+            }
+        }
+    }
+}
+
+// --- Microbenchmarks (JMH) ---
+// Runs every benchmark in src/jmh/java (repository operations, snapshot load and save, validation,
+// rendering) with the GC profiler, which adds the allocation rate and bytes allocated per
+// operation to each result. Results are written as JSON, so runs can be compared across changes
+// and storage backends, e.g. with jmh.morethan.io. `-Pjmh.include=<regex>` selects benchmarks
+// (`-Pjmh.include=Snapshot`), and `-Pjmh.results=<file>` keeps a baseline from being overwritten.
+val jmh by tasks.registering(JavaExec::class) {
+    description = "Runs the JMH benchmarks with allocation profiling and writes JSON results."
+    group = "verification"
+
+    val results =
+        project.findProperty("jmh.results")?.let { file(it) }
+            ?: layout.buildDirectory.file("reports/jmh/results.json").get().asFile
+    classpath = sourceSets["jmh"].runtimeClasspath
+    mainClass.set("org.openjdk.jmh.Main")
+    project.findProperty("jmh.include")?.let { args(it.toString()) }
+    args("-prof", "gc", "-rf", "json", "-rff", results.absolutePath)
+    outputs.file(results)
+    outputs.upToDateWhen { false } // A benchmark run is a measurement, never up to date
+
+    doFirst {
+        results.parentFile.mkdirs()
+    }
+}
+
 tasks.test {
     useJUnitPlatform()
     testLogging {
@@ -162,6 +331,11 @@ tasks.named<Pmd>("pmdE2eTest") {
     ruleSetFiles = files("$rootDir/config/pmd/ruleset.xml")
 }
 
+// Benchmarks follow JMH's conventions (public mutable @State fields), which the rule set rejects
+tasks.named<Pmd>("pmdJmh") {
+    enabled = false
+}
+
 // Define e2eTest task
 tasks.register<Test>("e2eTest") {
     description = "Runs end-to-end tests."
@@ -200,6 +374,10 @@ tasks.named("check") {
 // Optional: Make spotlessApply run before compilation to auto-format
 tasks.withType<JavaCompile>().configureEach {
     dependsOn(tasks.named("spotlessApply"))
+    // Whatever the toolchain, the classes keep running on Java 17
+    options.release.set(17)
+    // Sources contain non-ASCII literals; don't depend on the platform default charset
+    options.encoding = "UTF-8"
 }
 
 // Explicitly configure compile task dependency for e2eTest
@@ -0,0 +1,32 @@
+import org.gradle.jvm.toolchain.JvmVendorSpec
+
+// Annotation processor generating the Picocli command model and command factory of the CLI at
+// compile time (see CommandModelProcessor). It only runs inside javac and is not shipped.
+plugins {
+    java
+}
+
+repositories {
+    mavenCentral()
+}
+
+java {
+    toolchain {
+        languageVersion.set(JavaLanguageVersion.of(17))
+        vendor.set(JvmVendorSpec.ADOPTIUM)
+    }
+}
+
+dependencies {
+    testImplementation(platform("org.junit:junit-bom:5.10.2"))
+    testImplementation("org.junit.jupiter:junit-jupiter-api")
+    testRuntimeOnly("org.junit.jupiter:junit-jupiter-engine")
+    testRuntimeOnly("org.junit.platform:junit-platform-launcher")
+
+    // The generated sources compiled by the tests refer to Picocli
+    testImplementation("info.picocli:picocli:4.7.6")
+}
+
+tasks.test {
+    useJUnitPlatform()
+}
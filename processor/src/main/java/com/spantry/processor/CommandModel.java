@@ -0,0 +1,61 @@
+package com.spantry.processor;
+
+import java.util.List;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.TypeMirror;
+
+/**
+ * Everything the generated code needs to know about one {@code @Command} class, read from its
+ * annotations at compile time.
+ *
+ * @param type the command class
+ * @param name the command name
+ * @param aliases alternative names
+ * @param description usage description lines
+ * @param version version lines
+ * @param standardHelpOptions whether {@code -h/--help} and {@code -V/--version} are added
+ * @param subcommands the subcommand classes, in declaration order
+ * @param args the options and positional parameters, in declaration order
+ * @param specField the field receiving the command's spec, or null
+ * @param constructorParameters parameter types of the constructor the factory calls
+ */
+record CommandModel(
+    TypeElement type,
+    String name,
+    List<String> aliases,
+    List<String> description,
+    List<String> version,
+    boolean standardHelpOptions,
+    List<TypeElement> subcommands,
+    List<ArgModel> args,
+    String specField,
+    List<TypeMirror> constructorParameters) {
+
+  /**
+   * One option or positional parameter bound to a field.
+   *
+   * @param field the field name
+   * @param type the field type
+   * @param positional true for {@code @Parameters}, false for {@code @Option}
+   * @param names option names (empty for positional parameters)
+   * @param index positional index, or null
+   * @param description usage description lines
+   * @param required whether the option is required
+   * @param defaultValue default value, or null
+   * @param paramLabel parameter label, or null
+   * @param arity arity, or null for the type's default
+   * @param hidden whether the argument is left out of the usage help
+   */
+  record ArgModel(
+      String field,
+      TypeMirror type,
+      boolean positional,
+      List<String> names,
+      String index,
+      List<String> description,
+      boolean required,
+      String defaultValue,
+      String paramLabel,
+      String arity,
+      boolean hidden) {}
+}
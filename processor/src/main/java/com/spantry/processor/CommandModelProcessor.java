@@ -0,0 +1,336 @@
+package com.spantry.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+
+/**
+ * Generates the Picocli command model and a command factory at compile time, so that building the
+ * command line at run time needs neither annotation scanning nor reflective constructor lookup.
+ *
+ * <p>For every class annotated with {@code @Command} it writes {@code <Command>Model}, which builds
+ * the command's {@code CommandSpec} programmatically and binds options and parameters to the
+ * annotated fields directly. For every root command (one that is nobody's subcommand) it writes
+ * {@code <Command>Factory}, a {@code CommandLine.IFactory} that calls the commands' constructors
+ * and passes them the dependencies it was created with. Command objects are created only when their
+ * command is parsed or run.
+ *
+ * <p>Only the Picocli features used by Spantry are supported; anything else is reported as a
+ * compile error rather than silently ignored. Bound fields must not be private, because the
+ * generated code in the same package assigns them.
+ */
+@SupportedAnnotationTypes(CommandModelProcessor.COMMAND)
+public final class CommandModelProcessor extends AbstractProcessor {
+
+  /** Annotation marking Picocli commands. */
+  /* package */ static final String COMMAND = "picocli.CommandLine.Command";
+
+  private static final String OPTION = "picocli.CommandLine.Option";
+  private static final String PARAMETERS = "picocli.CommandLine.Parameters";
+  private static final String SPEC = "picocli.CommandLine.Spec";
+  private static final Set<String> UNSUPPORTED_FIELD_ANNOTATIONS =
+      Set.of(
+          "picocli.CommandLine.Mixin",
+          "picocli.CommandLine.ArgGroup",
+          "picocli.CommandLine.ParentCommand",
+          "picocli.CommandLine.Unmatched");
+  private static final Set<String> COMMAND_ATTRIBUTES =
+      Set.of(
+          "name", "aliases", "description", "version", "mixinStandardHelpOptions", "subcommands");
+  private static final Set<String> OPTION_ATTRIBUTES =
+      Set.of("names", "description", "required", "defaultValue", "paramLabel", "arity", "hidden");
+  private static final Set<String> PARAMETERS_ATTRIBUTES =
+      Set.of("index", "description", "defaultValue", "paramLabel", "arity", "hidden");
+
+  private boolean failed;
+
+  /** Default constructor used by the compiler's service loader. */
+  public CommandModelProcessor() {
+    super();
+  }
+
+  @Override
+  public SourceVersion getSupportedSourceVersion() {
+    return SourceVersion.latestSupported();
+  }
+
+  @Override
+  public boolean process(
+      final Set<? extends TypeElement> annotations, final RoundEnvironment roundEnv) {
+    final TypeElement commandAnnotation = processingEnv.getElementUtils().getTypeElement(COMMAND);
+    if (commandAnnotation != null && !annotations.isEmpty()) {
+      final Map<String, CommandModel> models = new LinkedHashMap<>();
+      for (final Element element : roundEnv.getElementsAnnotatedWith(commandAnnotation)) {
+        final CommandModel model = readCommand(element);
+        if (model != null) {
+          models.put(model.type().getQualifiedName().toString(), model);
+        }
+      }
+      if (!failed) {
+        writeSources(models);
+      }
+    }
+    return false; // Leave @Command to other processors as well
+  }
+
+  private void writeSources(final Map<String, CommandModel> models) {
+    final Set<String> subcommands = new HashSet<>();
+    for (final CommandModel model : models.values()) {
+      for (final TypeElement subcommand : model.subcommands()) {
+        final String name = subcommand.getQualifiedName().toString();
+        subcommands.add(name);
+        if (!models.containsKey(name)) {
+          error(model.type(), "Subcommand " + name + " must be compiled together with its parent");
+        }
+      }
+    }
+    if (!failed) {
+      final CommandSourceWriter writer = new CommandSourceWriter(processingEnv.getTypeUtils());
+      for (final CommandModel model : models.values()) {
+        write(model.type(), writer.modelClassName(model), writer.model(model));
+        if (!subcommands.contains(model.type().getQualifiedName().toString())) {
+          final List<CommandModel> tree = reachable(model, models);
+          write(model.type(), writer.factoryClassName(model), writer.factory(model, tree));
+        }
+      }
+    }
+  }
+
+  /** Returns the root command followed by every command below it, each once. */
+  private static List<CommandModel> reachable(
+      final CommandModel root, final Map<String, CommandModel> models) {
+    final List<CommandModel> tree = new ArrayList<>();
+    final Set<String> seen = new HashSet<>();
+    final Deque<CommandModel> pending = new ArrayDeque<>();
+    pending.add(root);
+    while (!pending.isEmpty()) {
+      final CommandModel model = pending.removeFirst();
+      if (seen.add(model.type().getQualifiedName().toString())) {
+        tree.add(model);
+        for (final TypeElement subcommand : model.subcommands()) {
+          pending.addLast(models.get(subcommand.getQualifiedName().toString()));
+        }
+      }
+    }
+    return tree;
+  }
+
+  private void write(final Element origin, final String className, final String source) {
+    try {
+      final JavaFileObject file = processingEnv.getFiler().createSourceFile(className, origin);
+      try (Writer out = file.openWriter()) {
+        out.write(source);
+      }
+    } catch (IOException e) {
+      error(origin, "Could not write " + className + ": " + e.getMessage());
+    }
+  }
+
+  // --- Reading the annotations ---
+
+  private CommandModel readCommand(final Element element) {
+    CommandModel model = null;
+    if (element.getKind() != ElementKind.CLASS
+        || element.getEnclosingElement().getKind() != ElementKind.PACKAGE) {
+      error(element, "@Command is only supported on top-level classes");
+    } else if (!element.getModifiers().contains(Modifier.PUBLIC)
+        || element.getModifiers().contains(Modifier.ABSTRACT)) {
+      error(element, "Command classes must be public and concrete");
+    } else {
+      final TypeElement type = (TypeElement) element;
+      final Map<String, AnnotationValue> command = attributes(type, COMMAND, COMMAND_ATTRIBUTES);
+      final List<CommandModel.ArgModel> args = new ArrayList<>();
+      String specField = null;
+      for (final VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+        checkFieldAnnotations(field);
+        if (find(field, OPTION) != null || find(field, PARAMETERS) != null) {
+          checkBindable(field);
+          args.add(readArg(field));
+        } else if (find(field, SPEC) != null) {
+          checkBindable(field);
+          specField = field.getSimpleName().toString();
+        }
+      }
+      model =
+          new CommandModel(
+              type,
+              string(command.get("name"), "<main class>"),
+              strings(command.get("aliases")),
+              strings(command.get("description")),
+              strings(command.get("version")),
+              bool(command.get("mixinStandardHelpOptions")),
+              types(command.get("subcommands")),
+              args,
+              specField,
+              constructorParameters(type));
+    }
+    return model;
+  }
+
+  private CommandModel.ArgModel readArg(final VariableElement field) {
+    final boolean positional = find(field, PARAMETERS) != null;
+    final Map<String, AnnotationValue> arg =
+        positional
+            ? attributes(field, PARAMETERS, PARAMETERS_ATTRIBUTES)
+            : attributes(field, OPTION, OPTION_ATTRIBUTES);
+    final TypeMirror type = field.asType();
+    if (type.getKind() == TypeKind.DECLARED
+        && !((DeclaredType) type).getTypeArguments().isEmpty()) {
+      error(field, "Generic option types are not supported");
+    }
+    return new CommandModel.ArgModel(
+        field.getSimpleName().toString(),
+        type,
+        positional,
+        strings(arg.get("names")),
+        string(arg.get("index"), null),
+        strings(arg.get("description")),
+        bool(arg.get("required")),
+        string(arg.get("defaultValue"), null),
+        string(arg.get("paramLabel"), null),
+        string(arg.get("arity"), null),
+        bool(arg.get("hidden")));
+  }
+
+  private void checkFieldAnnotations(final VariableElement field) {
+    for (final AnnotationMirror mirror : field.getAnnotationMirrors()) {
+      final String name = annotationName(mirror);
+      if (UNSUPPORTED_FIELD_ANNOTATIONS.contains(name)) {
+        error(field, "@" + name + " is not supported by the generated command model");
+      }
+    }
+  }
+
+  private void checkBindable(final VariableElement field) {
+    final Set<Modifier> modifiers = field.getModifiers();
+    if (modifiers.contains(Modifier.PRIVATE)
+        || modifiers.contains(Modifier.FINAL)
+        || modifiers.contains(Modifier.STATIC)) {
+      error(
+          field,
+          "Bound fields must be non-private, non-final instance fields:"
+              + " the generated model assigns them directly");
+    }
+  }
+
+  private List<TypeMirror> constructorParameters(final TypeElement type) {
+    final List<ExecutableElement> constructors = new ArrayList<>();
+    ExecutableElement noArgs = null;
+    for (final ExecutableElement constructor :
+        ElementFilter.constructorsIn(type.getEnclosedElements())) {
+      if (constructor.getModifiers().contains(Modifier.PUBLIC)) {
+        constructors.add(constructor);
+        if (constructor.getParameters().isEmpty()) {
+          noArgs = constructor;
+        }
+      }
+    }
+    final List<TypeMirror> parameters = new ArrayList<>();
+    if (constructors.size() == 1) {
+      for (final VariableElement parameter : constructors.get(0).getParameters()) {
+        parameters.add(parameter.asType());
+      }
+    } else if (noArgs == null) {
+      error(type, "Command classes need a single public constructor or a public no-arg one");
+    }
+    return parameters;
+  }
+
+  /**
+   * Returns the explicitly set attributes of an annotation, reporting any the generator does not
+   * understand.
+   */
+  private Map<String, AnnotationValue> attributes(
+      final Element element, final String annotation, final Set<String> supported) {
+    final Map<String, AnnotationValue> values = new HashMap<>();
+    final AnnotationMirror mirror = find(element, annotation);
+    for (final Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry :
+        mirror.getElementValues().entrySet()) {
+      final String attribute = entry.getKey().getSimpleName().toString();
+      if (!supported.contains(attribute)) {
+        error(element, "Attribute '" + attribute + "' is not supported by the generated model");
+      }
+      values.put(attribute, entry.getValue());
+    }
+    return values;
+  }
+
+  private static AnnotationMirror find(final Element element, final String annotation) {
+    AnnotationMirror found = null;
+    for (final AnnotationMirror mirror : element.getAnnotationMirrors()) {
+      if (annotation.equals(annotationName(mirror))) {
+        found = mirror;
+      }
+    }
+    return found;
+  }
+
+  private static String annotationName(final AnnotationMirror mirror) {
+    return ((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().toString();
+  }
+
+  private static String string(final AnnotationValue value, final String fallback) {
+    return value == null ? fallback : (String) value.getValue();
+  }
+
+  private static boolean bool(final AnnotationValue value) {
+    return value != null && (Boolean) value.getValue();
+  }
+
+  private static List<String> strings(final AnnotationValue value) {
+    final List<String> strings = new ArrayList<>();
+    if (value != null) {
+      if (value.getValue() instanceof List<?> list) {
+        for (final Object element : list) {
+          strings.add((String) ((AnnotationValue) element).getValue());
+        }
+      } else {
+        strings.add((String) value.getValue());
+      }
+    }
+    return strings;
+  }
+
+  private static List<TypeElement> types(final AnnotationValue value) {
+    final List<TypeElement> types = new ArrayList<>();
+    if (value != null) {
+      final List<?> list = value.getValue() instanceof List<?> values ? values : List.of(value);
+      for (final Object element : list) {
+        final TypeMirror mirror = (TypeMirror) ((AnnotationValue) element).getValue();
+        types.add((TypeElement) ((DeclaredType) mirror).asElement());
+      }
+    }
+    return types;
+  }
+
+  private void error(final Element element, final String message) {
+    failed = true;
+    processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+  }
+}
@@ -0,0 +1,380 @@
+package com.spantry.processor;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Types;
+
+/** Renders the Java sources generated by {@link CommandModelProcessor}. */
+final class CommandSourceWriter {
+
+  private static final String GENERATED =
+      "@javax.annotation.processing.Generated(\"" + CommandModelProcessor.class.getName() + "\")\n";
+  private static final String INDENT = "  ";
+
+  private final Types types;
+
+  /**
+   * Creates a writer.
+   *
+   * @param types type utilities of the current compilation
+   */
+  /* package */ CommandSourceWriter(final Types types) {
+    this.types = types;
+  }
+
+  /* package */ String modelClassName(final CommandModel model) {
+    return model.type().getQualifiedName() + "Model";
+  }
+
+  /* package */ String factoryClassName(final CommandModel model) {
+    return model.type().getQualifiedName() + "Factory";
+  }
+
+  /**
+   * Renders {@code <Command>Model}: a static builder for the command's spec and its subcommands.
+   *
+   * @param model the command
+   * @return the source code
+   */
+  /* package */ String model(final CommandModel model) {
+    final String command = model.type().getSimpleName().toString();
+    final String className = command + "Model";
+    final StringBuilder out = new StringBuilder(4096);
+    header(out, model.type());
+    out.append("/**\n * Picocli model of {@link ")
+        .append(command)
+        .append("}, generated from its annotations so that no reflection is needed at run time.\n")
+        .append(" */\n")
+        .append(GENERATED)
+        .append("public final class ")
+        .append(className)
+        .append(" {\n\n")
+        .append(INDENT)
+        .append("private ")
+        .append(className)
+        .append("() {\n    // Static builders only\n  }\n\n");
+
+    // commandLine(factory)
+    out.append(
+            "  /**\n   * Creates the command line of this command and its subcommands.\n   *\n"
+                + "   * @param factory creates the command objects when they are first used\n"
+                + "   * @return the command line\n   */\n")
+        .append("  public static picocli.CommandLine commandLine(")
+        .append("final picocli.CommandLine.IFactory factory) {\n")
+        .append("    return new picocli.CommandLine(spec(factory), factory);\n  }\n\n");
+
+    // spec(factory)
+    out.append(
+            "  /**\n   * Builds the spec of this command and its subcommands.\n   *\n"
+                + "   * @param factory creates the command objects when they are first used\n"
+                + "   * @return the command spec\n   */\n")
+        .append("  public static CommandSpec spec(final picocli.CommandLine.IFactory factory) {\n");
+    if (model.specField() == null) {
+      out.append("    final CommandSpec spec = CommandSpec.wrapWithoutInspection(")
+          .append(command)
+          .append(".class, factory);\n");
+    } else {
+      // The command object is created lazily, so its spec is injected right after creation
+      out.append("    final CommandSpec[] self = new CommandSpec[1];\n")
+          .append("    final CommandSpec spec =\n")
+          .append("        CommandSpec.wrapWithoutInspection(\n")
+          .append("            ")
+          .append(command)
+          .append(".class,\n")
+          .append("            new picocli.CommandLine.IFactory() {\n")
+          .append("              @Override\n")
+          .append("              public <K> K create(final Class<K> cls) throws Exception {\n")
+          .append("                final K instance = factory.create(cls);\n")
+          .append("                if (instance instanceof ")
+          .append(command)
+          .append(" created) {\n")
+          .append("                  created.")
+          .append(model.specField())
+          .append(" = self[0];\n")
+          .append("                }\n")
+          .append("                return instance;\n")
+          .append("              }\n")
+          .append("            });\n")
+          .append("    self[0] = spec;\n");
+    }
+    out.append("    spec.name(").append(literal(model.name())).append(");\n");
+    if (!model.aliases().isEmpty()) {
+      out.append("    spec.aliases(").append(literals(model.aliases())).append(");\n");
+    }
+    if (!model.version().isEmpty()) {
+      out.append("    spec.version(").append(literals(model.version())).append(");\n");
+    }
+    if (!model.description().isEmpty()) {
+      out.append("    spec.usageMessage().description(")
+          .append(literals(model.description()))
+          .append(");\n");
+    }
+    if (model.standardHelpOptions()) {
+      out.append(
+          "    spec.addOption(\n"
+              + "        OptionSpec.builder(\"-h\", \"--help\")\n"
+              + "            .usageHelp(true)\n"
+              + "            .description(\"Show this help message and exit.\")\n"
+              + "            .build());\n"
+              + "    spec.addOption(\n"
+              + "        OptionSpec.builder(\"-V\", \"--version\")\n"
+              + "            .versionHelp(true)\n"
+              + "            .description(\"Print version information and exit.\")\n"
+              + "            .build());\n");
+    }
+    for (final CommandModel.ArgModel arg : model.args()) {
+      arg(out, command, arg);
+    }
+    for (final TypeElement subcommand : model.subcommands()) {
+      out.append("    spec.addSubcommand(null, ")
+          .append(subcommand.getQualifiedName())
+          .append("Model.commandLine(factory));\n");
+    }
+    out.append("    return spec;\n  }\n\n");
+
+    out.append("  private static ")
+        .append(command)
+        .append(" command(final CommandSpec spec) {\n")
+        .append("    return (")
+        .append(command)
+        .append(") spec.userObject();\n  }\n}\n");
+    return out.toString();
+  }
+
+  private void arg(final StringBuilder out, final String command, final CommandModel.ArgModel arg) {
+    final TypeMirror type = arg.type();
+    final String boxed = boxedName(type);
+    if (arg.positional()) {
+      out.append("    spec.addPositional(\n        PositionalParamSpec.builder()\n");
+      if (arg.index() != null) {
+        out.append("            .index(").append(literal(arg.index())).append(")\n");
+      }
+    } else {
+      out.append("    spec.addOption(\n        OptionSpec.builder(")
+          .append(literals(arg.names()))
+          .append(")\n");
+    }
+    out.append("            .type(").append(typeLiteral(type)).append(")\n");
+    if (type.getKind().isPrimitive()) {
+      // Picocli resets arguments to their initial value before each parse
+      out.append("            .initialValue(").append(zero(type)).append(")\n");
+    }
+    if (arg.required()) {
+      out.append("            .required(true)\n");
+    }
+    if (arg.arity() != null) {
+      out.append("            .arity(").append(literal(arg.arity())).append(")\n");
+    }
+    // Picocli labels annotated fields "<field>" unless told otherwise
+    final String paramLabel = arg.paramLabel() == null ? "<" + arg.field() + ">" : arg.paramLabel();
+    out.append("            .paramLabel(").append(literal(paramLabel)).append(")\n");
+    if (arg.defaultValue() != null) {
+      out.append("            .defaultValue(").append(literal(arg.defaultValue())).append(")\n");
+    }
+    if (arg.hidden()) {
+      out.append("            .hidden(true)\n");
+    }
+    if (!arg.description().isEmpty()) {
+      out.append("            .description(").append(literals(arg.description())).append(")\n");
+    }
+    final String field = arg.field();
+    out.append("            .getter(\n")
+        .append("                new IGetter() {\n")
+        .append("                  @Override\n")
+        .append("                  @SuppressWarnings(\"unchecked\")\n")
+        .append("                  public <T> T get() {\n")
+        .append("                    return (T) (Object) command(spec).")
+        .append(field)
+        .append(";\n")
+        .append("                  }\n")
+        .append("                })\n")
+        .append("            .setter(\n")
+        .append("                new ISetter() {\n")
+        .append("                  @Override\n")
+        .append("                  @SuppressWarnings(\"unchecked\")\n")
+        .append("                  public <T> T set(final T value) {\n")
+        .append("                    final ")
+        .append(command)
+        .append(" command = command(spec);\n")
+        .append("                    final T previous = (T) (Object) command.")
+        .append(field)
+        .append(";\n")
+        .append("                    command.")
+        .append(field)
+        .append(" = (")
+        .append(boxed)
+        .append(") value;\n")
+        .append("                    return previous;\n")
+        .append("                  }\n")
+        .append("                })\n")
+        .append("            .build());\n");
+  }
+
+  /**
+   * Renders {@code <Root>Factory}: creates every command of the tree with a direct constructor
+   * call.
+   *
+   * @param root the root command
+   * @param tree the root and all commands below it
+   * @return the source code
+   */
+  /* package */ String factory(final CommandModel root, final List<CommandModel> tree) {
+    // One constructor parameter per distinct dependency type, in order of first use
+    final Map<String, String> dependencies = new LinkedHashMap<>();
+    for (final CommandModel model : tree) {
+      for (final TypeMirror parameter : model.constructorParameters()) {
+        final String typeName = types.erasure(parameter).toString();
+        dependencies.putIfAbsent(typeName, fieldName(typeName));
+      }
+    }
+
+    final String className = root.type().getSimpleName() + "Factory";
+    final StringBuilder out = new StringBuilder(4096);
+    header(out, root.type());
+    out.append("/**\n * Creates the commands of {@link ")
+        .append(root.type().getSimpleName())
+        .append("} with direct constructor calls, passing\n * the dependencies given to this")
+        .append(" factory. Other classes fall back to Picocli's default factory.\n */\n")
+        .append(GENERATED)
+        .append("public final class ")
+        .append(className)
+        .append(" implements picocli.CommandLine.IFactory {\n\n");
+    for (final Map.Entry<String, String> dependency : dependencies.entrySet()) {
+      out.append("  private final ")
+          .append(dependency.getKey())
+          .append(' ')
+          .append(dependency.getValue())
+          .append(";\n");
+    }
+
+    out.append("\n  /**\n   * Creates a factory.\n   *\n");
+    for (final String name : dependencies.values()) {
+      out.append("   * @param ").append(name).append(" passed to the commands that need it\n");
+    }
+    out.append("   */\n  public ").append(className).append('(');
+    final List<String> parameters = new ArrayList<>();
+    for (final Map.Entry<String, String> dependency : dependencies.entrySet()) {
+      parameters.add("final " + dependency.getKey() + " " + dependency.getValue());
+    }
+    out.append(String.join(", ", parameters)).append(") {\n");
+    for (final String name : dependencies.values()) {
+      out.append("    this.")
+          .append(name)
+          .append(" = java.util.Objects.requireNonNull(")
+          .append(name)
+          .append(", ")
+          .append(literal(name + " cannot be null"))
+          .append(");\n");
+    }
+    out.append("  }\n\n");
+
+    out.append(
+            "  /**\n   * Creates the command line of the whole command tree, wired to this factory.\n"
+                + "   *\n   * @return the command line\n   */\n")
+        .append("  public picocli.CommandLine commandLine() {\n    return ")
+        .append(root.type().getQualifiedName())
+        .append("Model.commandLine(this);\n  }\n\n");
+
+    out.append("  @Override\n")
+        .append("  public <K> K create(final Class<K> cls) throws Exception {\n")
+        .append("    final Object instance;\n");
+    String keyword = "if";
+    for (final CommandModel model : tree) {
+      final List<String> arguments = new ArrayList<>();
+      for (final TypeMirror parameter : model.constructorParameters()) {
+        arguments.add(dependencies.get(types.erasure(parameter).toString()));
+      }
+      out.append("    ")
+          .append(keyword)
+          .append(" (cls == ")
+          .append(model.type().getQualifiedName())
+          .append(".class) {\n      instance = new ")
+          .append(model.type().getQualifiedName())
+          .append('(')
+          .append(String.join(", ", arguments))
+          .append(");\n");
+      keyword = "} else if";
+    }
+    out.append("    } else {\n")
+        .append("      instance = picocli.CommandLine.defaultFactory().create(cls);\n")
+        .append("    }\n")
+        .append("    return cls.cast(instance);\n  }\n}\n");
+    return out.toString();
+  }
+
+  private static void header(final StringBuilder out, final TypeElement type) {
+    final PackageElement pkg = (PackageElement) type.getEnclosingElement();
+    if (!pkg.isUnnamed()) {
+      out.append("package ").append(pkg.getQualifiedName()).append(";\n\n");
+    }
+    out.append("import picocli.CommandLine.Model.CommandSpec;\n")
+        .append("import picocli.CommandLine.Model.IGetter;\n")
+        .append("import picocli.CommandLine.Model.ISetter;\n")
+        .append("import picocli.CommandLine.Model.OptionSpec;\n")
+        .append("import picocli.CommandLine.Model.PositionalParamSpec;\n\n");
+  }
+
+  private String typeLiteral(final TypeMirror type) {
+    return types.erasure(type) + ".class";
+  }
+
+  private String boxedName(final TypeMirror type) {
+    return type.getKind().isPrimitive()
+        ? types.boxedClass(types.getPrimitiveType(type.getKind())).getQualifiedName().toString()
+        : types.erasure(type).toString();
+  }
+
+  private static String zero(final TypeMirror type) {
+    return switch (type.getKind()) {
+      case BOOLEAN -> "false";
+      case CHAR -> "'\\0'";
+      case INT -> "0";
+      case LONG -> "0L";
+      case FLOAT -> "0F";
+      case DOUBLE -> "0D";
+        // byte and short have no literals of their own; the cast picks the boxed type
+      default -> "(" + type + ") 0";
+    };
+  }
+
+  private static String fieldName(final String typeName) {
+    final String simpleName = typeName.substring(typeName.lastIndexOf('.') + 1);
+    return simpleName.substring(0, 1).toLowerCase(Locale.ROOT) + simpleName.substring(1);
+  }
+
+  private static String literals(final List<String> values) {
+    final List<String> literals = new ArrayList<>(values.size());
+    for (final String value : values) {
+      literals.add(literal(value));
+    }
+    return String.join(", ", literals);
+  }
+
+  /* package */ static String literal(final String value) {
+    final StringBuilder out = new StringBuilder(value.length() + 2).append('"');
+    for (int i = 0; i < value.length(); i++) {
+      final char c = value.charAt(i);
+      switch (c) {
+        case '"' -> out.append("\\\"");
+        case '\\' -> out.append("\\\\");
+        case '\n' -> out.append("\\n");
+        case '\r' -> out.append("\\r");
+        case '\t' -> out.append("\\t");
+        default -> {
+          if (c < 0x20) {
+            out.append(String.format("\\u%04x", (int) c));
+          } else {
+            out.append(c);
+          }
+        }
+      }
+    }
+    return out.append('"').toString();
+  }
+}
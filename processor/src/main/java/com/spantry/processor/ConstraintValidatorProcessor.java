@@ -0,0 +1,329 @@
+package com.spantry.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.RecordComponentElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+
+/**
+ * Generates plain Java validators for records annotated with Jakarta Bean Validation constraints,
+ * so that validating them needs neither Hibernate Validator nor Jakarta EL at run time.
+ *
+ * <p>For every top-level record with constraints on its components it writes {@code
+ * <Record>Validator}, an {@code ObjectValidator} that checks each constraint with a direct
+ * comparison. Only constraints whose Bean Validation semantics can be reproduced exactly are
+ * generated: {@code @NotNull}, {@code @NotBlank}, {@code @NotEmpty} on strings and collections, and
+ * {@code @Min}, {@code @Max}, {@code @Positive}, {@code @PositiveOrZero} on integral types, each
+ * with a literal {@code message} (default messages are localized and interpolated by the
+ * framework). A record using anything else gets no generated validator, with a note, and is
+ * validated by Hibernate Validator at run time instead.
+ */
+@SupportedAnnotationTypes(ConstraintValidatorProcessor.CONSTRAINTS)
+public final class ConstraintValidatorProcessor extends AbstractProcessor {
+
+  /** The Jakarta built-in constraint annotations. */
+  /* package */ static final String CONSTRAINTS = "jakarta.validation.constraints.*";
+
+  private static final String CONSTRAINT_PACKAGE = "jakarta.validation.constraints.";
+  private static final String CONSTRAINT_META_ANNOTATION = "jakarta.validation.Constraint";
+  private static final String VALID = "jakarta.validation.Valid";
+  private static final String OBJECT_VALIDATOR = "com.spantry.validation.ObjectValidator";
+  private static final Set<String> INTEGRAL_TYPES =
+      Set.of(
+          "byte",
+          "short",
+          "int",
+          "long",
+          "java.lang.Byte",
+          "java.lang.Short",
+          "java.lang.Integer",
+          "java.lang.Long");
+
+  /** Default constructor used by the compiler's service loader. */
+  public ConstraintValidatorProcessor() {
+    super();
+  }
+
+  @Override
+  public SourceVersion getSupportedSourceVersion() {
+    return SourceVersion.latestSupported();
+  }
+
+  @Override
+  public boolean process(
+      final Set<? extends TypeElement> annotations, final RoundEnvironment roundEnv) {
+    final Map<String, TypeElement> records = new LinkedHashMap<>();
+    for (final TypeElement annotation : annotations) {
+      for (final Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+        final Element owner = element.getEnclosingElement();
+        if (owner != null && owner.getKind() == ElementKind.RECORD) {
+          records.putIfAbsent(
+              ((TypeElement) owner).getQualifiedName().toString(), (TypeElement) owner);
+        }
+      }
+    }
+    for (final TypeElement type : records.values()) {
+      final List<Check> checks = readChecks(type);
+      if (checks != null) {
+        write(type, checks);
+      }
+    }
+    return false; // Bean Validation reads the same annotations at run time
+  }
+
+  /** Returns the checks of a record, or null if it must fall back to runtime validation. */
+  private List<Check> readChecks(final TypeElement type) {
+    List<Check> checks = new ArrayList<>();
+    String unsupported = null;
+    if (type.getEnclosingElement().getKind() != ElementKind.PACKAGE) {
+      unsupported = "it is not a top-level record";
+    } else if (hasConstraint(type)) {
+      unsupported = "class-level constraints are not supported";
+    }
+    final Map<String, VariableElement> fields = new LinkedHashMap<>();
+    for (final VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+      fields.put(field.getSimpleName().toString(), field);
+    }
+    for (final RecordComponentElement component :
+        ElementFilter.recordComponentsIn(type.getEnclosedElements())) {
+      if (unsupported != null) {
+        break;
+      }
+      // Constraints on record components are propagated to the private field
+      final VariableElement field = fields.get(component.getSimpleName().toString());
+      for (final AnnotationMirror mirror : field.getAnnotationMirrors()) {
+        final String name = annotationName(mirror);
+        if (VALID.equals(name)) {
+          unsupported = "@Valid (cascaded validation) is not supported";
+        } else if (name.startsWith(CONSTRAINT_PACKAGE) || isConstraint(mirror)) {
+          final Check check = readCheck(component, field.asType(), mirror);
+          if (check == null) {
+            unsupported =
+                "@" + simpleName(name) + " on '" + component.getSimpleName() + "' is not supported";
+            break;
+          }
+          if (!check.alwaysValid()) {
+            checks.add(check);
+          }
+        }
+      }
+    }
+    if (unsupported != null) {
+      processingEnv
+          .getMessager()
+          .printMessage(
+              Diagnostic.Kind.NOTE,
+              "No validator generated, Hibernate Validator is used at run time: " + unsupported,
+              type);
+      checks = null;
+    }
+    return checks;
+  }
+
+  private Check readCheck(
+      final RecordComponentElement component,
+      final TypeMirror type,
+      final AnnotationMirror mirror) {
+    final Map<String, AnnotationValue> attributes = new LinkedHashMap<>();
+    for (final Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry :
+        mirror.getElementValues().entrySet()) {
+      attributes.put(entry.getKey().getSimpleName().toString(), entry.getValue());
+    }
+    final AnnotationValue messageValue = attributes.remove("message");
+    final AnnotationValue limitValue = attributes.remove("value");
+    final String message = messageValue == null ? null : (String) messageValue.getValue();
+    Check check = null;
+    // groups and payload change when a constraint applies; interpolated messages need the framework
+    if (attributes.isEmpty() && message != null && message.indexOf('{') < 0) {
+      final String typeName = typeName(type);
+      final boolean primitive = type.getKind().isPrimitive();
+      final String annotation = annotationName(mirror);
+      final String limit = limitValue == null ? null : limitValue.getValue() + "L";
+      final String failure;
+      switch (annotation) {
+        case CONSTRAINT_PACKAGE + "NotNull" -> failure = primitive ? "false" : "%s == null";
+        case CONSTRAINT_PACKAGE + "NotBlank" ->
+            failure =
+                isAssignable(type, "java.lang.CharSequence")
+                    ? "%s == null || %s.toString().trim().isEmpty()"
+                    : null;
+        case CONSTRAINT_PACKAGE + "NotEmpty" -> {
+          if (isAssignable(type, "java.lang.CharSequence")) {
+            failure = "%s == null || %s.length() == 0";
+          } else if (isAssignable(type, "java.util.Collection")
+              || isAssignable(type, "java.util.Map")) {
+            failure = "%s == null || %s.isEmpty()";
+          } else {
+            failure = null;
+          }
+        }
+        case CONSTRAINT_PACKAGE + "Min" -> failure = integral(typeName, "%s < " + limit);
+        case CONSTRAINT_PACKAGE + "Max" -> failure = integral(typeName, "%s > " + limit);
+        case CONSTRAINT_PACKAGE + "Positive" -> failure = integral(typeName, "%s <= 0");
+        case CONSTRAINT_PACKAGE + "PositiveOrZero" -> failure = integral(typeName, "%s < 0");
+        default -> failure = null;
+      }
+      if (failure != null) {
+        final String accessor = "value." + component.getSimpleName() + "()";
+        check = new Check(failure.replace("%s", accessor), message);
+      }
+    }
+    return check;
+  }
+
+  /** Integral bounds hold for null values, as in Bean Validation. */
+  private static String integral(final String typeName, final String failure) {
+    final String check;
+    if (!INTEGRAL_TYPES.contains(typeName)) {
+      check = null;
+    } else if (typeName.indexOf('.') < 0) {
+      check = failure;
+    } else {
+      check = "%s != null && " + failure;
+    }
+    return check;
+  }
+
+  /** The qualified name of a type, without the type annotations it may carry. */
+  private static String typeName(final TypeMirror type) {
+    final String name;
+    if (type.getKind().isPrimitive()) {
+      name = type.getKind().name().toLowerCase(Locale.ROOT);
+    } else if (type.getKind() == TypeKind.DECLARED) {
+      name = ((TypeElement) ((DeclaredType) type).asElement()).getQualifiedName().toString();
+    } else {
+      name = type.getKind().name();
+    }
+    return name;
+  }
+
+  private boolean isAssignable(final TypeMirror type, final String supertype) {
+    final TypeElement element = processingEnv.getElementUtils().getTypeElement(supertype);
+    return element != null
+        && type.getKind() == TypeKind.DECLARED
+        && processingEnv
+            .getTypeUtils()
+            .isAssignable(
+                processingEnv.getTypeUtils().erasure(type),
+                processingEnv.getTypeUtils().erasure(element.asType()));
+  }
+
+  private static boolean hasConstraint(final Element element) {
+    boolean found = false;
+    for (final AnnotationMirror mirror : element.getAnnotationMirrors()) {
+      found = found || isConstraint(mirror);
+    }
+    return found;
+  }
+
+  /** Whether an annotation is a (custom) constraint, i.e. meta-annotated with @Constraint. */
+  private static boolean isConstraint(final AnnotationMirror mirror) {
+    boolean constraint = false;
+    for (final AnnotationMirror meta :
+        mirror.getAnnotationType().asElement().getAnnotationMirrors()) {
+      constraint = constraint || CONSTRAINT_META_ANNOTATION.equals(annotationName(meta));
+    }
+    return constraint;
+  }
+
+  private void write(final TypeElement type, final List<Check> checks) {
+    final String simpleName = type.getSimpleName().toString();
+    final String className = simpleName + "Validator";
+    final PackageElement pkg = (PackageElement) type.getEnclosingElement();
+    final StringBuilder out = new StringBuilder(2048);
+    if (!pkg.isUnnamed()) {
+      out.append("package ").append(pkg.getQualifiedName()).append(";\n\n");
+    }
+    out.append("/**\n * Validates {@link ")
+        .append(simpleName)
+        .append("} against its constraints with plain comparisons, generated from its\n")
+        .append(" * annotations. Reports the same messages as Bean Validation.\n */\n")
+        .append("@javax.annotation.processing.Generated(\"")
+        .append(ConstraintValidatorProcessor.class.getName())
+        .append("\")\npublic final class ")
+        .append(className)
+        .append(" implements ")
+        .append(OBJECT_VALIDATOR)
+        .append('<')
+        .append(simpleName)
+        .append("> {\n\n")
+        .append("  /** Creates the validator. */\n  public ")
+        .append(className)
+        .append("() {\n    // Stateless\n  }\n\n")
+        .append("  @Override\n  public java.util.List<String> validate(final ")
+        .append(simpleName)
+        .append(" value) {\n")
+        .append(
+            "    java.util.Objects.requireNonNull(value, \"Value to validate cannot be null\");\n")
+        .append("    final java.util.List<String> violations = new java.util.ArrayList<>(0);\n");
+    for (final Check check : checks) {
+      out.append("    if (")
+          .append(check.failure())
+          .append(") {\n      violations.add(")
+          .append(CommandSourceWriter.literal(check.message()))
+          .append(");\n    }\n");
+    }
+    out.append("    return violations;\n  }\n}\n");
+
+    final String qualifiedName =
+        pkg.isUnnamed() ? className : pkg.getQualifiedName() + "." + className;
+    try {
+      final JavaFileObject file = processingEnv.getFiler().createSourceFile(qualifiedName, type);
+      try (Writer writer = file.openWriter()) {
+        writer.write(out.toString());
+      }
+    } catch (IOException e) {
+      processingEnv
+          .getMessager()
+          .printMessage(
+              Diagnostic.Kind.ERROR,
+              "Could not write " + qualifiedName + ": " + e.getMessage(),
+              type);
+    }
+  }
+
+  private static String annotationName(final AnnotationMirror mirror) {
+    return ((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().toString();
+  }
+
+  private static String simpleName(final String qualifiedName) {
+    return qualifiedName.substring(qualifiedName.lastIndexOf('.') + 1);
+  }
+
+  /**
+   * One constraint check.
+   *
+   * @param failure Java expression that is true when the constraint is violated
+   * @param message the violation message
+   */
+  private record Check(String failure, String message) {
+
+    /** Whether the constraint can never be violated (e.g. {@code @NotNull} on a primitive). */
+    /* package */ boolean alwaysValid() {
+      return "false".equals(failure);
+    }
+  }
+}
@@ -0,0 +1,189 @@
+package com.spantry.processor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import picocli.CommandLine;
+
+/** Compiles sample commands with the processor and runs the generated model. */
+class CommandModelProcessorTest {
+
+  private static final String ROOT =
+      """
+      package sample;
+
+      import picocli.CommandLine.Command;
+      import picocli.CommandLine.Model.CommandSpec;
+      import picocli.CommandLine.Spec;
+
+      @Command(name = "tool", mixinStandardHelpOptions = true, version = "1.0",
+          subcommands = Greet.class)
+      public class Tool implements Runnable {
+        @Spec CommandSpec spec;
+
+        @Override
+        public void run() {
+          Greet.OUT.append("usage:").append(spec.name());
+        }
+      }
+      """;
+
+  private static final String GREET =
+      """
+      package sample;
+
+      import java.util.concurrent.Callable;
+      import picocli.CommandLine.Command;
+      import picocli.CommandLine.Option;
+      import picocli.CommandLine.Parameters;
+
+      @Command(name = "greet", aliases = "hi", description = "Greets someone.")
+      public class Greet implements Callable<Integer> {
+        public static final StringBuilder OUT = new StringBuilder();
+
+        private final StringBuilder greeting;
+
+        @Parameters(index = "0", paramLabel = "WHO") String who;
+        @Option(names = {"-n", "--times"}, defaultValue = "1") int times;
+        @Option(names = "--loud") boolean loud;
+
+        public Greet(final StringBuilder greeting) {
+          this.greeting = greeting;
+        }
+
+        @Override
+        public Integer call() {
+          for (int i = 0; i < times; i++) {
+            OUT.append(greeting).append(' ').append(loud ? who.toUpperCase() : who).append(';');
+          }
+          return times;
+        }
+      }
+      """;
+
+  @TempDir Path tempDir;
+
+  @Test
+  void generatedModelShouldBindArgumentsAndInjectDependencies() throws Exception {
+    final String diagnostics = compile(Map.of("Tool", ROOT, "Greet", GREET));
+    assertEquals("", diagnostics);
+
+    try (URLClassLoader loader = load()) {
+      final Class<?> factoryClass = loader.loadClass("sample.ToolFactory");
+      final Object factory =
+          factoryClass.getConstructor(StringBuilder.class).newInstance(new StringBuilder("Hello"));
+      final StringBuilder out = output(loader);
+
+      final int exitCode = commandLine(factoryClass, factory).execute("hi", "-n", "2", "Ann");
+      assertEquals(2, exitCode);
+      assertEquals("Hello Ann;Hello Ann;", out.toString());
+
+      out.setLength(0);
+      assertEquals(1, commandLine(factoryClass, factory).execute("greet", "--loud", "Bo"));
+      assertEquals("Hello BO;", out.toString());
+
+      out.setLength(0);
+      assertEquals(0, commandLine(factoryClass, factory).execute());
+      assertEquals("usage:tool", out.toString());
+    }
+  }
+
+  @Test
+  void generatedModelShouldDescribeUsage() throws Exception {
+    assertEquals("", compile(Map.of("Tool", ROOT, "Greet", GREET)));
+
+    try (URLClassLoader loader = load()) {
+      final Class<?> factoryClass = loader.loadClass("sample.ToolFactory");
+      final Object factory =
+          factoryClass.getConstructor(StringBuilder.class).newInstance(new StringBuilder());
+      final CommandLine commandLine = commandLine(factoryClass, factory);
+
+      assertTrue(commandLine.getSubcommands().containsKey("hi"));
+      final String usage = commandLine.getSubcommands().get("greet").getUsageMessage();
+      assertTrue(usage.contains("Greets someone."), usage);
+      assertTrue(usage.contains("WHO"), usage);
+      assertTrue(commandLine.getUsageMessage().contains("--version"));
+    }
+  }
+
+  @Test
+  void privateBoundFieldsShouldBeRejected() throws IOException {
+    final String diagnostics =
+        compile(
+            Map.of(
+                "Greet",
+                GREET.replace(
+                    "@Option(names = \"--loud\") boolean",
+                    "@Option(names = \"--loud\") private boolean")));
+
+    assertTrue(diagnostics.contains("Bound fields must be non-private"), diagnostics);
+    assertFalse(Files.exists(tempDir.resolve("classes/sample/GreetModel.class")));
+  }
+
+  private String compile(final Map<String, String> sources) throws IOException {
+    final Path sourceDir = Files.createDirectories(tempDir.resolve("src/sample"));
+    final Path classDir = Files.createDirectories(tempDir.resolve("classes"));
+    final List<Path> files = new ArrayList<>();
+    for (final Map.Entry<String, String> source : sources.entrySet()) {
+      files.add(Files.writeString(sourceDir.resolve(source.getKey() + ".java"), source.getValue()));
+    }
+
+    final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    final DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+    try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, null)) {
+      final Iterable<? extends JavaFileObject> units =
+          fileManager.getJavaFileObjectsFromPaths(files);
+      final List<String> options =
+          List.of(
+              "-Xlint:cast",
+              "-classpath",
+              System.getProperty("java.class.path"),
+              "-d",
+              classDir.toString(),
+              "-s",
+              classDir.toString());
+      final JavaCompiler.CompilationTask task =
+          compiler.getTask(null, fileManager, diagnostics, options, null, units);
+      task.setProcessors(List.of(new CommandModelProcessor()));
+      task.call();
+    }
+    final StringBuilder errors = new StringBuilder();
+    for (final Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+      errors.append(diagnostic.getMessage(Locale.ROOT)).append('\n');
+    }
+    return errors.toString();
+  }
+
+  private URLClassLoader load() throws IOException {
+    return new URLClassLoader(
+        new URL[] {tempDir.resolve("classes").toUri().toURL()}, getClass().getClassLoader());
+  }
+
+  private static StringBuilder output(final ClassLoader loader)
+      throws ReflectiveOperationException {
+    return (StringBuilder) loader.loadClass("sample.Greet").getField("OUT").get(null);
+  }
+
+  private static CommandLine commandLine(final Class<?> factoryClass, final Object factory)
+      throws ReflectiveOperationException {
+    return (CommandLine) factoryClass.getMethod("commandLine").invoke(factory);
+  }
+}
@@ -0,0 +1,151 @@
+package com.spantry.processor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Compiles sample records with the processor and inspects the generated validators. */
+class ConstraintValidatorProcessorTest {
+
+  // Minimal stand-ins for the annotations and the runtime interface the generated code uses
+  private static final Map<String, String> SUPPORT =
+      Map.of(
+          "jakarta/validation/constraints/NotBlank",
+          annotation("jakarta.validation.constraints", "NotBlank", ""),
+          "jakarta/validation/constraints/Min",
+          annotation("jakarta.validation.constraints", "Min", "long value();"),
+          "jakarta/validation/constraints/Size",
+          annotation("jakarta.validation.constraints", "Size", "int min() default 0;"),
+          "com/spantry/validation/ObjectValidator",
+          """
+          package com.spantry.validation;
+
+          public interface ObjectValidator<T> {
+            java.util.List<String> validate(T value);
+          }
+          """);
+
+  @TempDir Path tempDir;
+
+  private static String annotation(final String pkg, final String name, final String members) {
+    return "package "
+        + pkg
+        + ";\n\n@java.lang.annotation.Target({java.lang.annotation.ElementType.FIELD,"
+        + " java.lang.annotation.ElementType.METHOD, java.lang.annotation.ElementType.PARAMETER})\n"
+        + "public @interface "
+        + name
+        + " {\n  String message() default \"{"
+        + name
+        + "}\";\n  Class<?>[] groups() default {};\n  "
+        + members
+        + "\n}\n";
+  }
+
+  @Test
+  void supportedConstraintsShouldGenerateValidator() throws IOException {
+    final String diagnostics =
+        compile(
+            """
+            package sample;
+
+            import jakarta.validation.constraints.Min;
+            import jakarta.validation.constraints.NotBlank;
+
+            public record Lot(
+                @NotBlank(message = "Name \\"missing\\".") String name,
+                @Min(value = 2, message = "Too few.") Integer count) {}
+            """);
+
+    assertEquals("", diagnostics);
+    final String source = Files.readString(tempDir.resolve("classes/sample/LotValidator.java"));
+    assertTrue(source.contains("value.name() == null || value.name().toString().trim()"), source);
+    assertTrue(source.contains("violations.add(\"Name \\\"missing\\\".\")"), source);
+    assertTrue(source.contains("value.count() != null && value.count() < 2L"), source);
+  }
+
+  @Test
+  void unsupportedConstraintsShouldFallBackToRuntimeValidation() throws IOException {
+    final String diagnostics =
+        compile(
+            """
+            package sample;
+
+            import jakarta.validation.constraints.NotBlank;
+            import jakarta.validation.constraints.Size;
+
+            public record Lot(
+                @NotBlank(message = "Name missing.") String name,
+                @Size(min = 2, message = "Too short.") String code) {}
+            """);
+
+    assertTrue(diagnostics.contains("Hibernate Validator is used at run time"), diagnostics);
+    assertTrue(diagnostics.contains("@Size on 'code'"), diagnostics);
+    assertFalse(Files.exists(tempDir.resolve("classes/sample/LotValidator.java")));
+  }
+
+  @Test
+  void interpolatedMessagesShouldFallBackToRuntimeValidation() throws IOException {
+    final String diagnostics =
+        compile(
+            """
+            package sample;
+
+            import jakarta.validation.constraints.NotBlank;
+
+            public record Lot(@NotBlank String name) {}
+            """);
+
+    assertTrue(diagnostics.contains("@NotBlank on 'name'"), diagnostics);
+    assertFalse(Files.exists(tempDir.resolve("classes/sample/LotValidator.java")));
+  }
+
+  private String compile(final String record) throws IOException {
+    final Path sourceDir = tempDir.resolve("src");
+    final Path classDir = Files.createDirectories(tempDir.resolve("classes"));
+    final List<Path> files = new ArrayList<>();
+    for (final Map.Entry<String, String> support : SUPPORT.entrySet()) {
+      final Path file = sourceDir.resolve(support.getKey() + ".java");
+      Files.createDirectories(file.getParent());
+      files.add(Files.writeString(file, support.getValue()));
+    }
+    Files.createDirectories(sourceDir.resolve("sample"));
+    files.add(Files.writeString(sourceDir.resolve("sample/Lot.java"), record));
+
+    final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    final DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+    try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, null)) {
+      final List<String> options = List.of("-d", classDir.toString(), "-s", classDir.toString());
+      final JavaCompiler.CompilationTask task =
+          compiler.getTask(
+              null,
+              fileManager,
+              diagnostics,
+              options,
+              null,
+              fileManager.getJavaFileObjectsFromPaths(files));
+      task.setProcessors(List.of(new ConstraintValidatorProcessor()));
+      task.call();
+    }
+    final StringBuilder messages = new StringBuilder();
+    for (final Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+      messages.append(diagnostic.getMessage(Locale.ROOT)).append('\n');
+    }
+    return messages.toString();
+  }
+}
@@ -3,3 +3,6 @@ plugins {
 }
 
 rootProject.name = "spantry" 
+
+// Compile-time code generation for the CLI (Picocli command model and factory)
+include("processor")
@@ -47,8 +47,8 @@ class ItemAddE2eTest extends CliTestSupport {
         output.exitCode(),
         "CLI command should exit successfully. (Exit Code: " + output.exitCode() + ")");
     assertTrue(
-        output.stdout().contains("Successfully added item:"),
-        "Success message should be present in standard output.\nStdout:" + output.stdout());
+        output.stderr().contains("Successfully added item:"),
+        "Success message should be logged to standard error.\nStderr:" + output.stderr());
   }
 
   /* // Temporarily commented out for debugging compilation issue
@@ -0,0 +1,73 @@
+package com.spantry.benchmark;
+
+import com.spantry.inventory.domain.InventoryItem;
+import com.spantry.inventory.domain.Location;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/** Test data shared by the benchmarks. */
+public final class BenchmarkItems {
+
+  private static final String[] NAMES = {
+    "Milk", "Eggs", "Butter", "Rice", "Pasta", "Flour", "Sugar", "Coffee", "Tea", "Beans"
+  };
+  private static final LocalDate FIRST_EXPIRY = LocalDate.of(2025, 1, 1);
+
+  private BenchmarkItems() {
+    // Static helpers only
+  }
+
+  /**
+   * Creates unsaved items with a realistic mix of names, locations and dates, the same for a given
+   * count on every run.
+   *
+   * @param count the number of items
+   * @return the items, without IDs
+   */
+  public static List<InventoryItem> generate(final int count) {
+    final Random random = new Random(count);
+    final Location[] locations = Location.values();
+    final List<InventoryItem> items = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      items.add(
+          new InventoryItem(
+              null,
+              NAMES[random.nextInt(NAMES.length)] + " " + random.nextInt(1000),
+              1 + random.nextInt(20),
+              locations[random.nextInt(locations.length)],
+              random.nextInt(10) == 0 ? null : FIRST_EXPIRY.plusDays(random.nextInt(730))));
+    }
+    return items;
+  }
+
+  /**
+   * Creates a scratch directory for a repository's data files.
+   *
+   * @return the new directory
+   * @throws IOException if it cannot be created
+   */
+  public static Path createDirectory() throws IOException {
+    return Files.createTempDirectory("spantry-jmh");
+  }
+
+  /**
+   * Deletes a scratch directory and everything in it.
+   *
+   * @param directory the directory
+   * @throws IOException if something cannot be deleted
+   */
+  public static void deleteDirectory(final Path directory) throws IOException {
+    try (Stream<Path> paths = Files.walk(directory)) {
+      for (final Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+        Files.delete(path);
+      }
+    }
+  }
+}
@@ -0,0 +1,71 @@
+package com.spantry.cli.render;
+
+import com.spantry.benchmark.BenchmarkItems;
+import com.spantry.inventory.domain.InventoryItem;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Rendering an {@code item list} result in each output format, to a stream that discards the bytes
+ * so that only formatting and encoding are measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RenderBenchmark {
+
+  /** Output format of the listing. */
+  @Param({"TABLE", "PLAIN", "CSV", "NDJSON"})
+  public OutputFormat format;
+
+  /** Number of items listed. */
+  @Param({"10", "1000", "100000"})
+  public int size;
+
+  private List<InventoryItem> items;
+
+  /** Creates the items, with IDs like stored ones. */
+  @Setup(Level.Trial)
+  public void setUp() {
+    items = new ArrayList<>(size);
+    for (final InventoryItem item : BenchmarkItems.generate(size)) {
+      items.add(
+          new InventoryItem(
+              UUID.randomUUID().toString(),
+              item.name(),
+              item.quantity(),
+              item.location(),
+              item.expirationDate(),
+              1));
+    }
+  }
+
+  /**
+   * Renders the listing.
+   *
+   * @throws IOException never, the target discards everything
+   */
+  @Benchmark
+  public void render() throws IOException {
+    format.render(items, OutputStream.nullOutputStream());
+  }
+}
@@ -0,0 +1,127 @@
+package com.spantry.inventory.repository;
+
+import com.spantry.benchmark.BenchmarkItems;
+import com.spantry.inventory.domain.InventoryItem;
+import com.spantry.inventory.domain.Location;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Single operations of {@link InMemoryInventoryRepository} at inventory sizes from ten to a million
+ * items. Writes include appending to the journal, and now and then folding it into a snapshot, as
+ * they do in the application.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InMemoryInventoryRepositoryBenchmark {
+
+  /** Number of items in the repository. */
+  @Param({"10", "1000", "100000", "1000000"})
+  public int size;
+
+  private Path directory;
+  private InMemoryInventoryRepository repository;
+  private List<InventoryItem> items;
+  private int next;
+
+  /**
+   * Fills a repository in a scratch directory.
+   *
+   * @throws IOException if the directory cannot be created
+   */
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    directory = BenchmarkItems.createDirectory();
+    repository = new InMemoryInventoryRepository(directory.resolve("e2e-inventory.dat"));
+    items = repository.saveAll(BenchmarkItems.generate(size));
+  }
+
+  /**
+   * Deletes the scratch directory.
+   *
+   * @throws IOException if it cannot be deleted
+   */
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    BenchmarkItems.deleteDirectory(directory);
+  }
+
+  /** Cycles through the stored items, so lookups do not always hit the same cache lines. */
+  private InventoryItem nextItem() {
+    next = next + 1 == size ? 0 : next + 1;
+    return items.get(next);
+  }
+
+  /**
+   * Replaces a stored item.
+   *
+   * @return the stored item
+   */
+  @Benchmark
+  public InventoryItem save() {
+    return repository.save(nextItem());
+  }
+
+  /**
+   * Looks an item up by ID.
+   *
+   * @return the item
+   */
+  @Benchmark
+  public Optional<InventoryItem> findById() {
+    return repository.findById(nextItem().itemId());
+  }
+
+  /**
+   * Copies out every item.
+   *
+   * @return the items
+   */
+  @Benchmark
+  public List<InventoryItem> findAll() {
+    return repository.findAll();
+  }
+
+  /**
+   * Lists the items of one location, about a sixth of the inventory.
+   *
+   * @return the items
+   */
+  @Benchmark
+  public List<InventoryItem> findByLocation() {
+    return repository.findByLocation(Location.FRIDGE);
+  }
+
+  /**
+   * Deletes an item and stores it again, so the inventory keeps its size; subtract {@link #save()}
+   * for the cost of the deletion alone.
+   *
+   * @return the restored item
+   */
+  @Benchmark
+  public InventoryItem deleteById() {
+    final InventoryItem item = nextItem();
+    repository.deleteById(item.itemId());
+    return repository.save(item);
+  }
+}
@@ -0,0 +1,80 @@
+package com.spantry.inventory.repository;
+
+import com.spantry.benchmark.BenchmarkItems;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Reading and writing the snapshot file ({@code e2e-inventory.dat}): what opening the inventory and
+ * compacting the journal cost, at inventory sizes from ten to a million items.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SnapshotBenchmark {
+
+  /** Number of items in the snapshot. */
+  @Param({"10", "1000", "100000", "1000000"})
+  public int size;
+
+  private Path directory;
+  private Path dataFile;
+  private InMemoryInventoryRepository repository;
+
+  /**
+   * Writes a snapshot of the given size with an empty journal.
+   *
+   * @throws IOException if the directory cannot be created
+   */
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    directory = BenchmarkItems.createDirectory();
+    dataFile = directory.resolve("e2e-inventory.dat");
+    repository = new InMemoryInventoryRepository(dataFile);
+    repository.saveAll(BenchmarkItems.generate(size));
+    saveSnapshot();
+  }
+
+  /**
+   * Deletes the scratch directory.
+   *
+   * @throws IOException if it cannot be deleted
+   */
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    BenchmarkItems.deleteDirectory(directory);
+  }
+
+  /**
+   * Opens the inventory: deserializes the snapshot and builds the name index and aggregates.
+   *
+   * @return the loaded repository
+   */
+  @Benchmark
+  public InMemoryInventoryRepository load() {
+    return new InMemoryInventoryRepository(dataFile);
+  }
+
+  /** Serializes the whole inventory to a new snapshot and moves it into place. */
+  @Benchmark
+  public void saveSnapshot() {
+    repository.saveInventoryToFile();
+  }
+}
@@ -0,0 +1,70 @@
+package com.spantry.validation;
+
+import com.spantry.inventory.domain.Location;
+import com.spantry.inventory.service.dto.AddItemCommandDto;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The validation {@code item add} runs on its input, with the generated validator and with the
+ * Hibernate Validator fallback. Each mode runs in its own fork, since the validator of a type is
+ * chosen once per JVM.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AddItemValidationBenchmark {
+
+  /** Validator implementation: {@code generated} or {@code runtime} (Hibernate Validator). */
+  @Param({"generated", "runtime"})
+  public String mode;
+
+  private ObjectValidator<AddItemCommandDto> validator;
+  private AddItemCommandDto valid;
+  private AddItemCommandDto invalid;
+
+  /** Selects the validator for this fork. */
+  @Setup(Level.Trial)
+  public void setUp() {
+    System.setProperty(Validators.MODE_PROPERTY, mode);
+    validator = Validators.forType(AddItemCommandDto.class);
+    valid = new AddItemCommandDto("Milk", 2, Location.FRIDGE, LocalDate.of(2025, 1, 1));
+    invalid = new AddItemCommandDto(" ", 0, null, null);
+  }
+
+  /**
+   * Validates a command that satisfies every constraint.
+   *
+   * @return the violations (none)
+   */
+  @Benchmark
+  public List<String> validCommand() {
+    return validator.validate(valid);
+  }
+
+  /**
+   * Validates a command that violates every constraint.
+   *
+   * @return the violations
+   */
+  @Benchmark
+  public List<String> invalidCommand() {
+    return validator.validate(invalid);
+  }
+}
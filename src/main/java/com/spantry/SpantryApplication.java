@@ -1,16 +1,25 @@
 package com.spantry;
 
-import com.spantry.cli.SpantryCliApp;
-import com.spantry.exception.DependencyCreationException;
+import com.spantry.cli.RecordedExecutionStrategy;
+import com.spantry.cli.SpantryCliAppFactory;
+import com.spantry.cli.command.BatchCommand;
+import com.spantry.cli.daemon.DaemonClient;
+import com.spantry.inventory.repository.CachingInventoryRepository;
+import com.spantry.inventory.repository.EventSourcedInventoryRepository;
 import com.spantry.inventory.repository.InMemoryInventoryRepository;
 import com.spantry.inventory.repository.InventoryRepository;
+import com.spantry.inventory.repository.LazyInventoryRepository;
+import com.spantry.inventory.repository.MeteredInventoryRepository;
+import com.spantry.inventory.repository.RecordedInventoryRepository;
 import com.spantry.inventory.service.InventoryService;
 import com.spantry.inventory.service.InventoryServiceImpl;
-import java.lang.reflect.Constructor;
-import java.lang.reflect.InvocationTargetException;
-import java.util.Objects;
-import picocli.CommandLine;
-import picocli.CommandLine.IFactory;
+import com.spantry.inventory.service.MeteredInventoryService;
+import com.spantry.metrics.MetricsRegistry;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.OptionalInt;
+import java.util.function.Supplier;
 
 /**
  * Main entry point for the Spantry application. Sets up dependencies and launches the command-line
@@ -29,72 +38,102 @@ public final class SpantryApplication {
    * @param args Command line arguments.
    */
   public static void main(final String[] args) {
-    // --- Dependency Injection Setup (Composition Root) ---
-    final InventoryRepository repository = new InMemoryInventoryRepository();
-    final InventoryService inventoryService = new InventoryServiceImpl(repository);
+    final int exitCode;
+    if (opensInventoryLocally(args) && isDaemonRunning()) {
+      // Two processes writing one snapshot and journal would overwrite each other's changes
+      System.err.println(
+          "Error: A Spantry daemon on "
+              + DaemonClient.socketPath()
+              + " owns the inventory; stop it with `spantry daemon --stop` to run "
+              + String.join(" ", args));
+      exitCode = 1;
+    } else {
+      // A running daemon already holds a warm inventory: hand the command over to it
+      final OptionalInt forwarded =
+          mustRunLocally(args)
+              ? OptionalInt.empty()
+              : DaemonClient.forward(DaemonClient.socketPath(), args);
+      exitCode = forwarded.isPresent() ? forwarded.getAsInt() : runLocally(args);
+    }
+    System.exit(exitCode);
+  }
 
-    // Create the factory with the service instance
-    final IFactory factory = new DependencyFactory(inventoryService);
+  /**
+   * Runs the command in this process.
+   *
+   * @param args Command line arguments.
+   * @return the exit code
+   */
+  private static int runLocally(final String... args) {
+    // --- Dependency Injection Setup (Composition Root) ---
+    // The inventory is only loaded once a command actually touches it (not for --help, say)
+    // The event store keeps the history for `item list --as-of`; the snapshot store is the default
+    final Supplier<InventoryRepository> store =
+        EventSourcedInventoryRepository.enabled()
+            ? EventSourcedInventoryRepository::new
+            : InMemoryInventoryRepository::new;
+    // Flight recorder events around the store itself; free while nothing is recording
+    final InventoryRepository inventory =
+        new RecordedInventoryRepository(new LazyInventoryRepository(store));
+    // Only worth it in front of a slow backend, so the read cache is opt-in
+    final Integer cacheSize = Integer.getInteger(CachingInventoryRepository.SIZE_PROPERTY);
+    final InventoryRepository cached =
+        cacheSize == null ? inventory : new CachingInventoryRepository(inventory, cacheSize);
+    // Operation metrics for `spantry metrics`, sampled so that recording stays cheap
+    final MetricsRegistry metrics = MetricsRegistry.global();
+    final InventoryRepository repository =
+        MetricsRegistry.enabled() ? new MeteredInventoryRepository(cached, metrics) : cached;
+    final InventoryService service = new InventoryServiceImpl(repository);
+    final InventoryService inventoryService =
+        MetricsRegistry.enabled() ? new MeteredInventoryService(service, metrics) : service;
 
-    // Instantiate the root command using the default constructor (factory handles subcommands)
-    final SpantryCliApp cliApp = new SpantryCliApp();
+    // The generated factory passes the service to the commands that need it; the command model
+    // is generated at compile time as well, so no annotations are scanned here
+    final SpantryCliAppFactory factory = new SpantryCliAppFactory(inventoryService);
     // ----------------------------------------------------
 
-    // Execute the CLI application using PicoCLI with the custom factory
-    final CommandLine cmd = new CommandLine(cliApp, factory);
-    final int exitCode = cmd.execute(args);
-    System.exit(exitCode);
+    return RecordedExecutionStrategy.install(factory.commandLine()).execute(args);
   }
 
   /**
-   * Picocli Factory for Dependency Injection. Injects InventoryService into command constructors.
+   * Whether the command must not be forwarded: the daemon itself, load runs, which would otherwise
+   * compete with the daemon's clients for its CPU and use a temporary inventory anyway, commands to
+   * be flight-recorded, whose recording should show this process start up, and the commands that
+   * {@linkplain #opensInventoryLocally open the user's inventory in this process}.
    */
-  private static class DependencyFactory implements IFactory {
-    private final InventoryService inventoryService;
+  private static boolean mustRunLocally(final String... args) {
+    return args.length > 0
+        && ("daemon".equals(args[0])
+            || "bench".equals(args[0])
+            || args[0].startsWith(RecordedExecutionStrategy.JFR_OPTION)
+            || opensInventoryLocally(args));
+  }
 
-    /**
-     * Creates a factory that injects the provided service.
-     *
-     * @param inventoryService The service instance to inject. Must not be null.
-     */
-    /* package */ DependencyFactory(final InventoryService inventoryService) {
-      this.inventoryService =
-          Objects.requireNonNull(inventoryService, "inventoryService cannot be null");
-    }
+  /**
+   * Whether the command runs in this process on the user's inventory although a daemon could hold
+   * it: the HTTP server, commands that need this process's terminal or standard input (the
+   * interactive shell, a batch script read from stdin), and flight-recorded commands other than
+   * load runs. They must not run next to a daemon, which writes the same files.
+   */
+  private static boolean opensInventoryLocally(final String... args) {
+    final boolean recorded =
+        args.length > 0 && args[0].startsWith(RecordedExecutionStrategy.JFR_OPTION);
+    // The recording file is a separate argument unless given as --jfr=<file>
+    final int commandIndex =
+        recorded ? (RecordedExecutionStrategy.JFR_OPTION.equals(args[0]) ? 2 : 1) : 0;
+    final String command = commandIndex < args.length ? args[commandIndex] : "";
+    return !"bench".equals(command)
+        && (recorded
+            || "shell".equals(command)
+            || "serve".equals(command)
+            || "batch".equals(command) && Arrays.asList(args).contains(BatchCommand.STDIN));
+  }
 
-    @Override
-    @SuppressWarnings("PMD.AvoidCatchingGenericException")
-    public <K> K create(final Class<K> cls) {
-      K instance;
-      try {
-        // Try to find a constructor that accepts InventoryService
-        final Constructor<K> constructor = cls.getDeclaredConstructor(InventoryService.class);
-        instance = constructor.newInstance(inventoryService);
-      } catch (NoSuchMethodException e) {
-        // If no such constructor, fallback to default factory (zero-arg constructor)
-        try {
-          // Attempt to create using the default constructor
-          instance = CommandLine.defaultFactory().create(cls);
-        } catch (Exception fallbackEx) {
-          // Wrap both exceptions using specific exception
-          final DependencyCreationException exception =
-              new DependencyCreationException(
-                  "Failed to create instance for: "
-                      + cls.getName()
-                      + ". No constructor(InventoryService) found, and default constructor failed.",
-                  fallbackEx);
-          exception.addSuppressed(e); // Add the original exception as suppressed
-          throw exception; // Chain both exceptions
-        }
-      } catch (InstantiationException
-          | IllegalAccessException
-          | InvocationTargetException
-          | SecurityException ex) {
-        // Wrap specific reflection exceptions using specific exception
-        throw new DependencyCreationException(
-            "Failed to create instance for: " + cls.getName(), ex);
-      }
-      return instance; // Single exit point
-    }
+  /** Whether a daemon answers on the socket, unless the daemon is disabled for this process. */
+  private static boolean isDaemonRunning() {
+    final Path socketPath = DaemonClient.socketPath();
+    return System.getenv(DaemonClient.NO_DAEMON_ENV) == null
+        && Files.exists(socketPath)
+        && DaemonClient.isRunning(socketPath);
   }
 }
@@ -0,0 +1,113 @@
+package com.spantry.bench;
+
+import com.spantry.inventory.domain.InventoryItem;
+import com.spantry.inventory.domain.Location;
+import com.spantry.inventory.io.ItemRecordFormat;
+import com.spantry.inventory.service.dto.AddItemCommandDto;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Load target sending requests to the HTTP API of {@code spantry serve}. The client keeps its
+ * connections alive and shares them among the workers, as a long-running integration would.
+ */
+/* package */ final class HttpLoadTarget implements LoadTarget {
+
+  private static final Duration TIMEOUT = Duration.ofSeconds(30);
+  private static final int OK = 200;
+  private static final int CREATED = 201;
+  private static final int NO_CONTENT = 204;
+
+  private final HttpClient client;
+  private final URI baseUri;
+  private final URI items;
+
+  /* package */ HttpLoadTarget(final URI baseUri) {
+    this.baseUri = Objects.requireNonNull(baseUri, "baseUri cannot be null");
+    this.client =
+        HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(TIMEOUT)
+            .build();
+    this.items = baseUri.resolve("items");
+  }
+
+  @Override
+  public List<String> addAll(final List<AddItemCommandDto> commands) {
+    final List<String> ids = new ArrayList<>(commands.size());
+    for (final AddItemCommandDto command : commands) {
+      ids.add(add(command));
+    }
+    return ids;
+  }
+
+  @Override
+  public String add(final AddItemCommandDto command) {
+    final HttpResponse<?> response =
+        send(
+            HttpRequest.newBuilder(items)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(toJson(command))),
+            CREATED);
+    final String location =
+        response
+            .headers()
+            .firstValue("Location")
+            .orElseThrow(() -> new IllegalStateException("Created item has no Location"));
+    return location.substring(location.lastIndexOf('/') + 1);
+  }
+
+  @Override
+  public void remove(final String itemId) {
+    send(HttpRequest.newBuilder(baseUri.resolve("items/" + itemId)).DELETE(), NO_CONTENT);
+  }
+
+  @Override
+  public void list() {
+    send(HttpRequest.newBuilder(items).GET(), OK);
+  }
+
+  @Override
+  public void listLocation(final Location location) {
+    send(HttpRequest.newBuilder(URI.create(items + "?location=" + location.name())).GET(), OK);
+  }
+
+  private HttpResponse<?> send(final HttpRequest.Builder request, final int expectedStatus) {
+    try {
+      final HttpResponse<String> response =
+          client.send(request.timeout(TIMEOUT).build(), HttpResponse.BodyHandlers.ofString());
+      if (response.statusCode() != expectedStatus) {
+        throw new IllegalStateException(
+            "HTTP " + response.statusCode() + " from " + response.uri() + ": " + response.body());
+      }
+      return response;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted waiting for " + request.build().uri(), e);
+    }
+  }
+
+  /** Encodes the item in the NDJSON record layout, which the API reads. */
+  private static String toJson(final AddItemCommandDto command) {
+    final StringBuilder json = new StringBuilder(128);
+    try {
+      ItemRecordFormat.NDJSON.write(
+          new InventoryItem(
+              "", command.name(), command.quantity(), command.location(), command.expirationDate()),
+          json);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return json.toString();
+  }
+}
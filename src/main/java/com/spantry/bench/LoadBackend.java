@@ -0,0 +1,52 @@
+package com.spantry.bench;
+
+import com.spantry.inventory.repository.CachingInventoryRepository;
+import com.spantry.inventory.repository.EventSourcedInventoryRepository;
+import com.spantry.inventory.repository.InMemoryInventoryRepository;
+import com.spantry.inventory.repository.InventoryRepository;
+import java.nio.file.Path;
+
+/** The repository stacks a load run can be pointed at, each starting from an empty inventory. */
+public enum LoadBackend {
+
+  /** The in-memory repository with its snapshot file and journal, as the application uses it. */
+  MEMORY {
+    @Override
+    public InventoryRepository open(final Path dataFile) {
+      return new InMemoryInventoryRepository(dataFile);
+    }
+  },
+
+  /**
+   * The in-memory repository behind the read cache, sized by {@link
+   * CachingInventoryRepository#SIZE_PROPERTY} or {@value #DEFAULT_CACHE_SIZE} entries.
+   */
+  CACHED {
+    @Override
+    public InventoryRepository open(final Path dataFile) {
+      return new CachingInventoryRepository(
+          MEMORY.open(dataFile),
+          Integer.getInteger(CachingInventoryRepository.SIZE_PROPERTY, DEFAULT_CACHE_SIZE));
+    }
+  },
+
+  /** The event store, with its event log and checkpoints next to the data file. */
+  EVENTS {
+    @Override
+    public InventoryRepository open(final Path dataFile) {
+      return new EventSourcedInventoryRepository(
+          dataFile.resolveSibling(dataFile.getFileName() + ".events"));
+    }
+  };
+
+  /** Cache size of {@link #CACHED} when no size is configured. */
+  public static final int DEFAULT_CACHE_SIZE = 10_000;
+
+  /**
+   * Creates the repository.
+   *
+   * @param dataFile where the repository keeps its data; the file should not exist yet
+   * @return the repository
+   */
+  public abstract InventoryRepository open(Path dataFile);
+}
@@ -0,0 +1,288 @@
+package com.spantry.bench;
+
+import com.spantry.bench.LoadMix.Operation;
+import com.spantry.core.RequestThreads;
+import com.spantry.inventory.domain.Location;
+import com.spantry.inventory.service.InventoryService;
+import com.spantry.inventory.service.dto.AddItemCommandDto;
+import com.spantry.metrics.MetricsRegistry;
+import com.spantry.metrics.OperationMetrics;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Drives an {@link InventoryService} from a number of concurrent workers, the way many clients
+ * would, and measures what they experience. The service may sit on any repository, so backends and
+ * their concurrency models can be compared under the same load; it may also sit behind the HTTP API
+ * (see {@link LoadTarget#overHttp}), which adds the cost of the protocol.
+ *
+ * <p>With a target rate the load is open-loop: every worker follows a fixed arrival schedule, its
+ * share of the rate, and issues each call when the schedule says, however long the previous one
+ * took. A call that could not start on time is timed from its scheduled start as well as from its
+ * actual start; see {@link LoadReport}. Without a target rate each worker issues its next call as
+ * soon as the previous one returns.
+ *
+ * <p>Every worker runs on a thread of its own, virtual or platform (see {@link RequestThreads}).
+ * With virtual threads, tens of thousands of workers can wait on their schedules or on the
+ * repository while only a handful of platform threads carry them; the report shows both the peak
+ * number of calls in flight and the peak number of platform threads.
+ *
+ * <p>Removals only take items the same worker added (or was given by the initial fill), so workers
+ * never race for an item; a worker with nothing left to remove adds an item instead.
+ */
+public final class LoadGenerator {
+
+  private static final Logger LOG = LoggerFactory.getLogger(LoadGenerator.class);
+  private static final String[] NAMES = {
+    "Milk", "Eggs", "Butter", "Bread", "Rice", "Pasta", "Apples", "Yogurt", "Cheese", "Tomatoes"
+  };
+  private static final Location[] LOCATIONS = Location.values();
+  // Lets every worker thread start before the first scheduled call
+  private static final long START_DELAY_NANOS = 20_000_000L;
+
+  private final LoadTarget target;
+  private final LoadMix mix;
+  private final int workers;
+  private final int targetRate;
+  private final RequestThreads threads;
+  // Calls issued but not yet returned, across all workers
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private final AtomicInteger peakInFlight = new AtomicInteger();
+
+  /**
+   * Creates a load generator.
+   *
+   * @param inventoryService the service to drive
+   * @param mix the operations to issue
+   * @param workers concurrent workers (must be positive)
+   * @param targetRate calls per second across all workers, or 0 to issue them back to back
+   * @param threads the kind of thread the workers run on
+   */
+  public LoadGenerator(
+      final InventoryService inventoryService,
+      final LoadMix mix,
+      final int workers,
+      final int targetRate,
+      final RequestThreads threads) {
+    this(LoadTarget.of(inventoryService), mix, workers, targetRate, threads);
+  }
+
+  /**
+   * Creates a load generator for any target.
+   *
+   * @param target the target to drive
+   * @param mix the operations to issue
+   * @param workers concurrent workers (must be positive)
+   * @param targetRate calls per second across all workers, or 0 to issue them back to back
+   * @param threads the kind of thread the workers run on
+   */
+  public LoadGenerator(
+      final LoadTarget target,
+      final LoadMix mix,
+      final int workers,
+      final int targetRate,
+      final RequestThreads threads) {
+    this.target = Objects.requireNonNull(target, "target cannot be null");
+    this.mix = Objects.requireNonNull(mix, "mix cannot be null");
+    if (workers <= 0) {
+      throw new IllegalArgumentException("Worker count must be positive: " + workers);
+    }
+    if (targetRate < 0) {
+      throw new IllegalArgumentException("Target rate cannot be negative: " + targetRate);
+    }
+    this.workers = workers;
+    this.targetRate = targetRate;
+    this.threads = Objects.requireNonNull(threads, "threads cannot be null");
+  }
+
+  /**
+   * Fills the inventory, then runs the load.
+   *
+   * @param initialItems items added before the run, shared out among the workers for removal
+   * @param warmUp time the load runs before calls are measured
+   * @param duration time calls are measured for
+   * @return the measurements
+   * @throws InterruptedException if interrupted while waiting for the workers
+   */
+  public LoadReport run(final int initialItems, final Duration warmUp, final Duration duration)
+      throws InterruptedException {
+    if (initialItems < 0) {
+      throw new IllegalArgumentException("Initial item count cannot be negative: " + initialItems);
+    }
+    if (warmUp.isNegative() || duration.isNegative() || duration.isZero()) {
+      throw new IllegalArgumentException(
+          "Warm-up cannot be negative and duration must be positive");
+    }
+    final List<Deque<String>> owned = fill(initialItems);
+    final MetricsRegistry serviceTimes = new MetricsRegistry(1);
+    final MetricsRegistry responseTimes = new MetricsRegistry(1);
+    // Each worker issues one call per interval, offset from the others so arrivals interleave
+    final long intervalNanos =
+        targetRate == 0 ? 0 : Math.max(1, Math.round(workers * 1e9 / targetRate));
+    final long start = System.nanoTime() + START_DELAY_NANOS;
+    final long measureFrom = start + warmUp.toNanos();
+    final long end = measureFrom + duration.toNanos();
+
+    final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+    threadBean.resetPeakThreadCount();
+    peakInFlight.set(0);
+    final ExecutorService pool = threads.newExecutor("spantry-load-");
+    try {
+      final List<Future<?>> running = new ArrayList<>(workers);
+      for (int worker = 0; worker < workers; worker++) {
+        final Deque<String> ids = owned.get(worker);
+        final long firstCall = start + worker * intervalNanos / workers;
+        final SplittableRandom random = new SplittableRandom(worker);
+        running.add(
+            pool.submit(
+                () ->
+                    work(
+                        new Schedule(firstCall, intervalNanos, measureFrom, end),
+                        ids,
+                        random,
+                        operations(serviceTimes),
+                        operations(responseTimes))));
+      }
+      for (final Future<?> worker : running) {
+        worker.get();
+      }
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("Load worker failed", e.getCause());
+    } finally {
+      pool.shutdownNow();
+    }
+    final Duration elapsed = Duration.ofNanos(Math.max(0, System.nanoTime() - measureFrom));
+    return new LoadReport(
+        workers,
+        targetRate,
+        threads,
+        elapsed,
+        peakInFlight.get(),
+        threadBean.getPeakThreadCount(),
+        serviceTimes.snapshot(),
+        responseTimes.snapshot());
+  }
+
+  private List<Deque<String>> fill(final int initialItems) {
+    final SplittableRandom random = new SplittableRandom(-1);
+    final List<AddItemCommandDto> commands = new ArrayList<>(initialItems);
+    for (int i = 0; i < initialItems; i++) {
+      commands.add(randomItem(random));
+    }
+    final List<Deque<String>> owned = new ArrayList<>(workers);
+    for (int worker = 0; worker < workers; worker++) {
+      owned.add(new ArrayDeque<>());
+    }
+    if (!commands.isEmpty()) {
+      final List<String> added = target.addAll(commands);
+      for (int i = 0; i < added.size(); i++) {
+        owned.get(i % workers).add(added.get(i));
+      }
+    }
+    return owned;
+  }
+
+  private static OperationMetrics[] operations(final MetricsRegistry registry) {
+    final Operation[] operations = Operation.values();
+    final OperationMetrics[] metrics = new OperationMetrics[operations.length];
+    for (final Operation operation : operations) {
+      metrics[operation.ordinal()] = registry.operation(operation.label());
+    }
+    return metrics;
+  }
+
+  // A failed call is measured like any other, so catch whatever the service throws
+  @SuppressWarnings("PMD.AvoidCatchingGenericException")
+  private void work(
+      final Schedule schedule,
+      final Deque<String> owned,
+      final SplittableRandom random,
+      final OperationMetrics[] serviceTimes,
+      final OperationMetrics[] responseTimes) {
+    long scheduled = schedule.firstCall();
+    while (scheduled < schedule.end() && !Thread.currentThread().isInterrupted()) {
+      awaitUntil(scheduled);
+      final Operation picked = mix.pick(random);
+      final Operation operation =
+          picked == Operation.REMOVE && owned.isEmpty() ? Operation.ADD : picked;
+      final long started = System.nanoTime();
+      RuntimeException failure = null;
+      peakInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+      try {
+        issue(operation, owned, random);
+      } catch (RuntimeException e) {
+        failure = e;
+        if (LOG.isDebugEnabled()) {
+          LOG.debug("{} failed: {}", operation.label(), e.getMessage());
+        }
+      } finally {
+        inFlight.decrementAndGet();
+      }
+      if (scheduled >= schedule.measureFrom()) {
+        record(serviceTimes[operation.ordinal()], started, failure);
+        record(responseTimes[operation.ordinal()], scheduled, failure);
+      }
+      scheduled = schedule.interval() == 0 ? System.nanoTime() : scheduled + schedule.interval();
+    }
+  }
+
+  private void issue(
+      final Operation operation, final Deque<String> owned, final SplittableRandom random) {
+    switch (operation) {
+      case ADD -> owned.add(target.add(randomItem(random)));
+      case REMOVE -> target.remove(owned.poll());
+      case LIST -> target.list();
+      case LOCATION -> target.listLocation(LOCATIONS[random.nextInt(LOCATIONS.length)]);
+    }
+  }
+
+  private static AddItemCommandDto randomItem(final SplittableRandom random) {
+    return new AddItemCommandDto(
+        NAMES[random.nextInt(NAMES.length)],
+        1 + random.nextInt(10),
+        LOCATIONS[random.nextInt(LOCATIONS.length)],
+        LocalDate.now().plusDays(random.nextInt(30)));
+  }
+
+  private static void record(
+      final OperationMetrics metrics, final long from, final RuntimeException failure) {
+    if (failure == null) {
+      metrics.succeeded(from);
+    } else {
+      metrics.failed(from, failure);
+    }
+  }
+
+  private static void awaitUntil(final long deadline) {
+    long remaining = deadline - System.nanoTime();
+    while (remaining > 0 && !Thread.currentThread().isInterrupted()) {
+      LockSupport.parkNanos(remaining);
+      remaining = deadline - System.nanoTime();
+    }
+  }
+
+  /**
+   * A worker's arrival schedule, in {@link System#nanoTime()} terms.
+   *
+   * @param firstCall when the first call is due
+   * @param interval time between calls, or 0 to issue them back to back
+   * @param measureFrom calls due from here on are measured
+   * @param end no call is issued from here on
+   */
+  private record Schedule(long firstCall, long interval, long measureFrom, long end) {}
+}
@@ -0,0 +1,109 @@
+package com.spantry.bench;
+
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * Relative weights of the operations a load generator issues, such as {@code
+ * add=30,remove=20,list=10,location=40}. Weights need not add up to 100.
+ *
+ * @param add weight of {@link Operation#ADD}
+ * @param remove weight of {@link Operation#REMOVE}
+ * @param list weight of {@link Operation#LIST}
+ * @param location weight of {@link Operation#LOCATION}
+ */
+public record LoadMix(int add, int remove, int list, int location) {
+
+  /** The mix used when none is given. */
+  public static final String DEFAULT = "add=30,remove=20,list=10,location=40";
+
+  /** An operation of the generated load. */
+  public enum Operation {
+    /** Adds one item. */
+    ADD,
+    /** Removes an item the worker added earlier. */
+    REMOVE,
+    /** Lists the whole inventory. */
+    LIST,
+    /** Lists the items of one location. */
+    LOCATION;
+
+    /**
+     * Returns the name the operation is reported under.
+     *
+     * @return the lower-case name
+     */
+    public String label() {
+      return name().toLowerCase(Locale.ROOT);
+    }
+  }
+
+  /**
+   * Validates the weights.
+   *
+   * @throws IllegalArgumentException if a weight is negative or all are zero
+   */
+  public LoadMix {
+    if (add < 0 || remove < 0 || list < 0 || location < 0) {
+      throw new IllegalArgumentException("Operation weights cannot be negative");
+    }
+    if (add + remove + list + location == 0) {
+      throw new IllegalArgumentException("At least one operation weight must be positive");
+    }
+  }
+
+  /**
+   * Parses a mix such as {@code add=30,remove=20}. Operations left out get weight 0.
+   *
+   * @param text comma-separated {@code operation=weight} pairs
+   * @return the mix
+   * @throws IllegalArgumentException if the text names an unknown operation or a weight is not a
+   *     non-negative integer
+   */
+  public static LoadMix parse(final String text) {
+    final int[] weights = new int[Operation.values().length];
+    for (final String pair : text.split(",", -1)) {
+      final int equals = pair.indexOf('=');
+      if (equals < 0) {
+        throw new IllegalArgumentException("Expected operation=weight, got '" + pair.trim() + "'");
+      }
+      final String name = pair.substring(0, equals).trim();
+      final Operation operation;
+      try {
+        operation = Operation.valueOf(name.toUpperCase(Locale.ROOT));
+      } catch (IllegalArgumentException e) {
+        throw new IllegalArgumentException(
+            "Unknown operation '" + name + "', expected add, remove, list or location", e);
+      }
+      try {
+        weights[operation.ordinal()] = Integer.parseInt(pair.substring(equals + 1).trim());
+      } catch (NumberFormatException e) {
+        throw new IllegalArgumentException("Weight of " + name + " is not a number", e);
+      }
+    }
+    return new LoadMix(
+        weights[Operation.ADD.ordinal()],
+        weights[Operation.REMOVE.ordinal()],
+        weights[Operation.LIST.ordinal()],
+        weights[Operation.LOCATION.ordinal()]);
+  }
+
+  /**
+   * Draws an operation with the probabilities the weights give.
+   *
+   * @param random the worker's random source
+   * @return the operation to issue next
+   */
+  public Operation pick(final SplittableRandom random) {
+    final int draw = random.nextInt(add + remove + list + location);
+    Operation picked = Operation.LOCATION;
+    if (draw < add) {
+      picked = Operation.ADD;
+    } else if (draw < add + remove) {
+      picked = Operation.REMOVE;
+    } else if (draw < add + remove + list) {
+      picked = Operation.LIST;
+    }
+    return picked;
+  }
+}
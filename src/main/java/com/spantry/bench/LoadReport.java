@@ -0,0 +1,69 @@
+package com.spantry.bench;
+
+import com.spantry.core.RequestThreads;
+import com.spantry.metrics.OperationStats;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Outcome of a load run, covering the calls issued after the warm-up.
+ *
+ * <p>Service times run from the moment a call actually started; response times run from the moment
+ * the arrival schedule said it should start. When the service falls behind, calls queue up behind
+ * the slow one and only the response times show the wait, so they are the figures a user would
+ * experience (the correction for coordinated omission). In a closed-loop run both are equal.
+ *
+ * @param workers number of concurrent workers
+ * @param targetRate calls per second the schedule asked for, or 0 for a closed loop
+ * @param threads the kind of thread the workers ran on
+ * @param elapsed time from the end of the warm-up until the last call completed
+ * @param peakInFlight most calls issued and not yet returned at any one time
+ * @param peakPlatformThreads most live platform threads in the JVM during the run; virtual threads
+ *     are not counted
+ * @param serviceTimes figures per operation, timed from the actual start
+ * @param responseTimes figures per operation, timed from the scheduled start
+ */
+public record LoadReport(
+    int workers,
+    int targetRate,
+    RequestThreads threads,
+    Duration elapsed,
+    int peakInFlight,
+    int peakPlatformThreads,
+    List<OperationStats> serviceTimes,
+    List<OperationStats> responseTimes) {
+
+  /** Compact constructor making defensive copies of the figures. */
+  public LoadReport {
+    serviceTimes = List.copyOf(serviceTimes);
+    responseTimes = List.copyOf(responseTimes);
+  }
+
+  /**
+   * Returns the number of calls measured.
+   *
+   * @return calls completed after the warm-up, successful or not
+   */
+  public long completed() {
+    return serviceTimes.stream().mapToLong(OperationStats::calls).sum();
+  }
+
+  /**
+   * Returns the number of measured calls that threw.
+   *
+   * @return the failed calls
+   */
+  public long errors() {
+    return serviceTimes.stream().mapToLong(OperationStats::errors).sum();
+  }
+
+  /**
+   * Returns the throughput achieved.
+   *
+   * @return calls completed per second, or 0 if no time elapsed
+   */
+  public long callsPerSecond() {
+    final long nanos = elapsed.toNanos();
+    return nanos == 0 ? 0 : completed() * 1_000_000_000L / nanos;
+  }
+}
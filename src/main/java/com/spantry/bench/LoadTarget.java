@@ -0,0 +1,69 @@
+package com.spantry.bench;
+
+import com.spantry.inventory.domain.Location;
+import com.spantry.inventory.service.InventoryService;
+import com.spantry.inventory.service.dto.AddItemCommandDto;
+import java.net.URI;
+import java.util.List;
+
+/**
+ * What a {@link LoadGenerator} drives: the inventory operations of a {@link LoadMix}, either as
+ * direct service calls or as requests to a Spantry server. Implementations must be thread-safe;
+ * every worker calls the same target.
+ */
+public interface LoadTarget {
+
+  /**
+   * Adds the items filling the inventory before the run.
+   *
+   * @param commands the items to add
+   * @return the IDs of the added items, in the order of the commands
+   */
+  List<String> addAll(List<AddItemCommandDto> commands);
+
+  /**
+   * Adds one item.
+   *
+   * @param command the item to add
+   * @return the ID of the added item
+   */
+  String add(AddItemCommandDto command);
+
+  /**
+   * Removes one item.
+   *
+   * @param itemId the ID of an existing item
+   */
+  void remove(String itemId);
+
+  /** Lists the inventory. */
+  void list();
+
+  /**
+   * Lists the items in one location.
+   *
+   * @param location the location
+   */
+  void listLocation(Location location);
+
+  /**
+   * Returns a target calling the service in this process.
+   *
+   * @param inventoryService the service
+   * @return the target
+   */
+  static LoadTarget of(final InventoryService inventoryService) {
+    return new ServiceLoadTarget(inventoryService);
+  }
+
+  /**
+   * Returns a target sending requests to the HTTP API of {@code spantry serve}. Lists fetch the
+   * first page only, as a client of the API would.
+   *
+   * @param baseUri the base URI of the API, e.g. {@code http://127.0.0.1:8080/}
+   * @return the target
+   */
+  static LoadTarget overHttp(final URI baseUri) {
+    return new HttpLoadTarget(baseUri);
+  }
+}
@@ -0,0 +1,44 @@
+package com.spantry.bench;
+
+import com.spantry.inventory.domain.InventoryItem;
+import com.spantry.inventory.domain.Location;
+import com.spantry.inventory.service.InventoryService;
+import com.spantry.inventory.service.dto.AddItemCommandDto;
+import java.util.List;
+import java.util.Objects;
+
+/** Load target calling an {@link InventoryService} directly. */
+/* package */ final class ServiceLoadTarget implements LoadTarget {
+
+  private final InventoryService inventoryService;
+
+  /* package */ ServiceLoadTarget(final InventoryService inventoryService) {
+    this.inventoryService =
+        Objects.requireNonNull(inventoryService, "inventoryService cannot be null");
+  }
+
+  @Override
+  public List<String> addAll(final List<AddItemCommandDto> commands) {
+    return inventoryService.addItems(commands).stream().map(InventoryItem::itemId).toList();
+  }
+
+  @Override
+  public String add(final AddItemCommandDto command) {
+    return inventoryService.addItem(command).itemId();
+  }
+
+  @Override
+  public void remove(final String itemId) {
+    inventoryService.removeItem(itemId);
+  }
+
+  @Override
+  public void list() {
+    inventoryService.getAllItems();
+  }
+
+  @Override
+  public void listLocation(final Location location) {
+    inventoryService.getItemsByLocation(location);
+  }
+}
@@ -0,0 +1,24 @@
+package com.spantry.cli;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/** Flight recorder event for one command run, committed by {@link RecordedExecutionStrategy}. */
+@Name("com.spantry.CommandExecution")
+@Label("Command Execution")
+@Category({"Spantry", "Command"})
+@Description("A command run from the command line, the shell, a batch script or the daemon")
+@StackTrace(false)
+/* package */ final class CommandExecutionEvent extends Event {
+
+  @Label("Command")
+  @Description("The full command name, such as 'spantry item add'")
+  /* package */ String command;
+
+  @Label("Exit Code")
+  /* package */ int exitCode;
+}
@@ -0,0 +1,72 @@
+package com.spantry.cli;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.util.HashMap;
+import java.util.Map;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A Java Flight Recorder recording of one command, written to a file when closed. It starts from
+ * the JDK's {@code profile} settings, tuned for runs that last milliseconds rather than hours: the
+ * CPU is sampled every millisecond, and every file access, every repository call and shorter lock
+ * waits are recorded, as is (on Java 21) every virtual thread that blocks while pinned to its
+ * carrier.
+ */
+/* package */ final class FlightRecording implements AutoCloseable {
+
+  private static final Logger LOG = LoggerFactory.getLogger(FlightRecording.class);
+  private static final String BASE_CONFIGURATION = "profile";
+  private static final Map<String, String> TUNING =
+      Map.of(
+          "jdk.ExecutionSample#period", "1 ms",
+          "jdk.FileRead#threshold", "0 ms",
+          "jdk.FileWrite#threshold", "0 ms",
+          "jdk.FileForce#threshold", "0 ms",
+          "jdk.JavaMonitorEnter#threshold", "1 ms",
+          "jdk.ThreadPark#threshold", "1 ms",
+          "jdk.VirtualThreadPinned#threshold", "0 ms",
+          "com.spantry.RepositoryOperation#threshold", "0 ms");
+
+  private final Recording recording;
+  private final Path destination;
+
+  private FlightRecording(final Recording recording, final Path destination) {
+    this.recording = recording;
+    this.destination = destination;
+  }
+
+  /**
+   * Starts a recording.
+   *
+   * @param destination the file the recording is written to when closed
+   * @return the running recording
+   * @throws IOException if the destination cannot be written
+   * @throws ParseException if the JDK's settings cannot be read
+   */
+  /* package */ static FlightRecording start(final Path destination)
+      throws IOException, ParseException {
+    final Map<String, String> settings =
+        new HashMap<>(Configuration.getConfiguration(BASE_CONFIGURATION).getSettings());
+    settings.putAll(TUNING);
+    final Recording recording = new Recording(settings);
+    recording.setName("spantry");
+    recording.setDestination(destination);
+    recording.start();
+    return new FlightRecording(recording, destination);
+  }
+
+  /** Stops the recording and writes it to its destination. */
+  @Override
+  public void close() {
+    recording.stop();
+    recording.close();
+    if (LOG.isInfoEnabled()) {
+      LOG.info("Flight recording written to {}", destination);
+    }
+  }
+}
@@ -0,0 +1,93 @@
+package com.spantry.cli;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.util.List;
+import java.util.Objects;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import picocli.CommandLine;
+import picocli.CommandLine.IExecutionStrategy;
+import picocli.CommandLine.ParseResult;
+
+/**
+ * Execution strategy that emits a {@code com.spantry.CommandExecution} flight recorder event around
+ * every command, and that records the command to a file when the root option {@value #JFR_OPTION}
+ * is given. The actual execution is left to the strategy it wraps.
+ */
+public final class RecordedExecutionStrategy implements IExecutionStrategy {
+
+  /** Root option naming the file to write a flight recording of the command to. */
+  public static final String JFR_OPTION = "--jfr";
+
+  private static final Logger LOG = LoggerFactory.getLogger(RecordedExecutionStrategy.class);
+
+  private final IExecutionStrategy delegate;
+
+  /**
+   * Creates a strategy.
+   *
+   * @param delegate the strategy that runs the commands
+   */
+  public RecordedExecutionStrategy(final IExecutionStrategy delegate) {
+    this.delegate = Objects.requireNonNull(delegate, "Delegate strategy cannot be null");
+  }
+
+  /**
+   * Wraps the execution strategy of a command line.
+   *
+   * @param commandLine the command line to record
+   * @return the same command line
+   */
+  public static CommandLine install(final CommandLine commandLine) {
+    return commandLine.setExecutionStrategy(
+        new RecordedExecutionStrategy(commandLine.getExecutionStrategy()));
+  }
+
+  @Override
+  public int execute(final ParseResult parseResult) {
+    final Path destination = parseResult.matchedOptionValue(JFR_OPTION, null);
+    final FlightRecording recording = destination == null ? null : startRecording(destination);
+    final int exitCode;
+    try {
+      exitCode = executeRecorded(parseResult);
+    } finally {
+      if (recording != null) {
+        recording.close();
+      }
+    }
+    return exitCode;
+  }
+
+  private int executeRecorded(final ParseResult parseResult) {
+    final CommandExecutionEvent event = new CommandExecutionEvent();
+    event.begin();
+    int exitCode = CommandLine.ExitCode.SOFTWARE; // Unless the command returns
+    try {
+      exitCode = delegate.execute(parseResult);
+    } finally {
+      if (event.shouldCommit()) {
+        final List<CommandLine> commands = parseResult.asCommandLineList();
+        event.command = commands.get(commands.size() - 1).getCommandSpec().qualifiedName();
+        event.exitCode = exitCode;
+        event.commit();
+      }
+    }
+    return exitCode;
+  }
+
+  /** Starts the recording, or returns null so that the command still runs without it. */
+  private static FlightRecording startRecording(final Path destination) {
+    FlightRecording recording = null;
+    try {
+      recording = FlightRecording.start(destination);
+    } catch (IOException | ParseException e) {
+      if (LOG.isErrorEnabled()) {
+        LOG.error(
+            "Error: Could not start a flight recording to {}: {}", destination, e.getMessage());
+      }
+    }
+    return recording;
+  }
+}
@@ -1,12 +1,17 @@
 package com.spantry.cli;
 
+import com.spantry.cli.command.BatchCommand;
+import com.spantry.cli.command.BenchCommands;
+import com.spantry.cli.command.DaemonCommand;
 import com.spantry.cli.command.ItemCommands;
-// import com.spantry.inventory.service.InventoryService; // No longer needed here
-// import java.util.Objects; // No longer needed here
-import picocli.CommandLine;
+import com.spantry.cli.command.MetricsCommand;
+import com.spantry.cli.command.ServeCommand;
+import com.spantry.cli.command.ShellCommand;
+import java.nio.file.Path;
 import picocli.CommandLine.Command;
-
-// import com.spantry.cli.command.ItemCommands; // Will be added later
+import picocli.CommandLine.Model.CommandSpec;
+import picocli.CommandLine.Option;
+import picocli.CommandLine.Spec;
 
 /**
  * The main command-line application class for Spantry. It serves as the entry point and aggregates
@@ -18,17 +23,27 @@ import picocli.CommandLine.Command;
     version = "Spantry CLI 1.0",
     description = "Manages your pantry inventory.",
     subcommands = {
-      ItemCommands.class // Register the item command group
-      // ItemCommands.class // Add inventory commands later
+      ItemCommands.class, // Register the item command group
+      DaemonCommand.class,
+      ShellCommand.class,
+      BatchCommand.class,
+      MetricsCommand.class,
+      BenchCommands.class,
+      ServeCommand.class
     })
 public class SpantryCliApp implements Runnable {
 
-  // Field to hold the injected service (if needed directly by root command)
-  // private final InventoryService inventoryService;
+  // Injected by the generated SpantryCliAppModel
+  @Spec /* package */ CommandSpec spec;
 
-  // Constructor accepting InventoryService is removed.
-  // Picocli will now use the default no-arg constructor for the root command.
-  // The DependencyFactory handles injection for subcommands.
+  // Read by RecordedExecutionStrategy, which wraps the whole command in the recording
+  @Option(
+      names = {RecordedExecutionStrategy.JFR_OPTION},
+      paramLabel = "FILE",
+      description =
+          "Records the command with Java Flight Recorder, using settings tuned for short runs,"
+              + " and writes the recording to FILE (open it in JDK Mission Control).")
+  /* package */ Path jfr;
 
   /** Default constructor required by PMD rule. */
   @SuppressWarnings("PMD.UnnecessaryConstructor")
@@ -39,31 +54,6 @@ public class SpantryCliApp implements Runnable {
   @Override
   public void run() {
     // If the command is run without subcommands, print help
-    CommandLine.usage(this, System.out);
+    spec.commandLine().usage(System.out);
   }
-
-  // We might add dependency injection setup here later if not using a factory
-}
-
-// Example Picocli Factory for DI (can be inner class or separate)
-/*
-class DependencyFactory implements CommandLine.IFactory {
-    private final InventoryService inventoryService;
-
-    public DependencyFactory(InventoryService inventoryService) {
-        this.inventoryService = Objects.requireNonNull(inventoryService);
-    }
-
-    @Override
-    public <K> K create(Class<K> cls) throws Exception {
-        try {
-            // Try to find a constructor that accepts InventoryService
-            Constructor<K> constructor = cls.getDeclaredConstructor(InventoryService.class);
-            return constructor.newInstance(inventoryService);
-        } catch (NoSuchMethodException e) {
-            // If no such constructor, fallback to default factory (zero-arg constructor)
-            return CommandLine.defaultFactory().create(cls);
-        }
-    }
 }
-*/
@@ -0,0 +1,148 @@
+package com.spantry.cli.batch;
+
+import com.spantry.cli.shell.CommandWords;
+import com.spantry.inventory.service.InventoryBatch;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import picocli.CommandLine;
+
+/**
+ * Runs a script of Spantry commands, one per line, against an {@link InventoryBatch}. Every line
+ * runs in this JVM against the inventory loaded once; changes are staged and persisted with a
+ * single write at the end, or every few lines when checkpoints are enabled.
+ *
+ * <p>Blank lines and lines starting with {@code #} are skipped. Words are split like in the
+ * interactive shell (see {@link CommandWords}), so quoting works the same way as there and on the
+ * command line.
+ *
+ * <p>In all-or-nothing mode the first failing line stops the script and discards every change. In
+ * continue-on-error mode failing lines are reported and skipped; a failing command changes nothing,
+ * so the changes of the successful lines are kept.
+ */
+public final class BatchRunner {
+
+  private static final Logger LOG = LoggerFactory.getLogger(BatchRunner.class);
+  private static final String COMMENT_PREFIX = "#";
+
+  // Commands that would nest a session or never return
+  private static final Set<String> UNSUPPORTED = Set.of("batch", "shell", "daemon", "serve");
+
+  private final CommandLine commandLine;
+  private final InventoryBatch batch;
+  private final boolean continueOnError;
+  private final int checkpointLines;
+
+  /**
+   * Creates a runner.
+   *
+   * @param commandLine the root command line, wired to the batch's service
+   * @param batch the batch staging the changes
+   * @param continueOnError whether to keep going after a failing line
+   * @param checkpointLines commit after this many executed lines; 0 commits only at the end
+   */
+  public BatchRunner(
+      final CommandLine commandLine,
+      final InventoryBatch batch,
+      final boolean continueOnError,
+      final int checkpointLines) {
+    this.commandLine = Objects.requireNonNull(commandLine, "commandLine cannot be null");
+    this.batch = Objects.requireNonNull(batch, "batch cannot be null");
+    if (checkpointLines < 0) {
+      throw new IllegalArgumentException("Checkpoint interval must not be negative");
+    }
+    if (checkpointLines > 0 && !continueOnError) {
+      throw new IllegalArgumentException(
+          "Checkpoints need continue-on-error mode: an all-or-nothing batch persists only once");
+    }
+    this.continueOnError = continueOnError;
+    this.checkpointLines = checkpointLines;
+  }
+
+  /**
+   * Runs the script to the end, or to the first failure in all-or-nothing mode.
+   *
+   * @param script the script, one command per line
+   * @return 0 if every line succeeded and the changes were persisted, 1 otherwise
+   * @throws IOException if the script cannot be read; staged changes are discarded, as they are if
+   *     running a line fails unexpectedly
+   * @throws com.spantry.inventory.service.exception.BatchConflictException if the inventory was
+   *     changed by someone else while the batch ran
+   */
+  @SuppressWarnings("PMD.AvoidCatchingGenericException") // Rethrown after the rollback
+  public int run(final BufferedReader script) throws IOException {
+    int lineNumber = 0;
+    int executed = 0;
+    int failed = 0;
+    boolean aborted = false;
+    try {
+      String line = script.readLine();
+      while (line != null && !aborted) {
+        lineNumber++;
+        final List<String> words =
+            line.strip().startsWith(COMMENT_PREFIX) ? List.of() : CommandWords.split(line);
+        if (!words.isEmpty()) {
+          executed++;
+          if (!execute(lineNumber, words)) {
+            failed++;
+            aborted = !continueOnError;
+          }
+          if (checkpointLines > 0 && executed % checkpointLines == 0) {
+            batch.commit();
+          }
+        }
+        line = aborted ? null : script.readLine();
+      }
+    } catch (IOException | RuntimeException e) {
+      batch.rollback();
+      throw e;
+    }
+
+    if (aborted) {
+      batch.rollback();
+      if (LOG.isErrorEnabled()) {
+        LOG.error("Aborted at line {}: no changes were persisted.", lineNumber);
+      }
+    } else {
+      final int changes = batch.pendingChanges();
+      batch.commit();
+      if (LOG.isInfoEnabled()) {
+        LOG.info(
+            "Batch finished: {} line(s) succeeded, {} failed; persisted {} changed item(s).",
+            executed - failed,
+            failed,
+            changes);
+      }
+    }
+    return failed == 0 ? 0 : 1;
+  }
+
+  /**
+   * Runs one script line and reports its outcome.
+   *
+   * @return whether the line succeeded
+   */
+  private boolean execute(final int lineNumber, final List<String> words) {
+    int exitCode = 1;
+    if (UNSUPPORTED.contains(words.get(0))) {
+      if (LOG.isErrorEnabled()) {
+        LOG.error("Line {}: '{}' is not available in a batch.", lineNumber, words.get(0));
+      }
+    } else {
+      exitCode = commandLine.execute(words.toArray(new String[0]));
+    }
+
+    if (exitCode == 0) {
+      if (LOG.isInfoEnabled()) {
+        LOG.info("Line {}: OK", lineNumber);
+      }
+    } else if (LOG.isErrorEnabled()) {
+      LOG.error("Line {}: FAILED (exit code {})", lineNumber, exitCode);
+    }
+    return exitCode == 0;
+  }
+}
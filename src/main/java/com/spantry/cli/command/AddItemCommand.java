@@ -1,18 +1,15 @@
 package com.spantry.cli.command;
 
-import com.spantry.exception.InitializationException; // Added import
 import com.spantry.inventory.domain.InventoryItem; // Correct import
 import com.spantry.inventory.domain.Location; // Import Location enum
 import com.spantry.inventory.service.InventoryService;
 import com.spantry.inventory.service.dto.AddItemCommandDto;
-import jakarta.validation.ConstraintViolation;
-import jakarta.validation.Validation;
-import jakarta.validation.Validator;
-import jakarta.validation.ValidatorFactory;
+import com.spantry.validation.ObjectValidator;
+import com.spantry.validation.Validators;
 import java.time.LocalDate; // Import LocalDate
 import java.time.format.DateTimeParseException; // Import for date parsing errors
+import java.util.List;
 import java.util.Objects;
-import java.util.Set;
 import java.util.concurrent.Callable; // Using Callable for potential return codes
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -29,14 +26,17 @@ import picocli.CommandLine.Option;
     name = "add",
     description = "Adds a new item to the inventory.",
     mixinStandardHelpOptions = true)
-// Suppress specific PMD rule for the static initializer catch block
+// Suppress specific PMD rule for the service call catch block
 @SuppressWarnings({"PMD.AvoidCatchingGenericException", "PMD.CognitiveComplexity"})
 public class AddItemCommand implements Callable<Integer> {
 
   // Logger instance
   private static final Logger LOG = LoggerFactory.getLogger(AddItemCommand.class);
 
-  private static final Validator VALIDATOR; // Renamed from validator
+  // Generated at compile time from the DTO's constraints (Hibernate Validator as a fallback)
+  private static final ObjectValidator<AddItemCommandDto> VALIDATOR =
+      Validators.forType(AddItemCommandDto.class);
+
   private final InventoryService inventoryService;
 
   // --- Moved Command Line Options to the top ---
@@ -44,45 +44,27 @@ public class AddItemCommand implements Callable<Integer> {
       names = {"-n", "--name"},
       required = true,
       description = "Name of the item.")
-  private String name;
+  /* package */ String name;
 
   @Option(
       names = {"-q", "--quantity"},
       required = true,
       description = "Quantity of the item.")
-  private int quantity;
+  /* package */ int quantity;
 
   @Option(
       names = {"-l", "--location"},
       required = true,
       description = "Storage location (e.g., PANTRY, FRIDGE, FREEZER).")
-  private Location location; // Picocli automatically converts String to Enum
+  /* package */ Location location; // Picocli automatically converts String to Enum
 
   @Option(
       names = {"-e", "--expires"},
       description = "Expiration date (YYYY-MM-DD). Optional.")
-  private String expirationDateStr;
+  /* package */ String expirationDateStr;
 
   // --- End Moved Fields ---
 
-  // Static initializer block for the validator
-  static {
-    try (ValidatorFactory factory = Validation.buildDefaultValidatorFactory()) {
-      VALIDATOR = factory.getValidator();
-    } catch (jakarta.validation.ValidationException e) {
-      if (LOG.isErrorEnabled()) {
-        LOG.error("Critical: Failed to initialize validator: {}", e.getMessage(), e);
-      }
-      throw new InitializationException("Failed to initialize validation framework", e);
-    } catch (RuntimeException e) {
-      if (LOG.isErrorEnabled()) {
-        LOG.error(
-            "Critical: Unexpected runtime error initializing validator: {}", e.getMessage(), e);
-      }
-      throw new InitializationException("Unexpected error initializing validation framework", e);
-    }
-  }
-
   /**
    * Constructor for Dependency Injection (used by Picocli factory).
    *
@@ -91,7 +73,7 @@ public class AddItemCommand implements Callable<Integer> {
   public AddItemCommand(final InventoryService inventoryService) {
     this.inventoryService =
         Objects.requireNonNull(inventoryService, "inventoryService cannot be null");
-    // Validator initialization is now handled in the static block
+    // The validator is shared by all instances (see VALIDATOR)
   }
 
   // --- Command Line Options (Moved Above) ---
@@ -134,7 +116,7 @@ public class AddItemCommand implements Callable<Integer> {
     final AddItemCommandDto commandDto = new AddItemCommandDto(name, quantity, location, expDate);
 
     // Validate the DTO
-    final Set<ConstraintViolation<AddItemCommandDto>> violations = VALIDATOR.validate(commandDto);
+    final List<String> violations = VALIDATOR.validate(commandDto);
 
     int exitCode = 1; // Default to error
     if (violations.isEmpty()) {
@@ -169,13 +151,13 @@ public class AddItemCommand implements Callable<Integer> {
   /**
    * Logs validation errors.
    *
-   * @param violations the validation constraint violations
+   * @param violations the messages of the violated constraints
    */
-  private void logValidationErrors(final Set<ConstraintViolation<AddItemCommandDto>> violations) {
+  private void logValidationErrors(final List<String> violations) {
     if (LOG.isErrorEnabled()) {
       LOG.error("Error: Invalid item data:");
-      for (final ConstraintViolation<AddItemCommandDto> violation : violations) {
-        LOG.error("  - {}", violation.getMessage());
+      for (final String violation : violations) {
+        LOG.error("  - {}", violation);
       }
     }
   }
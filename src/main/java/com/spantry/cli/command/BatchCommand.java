@@ -0,0 +1,115 @@
+package com.spantry.cli.command;
+
+import com.spantry.cli.RecordedExecutionStrategy;
+import com.spantry.cli.SpantryCliAppFactory;
+import com.spantry.cli.batch.BatchRunner;
+import com.spantry.inventory.service.InventoryBatch;
+import com.spantry.inventory.service.InventoryService;
+import com.spantry.inventory.service.exception.BatchConflictException;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import picocli.CommandLine;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+import picocli.CommandLine.Parameters;
+
+/**
+ * Command that runs a script of Spantry commands in one process. The inventory is loaded once, all
+ * commands run against it, and their changes are persisted with a single write instead of one per
+ * command.
+ */
+@Command(
+    name = "batch",
+    description = "Runs commands from a script, one per line, persisting once at the end.",
+    mixinStandardHelpOptions = true)
+public class BatchCommand implements Callable<Integer> {
+
+  // Logger instance
+  private static final Logger LOG = LoggerFactory.getLogger(BatchCommand.class);
+
+  /** Script name that stands for standard input. */
+  public static final String STDIN = "-";
+
+  private final InventoryService inventoryService;
+
+  @Parameters(
+      index = "0",
+      paramLabel = "SCRIPT",
+      description = "Script with one command per line (e.g. 'item add ...'), or '-' for stdin.")
+  /* package */ Path script;
+
+  @Option(
+      names = {"--continue-on-error"},
+      description =
+          "Skip failing lines and keep the changes of the others (default: all or nothing).")
+  /* package */ boolean continueOnError;
+
+  @Option(
+      names = {"--checkpoint"},
+      paramLabel = "LINES",
+      defaultValue = "0",
+      description =
+          "With --continue-on-error, persist every LINES lines instead of only at the end.")
+  /* package */ int checkpointLines;
+
+  /**
+   * Constructor for Dependency Injection.
+   *
+   * @param inventoryService The service whose inventory the script changes.
+   */
+  public BatchCommand(final InventoryService inventoryService) {
+    this.inventoryService =
+        Objects.requireNonNull(inventoryService, "inventoryService cannot be null");
+  }
+
+  @Override
+  // Suppress AvoidCatchingGenericException for the main command boundary catch block
+  @SuppressWarnings("PMD.AvoidCatchingGenericException")
+  public Integer call() {
+    int exitCode = 1; // Default to error
+    try {
+      final InventoryBatch batch = inventoryService.beginBatch();
+      final CommandLine commandLine =
+          RecordedExecutionStrategy.install(
+              new SpantryCliAppFactory(batch.service()).commandLine());
+      final BatchRunner runner =
+          new BatchRunner(commandLine, batch, continueOnError, checkpointLines);
+      if (isStdin()) {
+        // Standard input belongs to the process: read it, but leave it open
+        exitCode =
+            runner.run(
+                new BufferedReader(new InputStreamReader(System.in, Charset.defaultCharset())));
+      } else {
+        try (BufferedReader reader = Files.newBufferedReader(script, StandardCharsets.UTF_8)) {
+          exitCode = runner.run(reader);
+        }
+      }
+    } catch (IOException e) {
+      if (LOG.isErrorEnabled()) {
+        LOG.error("Error: Could not read script '{}': {}", script, e.getMessage());
+      }
+    } catch (IllegalArgumentException | BatchConflictException e) {
+      if (LOG.isErrorEnabled()) {
+        LOG.error("Error: {}", e.getMessage());
+      }
+    } catch (RuntimeException e) {
+      if (LOG.isErrorEnabled()) {
+        LOG.error("An unexpected error occurred while running the batch: {}", e.getMessage(), e);
+      }
+    }
+    return exitCode; // Single return point
+  }
+
+  private boolean isStdin() {
+    return STDIN.equals(script.toString());
+  }
+}
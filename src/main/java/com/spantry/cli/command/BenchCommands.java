@@ -0,0 +1,14 @@
+package com.spantry.cli.command;
+
+import picocli.CommandLine.Command;
+
+/** Groups the capacity-testing commands under the 'bench' command. */
+@Command(
+    name = "bench",
+    description = "Measure how the inventory service performs under load (load).",
+    subcommands = {BenchLoadCommand.class})
+@SuppressWarnings("PMD.AtLeastOneConstructor")
+public final class BenchCommands {
+
+  // Only a container for subcommands, like ItemCommands
+}
@@ -0,0 +1,247 @@
+package com.spantry.cli.command;
+
+import ch.qos.logback.classic.Level;
+import com.spantry.bench.LoadBackend;
+import com.spantry.bench.LoadGenerator;
+import com.spantry.bench.LoadMix;
+import com.spantry.bench.LoadReport;
+import com.spantry.bench.LoadTarget;
+import com.spantry.core.RequestThreads;
+import com.spantry.http.InventoryHttpServer;
+import com.spantry.inventory.service.InventoryService;
+import com.spantry.inventory.service.InventoryServiceImpl;
+import com.spantry.metrics.MetricsFormat;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+
+/**
+ * Command to put an in-process inventory service under concurrent load and report throughput and
+ * latency percentiles. It runs against a fresh inventory in a temporary directory, never the user's
+ * own, so it is safe to run anywhere.
+ */
+@Command(
+    name = "load",
+    description =
+        "Runs concurrent workers against an in-process inventory and reports throughput and"
+            + " latency.",
+    mixinStandardHelpOptions = true)
+public class BenchLoadCommand implements Callable<Integer> {
+
+  // Logger instance
+  private static final Logger LOG = LoggerFactory.getLogger(BenchLoadCommand.class);
+  // Logs every item added or removed at INFO
+  private static final String INVENTORY_LOGGER = "com.spantry.inventory";
+
+  @Option(
+      names = {"-w", "--workers"},
+      defaultValue = "4",
+      description = "Concurrent workers (default: ${DEFAULT-VALUE}).")
+  /* package */ int workers;
+
+  @Option(
+      names = {"-r", "--rate"},
+      defaultValue = "1000",
+      description =
+          "Target calls per second across all workers, issued on a fixed schedule; 0 issues"
+              + " calls back to back (default: ${DEFAULT-VALUE}).")
+  /* package */ int rate;
+
+  @Option(
+      names = {"-d", "--duration"},
+      defaultValue = "10",
+      description = "Seconds to measure for (default: ${DEFAULT-VALUE}).")
+  /* package */ int durationSeconds;
+
+  @Option(
+      names = {"--warm-up"},
+      defaultValue = "2",
+      description = "Seconds to run before measuring (default: ${DEFAULT-VALUE}).")
+  /* package */ int warmUpSeconds;
+
+  @Option(
+      names = {"-m", "--mix"},
+      defaultValue = LoadMix.DEFAULT,
+      description =
+          "Operation weights: add, remove, list (whole inventory), location"
+              + " (default: ${DEFAULT-VALUE}).")
+  /* package */ String mix;
+
+  @Option(
+      names = {"--items"},
+      defaultValue = "1000",
+      description = "Items in the inventory before the run (default: ${DEFAULT-VALUE}).")
+  /* package */ int initialItems;
+
+  @Option(
+      names = {"-b", "--backend"},
+      defaultValue = "MEMORY",
+      description =
+          "Repository to run against: ${COMPLETION-CANDIDATES} (default: ${DEFAULT-VALUE}).")
+  /* package */ LoadBackend backend;
+
+  @Option(
+      names = {"-t", "--threads"},
+      description =
+          "Threads the workers run on: ${COMPLETION-CANDIDATES} (default: virtual on Java 21 and"
+              + " later, platform otherwise).")
+  /* package */ RequestThreads threads;
+
+  @Option(
+      names = {"--http"},
+      description =
+          "Sends the calls as HTTP requests to an embedded `spantry serve` API on a local port"
+              + " instead of calling the service directly; lists fetch the first page.")
+  /* package */ boolean http;
+
+  @Override
+  // Suppress AvoidCatchingGenericException for the main command boundary catch block
+  @SuppressWarnings("PMD.AvoidCatchingGenericException")
+  public Integer call() {
+    int exitCode = 1; // Default to error
+    Path directory = null;
+    // Thousands of log lines a second would flood the console and serialize the workers on it
+    final Level previousLevel = setInventoryLogLevel(Level.WARN);
+    try {
+      final LoadMix loadMix = LoadMix.parse(mix);
+      directory = Files.createTempDirectory("spantry-bench");
+      final InventoryService service =
+          new InventoryServiceImpl(backend.open(directory.resolve("inventory.dat")));
+      try (InventoryHttpServer server = http ? startServer(service) : null) {
+        final LoadGenerator generator =
+            new LoadGenerator(
+                server == null ? LoadTarget.of(service) : LoadTarget.overHttp(server.uri()),
+                loadMix,
+                workers,
+                rate,
+                threads == null ? RequestThreads.configured() : threads);
+        final LoadReport report =
+            generator.run(
+                initialItems,
+                Duration.ofSeconds(warmUpSeconds),
+                Duration.ofSeconds(durationSeconds));
+        print(report);
+      }
+      exitCode = 0;
+    } catch (IllegalArgumentException e) {
+      if (LOG.isErrorEnabled()) {
+        LOG.error("Error: {}", e.getMessage());
+      }
+    } catch (IOException e) {
+      if (LOG.isErrorEnabled()) {
+        LOG.error("Error: Could not set up or report the load run: {}", e.getMessage());
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      if (LOG.isErrorEnabled()) {
+        LOG.error("Error: The load run was interrupted");
+      }
+    } catch (RuntimeException e) {
+      if (LOG.isErrorEnabled()) {
+        LOG.error("An unexpected error occurred during the load run: {}", e.getMessage(), e);
+      }
+    } finally {
+      setInventoryLogLevel(previousLevel);
+      deleteQuietly(directory);
+    }
+    return exitCode; // Single return point
+  }
+
+  private void print(final LoadReport report) throws IOException {
+    final StringBuilder text = new StringBuilder(1024);
+    text.append(
+        String.format(
+            Locale.ROOT,
+            "%d workers on %s threads, %s, %s backend%s, %d s warm-up%n",
+            report.workers(),
+            report.threads().name().toLowerCase(Locale.ROOT),
+            report.targetRate() == 0
+                ? "closed loop"
+                : "open loop at " + report.targetRate() + " calls/s",
+            backend.name().toLowerCase(Locale.ROOT),
+            http ? " over HTTP" : "",
+            warmUpSeconds));
+    text.append(
+        String.format(
+            Locale.ROOT,
+            "%d calls in %.1f s: %d calls/s, %d errors%n",
+            report.completed(),
+            report.elapsed().toMillis() / 1000.0,
+            report.callsPerSecond(),
+            report.errors()));
+    text.append(
+        String.format(
+            Locale.ROOT,
+            "Peak calls in flight: %d, peak platform threads: %d%n%n",
+            report.peakInFlight(),
+            report.peakPlatformThreads()));
+    text.append("Service time (from the actual start of each call):\n")
+        .append(MetricsFormat.TEXT.render(report.serviceTimes()));
+    if (report.targetRate() > 0) {
+      text.append(
+              "\nResponse time (from the scheduled start, corrected for coordinated omission):\n")
+          .append(MetricsFormat.TEXT.render(report.responseTimes()));
+    }
+    // Through System.out so the output reaches the right client inside the daemon
+    final Writer writer = new OutputStreamWriter(System.out, StandardCharsets.UTF_8);
+    writer.write(text.toString());
+    writer.flush();
+  }
+
+  /** Starts the HTTP API on a free loopback port, with the handler pool `spantry serve` uses. */
+  private static InventoryHttpServer startServer(final InventoryService service)
+      throws IOException {
+    final InventoryHttpServer server =
+        new InventoryHttpServer(
+            new InetSocketAddress(InetAddress.getLoopbackAddress(), 0),
+            service,
+            ServeCommand.defaultThreads());
+    server.start();
+    return server;
+  }
+
+  /** Sets the level of the inventory loggers and returns the one they had (null if inherited). */
+  private static Level setInventoryLogLevel(final Level level) {
+    Level previous = null;
+    if (LoggerFactory.getLogger(INVENTORY_LOGGER) instanceof ch.qos.logback.classic.Logger logger) {
+      previous = logger.getLevel();
+      logger.setLevel(level);
+    }
+    return previous;
+  }
+
+  private static void deleteQuietly(final Path directory) {
+    if (directory != null) {
+      try (Stream<Path> paths = Files.walk(directory)) {
+        paths.sorted(Comparator.reverseOrder()).forEach(BenchLoadCommand::delete);
+      } catch (IOException | UncheckedIOException e) {
+        if (LOG.isWarnEnabled()) {
+          LOG.warn("Could not delete {}: {}", directory, e.getMessage());
+        }
+      }
+    }
+  }
+
+  private static void delete(final Path path) {
+    try {
+      Files.delete(path);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
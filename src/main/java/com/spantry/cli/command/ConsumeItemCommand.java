@@ -0,0 +1,134 @@
+package com.spantry.cli.command;
+
+import com.spantry.inventory.domain.InventoryItem;
+import com.spantry.inventory.service.InventoryService;
+import com.spantry.inventory.service.dto.LotConsumptionDto;
+import com.spantry.inventory.service.exception.InsufficientQuantityException;
+import com.spantry.inventory.service.exception.ItemNotFoundException;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+import picocli.CommandLine.Parameters;
+
+/**
+ * Command to take some quantity of an item out of the inventory. The item keeps its ID; it is
+ * removed only when its quantity reaches zero.
+ *
+ * <p>With {@code --name} the quantity is taken from all lots of that product instead, draining the
+ * soonest-expiring lots first.
+ */
+@Command(
+    name = "consume",
+    aliases = {"use"},
+    description = "Consumes a quantity of an item, removing it when none is left.",
+    mixinStandardHelpOptions = true)
+public class ConsumeItemCommand implements Callable<Integer> {
+
+  // Logger instance
+  private static final Logger LOG = LoggerFactory.getLogger(ConsumeItemCommand.class);
+
+  private final InventoryService inventoryService;
+
+  @Parameters(
+      index = "0",
+      arity = "0..1",
+      description = "The unique ID of the item to consume from (omit when using --name).")
+  /* package */ String itemId;
+
+  @Option(
+      names = {"-n", "--name"},
+      description = "Consume by product name across its lots, soonest-expiring first.")
+  /* package */ String name;
+
+  @Option(
+      names = {"-q", "--quantity", "--qty"},
+      defaultValue = "1",
+      description = "Quantity to consume (default: ${DEFAULT-VALUE}).")
+  /* package */ int quantity;
+
+  /**
+   * Constructor for Dependency Injection.
+   *
+   * @param inventoryService The service to interact with inventory.
+   */
+  public ConsumeItemCommand(final InventoryService inventoryService) {
+    this.inventoryService = inventoryService;
+  }
+
+  @Override
+  // Suppress AvoidCatchingGenericException for the main command boundary catch block
+  @SuppressWarnings({"PMD.CognitiveComplexity", "PMD.AvoidCatchingGenericException"})
+  public Integer call() {
+    int exitCode = 1; // Default to error
+    final boolean byName = name != null;
+    if (byName && itemId != null) {
+      if (LOG.isErrorEnabled()) {
+        LOG.error("Error: Specify either an item ID or --name, not both.");
+      }
+    } else if (byName ? name.isBlank() : itemId == null || itemId.isBlank()) {
+      if (LOG.isErrorEnabled()) {
+        LOG.error(byName ? "Error: Name must not be blank." : "Error: Item ID must be provided.");
+      }
+    } else if (quantity <= 0) {
+      if (LOG.isErrorEnabled()) {
+        LOG.error("Error: Quantity to consume must be positive.");
+      }
+    } else {
+      try {
+        if (byName) {
+          logLotResult(inventoryService.consumeByName(name, quantity));
+        } else {
+          logResult(inventoryService.adjustQuantity(itemId, -quantity));
+        }
+        exitCode = 0;
+      } catch (ItemNotFoundException | InsufficientQuantityException e) {
+        if (LOG.isErrorEnabled()) {
+          LOG.error("Error: {}", e.getMessage());
+        }
+      } catch (RuntimeException e) {
+        if (LOG.isErrorEnabled()) {
+          LOG.error("An unexpected error occurred while consuming the item: {}", e.getMessage(), e);
+        }
+      }
+    }
+    return exitCode; // Single return point
+  }
+
+  private void logResult(final Optional<InventoryItem> remaining) {
+    if (LOG.isInfoEnabled()) {
+      if (remaining.isPresent()) {
+        LOG.info(
+            "Consumed {} of item {}. Remaining quantity: {}",
+            quantity,
+            itemId,
+            remaining.get().quantity());
+      } else {
+        LOG.info("Consumed {} of item {}. Item used up and removed.", quantity, itemId);
+      }
+    }
+  }
+
+  private void logLotResult(final LotConsumptionDto result) {
+    if (LOG.isInfoEnabled()) {
+      LOG.info(
+          "Consumed {} of '{}' from {} lot(s). Remaining quantity: {}",
+          result.consumed(),
+          result.name(),
+          result.updatedLots().size() + result.removedLots().size(),
+          result.remainingQuantity());
+      for (final InventoryItem lot : result.removedLots()) {
+        LOG.info("  Used up and removed lot {} (Exp: {})", lot.itemId(), lot.expirationDate());
+      }
+      for (final InventoryItem lot : result.updatedLots()) {
+        LOG.info(
+            "  Lot {} (Exp: {}) now has quantity {}",
+            lot.itemId(),
+            lot.expirationDate(),
+            lot.quantity());
+      }
+    }
+  }
+}
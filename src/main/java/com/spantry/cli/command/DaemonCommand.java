@@ -0,0 +1,161 @@
+package com.spantry.cli.command;
+
+import com.spantry.cli.RecordedExecutionStrategy;
+import com.spantry.cli.SpantryCliAppFactory;
+import com.spantry.cli.daemon.DaemonClient;
+import com.spantry.cli.daemon.DaemonServer;
+import com.spantry.inventory.domain.InventoryItem;
+import com.spantry.inventory.expiry.ExpiryScheduler;
+import com.spantry.inventory.service.InventoryService;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+
+/**
+ * Command that keeps Spantry resident as a daemon. While it runs, every other {@code spantry}
+ * invocation is forwarded to it over a Unix domain socket and executes against the already loaded
+ * inventory.
+ */
+@Command(
+    name = "daemon",
+    description = "Runs Spantry as a background daemon that other invocations forward to.",
+    mixinStandardHelpOptions = true)
+public class DaemonCommand implements Callable<Integer> {
+
+  // Logger instance
+  private static final Logger LOG = LoggerFactory.getLogger(DaemonCommand.class);
+
+  // The scheduler only does work when the day changes, so a short interval is cheap
+  private static final Duration TICK_INTERVAL = Duration.ofMinutes(1);
+
+  private final InventoryService inventoryService;
+
+  @Option(
+      names = {"-s", "--socket"},
+      description = "Socket path (default: $SPANTRY_SOCKET or build/spantry.sock).")
+  /* package */ Path socket;
+
+  @Option(
+      names = {"--stop"},
+      description = "Stops the running daemon instead of starting one.")
+  /* package */ boolean stop;
+
+  @Option(
+      names = {"--notify-expiring"},
+      paramLabel = "<days>",
+      description =
+          "Logs a warning when an item comes within this many days of its expiration date.")
+  /* package */ Integer notifyExpiringDays;
+
+  /**
+   * Constructor for Dependency Injection.
+   *
+   * @param inventoryService The service the daemon keeps resident.
+   */
+  public DaemonCommand(final InventoryService inventoryService) {
+    this.inventoryService =
+        Objects.requireNonNull(inventoryService, "inventoryService cannot be null");
+  }
+
+  @Override
+  // Suppress AvoidCatchingGenericException for the main command boundary catch block
+  @SuppressWarnings("PMD.AvoidCatchingGenericException")
+  public Integer call() {
+    int exitCode = 1; // Default to error
+    final Path socketPath = socket == null ? DaemonClient.socketPath() : socket;
+    if (stop) {
+      if (DaemonClient.shutdown(socketPath)) {
+        if (LOG.isInfoEnabled()) {
+          LOG.info("Daemon on {} stopped.", socketPath);
+        }
+        exitCode = 0;
+      } else if (LOG.isErrorEnabled()) {
+        LOG.error("Error: No daemon is running on {}", socketPath);
+      }
+    } else {
+      ExpiryScheduler expiry = null;
+      try (DaemonServer server =
+          new DaemonServer(
+              socketPath,
+              () ->
+                  RecordedExecutionStrategy.install(
+                      new SpantryCliAppFactory(inventoryService).commandLine()))) {
+        expiry = startExpiryNotifications();
+        Runtime.getRuntime().addShutdownHook(new Thread(server::close, "spantry-daemon-shutdown"));
+        server.serve();
+        exitCode = 0;
+      } catch (IOException e) {
+        if (LOG.isErrorEnabled()) {
+          LOG.error("Error: Could not run daemon on {}: {}", socketPath, e.getMessage());
+        }
+      } catch (IllegalArgumentException e) {
+        if (LOG.isErrorEnabled()) {
+          LOG.error("Error: {}", e.getMessage());
+        }
+      } catch (RuntimeException e) {
+        if (LOG.isErrorEnabled()) {
+          LOG.error("An unexpected error occurred in the daemon: {}", e.getMessage(), e);
+        }
+      } finally {
+        stopExpiryNotifications(expiry);
+      }
+    }
+    return exitCode; // Single return point
+  }
+
+  /**
+   * Starts the expiry notifications if they were requested. The scheduler learns about items from
+   * the repository's change feed, so the inventory is never rescanned for them.
+   *
+   * @return the running scheduler, or null if notifications are off
+   */
+  private ExpiryScheduler startExpiryNotifications() {
+    ExpiryScheduler scheduler = null;
+    if (notifyExpiringDays != null) {
+      scheduler =
+          new ExpiryScheduler(
+              notifyExpiringDays, Clock.systemDefaultZone(), DaemonCommand::warnExpiring);
+      inventoryService.subscribe(scheduler);
+      scheduler.start(TICK_INTERVAL);
+      if (LOG.isInfoEnabled()) {
+        LOG.info(
+            "Notifying about items within {} days of expiry ({} tracked)",
+            notifyExpiringDays,
+            scheduler.pending());
+      }
+    }
+    return scheduler;
+  }
+
+  /**
+   * Stops the expiry notifications, if they were started, and takes the scheduler off the change
+   * feed.
+   *
+   * @param scheduler the running scheduler, or null
+   */
+  private void stopExpiryNotifications(final ExpiryScheduler scheduler) {
+    if (scheduler != null) {
+      inventoryService.unsubscribe(scheduler);
+      scheduler.close();
+    }
+  }
+
+  private static void warnExpiring(final InventoryItem item) {
+    if (LOG.isWarnEnabled()) {
+      LOG.warn(
+          "Expiring soon: {} x{} in {} expires on {} (ID: {})",
+          item.name(),
+          item.quantity(),
+          item.location(),
+          item.expirationDate(),
+          item.itemId());
+    }
+  }
+}
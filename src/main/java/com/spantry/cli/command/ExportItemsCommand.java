@@ -0,0 +1,124 @@
+package com.spantry.cli.command;
+
+import com.spantry.inventory.io.InventoryExporter;
+import com.spantry.inventory.io.ItemRecordFormat;
+import com.spantry.inventory.service.InventoryService;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+
+/**
+ * Command to export the whole inventory to a file or standard output. Text formats are written
+ * through a fixed-size buffer from a consistent snapshot (see {@link InventoryExporter}); the
+ * binary format copies the repository's own snapshot file without decoding it.
+ */
+@Command(
+    name = "export",
+    description = "Exports all items as CSV, NDJSON or the native binary snapshot.",
+    mixinStandardHelpOptions = true)
+public class ExportItemsCommand implements Callable<Integer> {
+
+  /** Supported export formats. */
+  public enum Format {
+    /** Comma separated values with a header line. */
+    CSV,
+    /** One JSON object per line. */
+    NDJSON,
+    /** The repository's native snapshot, suitable as a backup. */
+    BINARY
+  }
+
+  // Logger instance
+  private static final Logger LOG = LoggerFactory.getLogger(ExportItemsCommand.class);
+
+  private final InventoryService inventoryService;
+
+  @Option(
+      names = {"-f", "--format"},
+      defaultValue = "CSV",
+      description = "Output format: ${COMPLETION-CANDIDATES} (default: ${DEFAULT-VALUE}).")
+  /* package */ Format format;
+
+  @Option(
+      names = {"-o", "--output"},
+      description = "Output file. Default: standard output.")
+  /* package */ Path output;
+
+  /**
+   * Constructor for Dependency Injection.
+   *
+   * @param inventoryService The service to interact with inventory.
+   */
+  public ExportItemsCommand(final InventoryService inventoryService) {
+    this.inventoryService =
+        Objects.requireNonNull(inventoryService, "inventoryService cannot be null");
+  }
+
+  @Override
+  // Suppress AvoidCatchingGenericException for the main command boundary catch block
+  @SuppressWarnings("PMD.AvoidCatchingGenericException")
+  public Integer call() {
+    int exitCode = 1; // Default to error
+    try {
+      if (output == null) {
+        // Go through System.out rather than the raw file descriptor so the output reaches the
+        // right client when running inside the daemon. Not closed: the JVM owns the stream.
+        export(Channels.newChannel(System.out));
+        System.out.flush();
+      } else {
+        try (FileChannel channel =
+            FileChannel.open(
+                output,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+          final long count = export(channel);
+          if (LOG.isInfoEnabled()) {
+            LOG.info(
+                "Exported {} {} to {}", count, format == Format.BINARY ? "bytes" : "items", output);
+          }
+        }
+      }
+      exitCode = 0;
+    } catch (IOException e) {
+      if (LOG.isErrorEnabled()) {
+        LOG.error("Error: Export failed: {}", e.getMessage());
+      }
+    } catch (UnsupportedOperationException e) {
+      if (LOG.isErrorEnabled()) {
+        LOG.error("Error: {}", e.getMessage());
+      }
+    } catch (RuntimeException e) {
+      if (LOG.isErrorEnabled()) {
+        LOG.error("An unexpected error occurred while exporting items: {}", e.getMessage(), e);
+      }
+    }
+    return exitCode; // Single return point
+  }
+
+  /**
+   * Writes the export to the channel.
+   *
+   * @param target the destination
+   * @return items written for text formats, bytes written for the binary format
+   * @throws IOException if writing fails
+   */
+  private long export(final WritableByteChannel target) throws IOException {
+    return switch (format) {
+      case CSV ->
+          new InventoryExporter(inventoryService).exportRecords(ItemRecordFormat.CSV, target);
+      case NDJSON ->
+          new InventoryExporter(inventoryService).exportRecords(ItemRecordFormat.NDJSON, target);
+      case BINARY -> inventoryService.exportSnapshot(target);
+    };
+  }
+}
@@ -0,0 +1,115 @@
+package com.spantry.cli.command;
+
+import com.spantry.inventory.io.ImportReport;
+import com.spantry.inventory.io.InventoryImporter;
+import com.spantry.inventory.io.ItemRecordFormat;
+import com.spantry.inventory.service.InventoryService;
+import com.spantry.inventory.service.dto.AddItemCommandDto;
+import com.spantry.validation.Validators;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+import picocli.CommandLine.Parameters;
+
+/**
+ * Command to bulk-load items from a CSV or NDJSON file in a single process. Records are parsed and
+ * validated in parallel and stored in batches, one persistence step per batch.
+ */
+@Command(
+    name = "import",
+    description = "Imports items from a CSV or NDJSON file.",
+    mixinStandardHelpOptions = true)
+public class ImportItemsCommand implements Callable<Integer> {
+
+  // Logger instance
+  private static final Logger LOG = LoggerFactory.getLogger(ImportItemsCommand.class);
+
+  private final InventoryService inventoryService;
+
+  @Parameters(
+      index = "0",
+      description =
+          "File to import. CSV columns: name,quantity,location[,expirationDate]; NDJSON members:"
+              + " name, quantity, location, expirationDate.")
+  /* package */ Path file;
+
+  @Option(
+      names = {"-f", "--format"},
+      description = "Input format (CSV, NDJSON). Default: derived from the file extension.")
+  /* package */ ItemRecordFormat format;
+
+  @Option(
+      names = {"--batch-size"},
+      defaultValue = "" + InventoryImporter.DEFAULT_BATCH_SIZE,
+      description = "Records stored per batch (default: ${DEFAULT-VALUE}).")
+  /* package */ int batchSize;
+
+  @Option(
+      names = {"--threads"},
+      description = "Parser threads (default: number of available processors).")
+  /* package */ Integer threads;
+
+  /**
+   * Constructor for Dependency Injection.
+   *
+   * @param inventoryService The service to interact with inventory.
+   */
+  public ImportItemsCommand(final InventoryService inventoryService) {
+    this.inventoryService =
+        Objects.requireNonNull(inventoryService, "inventoryService cannot be null");
+  }
+
+  @Override
+  // Suppress AvoidCatchingGenericException for the main command boundary catch block
+  @SuppressWarnings("PMD.AvoidCatchingGenericException")
+  public Integer call() {
+    int exitCode = 1; // Default to error
+    final int workers = threads == null ? Runtime.getRuntime().availableProcessors() : threads;
+    final ItemRecordFormat effectiveFormat =
+        format == null ? ItemRecordFormat.forFile(file) : format;
+    try {
+      final InventoryImporter importer =
+          new InventoryImporter(
+              inventoryService, Validators.forType(AddItemCommandDto.class), batchSize, workers);
+      final ImportReport report = importer.importFile(file, effectiveFormat);
+      logReport(report);
+      exitCode = report.rejected().isEmpty() ? 0 : 1;
+    } catch (IOException e) {
+      if (LOG.isErrorEnabled()) {
+        LOG.error("Error: Could not read '{}': {}", file, e.getMessage());
+      }
+    } catch (IllegalArgumentException e) {
+      if (LOG.isErrorEnabled()) {
+        LOG.error("Error: {}", e.getMessage());
+      }
+    } catch (RuntimeException e) {
+      if (LOG.isErrorEnabled()) {
+        LOG.error("An unexpected error occurred while importing items: {}", e.getMessage(), e);
+      }
+    }
+    return exitCode; // Single return point
+  }
+
+  private void logReport(final ImportReport report) {
+    if (LOG.isInfoEnabled()) {
+      LOG.info(
+          "Imported {} of {} records from {} in {} ms ({} records/s).",
+          report.imported(),
+          report.recordsRead(),
+          file,
+          report.elapsed().toMillis(),
+          report.recordsPerSecond());
+    }
+    if (!report.rejected().isEmpty() && LOG.isErrorEnabled()) {
+      LOG.error("Rejected {} line(s):", report.rejected().size());
+      for (final ImportReport.RejectedLine rejected : report.rejected()) {
+        LOG.error("  Line {}: {}", rejected.lineNumber(), rejected.reason());
+      }
+    }
+  }
+}
@@ -5,10 +5,20 @@ import picocli.CommandLine.Command;
 /** Groups subcommands related to inventory item management under the 'item' command. */
 @Command(
     name = "item",
-    description = "Manage inventory items (add, list, remove).",
-    subcommands = {AddItemCommand.class, ListItemsCommand.class, RemoveItemCommand.class
+    description =
+        "Manage inventory items (add, list, stats, remove, consume, restock, import, export).",
+    subcommands = {
+      AddItemCommand.class,
+      ListItemsCommand.class,
+      ItemStatsCommand.class,
+      RemoveItemCommand.class,
+      ConsumeItemCommand.class,
+      RestockItemCommand.class,
+      ImportItemsCommand.class,
+      ExportItemsCommand.class
       // Add other item-related commands here (e.g., update)
-    })
+    },
+    mixinStandardHelpOptions = true)
 @SuppressWarnings("PMD.AtLeastOneConstructor")
 public final class ItemCommands {
 
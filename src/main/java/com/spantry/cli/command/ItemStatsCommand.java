@@ -0,0 +1,131 @@
+package com.spantry.cli.command;
+
+import com.spantry.inventory.domain.Location;
+import com.spantry.inventory.repository.InventoryStats;
+import com.spantry.inventory.service.InventoryService;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+
+/**
+ * Command to print the aggregate figures of the inventory. The figures come from counters the
+ * repository maintains on every change, so the command does not visit the items unless asked to
+ * verify them.
+ */
+@Command(
+    name = "stats",
+    description = "Shows item counts and quantities per location and expiry figures.",
+    mixinStandardHelpOptions = true)
+public class ItemStatsCommand implements Callable<Integer> {
+
+  // Logger instance
+  private static final Logger LOG = LoggerFactory.getLogger(ItemStatsCommand.class);
+
+  private final InventoryService inventoryService;
+
+  @Option(
+      names = {"--as-of"},
+      paramLabel = "<date>",
+      description = "Day the expiry figures are relative to (YYYY-MM-DD, default: today).")
+  /* package */ LocalDate asOf;
+
+  @Option(
+      names = {"--verify"},
+      description = "Also recounts every item and fails if the maintained figures differ.")
+  /* package */ boolean verify;
+
+  /**
+   * Constructor for Dependency Injection.
+   *
+   * @param inventoryService The service to read the figures from.
+   */
+  public ItemStatsCommand(final InventoryService inventoryService) {
+    this.inventoryService = inventoryService;
+  }
+
+  @Override
+  @SuppressWarnings({"PMD.AvoidCatchingGenericException"})
+  public Integer call() {
+    int exitCode = 0; // Default to success
+    try {
+      final LocalDate day = asOf == null ? LocalDate.now() : asOf;
+      final InventoryStats stats = inventoryService.getStats(day);
+      print(format(stats));
+      if (verify) {
+        final InventoryStats recounted = inventoryService.recountStats(day);
+        if (recounted.equals(stats)) {
+          if (LOG.isInfoEnabled()) {
+            LOG.info("Verified: the figures match a recount of {} items.", recounted.totalItems());
+          }
+        } else {
+          if (LOG.isErrorEnabled()) {
+            LOG.error("Error: The maintained figures differ from a recount of every item.");
+          }
+          print("Recounted:\n" + format(recounted));
+          exitCode = 1;
+        }
+      }
+    } catch (IOException e) {
+      if (LOG.isErrorEnabled()) {
+        LOG.error("Error: Could not write the statistics: {}", e.getMessage());
+      }
+      exitCode = 1;
+    } catch (RuntimeException e) {
+      if (LOG.isErrorEnabled()) {
+        LOG.error("Error computing statistics: {}", e.getMessage(), e);
+      }
+      exitCode = 1;
+    }
+    return exitCode; // Single return point
+  }
+
+  /**
+   * Renders the figures as a location table followed by the expiry figures.
+   *
+   * @param stats the figures
+   * @return the text, ending with a line break
+   */
+  /* package */ static String format(final InventoryStats stats) {
+    final StringBuilder out = new StringBuilder(512);
+    out.append(String.format(Locale.ROOT, "%-9s %10s %12s%n", "LOCATION", "ITEMS", "QUANTITY"));
+    for (final Map.Entry<Location, InventoryStats.LocationTotals> entry :
+        stats.locations().entrySet()) {
+      out.append(
+          String.format(
+              Locale.ROOT,
+              "%-9s %10d %12d%n",
+              entry.getKey(),
+              entry.getValue().items(),
+              entry.getValue().quantity()));
+    }
+    out.append(
+        String.format(
+            Locale.ROOT, "%-9s %10d %12d%n%n", "TOTAL", stats.totalItems(), stats.totalQuantity()));
+    out.append(String.format(Locale.ROOT, "As of:              %s%n", stats.asOf()));
+    out.append(String.format(Locale.ROOT, "Expired:            %d%n", stats.expired()));
+    out.append(
+        String.format(
+            Locale.ROOT,
+            "Expiring in %d days: %d%n",
+            InventoryStats.WEEK_DAYS,
+            stats.expiringThisWeek()));
+    out.append(String.format(Locale.ROOT, "No expiry date:     %d%n", stats.undated()));
+    return out.toString();
+  }
+
+  private static void print(final String text) throws IOException {
+    // Through System.out so the output reaches the right client inside the daemon
+    final Writer writer = new OutputStreamWriter(System.out, StandardCharsets.UTF_8);
+    writer.write(text);
+    writer.flush();
+  }
+}
@@ -1,20 +1,35 @@
 package com.spantry.cli.command;
 
-// import com.spantry.inventory.domain.Item;
+import com.spantry.cli.render.OutputFormat;
 import com.spantry.inventory.domain.InventoryItem;
 import com.spantry.inventory.domain.Location;
+import com.spantry.inventory.filter.FilterExpression;
+import com.spantry.inventory.filter.ItemFilter;
+import com.spantry.inventory.repository.EventSourcedInventoryRepository;
+import com.spantry.inventory.repository.ItemQuery;
+import com.spantry.inventory.repository.QueryPlan;
 import com.spantry.inventory.service.InventoryService;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 import java.util.concurrent.Callable;
+import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import picocli.CommandLine.Command;
 import picocli.CommandLine.Option;
 
-/** Command to list inventory items. */
+/** Command to list inventory items in one of the {@link OutputFormat}s. */
 @Command(
     name = "list",
-    description = "Lists inventory items, optionally filtered by location.",
+    description = "Lists inventory items, optionally filtered, sorted and limited.",
     mixinStandardHelpOptions = true)
 public class ListItemsCommand implements Callable<Integer> {
 
@@ -26,7 +41,75 @@ public class ListItemsCommand implements Callable<Integer> {
   @Option(
       names = {"-l", "--location"},
       description = "Filter items by location (e.g., PANTRY, FRIDGE, FREEZER). Optional.")
-  private Location location;
+  /* package */ Location location;
+
+  @Option(
+      names = {"-f", "--format"},
+      defaultValue = "TABLE",
+      description = "Output format: ${COMPLETION-CANDIDATES} (default: ${DEFAULT-VALUE}).")
+  /* package */ OutputFormat format = OutputFormat.TABLE;
+
+  @Option(
+      names = {"--name-prefix"},
+      paramLabel = "<prefix>",
+      description = "Only items whose name starts with this text (case insensitive).")
+  /* package */ String namePrefix;
+
+  @Option(
+      names = {"--min-qty"},
+      paramLabel = "<n>",
+      description = "Only items with at least this quantity.")
+  /* package */ Integer minQuantity;
+
+  @Option(
+      names = {"--max-qty"},
+      paramLabel = "<n>",
+      description = "Only items with at most this quantity.")
+  /* package */ Integer maxQuantity;
+
+  @Option(
+      names = {"--expires-from"},
+      paramLabel = "<date>",
+      description = "Only items expiring on or after this date (YYYY-MM-DD).")
+  /* package */ LocalDate expiresFrom;
+
+  @Option(
+      names = {"--expires-to"},
+      paramLabel = "<date>",
+      description = "Only items expiring on or before this date (YYYY-MM-DD).")
+  /* package */ LocalDate expiresTo;
+
+  @Option(
+      names = {"-s", "--sort-by"},
+      defaultValue = "NONE",
+      description = "Sort order: ${COMPLETION-CANDIDATES} (default: ${DEFAULT-VALUE}).")
+  /* package */ ItemQuery.Sort sortBy = ItemQuery.Sort.NONE;
+
+  @Option(
+      names = {"--limit"},
+      paramLabel = "<n>",
+      description = "Show at most this many items.")
+  /* package */ Integer limit;
+
+  @Option(
+      names = {"-w", "--where"},
+      paramLabel = "<filter>",
+      description =
+          "Filter expression, e.g. \"loc in (FRIDGE,FREEZER) and qty < 2 and expires < today+3\".")
+  /* package */ String where;
+
+  @Option(
+      names = {"--explain"},
+      description = "Shows how the query is executed and how many items it examines.")
+  /* package */ boolean explain;
+
+  @Option(
+      names = {"--as-of"},
+      paramLabel = "<time>",
+      description =
+          "List the items as they were at this time: an instant (2026-10-19T08:00:00Z), a local"
+              + " date-time (2026-10-19T10:00) or a date, meaning its end. Needs the event store.")
+  /* package */ String asOf;
 
   /**
    * Constructor for Dependency Injection.
@@ -42,13 +125,39 @@ public class ListItemsCommand implements Callable<Integer> {
   public Integer call() {
     int exitCode = 0; // Default to success
     try {
-      // Fetch items based on filter
-      final List<InventoryItem> items = fetchItems();
+      if (explain && asOf != null) {
+        throw new IllegalArgumentException(
+            "--explain describes the current inventory, not --as-of");
+      } else if (explain) {
+        explainQuery();
+      } else {
+        // Fetch items based on filter
+        final List<InventoryItem> items = fetchItems();
 
-      // Display items
-      displayItems(items);
+        // Display items
+        displayItems(items);
+      }
 
       // exitCode remains 0 if successful
+    } catch (IllegalArgumentException e) {
+      if (LOG.isErrorEnabled()) {
+        LOG.error("Error: {}", e.getMessage());
+      }
+      exitCode = 1;
+    } catch (UnsupportedOperationException e) {
+      if (LOG.isErrorEnabled()) {
+        LOG.error(
+            "Error: {}; past states need the event store (-D{}={})",
+            e.getMessage(),
+            EventSourcedInventoryRepository.STORAGE_PROPERTY,
+            EventSourcedInventoryRepository.EVENTS);
+      }
+      exitCode = 1;
+    } catch (IOException e) {
+      if (LOG.isErrorEnabled()) {
+        LOG.error("Error: Could not write the item list: {}", e.getMessage());
+      }
+      exitCode = 1;
     } catch (RuntimeException e) {
       if (LOG.isErrorEnabled()) {
         LOG.error("Error listing items: {}", e.getMessage(), e);
@@ -59,60 +168,147 @@ public class ListItemsCommand implements Callable<Integer> {
   }
 
   /**
-   * Fetches items from the inventory service based on location filter.
+   * Fetches the matching items from the inventory service. Filtering, sorting and the limit are
+   * pushed down to the repository as one query.
    *
    * @return List of inventory items
    */
   private List<InventoryItem> fetchItems() {
-    List<InventoryItem> items;
-    if (location == null) {
-      if (LOG.isInfoEnabled()) {
+    if (LOG.isInfoEnabled()) {
+      if (location == null) {
         LOG.info("Listing all inventory items:");
-      }
-      items = inventoryService.getAllItems();
-    } else {
-      if (LOG.isInfoEnabled()) {
+      } else {
         LOG.info("Listing items in location: {}", location);
       }
-      items = inventoryService.getItemsByLocation(location);
     }
-    return items;
+    final ItemQuery query = buildQuery();
+    return asOf == null
+        ? inventoryService.findItems(query)
+        : inventoryService.findItemsAsOf(query, parseAsOf(asOf, ZoneId.systemDefault()));
+  }
+
+  /**
+   * Parses the {@code --as-of} time: an ISO instant, else a local date-time in the given zone, else
+   * a date standing for the last moment of that day there.
+   *
+   * @param text the option value
+   * @param zone the zone of local times
+   * @return the instant
+   * @throws IllegalArgumentException if the text is none of these
+   */
+  /* package */ static Instant parseAsOf(final String text, final ZoneId zone) {
+    final String trimmed = text.trim();
+    Instant instant = null;
+    try {
+      instant = Instant.parse(trimmed);
+    } catch (DateTimeParseException notInstant) {
+      try {
+        instant = LocalDateTime.parse(trimmed).atZone(zone).toInstant();
+      } catch (DateTimeParseException notDateTime) {
+        try {
+          instant =
+              LocalDate.parse(trimmed).plusDays(1).atStartOfDay(zone).toInstant().minusMillis(1);
+        } catch (DateTimeParseException notDate) {
+          throw new IllegalArgumentException(
+              "Invalid --as-of time '" + text + "': expected an instant, a date-time or a date",
+              notDate);
+        }
+      }
+    }
+    return instant;
+  }
+
+  /**
+   * Translates the options into a repository query.
+   *
+   * @return the query
+   * @throws IllegalArgumentException if the filter expression is invalid
+   */
+  /* package */ ItemQuery buildQuery() {
+    return buildQuery(where == null ? null : ItemFilter.compile(where));
+  }
+
+  private ItemQuery buildQuery(final ItemFilter filter) {
+    ItemQuery query =
+        ItemQuery.ALL
+            .withNamePrefix(namePrefix)
+            .withExpiryBetween(expiresFrom, expiresTo)
+            .withQuantityBetween(
+                minQuantity == null ? Integer.MIN_VALUE : minQuantity,
+                maxQuantity == null ? Integer.MAX_VALUE : maxQuantity)
+            .sortedBy(sortBy);
+    if (location != null) {
+      query = query.withLocations(location);
+    }
+    if (limit != null) {
+      query = query.limitedTo(limit);
+    }
+    if (filter != null) {
+      query = filter.applyTo(query);
+    }
+    return query;
+  }
+
+  /**
+   * Prints the plan of the query instead of its results: what the filter pushed down to the
+   * repository, what is left to evaluate per item, the access path and the row counts.
+   *
+   * @throws IOException if standard output cannot be written
+   */
+  private void explainQuery() throws IOException {
+    final ItemFilter filter = where == null ? null : ItemFilter.compile(where);
+    final ItemQuery query = buildQuery(filter);
+    final QueryPlan plan = inventoryService.explainItems(query);
+    final StringBuilder out = new StringBuilder(256);
+    if (filter != null) {
+      out.append("Filter:        ").append(filter).append('\n');
+      out.append("Pushed down:   ").append(describe(filter.pushedDown())).append('\n');
+      out.append("Residual:      ").append(describe(filter.residual())).append('\n');
+    }
+    out.append("Access path:   ").append(plan.accessPath()).append('\n');
+    out.append("Sort:          ")
+        .append(query.sort())
+        .append(
+            query.sort() == ItemQuery.Sort.NONE
+                ? ""
+                : plan.sorted() ? " (sorted after the scan)" : " (index order)")
+        .append('\n');
+    out.append("Rows examined: ").append(plan.rowsExamined()).append('\n');
+    out.append("Rows matched:  ").append(plan.rowsMatched()).append('\n');
+    out.append("Rows returned: ").append(plan.rowsReturned()).append('\n');
+    final ItemFilter.CacheStats cache = ItemFilter.cacheStats();
+    out.append("Filter cache:  ")
+        .append(cache.hits())
+        .append(" hits, ")
+        .append(cache.misses())
+        .append(" misses, ")
+        .append(cache.size())
+        .append(" cached\n");
+    final Writer writer = new OutputStreamWriter(System.out, StandardCharsets.UTF_8);
+    writer.write(out.toString());
+    writer.flush();
+  }
+
+  private static String describe(final List<FilterExpression> conjuncts) {
+    return conjuncts.isEmpty()
+        ? "-"
+        : conjuncts.stream().map(Object::toString).collect(Collectors.joining(" and "));
   }
 
   /**
-   * Displays the list of items to the log.
+   * Renders the items to standard output, or logs that there are none.
    *
    * @param items List of inventory items to display
+   * @throws IOException if standard output cannot be written
    */
-  private void displayItems(final List<InventoryItem> items) {
+  private void displayItems(final List<InventoryItem> items) throws IOException {
     if (items.isEmpty()) {
       if (LOG.isInfoEnabled()) {
         LOG.info("No items found in inventory.");
       }
     } else {
-      if (LOG.isInfoEnabled()) {
-        // Use simpler format matching test expectations
-        for (final InventoryItem item : items) {
-          // Use direct field and handle null for expiry
-          final String expiryStr =
-              item.expirationDate() != null ? item.expirationDate().toString() : "N/A";
-          LOG.info(
-              String.format(
-                  "ID: %s, Name: %s, Qty: %d, Loc: %s, Exp: %s",
-                  item.itemId(), item.name(), item.quantity(), item.location(), expiryStr));
-        }
-      }
+      // Through System.out so the output reaches the right client inside the daemon
+      format.render(items, System.out);
     }
   }
-
-  // Helper to truncate long names for display - Removed as it interferes with tests
-  // private String truncate(final String text, final int maxLength) {
-  //   String result;
-  //   if (text == null) {
-  //     result = "";
-  //   } else {
-  //     result = text.length() <= maxLength ? text : text.substring(0, maxLength - 3) + "...";
-  //   }
-  //   return result;
-  // }
 }
@@ -0,0 +1,83 @@
+package com.spantry.cli.command;
+
+import com.spantry.metrics.MetricsFormat;
+import com.spantry.metrics.MetricsRegistry;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+
+/**
+ * Command to print or export the operation metrics of the running process. The figures accumulate
+ * over the life of the process, so they are most useful from the daemon, which every other
+ * invocation is forwarded to, or from the interactive shell.
+ */
+@Command(
+    name = "metrics",
+    description = "Shows call counts, error rates and latency percentiles of inventory operations.",
+    mixinStandardHelpOptions = true)
+public class MetricsCommand implements Callable<Integer> {
+
+  // Logger instance
+  private static final Logger LOG = LoggerFactory.getLogger(MetricsCommand.class);
+
+  private final MetricsRegistry registry;
+
+  @Option(
+      names = {"-f", "--format"},
+      defaultValue = "TEXT",
+      description = "Output format: ${COMPLETION-CANDIDATES} (default: ${DEFAULT-VALUE}).")
+  /* package */ MetricsFormat format;
+
+  @Option(
+      names = {"-o", "--output"},
+      description = "Output file. Default: standard output.")
+  /* package */ Path output;
+
+  /** Creates the command reading the application's registry. */
+  public MetricsCommand() {
+    this(MetricsRegistry.global());
+  }
+
+  /**
+   * Creates the command reading the given registry.
+   *
+   * @param registry the metrics to show
+   */
+  /* package */ MetricsCommand(final MetricsRegistry registry) {
+    this.registry = Objects.requireNonNull(registry, "registry cannot be null");
+  }
+
+  @Override
+  public Integer call() {
+    int exitCode = 1; // Default to error
+    final String text = format.render(registry.snapshot());
+    try {
+      if (output == null) {
+        // Through System.out so the output reaches the right client inside the daemon
+        final Writer writer = new OutputStreamWriter(System.out, StandardCharsets.UTF_8);
+        writer.write(text);
+        writer.flush();
+      } else {
+        Files.writeString(output, text, StandardCharsets.UTF_8);
+        if (LOG.isInfoEnabled()) {
+          LOG.info("Wrote {} metrics to {}", format, output);
+        }
+      }
+      exitCode = 0;
+    } catch (IOException e) {
+      if (LOG.isErrorEnabled()) {
+        LOG.error("Error: Could not write the metrics: {}", e.getMessage());
+      }
+    }
+    return exitCode; // Single return point
+  }
+}
@@ -22,7 +22,7 @@ public class RemoveItemCommand implements Callable<Integer> {
   private final InventoryService inventoryService;
 
   @Parameters(index = "0", description = "The unique ID of the item to remove.")
-  private String itemId;
+  /* package */ String itemId;
 
   /**
    * Constructor for Dependency Injection.
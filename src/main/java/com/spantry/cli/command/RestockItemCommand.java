@@ -0,0 +1,79 @@
+package com.spantry.cli.command;
+
+import com.spantry.inventory.domain.InventoryItem;
+import com.spantry.inventory.service.InventoryService;
+import com.spantry.inventory.service.exception.ItemNotFoundException;
+import java.util.concurrent.Callable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+import picocli.CommandLine.Parameters;
+
+/** Command to add quantity to an existing item, keeping its ID. */
+@Command(
+    name = "restock",
+    description = "Increases the quantity of an existing item.",
+    mixinStandardHelpOptions = true)
+public class RestockItemCommand implements Callable<Integer> {
+
+  // Logger instance
+  private static final Logger LOG = LoggerFactory.getLogger(RestockItemCommand.class);
+
+  private final InventoryService inventoryService;
+
+  @Parameters(index = "0", description = "The unique ID of the item to restock.")
+  /* package */ String itemId;
+
+  @Option(
+      names = {"-q", "--quantity"},
+      required = true,
+      description = "Quantity to add.")
+  /* package */ int quantity;
+
+  /**
+   * Constructor for Dependency Injection.
+   *
+   * @param inventoryService The service to interact with inventory.
+   */
+  public RestockItemCommand(final InventoryService inventoryService) {
+    this.inventoryService = inventoryService;
+  }
+
+  @Override
+  // Suppress AvoidCatchingGenericException for the main command boundary catch block
+  @SuppressWarnings({"PMD.CognitiveComplexity", "PMD.AvoidCatchingGenericException"})
+  public Integer call() {
+    int exitCode = 1; // Default to error
+    if (itemId == null || itemId.isBlank()) {
+      if (LOG.isErrorEnabled()) {
+        LOG.error("Error: Item ID must be provided.");
+      }
+    } else if (quantity <= 0) {
+      if (LOG.isErrorEnabled()) {
+        LOG.error("Error: Quantity to restock must be positive.");
+      }
+    } else {
+      try {
+        // A positive delta never reaches zero, so the item is always present afterwards
+        final InventoryItem updated =
+            inventoryService.adjustQuantity(itemId, quantity).orElseThrow();
+        if (LOG.isInfoEnabled()) {
+          LOG.info(
+              "Restocked {} of item {}. New quantity: {}", quantity, itemId, updated.quantity());
+        }
+        exitCode = 0;
+      } catch (ItemNotFoundException e) {
+        if (LOG.isErrorEnabled()) {
+          LOG.error("Error: {}", e.getMessage());
+        }
+      } catch (RuntimeException e) {
+        if (LOG.isErrorEnabled()) {
+          LOG.error(
+              "An unexpected error occurred while restocking the item: {}", e.getMessage(), e);
+        }
+      }
+    }
+    return exitCode; // Single return point
+  }
+}
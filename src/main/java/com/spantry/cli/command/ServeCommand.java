@@ -0,0 +1,102 @@
+package com.spantry.cli.command;
+
+import com.spantry.http.InventoryHttpServer;
+import com.spantry.inventory.service.InventoryService;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+
+/**
+ * Command that serves the inventory as a JSON API over HTTP until the process is stopped. See
+ * {@link InventoryHttpServer} for the endpoints.
+ */
+@Command(
+    name = "serve",
+    description = "Serves the inventory as a JSON API over HTTP until stopped (Ctrl+C).",
+    mixinStandardHelpOptions = true)
+public class ServeCommand implements Callable<Integer> {
+
+  // Logger instance
+  private static final Logger LOG = LoggerFactory.getLogger(ServeCommand.class);
+
+  private final InventoryService inventoryService;
+
+  @Option(
+      names = {"-p", "--port"},
+      defaultValue = "8080",
+      description = "Port to listen on; 0 picks a free one (default: ${DEFAULT-VALUE}).")
+  /* package */ int port;
+
+  @Option(
+      names = {"--bind"},
+      defaultValue = "127.0.0.1",
+      paramLabel = "<address>",
+      description =
+          "Address to listen on (default: ${DEFAULT-VALUE}, reachable from this machine only).")
+  /* package */ String bind;
+
+  @Option(
+      names = {"-t", "--threads"},
+      paramLabel = "<n>",
+      description = "Request handler threads (default: twice the number of processors).")
+  /* package */ Integer threads;
+
+  /**
+   * Constructor for Dependency Injection.
+   *
+   * @param inventoryService The service to expose.
+   */
+  public ServeCommand(final InventoryService inventoryService) {
+    this.inventoryService =
+        Objects.requireNonNull(inventoryService, "inventoryService cannot be null");
+  }
+
+  @Override
+  // Suppress AvoidCatchingGenericException for the main command boundary catch block
+  @SuppressWarnings("PMD.AvoidCatchingGenericException")
+  public Integer call() {
+    int exitCode = 1; // Default to error
+    final int handlerThreads = threads == null ? defaultThreads() : threads;
+    try (InventoryHttpServer server =
+        new InventoryHttpServer(
+            new InetSocketAddress(bind, port), inventoryService, handlerThreads)) {
+      Runtime.getRuntime().addShutdownHook(new Thread(server::close, "spantry-serve-shutdown"));
+      server.start();
+      server.awaitClose();
+      exitCode = 0;
+    } catch (IOException e) {
+      if (LOG.isErrorEnabled()) {
+        LOG.error("Error: Could not serve on {}:{}: {}", bind, port, e.getMessage());
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      if (LOG.isErrorEnabled()) {
+        LOG.error("Error: The server was interrupted");
+      }
+    } catch (IllegalArgumentException e) {
+      if (LOG.isErrorEnabled()) {
+        LOG.error("Error: {}", e.getMessage());
+      }
+    } catch (RuntimeException e) {
+      if (LOG.isErrorEnabled()) {
+        LOG.error("An unexpected error occurred in the server: {}", e.getMessage(), e);
+      }
+    }
+    return exitCode; // Single return point
+  }
+
+  /**
+   * Returns the default size of the handler pool. Handlers mostly wait on the repository lock or
+   * the client, so twice the processors keeps the CPUs busy without a thread per connection.
+   *
+   * @return the number of handler threads
+   */
+  /* package */ static int defaultThreads() {
+    return 2 * Runtime.getRuntime().availableProcessors();
+  }
+}
@@ -0,0 +1,70 @@
+package com.spantry.cli.command;
+
+import com.spantry.cli.RecordedExecutionStrategy;
+import com.spantry.cli.SpantryCliAppFactory;
+import com.spantry.cli.shell.InteractiveShell;
+import com.spantry.inventory.service.InventoryService;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import org.jline.terminal.Terminal;
+import org.jline.terminal.TerminalBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import picocli.CommandLine;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+
+/**
+ * Command that starts an interactive shell. The inventory is loaded once and every command typed
+ * into the shell runs against it in the same JVM, with history and tab completion.
+ */
+@Command(
+    name = "shell",
+    description = "Starts an interactive shell with history and tab completion.",
+    mixinStandardHelpOptions = true)
+public class ShellCommand implements Callable<Integer> {
+
+  // Logger instance
+  private static final Logger LOG = LoggerFactory.getLogger(ShellCommand.class);
+
+  private static final Path DEFAULT_HISTORY_FILE = Paths.get("build", "spantry_history");
+
+  private final InventoryService inventoryService;
+
+  @Option(
+      names = {"--history"},
+      description = "History file (default: build/spantry_history).")
+  /* package */ Path historyFile;
+
+  /**
+   * Constructor for Dependency Injection.
+   *
+   * @param inventoryService The service shared by all commands run in the shell.
+   */
+  public ShellCommand(final InventoryService inventoryService) {
+    this.inventoryService =
+        Objects.requireNonNull(inventoryService, "inventoryService cannot be null");
+  }
+
+  @Override
+  public Integer call() {
+    int exitCode = 1; // Default to error
+    try (Terminal terminal = TerminalBuilder.builder().system(true).build()) {
+      final CommandLine commandLine =
+          RecordedExecutionStrategy.install(
+              new SpantryCliAppFactory(inventoryService).commandLine());
+      final InteractiveShell shell =
+          new InteractiveShell(
+              commandLine, terminal, historyFile == null ? DEFAULT_HISTORY_FILE : historyFile);
+      exitCode = shell.run();
+    } catch (IOException e) {
+      if (LOG.isErrorEnabled()) {
+        LOG.error("Error: Could not open terminal: {}", e.getMessage());
+      }
+    }
+    return exitCode; // Single return point
+  }
+}
@@ -0,0 +1,169 @@
+package com.spantry.cli.daemon;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Objects;
+import java.util.OptionalInt;
+
+/**
+ * Thin client forwarding a command to a running {@link DaemonServer}. It touches neither the
+ * repository nor the command model, so a forwarded command costs little more than JVM startup.
+ */
+public final class DaemonClient {
+
+  /** Environment variable overriding the socket location. */
+  public static final String SOCKET_ENV = "SPANTRY_SOCKET";
+
+  /** Environment variable that disables forwarding when set to any value. */
+  public static final String NO_DAEMON_ENV = "SPANTRY_NO_DAEMON";
+
+  private DaemonClient() {
+    // Utility class
+  }
+
+  /**
+   * Returns the socket location: {@value #SOCKET_ENV} if set, otherwise {@code build/spantry.sock}.
+   *
+   * @return the socket path
+   */
+  public static Path socketPath() {
+    final String configured = System.getenv(SOCKET_ENV);
+    return configured == null || configured.isBlank()
+        ? DaemonProtocol.DEFAULT_SOCKET_PATH
+        : Paths.get(configured);
+  }
+
+  /**
+   * Runs the command in the daemon if one is listening on the socket, copying its output to this
+   * process's standard streams.
+   *
+   * @param socketPath the daemon socket
+   * @param args the command-line arguments
+   * @return the command's exit code, or empty if no daemon is reachable and the command should run
+   *     locally
+   */
+  public static OptionalInt forward(final Path socketPath, final String... args) {
+    Objects.requireNonNull(socketPath, "socketPath cannot be null");
+    OptionalInt exitCode = OptionalInt.empty();
+    if (System.getenv(NO_DAEMON_ENV) == null && Files.exists(socketPath)) {
+      final SocketChannel channel = connect(socketPath);
+      if (channel != null) {
+        exitCode = OptionalInt.of(run(channel, args));
+      }
+    }
+    return exitCode;
+  }
+
+  /**
+   * Asks the daemon to shut down.
+   *
+   * @param socketPath the daemon socket
+   * @return true if a daemon acknowledged the request
+   */
+  public static boolean shutdown(final Path socketPath) {
+    boolean acknowledged = false;
+    final SocketChannel channel = Files.exists(socketPath) ? connect(socketPath) : null;
+    if (channel != null) {
+      try (channel;
+          DataOutputStream out = new DataOutputStream(Channels.newOutputStream(channel));
+          DataInputStream in = new DataInputStream(Channels.newInputStream(channel))) {
+        out.writeInt(DaemonProtocol.VERSION);
+        out.writeByte(DaemonProtocol.REQUEST_SHUTDOWN);
+        out.flush();
+        acknowledged = in.readByte() == DaemonProtocol.FRAME_EXIT;
+      } catch (IOException e) {
+        acknowledged = false;
+      }
+    }
+    return acknowledged;
+  }
+
+  /**
+   * Whether a daemon accepts connections on the socket.
+   *
+   * @param socketPath the daemon socket
+   * @return true if a connection could be established
+   */
+  public static boolean isRunning(final Path socketPath) {
+    final SocketChannel channel = connect(socketPath);
+    boolean running = false;
+    if (channel != null) {
+      running = true;
+      closeQuietly(channel);
+    }
+    return running;
+  }
+
+  private static SocketChannel connect(final Path socketPath) {
+    SocketChannel channel = null;
+    try {
+      channel = SocketChannel.open(StandardProtocolFamily.UNIX);
+      channel.connect(UnixDomainSocketAddress.of(socketPath));
+    } catch (IOException e) {
+      // No daemon behind the socket (e.g., a stale file): run locally
+      closeQuietly(channel);
+      channel = null;
+    }
+    return channel;
+  }
+
+  private static int run(final SocketChannel channel, final String... args) {
+    int exitCode = 1;
+    try (channel;
+        DataOutputStream out =
+            new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+        DataInputStream in =
+            new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)))) {
+      DaemonProtocol.writeRunRequest(out, Paths.get("").toAbsolutePath(), args);
+      exitCode = copyFrames(in);
+    } catch (IOException e) {
+      // The command may already have run, so it must not be retried locally
+      System.err.println("Error: Lost connection to the Spantry daemon: " + e.getMessage());
+    }
+    return exitCode;
+  }
+
+  private static int copyFrames(final DataInputStream in) throws IOException {
+    final byte[] buffer = new byte[8192];
+    Integer exitCode = null;
+    while (exitCode == null) {
+      final byte type = in.readByte();
+      if (type == DaemonProtocol.FRAME_EXIT) {
+        exitCode = in.readInt();
+      } else {
+        final PrintStream target = type == DaemonProtocol.FRAME_STDERR ? System.err : System.out;
+        int remaining = in.readInt();
+        while (remaining > 0) {
+          final int chunk = Math.min(remaining, buffer.length);
+          in.readFully(buffer, 0, chunk);
+          target.write(buffer, 0, chunk);
+          remaining -= chunk;
+        }
+      }
+    }
+    System.out.flush();
+    System.err.flush();
+    return exitCode;
+  }
+
+  private static void closeQuietly(final SocketChannel channel) {
+    if (channel != null) {
+      try {
+        channel.close();
+      } catch (IOException e) {
+        // Nothing useful to do
+      }
+    }
+  }
+}
@@ -0,0 +1,168 @@
+package com.spantry.cli.daemon;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Wire format between {@link DaemonClient} and {@link DaemonServer}.
+ *
+ * <p>A request is the protocol version, a request kind and, for {@link #REQUEST_RUN}, the client's
+ * working directory followed by the command-line arguments. The server answers with a sequence of
+ * frames: output frames (a type byte, a length and the raw bytes written to standard output or
+ * standard error) terminated by one exit frame carrying the exit code.
+ */
+final class DaemonProtocol {
+
+  /** Default socket location, next to the default data file. */
+  /* package */ static final Path DEFAULT_SOCKET_PATH = Paths.get("build", "spantry.sock");
+
+  /* package */ static final int VERSION = 1;
+
+  /* package */ static final byte REQUEST_RUN = 1;
+  /* package */ static final byte REQUEST_SHUTDOWN = 2;
+
+  /* package */ static final byte FRAME_STDOUT = 1;
+  /* package */ static final byte FRAME_STDERR = 2;
+  /* package */ static final byte FRAME_EXIT = 3;
+
+  private DaemonProtocol() {
+    // Utility class
+  }
+
+  /**
+   * Writes a run request.
+   *
+   * @param out the connection
+   * @param workingDirectory the client's working directory
+   * @param args the command-line arguments
+   * @throws IOException if writing fails
+   */
+  /* package */ static void writeRunRequest(
+      final DataOutputStream out, final Path workingDirectory, final String... args)
+      throws IOException {
+    out.writeInt(VERSION);
+    out.writeByte(REQUEST_RUN);
+    out.writeUTF(workingDirectory.toString());
+    out.writeInt(args.length);
+    for (final String arg : args) {
+      out.writeUTF(arg);
+    }
+    out.flush();
+  }
+
+  /**
+   * Reads the arguments of a run request whose header has already been consumed.
+   *
+   * @param in the connection
+   * @return the arguments
+   * @throws IOException if reading fails or the request is malformed
+   */
+  /* package */ static String[] readArguments(final DataInputStream in) throws IOException {
+    final int count = in.readInt();
+    if (count < 0) {
+      throw new IOException("Invalid argument count: " + count);
+    }
+    final String[] args = new String[count];
+    for (int i = 0; i < count; i++) {
+      args[i] = in.readUTF();
+    }
+    return args;
+  }
+
+  /**
+   * The server side of a connection: writes output frames and the exit frame. Standard output and
+   * standard error share the connection, so every frame is written atomically under a lock held
+   * across the blocking socket write (see {@link com.spantry.core.RequestThreads}).
+   */
+  /* package */ static final class FrameWriter {
+    private final DataOutputStream connection;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /* package */ FrameWriter(final DataOutputStream connection) {
+      this.connection = connection;
+    }
+
+    /**
+     * Returns a stream that sends everything written to it as frames of one type.
+     *
+     * @param frameType {@link #FRAME_STDOUT} or {@link #FRAME_STDERR}
+     * @return the stream
+     */
+    /* package */ OutputStream stream(final byte frameType) {
+      return new FrameOutputStream(this, frameType);
+    }
+
+    /**
+     * Writes the terminating exit frame.
+     *
+     * @param exitCode the command's exit code
+     * @throws IOException if writing fails
+     */
+    /* package */ void writeExit(final int exitCode) throws IOException {
+      lock.lock();
+      try {
+        connection.writeByte(FRAME_EXIT);
+        connection.writeInt(exitCode);
+        connection.flush();
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    private void writeFrame(
+        final byte frameType, final byte[] bytes, final int offset, final int length)
+        throws IOException {
+      lock.lock();
+      try {
+        connection.writeByte(frameType);
+        connection.writeInt(length);
+        connection.write(bytes, offset, length);
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    private void flush() throws IOException {
+      lock.lock();
+      try {
+        connection.flush();
+      } finally {
+        lock.unlock();
+      }
+    }
+  }
+
+  /** An output stream that sends everything written to it as frames of one type. */
+  private static final class FrameOutputStream extends OutputStream {
+    private final FrameWriter writer;
+    private final byte frameType;
+
+    private FrameOutputStream(final FrameWriter writer, final byte frameType) {
+      super();
+      this.writer = writer;
+      this.frameType = frameType;
+    }
+
+    @Override
+    public void write(final int b) throws IOException {
+      write(new byte[] {(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(final byte[] bytes, final int offset, final int length) throws IOException {
+      if (length > 0) {
+        writer.writeFrame(frameType, bytes, offset, length);
+      }
+    }
+
+    @Override
+    public void flush() throws IOException {
+      writer.flush();
+    }
+  }
+}
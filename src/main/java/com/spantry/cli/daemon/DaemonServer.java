@@ -0,0 +1,231 @@
+package com.spantry.cli.daemon;
+
+import com.spantry.core.RequestThreads;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import picocli.CommandLine;
+
+/**
+ * Keeps the application resident behind a Unix domain socket so that commands run against a warm
+ * service and repository instead of paying JVM startup and data loading on every invocation.
+ *
+ * <p>Every connection carries one command, executed on its own thread with a fresh {@link
+ * CommandLine} (command objects hold parsed options and are not reusable). On Java 21 that is a
+ * virtual thread (see {@link RequestThreads}), so a connection waiting on the repository lock or
+ * the socket does not hold on to a platform thread. The service and repository are shared, so they
+ * must be thread-safe. While the server runs, {@code System.out} and {@code System.err} are
+ * replaced by thread-routed streams that send output, including log output, back to the client that
+ * issued the command.
+ */
+public final class DaemonServer implements AutoCloseable {
+
+  private static final Logger LOG = LoggerFactory.getLogger(DaemonServer.class);
+
+  /** How long {@link #close()} waits for running commands. */
+  private static final Duration SHUTDOWN_GRACE = Duration.ofSeconds(5);
+
+  private final Path socketPath;
+  private final Supplier<CommandLine> commandLines;
+  private final ServerSocketChannel serverChannel;
+  private final ExecutorService workers;
+  private final ThreadRoutedOutputStream stdoutRouter;
+  private final ThreadRoutedOutputStream stderrRouter;
+  private final PrintStream originalOut;
+  private final PrintStream originalErr;
+
+  /**
+   * Binds the server socket. A leftover socket file from a daemon that did not shut down cleanly is
+   * replaced; a socket with a live daemon behind it is not.
+   *
+   * @param socketPath where to bind
+   * @param commandLines creates a new, fully wired command line per request
+   * @throws IOException if the socket cannot be bound or another daemon is already running
+   */
+  public DaemonServer(final Path socketPath, final Supplier<CommandLine> commandLines)
+      throws IOException {
+    this.socketPath = Objects.requireNonNull(socketPath, "socketPath cannot be null");
+    this.commandLines = Objects.requireNonNull(commandLines, "commandLines cannot be null");
+    removeStaleSocket(socketPath);
+    final Path parent = socketPath.toAbsolutePath().getParent();
+    if (parent != null) {
+      Files.createDirectories(parent);
+    }
+    this.serverChannel = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+    this.serverChannel.bind(UnixDomainSocketAddress.of(socketPath));
+    this.workers = RequestThreads.configured().newExecutor("spantry-daemon-");
+    this.originalOut = System.out;
+    this.originalErr = System.err;
+    this.stdoutRouter = new ThreadRoutedOutputStream(originalOut);
+    this.stderrRouter = new ThreadRoutedOutputStream(originalErr);
+  }
+
+  /**
+   * Accepts and serves connections until {@link #close()} is called or a shutdown request arrives.
+   *
+   * @throws IOException if accepting fails for a reason other than shutdown
+   */
+  public void serve() throws IOException {
+    final Charset charset = Charset.defaultCharset();
+    System.setOut(new PrintStream(stdoutRouter, true, charset));
+    System.setErr(new PrintStream(stderrRouter, true, charset));
+    if (LOG.isInfoEnabled()) {
+      LOG.info("Spantry daemon listening on {}", socketPath.toAbsolutePath());
+    }
+    try {
+      while (serverChannel.isOpen()) {
+        final SocketChannel connection = serverChannel.accept();
+        workers.execute(() -> handle(connection));
+      }
+    } catch (ClosedChannelException e) {
+      // Closed by close() or a shutdown request: normal termination
+      if (LOG.isDebugEnabled()) {
+        LOG.debug("Daemon socket closed");
+      }
+    } finally {
+      close();
+    }
+  }
+
+  /**
+   * Stops accepting connections, waits up to {@link #SHUTDOWN_GRACE} for running commands, restores
+   * the standard streams and removes the socket file. Safe to call more than once.
+   */
+  @Override
+  public void close() {
+    try {
+      serverChannel.close();
+      workers.shutdown();
+      awaitRunningCommands();
+      Files.deleteIfExists(socketPath);
+    } catch (IOException e) {
+      if (LOG.isWarnEnabled()) {
+        LOG.warn("Failed to clean up daemon socket {}: {}", socketPath, e.getMessage());
+      }
+    } finally {
+      System.setOut(originalOut);
+      System.setErr(originalErr);
+    }
+  }
+
+  /**
+   * Waits for the commands still running, so that a shutdown (say, from the shutdown hook before
+   * the JVM exits) does not cut one off in the middle of a write to the inventory files.
+   */
+  private void awaitRunningCommands() {
+    try {
+      if (!workers.awaitTermination(SHUTDOWN_GRACE.toMillis(), TimeUnit.MILLISECONDS)
+          && LOG.isWarnEnabled()) {
+        LOG.warn("Commands still running after {}; shutting down anyway", SHUTDOWN_GRACE);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  @SuppressWarnings("PMD.AvoidCatchingGenericException")
+  private void handle(final SocketChannel connection) {
+    try (connection;
+        DataInputStream in =
+            new DataInputStream(new BufferedInputStream(Channels.newInputStream(connection)));
+        DataOutputStream out =
+            new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(connection)))) {
+      final int version = in.readInt();
+      if (version != DaemonProtocol.VERSION) {
+        throw new IOException("Unsupported protocol version: " + version);
+      }
+      final byte kind = in.readByte();
+      final DaemonProtocol.FrameWriter frames = new DaemonProtocol.FrameWriter(out);
+      if (kind == DaemonProtocol.REQUEST_SHUTDOWN) {
+        frames.writeExit(0);
+        if (LOG.isInfoEnabled()) {
+          LOG.info("Shutdown requested, stopping daemon");
+        }
+        serverChannel.close();
+      } else if (kind == DaemonProtocol.REQUEST_RUN) {
+        final Path workingDirectory = Path.of(in.readUTF());
+        final String[] args = DaemonProtocol.readArguments(in);
+        frames.writeExit(run(workingDirectory, args, frames));
+      } else {
+        throw new IOException("Unknown request kind: " + kind);
+      }
+    } catch (IOException e) {
+      if (LOG.isWarnEnabled()) {
+        LOG.warn("Daemon connection failed: {}", e.getMessage());
+      }
+    } catch (RuntimeException e) {
+      if (LOG.isErrorEnabled()) {
+        LOG.error("Unexpected error serving daemon request: {}", e.getMessage(), e);
+      }
+    }
+  }
+
+  /**
+   * Runs one command with its output routed to the connection.
+   *
+   * @return the command's exit code
+   */
+  @SuppressWarnings("PMD.AvoidCatchingGenericException")
+  private int run(
+      final Path workingDirectory, final String[] args, final DaemonProtocol.FrameWriter frames) {
+    final Charset charset = Charset.defaultCharset();
+    final PrintStream stdout =
+        new PrintStream(frames.stream(DaemonProtocol.FRAME_STDOUT), true, charset);
+    final PrintStream stderr =
+        new PrintStream(frames.stream(DaemonProtocol.FRAME_STDERR), true, charset);
+    stdoutRouter.route(stdout);
+    stderrRouter.route(stderr);
+    int exitCode;
+    try {
+      if (args.length > 0 && "daemon".equals(args[0])) {
+        stderr.println("Error: 'daemon' cannot be run through the daemon.");
+        exitCode = 1;
+      } else {
+        final CommandLine cmd = commandLines.get();
+        cmd.setOut(new PrintWriter(stdout, true));
+        cmd.setErr(new PrintWriter(stderr, true));
+        // Relative paths refer to the client's directory, not the daemon's
+        cmd.registerConverter(Path.class, workingDirectory::resolve);
+        exitCode = cmd.execute(args);
+      }
+    } catch (RuntimeException e) {
+      stderr.println("Error: " + e.getMessage());
+      exitCode = 1;
+    } finally {
+      stdout.flush();
+      stderr.flush();
+      stdoutRouter.clear();
+      stderrRouter.clear();
+    }
+    return exitCode;
+  }
+
+  private static void removeStaleSocket(final Path socketPath) throws IOException {
+    if (Files.exists(socketPath)) {
+      if (DaemonClient.isRunning(socketPath)) {
+        throw new IOException("A daemon is already listening on " + socketPath);
+      }
+      Files.delete(socketPath);
+    }
+  }
+}
@@ -0,0 +1,61 @@
+package com.spantry.cli.daemon;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Objects;
+
+/**
+ * An output stream that forwards writes to a per-thread target, falling back to a default stream.
+ * Installed as {@code System.out}/{@code System.err} in the daemon, it sends everything a command
+ * prints or logs to the client that issued the command, even while several commands run
+ * concurrently. Threads started by a command inherit its target.
+ */
+final class ThreadRoutedOutputStream extends OutputStream {
+
+  private final OutputStream fallback;
+  private final InheritableThreadLocal<OutputStream> target = new InheritableThreadLocal<>();
+
+  /**
+   * Creates a router.
+   *
+   * @param fallback the stream used by threads without a target
+   */
+  /* package */ ThreadRoutedOutputStream(final OutputStream fallback) {
+    super();
+    this.fallback = Objects.requireNonNull(fallback, "fallback cannot be null");
+  }
+
+  /**
+   * Routes the current thread's output to the given stream.
+   *
+   * @param stream the target
+   */
+  /* package */ void route(final OutputStream stream) {
+    target.set(stream);
+  }
+
+  /** Routes the current thread's output back to the fallback stream. */
+  /* package */ void clear() {
+    target.remove();
+  }
+
+  private OutputStream current() {
+    final OutputStream stream = target.get();
+    return stream == null ? fallback : stream;
+  }
+
+  @Override
+  public void write(final int b) throws IOException {
+    current().write(b);
+  }
+
+  @Override
+  public void write(final byte[] bytes, final int offset, final int length) throws IOException {
+    current().write(bytes, offset, length);
+  }
+
+  @Override
+  public void flush() throws IOException {
+    current().flush();
+  }
+}
@@ -0,0 +1,23 @@
+package com.spantry.cli.render;
+
+import com.spantry.inventory.domain.InventoryItem;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+/**
+ * Writes a list of items to a character stream in one output format. Renderers keep reusable
+ * scratch buffers and are therefore not thread-safe; obtain a fresh one from {@link
+ * OutputFormat#renderer()} per rendering.
+ */
+public interface ItemRenderer {
+
+  /**
+   * Renders the items, including any header. The writer is neither flushed nor closed.
+   *
+   * @param items the items to render
+   * @param out the destination
+   * @throws IOException if writing fails
+   */
+  void render(List<InventoryItem> items, Writer out) throws IOException;
+}
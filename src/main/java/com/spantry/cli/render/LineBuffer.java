@@ -0,0 +1,109 @@
+package com.spantry.cli.render;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * A reusable line builder. Numbers and dates are appended as digits rather than through {@code
+ * toString()}, and finished lines are copied to the writer from a scratch array, so rendering a row
+ * allocates nothing once the buffers have grown to the longest line.
+ */
+/* package */ final class LineBuffer {
+
+  private static final int INITIAL_CAPACITY = 256;
+  private static final int DATE_LENGTH = 10;
+
+  private final StringBuilder line = new StringBuilder(INITIAL_CAPACITY);
+  private char[] scratch = new char[INITIAL_CAPACITY];
+
+  /* package */ LineBuffer append(final String text) {
+    line.append(text);
+    return this;
+  }
+
+  /* package */ LineBuffer append(final char character) {
+    line.append(character);
+    return this;
+  }
+
+  /* package */ LineBuffer append(final int number) {
+    line.append(number);
+    return this;
+  }
+
+  /** Appends {@code count} spaces. */
+  /* package */ LineBuffer pad(final int count) {
+    for (int i = 0; i < count; i++) {
+      line.append(' ');
+    }
+    return this;
+  }
+
+  /** Appends the ISO-8601 form of the date, as {@link LocalDate#toString()} would. */
+  /* package */ LineBuffer append(final LocalDate date) {
+    final int year = date.getYear();
+    if (year < 0 || year > 9999) {
+      line.append(date); // Signed or expanded years: rare enough to take the slow path
+    } else {
+      appendDigits(year, 4).append('-');
+      appendDigits(date.getMonthValue(), 2).append('-');
+      appendDigits(date.getDayOfMonth(), 2);
+    }
+    return this;
+  }
+
+  /** Writes the buffered line to the writer and clears the buffer. */
+  /* package */ void writeTo(final Writer out) throws IOException {
+    final int length = line.length();
+    if (scratch.length < length) {
+      scratch = Arrays.copyOf(scratch, Math.max(length, scratch.length * 2));
+    }
+    line.getChars(0, length, scratch, 0);
+    out.write(scratch, 0, length);
+    line.setLength(0);
+  }
+
+  private LineBuffer appendDigits(final int value, final int width) {
+    for (int divisor = pow10(width - 1); divisor > 0; divisor /= 10) {
+      line.append((char) ('0' + value / divisor % 10));
+    }
+    return this;
+  }
+
+  private static int pow10(final int exponent) {
+    int result = 1;
+    for (int i = 0; i < exponent; i++) {
+      result *= 10;
+    }
+    return result;
+  }
+
+  /**
+   * Length of an ISO-8601 date as written by {@link #append(LocalDate)}.
+   *
+   * @param date the date
+   * @return the number of characters
+   */
+  /* package */ static int length(final LocalDate date) {
+    final int year = date.getYear();
+    return year < 0 || year > 9999 ? date.toString().length() : DATE_LENGTH;
+  }
+
+  /**
+   * Number of characters of the decimal form of an int.
+   *
+   * @param value the number
+   * @return the number of characters, including a minus sign
+   */
+  /* package */ static int length(final int value) {
+    int digits = value < 0 ? 2 : 1;
+    long remaining = Math.abs((long) value);
+    while (remaining >= 10) {
+      remaining /= 10;
+      digits++;
+    }
+    return digits;
+  }
+}
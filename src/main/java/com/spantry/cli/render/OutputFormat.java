@@ -0,0 +1,87 @@
+package com.spantry.cli.render;
+
+import com.spantry.inventory.domain.InventoryItem;
+import com.spantry.inventory.io.ItemRecordFormat;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Output formats of commands printing items.
+ *
+ * <p>Item output is data, not diagnostics: it is rendered straight into a large buffered writer on
+ * standard output, while log messages go to standard error. Rendering therefore costs one buffer
+ * copy per row and one write system call per 64 KiB, and piping a listing into a file or another
+ * program is not polluted by log lines.
+ */
+public enum OutputFormat {
+
+  /** Aligned columns with a header row, for people. */
+  TABLE {
+    @Override
+    public ItemRenderer renderer() {
+      return new TableRenderer();
+    }
+  },
+
+  /** One labelled line per item, for grepping. */
+  PLAIN {
+    @Override
+    public ItemRenderer renderer() {
+      return new PlainRenderer();
+    }
+  },
+
+  /** Comma separated values with a header line, in the import/export layout. */
+  CSV {
+    @Override
+    public ItemRenderer renderer() {
+      return new RecordRenderer(ItemRecordFormat.CSV);
+    }
+  },
+
+  /** One JSON object per line, in the import/export layout. */
+  NDJSON {
+    @Override
+    public ItemRenderer renderer() {
+      return new RecordRenderer(ItemRecordFormat.NDJSON);
+    }
+  };
+
+  /** Shown in place of a missing expiration date. */
+  /* package */ static final String NO_EXPIRY = "N/A";
+
+  private static final int BUFFER_SIZE = 1 << 16;
+
+  /**
+   * Creates a renderer for this format.
+   *
+   * @return a new renderer, not to be shared between threads
+   */
+  public abstract ItemRenderer renderer();
+
+  /**
+   * Renders the items to a byte stream as UTF-8. The stream is flushed but not closed, so this can
+   * be used with {@link System#out}.
+   *
+   * @param items the items to render
+   * @param target the destination
+   * @throws IOException if writing fails
+   */
+  @SuppressWarnings("PMD.CloseResource")
+  public void render(final List<InventoryItem> items, final OutputStream target)
+      throws IOException {
+    Objects.requireNonNull(items, "items cannot be null");
+    Objects.requireNonNull(target, "target cannot be null");
+    // Deliberately not closed: closing the writer would close the caller's stream
+    final Writer out =
+        new BufferedWriter(new OutputStreamWriter(target, StandardCharsets.UTF_8), BUFFER_SIZE);
+    renderer().render(items, out);
+    out.flush();
+  }
+}
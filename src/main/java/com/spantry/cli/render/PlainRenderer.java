@@ -0,0 +1,33 @@
+package com.spantry.cli.render;
+
+import com.spantry.inventory.domain.InventoryItem;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+/** One labelled line per item: {@code ID: .., Name: .., Qty: .., Loc: .., Exp: ..}. */
+/* package */ final class PlainRenderer implements ItemRenderer {
+
+  private final LineBuffer line = new LineBuffer();
+
+  @Override
+  public void render(final List<InventoryItem> items, final Writer out) throws IOException {
+    for (final InventoryItem item : items) {
+      line.append("ID: ")
+          .append(String.valueOf(item.itemId()))
+          .append(", Name: ")
+          .append(item.name())
+          .append(", Qty: ")
+          .append(item.quantity())
+          .append(", Loc: ")
+          .append(item.location().name())
+          .append(", Exp: ");
+      if (item.expirationDate() == null) {
+        line.append(OutputFormat.NO_EXPIRY);
+      } else {
+        line.append(item.expirationDate());
+      }
+      line.append('\n').writeTo(out);
+    }
+  }
+}
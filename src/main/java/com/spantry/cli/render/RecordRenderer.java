@@ -0,0 +1,28 @@
+package com.spantry.cli.render;
+
+import com.spantry.inventory.domain.InventoryItem;
+import com.spantry.inventory.io.ItemRecordFormat;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+/**
+ * Machine-readable output in one of the export record formats, so that {@code item list} output can
+ * be fed back to {@code item import}.
+ */
+/* package */ final class RecordRenderer implements ItemRenderer {
+
+  private final ItemRecordFormat format;
+
+  /* package */ RecordRenderer(final ItemRecordFormat format) {
+    this.format = format;
+  }
+
+  @Override
+  public void render(final List<InventoryItem> items, final Writer out) throws IOException {
+    format.writeHeader(out);
+    for (final InventoryItem item : items) {
+      format.write(item, out);
+    }
+  }
+}
@@ -0,0 +1,57 @@
+package com.spantry.cli.render;
+
+import com.spantry.inventory.domain.InventoryItem;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+/**
+ * An aligned table with a header row. Column widths come from a first pass over the items, which
+ * only measures lengths; the second pass writes the rows. Quantities are right-aligned, the other
+ * columns left-aligned, and the last column carries no trailing padding.
+ */
+/* package */ final class TableRenderer implements ItemRenderer {
+
+  private static final String[] HEADERS = {"ID", "NAME", "QTY", "LOCATION", "EXPIRES"};
+  private static final String GAP = "  ";
+
+  private final LineBuffer line = new LineBuffer();
+
+  @Override
+  public void render(final List<InventoryItem> items, final Writer out) throws IOException {
+    int idWidth = HEADERS[0].length();
+    int nameWidth = HEADERS[1].length();
+    int quantityWidth = HEADERS[2].length();
+    int locationWidth = HEADERS[3].length();
+    for (final InventoryItem item : items) {
+      idWidth = Math.max(idWidth, String.valueOf(item.itemId()).length());
+      nameWidth = Math.max(nameWidth, item.name().length());
+      quantityWidth = Math.max(quantityWidth, LineBuffer.length(item.quantity()));
+      locationWidth = Math.max(locationWidth, item.location().name().length());
+    }
+
+    left(HEADERS[0], idWidth).append(GAP);
+    left(HEADERS[1], nameWidth).append(GAP);
+    line.pad(quantityWidth - HEADERS[2].length()).append(HEADERS[2]).append(GAP);
+    left(HEADERS[3], locationWidth).append(GAP).append(HEADERS[4]).append('\n').writeTo(out);
+
+    for (final InventoryItem item : items) {
+      left(String.valueOf(item.itemId()), idWidth).append(GAP);
+      left(item.name(), nameWidth).append(GAP);
+      line.pad(quantityWidth - LineBuffer.length(item.quantity()))
+          .append(item.quantity())
+          .append(GAP);
+      left(item.location().name(), locationWidth).append(GAP);
+      if (item.expirationDate() == null) {
+        line.append(OutputFormat.NO_EXPIRY);
+      } else {
+        line.append(item.expirationDate());
+      }
+      line.append('\n').writeTo(out);
+    }
+  }
+
+  private LineBuffer left(final String text, final int width) {
+    return line.append(text).pad(width - text.length());
+  }
+}
@@ -0,0 +1,70 @@
+package com.spantry.cli.shell;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits a command line typed into the shell or written in a batch script into the arguments the
+ * command line would have received from a Unix shell.
+ *
+ * <p>Quoting follows JLine's default parser, which reads the lines: words are separated by
+ * whitespace, a word starting with a single or double quote runs to the matching quote, and a
+ * backslash takes the next character literally. Unlike that parser, a quoted empty word such as
+ * {@code -n ""} is kept as an empty argument, and no empty word is added after trailing whitespace,
+ * so a line means the same here as on the command line.
+ */
+public final class CommandWords {
+
+  private static final char ESCAPE = '\\';
+
+  private CommandWords() {
+    // Utility class
+  }
+
+  /**
+   * Splits a line into words.
+   *
+   * @param line the line as typed
+   * @return the words in order; empty for a blank line
+   */
+  public static List<String> split(final String line) {
+    final List<String> words = new ArrayList<>();
+    final StringBuilder word = new StringBuilder();
+    boolean inWord = false;
+    boolean escaped = false;
+    char quote = 0; // The quote character of an open quoted word, 0 outside quotes
+    for (int i = 0; i < line.length(); i++) {
+      final char c = line.charAt(i);
+      if (escaped) {
+        word.append(c);
+        escaped = false;
+      } else if (c == ESCAPE) {
+        escaped = true;
+        inWord = true;
+      } else if (quote != 0) {
+        if (c == quote) {
+          quote = 0;
+        } else {
+          word.append(c);
+        }
+      } else if (Character.isWhitespace(c)) {
+        if (inWord) {
+          words.add(word.toString());
+          word.setLength(0);
+          inWord = false;
+        }
+      } else if (!inWord && (c == '"' || c == '\'')) {
+        // Quotes open only at the start of a word, as in JLine; inside a word they are literal
+        quote = c;
+        inWord = true;
+      } else {
+        word.append(c);
+        inWord = true;
+      }
+    }
+    if (inWord) {
+      words.add(word.toString());
+    }
+    return List.copyOf(words);
+  }
+}
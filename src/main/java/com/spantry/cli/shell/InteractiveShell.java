@@ -0,0 +1,115 @@
+package com.spantry.cli.shell;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import org.jline.reader.EndOfFileException;
+import org.jline.reader.LineReader;
+import org.jline.reader.LineReaderBuilder;
+import org.jline.reader.UserInterruptException;
+import org.jline.terminal.Terminal;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import picocli.CommandLine;
+
+/**
+ * Read-eval-print loop over the Spantry command tree. A single {@link CommandLine} (and with it the
+ * command objects, the service and the loaded repository) is reused for every line; Picocli resets
+ * options to their defaults before each parse, so nothing leaks between commands.
+ */
+public final class InteractiveShell {
+
+  /** Prompt shown before each command. */
+  public static final String PROMPT = "spantry> ";
+
+  private static final Logger LOG = LoggerFactory.getLogger(InteractiveShell.class);
+  private static final Set<String> EXIT_WORDS = Set.of("exit", "quit");
+
+  // Commands that would nest a session or block the shell forever
+  private static final Set<String> UNSUPPORTED = Set.of("shell", "daemon", "serve");
+
+  private final CommandLine commandLine;
+  private final Terminal terminal;
+  private final Path historyFile;
+
+  /**
+   * Creates a shell.
+   *
+   * @param commandLine the fully wired root command line, reused for every command
+   * @param terminal the terminal to interact with
+   * @param historyFile where to persist history across sessions, or null to keep it in memory only
+   */
+  public InteractiveShell(
+      final CommandLine commandLine, final Terminal terminal, final Path historyFile) {
+    this.commandLine = Objects.requireNonNull(commandLine, "commandLine cannot be null");
+    this.terminal = Objects.requireNonNull(terminal, "terminal cannot be null");
+    this.historyFile = historyFile;
+  }
+
+  /**
+   * Runs commands until the user types {@code exit}/{@code quit} or closes the input.
+   *
+   * @return the exit code of the last command that was run, or 0 if none was
+   */
+  public int run() {
+    final LineReaderBuilder builder =
+        LineReaderBuilder.builder()
+            .terminal(terminal)
+            .appName("spantry")
+            .completer(new PicocliCompleter(commandLine.getCommandSpec()));
+    if (historyFile != null) {
+      builder.variable(LineReader.HISTORY_FILE, historyFile);
+    }
+    final LineReader reader = builder.build();
+    commandLine.setOut(terminal.writer());
+    commandLine.setErr(terminal.writer());
+
+    int lastExitCode = 0;
+    boolean running = true;
+    while (running) {
+      try {
+        final List<String> words = CommandWords.split(reader.readLine(PROMPT));
+        if (!words.isEmpty()) {
+          if (EXIT_WORDS.contains(words.get(0))) {
+            running = false;
+          } else {
+            lastExitCode = execute(words);
+          }
+        }
+      } catch (UserInterruptException e) {
+        // Ctrl-C discards the current line only
+        continue;
+      } catch (EndOfFileException e) {
+        running = false; // Ctrl-D or end of piped input
+      }
+    }
+    saveHistory(reader);
+    return lastExitCode;
+  }
+
+  private int execute(final List<String> words) {
+    int exitCode;
+    if (UNSUPPORTED.contains(words.get(0))) {
+      terminal.writer().println("'" + words.get(0) + "' is not available inside the shell.");
+      exitCode = 1;
+    } else {
+      exitCode = commandLine.execute(words.toArray(new String[0]));
+    }
+    terminal.flush();
+    return exitCode;
+  }
+
+  private void saveHistory(final LineReader reader) {
+    if (historyFile != null) {
+      try {
+        reader.getHistory().save();
+      } catch (IOException e) {
+        if (LOG.isWarnEnabled()) {
+          LOG.warn("Could not save shell history to {}: {}", historyFile, e.getMessage());
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,44 @@
+package com.spantry.cli.shell;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import org.jline.reader.Candidate;
+import org.jline.reader.Completer;
+import org.jline.reader.LineReader;
+import org.jline.reader.ParsedLine;
+import picocli.AutoComplete;
+import picocli.CommandLine.Model.CommandSpec;
+
+/**
+ * Tab completion for the shell, derived from the Picocli command model: subcommand names, option
+ * names and enum values (such as locations) complete without any completion code per command.
+ */
+final class PicocliCompleter implements Completer {
+
+  private final CommandSpec spec;
+
+  /**
+   * Creates a completer for the given command tree.
+   *
+   * @param spec the root command's spec
+   */
+  /* package */ PicocliCompleter(final CommandSpec spec) {
+    this.spec = Objects.requireNonNull(spec, "spec cannot be null");
+  }
+
+  @Override
+  public void complete(
+      final LineReader reader, final ParsedLine line, final List<Candidate> candidates) {
+    final String[] words = line.words().toArray(new String[0]);
+    final List<CharSequence> suffixes = new ArrayList<>();
+    AutoComplete.complete(
+        spec, words, line.wordIndex(), line.wordCursor(), line.cursor(), suffixes);
+    // Picocli returns what has to be appended to the current word; JLine wants whole words
+    final String prefix = line.word().substring(0, line.wordCursor());
+    for (final CharSequence suffix : suffixes) {
+      final String value = prefix + suffix;
+      candidates.add(new Candidate(value, value, null, null, null, null, true));
+    }
+  }
+}
@@ -0,0 +1,162 @@
+package com.spantry.core;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The kind of thread each concurrent request runs on: the daemon's connections and the load
+ * generator's workers each get a thread of their own.
+ *
+ * <p>A virtual thread costs a few hundred bytes until it runs and gives up its carrier whenever it
+ * blocks, so tens of thousands of requests can be in flight on as many carrier threads as there are
+ * cores. Virtual threads need Java 21; the application still targets Java 17, so they are created
+ * reflectively and {@link #configured()} falls back to platform threads on older runtimes.
+ *
+ * <p>Code that can run on a request thread therefore guards blocking work, such as file or socket
+ * I/O, with a {@link java.util.concurrent.locks.ReentrantLock} rather than {@code synchronized}. A
+ * virtual thread that blocks while holding a monitor stays pinned to its carrier, and a handful of
+ * such threads is enough to leave every other request without a carrier to run on.
+ */
+public enum RequestThreads {
+  /** One virtual thread per request; needs Java 21 or later. */
+  VIRTUAL {
+    @Override
+    public boolean isSupported() {
+      return VirtualThreads.FACTORY != null;
+    }
+
+    @Override
+    public ExecutorService newExecutor(final String namePrefix) {
+      if (!isSupported()) {
+        throw new IllegalArgumentException(
+            "Virtual threads need Java 21 or later, this is Java " + Runtime.version().feature());
+      }
+      return VirtualThreads.newExecutor(namePrefix);
+    }
+  },
+
+  /** One platform thread per request, reused from a pool while idle. */
+  PLATFORM {
+    @Override
+    public boolean isSupported() {
+      return true;
+    }
+
+    @Override
+    public ExecutorService newExecutor(final String namePrefix) {
+      return Executors.newCachedThreadPool(new DaemonThreadFactory(namePrefix));
+    }
+  };
+
+  /** System property selecting the kind of thread; defaults to virtual threads where supported. */
+  public static final String PROPERTY = "spantry.threads";
+
+  /**
+   * Returns whether this kind of thread is available in the running JVM.
+   *
+   * @return {@code true} if {@link #newExecutor} can be called
+   */
+  public abstract boolean isSupported();
+
+  /**
+   * Creates an executor that runs every task on a thread of its own: a new virtual thread, or a
+   * platform thread from a pool that grows as needed. Threads are named with the prefix followed by
+   * a counter and never keep the JVM alive.
+   *
+   * @param namePrefix prefix of the thread names, e.g. {@code spantry-daemon-}
+   * @return the executor
+   * @throws IllegalArgumentException if this kind of thread is not supported
+   */
+  public abstract ExecutorService newExecutor(String namePrefix);
+
+  /**
+   * Returns the kind of thread selected with the {@value #PROPERTY} system property, or virtual
+   * threads if supported and platform threads otherwise.
+   *
+   * @return the kind of thread to run requests on
+   * @throws IllegalArgumentException if the property names an unknown kind
+   */
+  public static RequestThreads configured() {
+    final String value = System.getProperty(PROPERTY);
+    RequestThreads threads = VIRTUAL.isSupported() ? VIRTUAL : PLATFORM;
+    if (value != null && !value.isBlank()) {
+      try {
+        threads = valueOf(value.trim().toUpperCase(Locale.ROOT));
+      } catch (IllegalArgumentException e) {
+        throw new IllegalArgumentException(
+            "Unknown value for " + PROPERTY + ": " + value + " (expected virtual or platform)", e);
+      }
+    }
+    return threads;
+  }
+
+  /**
+   * The Java 21 API, looked up once: {@code Executors.newThreadPerTaskExecutor(
+   * Thread.ofVirtual().name(prefix, 1).factory())}.
+   */
+  private static final class VirtualThreads {
+    // Null on runtimes without virtual threads
+    private static final Method OF_VIRTUAL;
+    private static final Method NAME;
+    private static final Method FACTORY;
+    private static final Method PER_TASK_EXECUTOR;
+
+    static {
+      Method ofVirtual = null;
+      Method name = null;
+      Method factory = null;
+      Method perTaskExecutor = null;
+      try {
+        final Class<?> builder = Class.forName("java.lang.Thread$Builder");
+        ofVirtual = Thread.class.getMethod("ofVirtual");
+        name = builder.getMethod("name", String.class, long.class);
+        factory = builder.getMethod("factory");
+        perTaskExecutor =
+            Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+      } catch (ClassNotFoundException | NoSuchMethodException e) {
+        // Before Java 21: leave virtual threads unsupported
+        factory = null;
+      }
+      OF_VIRTUAL = ofVirtual;
+      NAME = name;
+      FACTORY = factory;
+      PER_TASK_EXECUTOR = perTaskExecutor;
+    }
+
+    private VirtualThreads() {
+      // Holder class
+    }
+
+    private static ExecutorService newExecutor(final String namePrefix) {
+      try {
+        final Object builder = NAME.invoke(OF_VIRTUAL.invoke(null), namePrefix, 1L);
+        final ThreadFactory threads = (ThreadFactory) FACTORY.invoke(builder);
+        return (ExecutorService) PER_TASK_EXECUTOR.invoke(null, threads);
+      } catch (IllegalAccessException | InvocationTargetException e) {
+        throw new IllegalStateException("Could not create a virtual thread executor", e);
+      }
+    }
+  }
+
+  /** Daemon threads so running requests never keep the JVM alive after shutdown. */
+  private static final class DaemonThreadFactory implements ThreadFactory {
+    private final String namePrefix;
+    private final AtomicInteger counter = new AtomicInteger();
+
+    private DaemonThreadFactory(final String namePrefix) {
+      this.namePrefix = namePrefix;
+    }
+
+    @Override
+    public Thread newThread(final Runnable task) {
+      final Thread thread = new Thread(task, namePrefix + counter.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    }
+  }
+}
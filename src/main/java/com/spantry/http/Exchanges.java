@@ -0,0 +1,197 @@
+package com.spantry.http;
+
+import com.sun.net.httpserver.HttpExchange;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/** Request parsing and response helpers shared by the handlers. */
+/* package */ final class Exchanges {
+
+  /* package */ static final int OK = 200;
+  /* package */ static final int CREATED = 201;
+  /* package */ static final int NO_CONTENT = 204;
+  /* package */ static final int NOT_MODIFIED = 304;
+  /* package */ static final int BAD_REQUEST = 400;
+  /* package */ static final int NOT_FOUND = 404;
+  /* package */ static final int METHOD_NOT_ALLOWED = 405;
+  /* package */ static final int PAYLOAD_TOO_LARGE = 413;
+  /* package */ static final int INTERNAL_ERROR = 500;
+
+  /** Largest request body accepted; an item is a few hundred bytes. */
+  private static final int MAX_BODY_BYTES = 64 * 1024;
+
+  private static final int BUFFER_SIZE = 1 << 16;
+  private static final String JSON = "application/json; charset=utf-8";
+
+  private Exchanges() {
+    // Utility class
+  }
+
+  /**
+   * Decodes the query string. A parameter given more than once keeps its last value.
+   *
+   * @param exchange the request
+   * @return the parameters by name
+   */
+  /* package */ static Map<String, String> query(final HttpExchange exchange) {
+    final String raw = exchange.getRequestURI().getRawQuery();
+    final Map<String, String> parameters = new HashMap<>();
+    if (raw != null && !raw.isEmpty()) {
+      for (final String pair : raw.split("&")) {
+        final int equals = pair.indexOf('=');
+        final String name = equals < 0 ? pair : pair.substring(0, equals);
+        final String value = equals < 0 ? "" : pair.substring(equals + 1);
+        parameters.put(
+            URLDecoder.decode(name, StandardCharsets.UTF_8),
+            URLDecoder.decode(value, StandardCharsets.UTF_8));
+      }
+    }
+    return parameters;
+  }
+
+  /**
+   * Reads the request body as UTF-8 text.
+   *
+   * @param exchange the request
+   * @return the body
+   * @throws IOException if reading fails
+   * @throws PayloadTooLargeException if the body exceeds the limit
+   */
+  /* package */ static String body(final HttpExchange exchange) throws IOException {
+    final ByteArrayOutputStream body = new ByteArrayOutputStream();
+    final byte[] buffer = new byte[4096];
+    try (InputStream in = exchange.getRequestBody()) {
+      int read = in.read(buffer);
+      while (read >= 0) {
+        body.write(buffer, 0, read);
+        if (body.size() > MAX_BODY_BYTES) {
+          throw new PayloadTooLargeException(MAX_BODY_BYTES);
+        }
+        read = in.read(buffer);
+      }
+    }
+    return body.toString(StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Answers {@code 304 Not Modified} if the request's {@code If-None-Match} header lists the given
+   * entity tag (or {@code *}).
+   *
+   * @param exchange the request
+   * @param etag the entity tag of the current representation, quotes included
+   * @return {@code true} if the response was sent
+   * @throws IOException if writing fails
+   */
+  /* package */ static boolean notModified(final HttpExchange exchange, final String etag)
+      throws IOException {
+    final String header = exchange.getRequestHeaders().getFirst("If-None-Match");
+    boolean matches = false;
+    if (header != null) {
+      for (final String candidate : header.split(",")) {
+        final String tag = candidate.trim();
+        // Weak comparison, as RFC 9110 asks for If-None-Match
+        matches |= "*".equals(tag) || etag.equals(tag.startsWith("W/") ? tag.substring(2) : tag);
+      }
+    }
+    if (matches) {
+      exchange.getResponseHeaders().set("ETag", etag);
+      sendEmpty(exchange, NOT_MODIFIED);
+    }
+    return matches;
+  }
+
+  /**
+   * Sends a response without a body, such as {@code 204 No Content}.
+   *
+   * <p>The JDK server finishes such an exchange as soon as the headers are out, before the handler
+   * closes it, and drops the connection if the request body has not been read to the end by then; a
+   * client reusing the connection for its next request would find it closed. The body is therefore
+   * drained first, even when the request has none.
+   *
+   * @param exchange the request
+   * @param status the status code
+   * @throws IOException if reading or writing fails
+   */
+  /* package */ static void sendEmpty(final HttpExchange exchange, final int status)
+      throws IOException {
+    exchange.getRequestBody().close();
+    exchange.sendResponseHeaders(status, -1);
+  }
+
+  /**
+   * Sends the status line and headers of a JSON response whose body is streamed with chunked
+   * transfer encoding, and returns a writer for the body. The caller must flush the writer; the
+   * exchange is closed by the handler.
+   *
+   * @param exchange the request
+   * @param status the status code
+   * @param etag the entity tag, or null for none
+   * @return a writer for the body
+   * @throws IOException if writing fails
+   */
+  @SuppressWarnings("PMD.CloseResource")
+  /* package */ static JsonWriter streamJson(
+      final HttpExchange exchange, final int status, final String etag) throws IOException {
+    exchange.getResponseHeaders().set("Content-Type", JSON);
+    if (etag != null) {
+      exchange.getResponseHeaders().set("ETag", etag);
+    }
+    // Length 0: chunked, so nothing needs to be buffered to learn the length up front
+    exchange.sendResponseHeaders(status, 0);
+    return new JsonWriter(
+        new BufferedWriter(
+            new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8),
+            BUFFER_SIZE));
+  }
+
+  /**
+   * Sends a JSON error response: {@code {"error": "<message>"}}.
+   *
+   * @param exchange the request
+   * @param status the status code
+   * @param message the error message
+   * @throws IOException if writing fails
+   */
+  /* package */ static void sendError(
+      final HttpExchange exchange, final int status, final String message) throws IOException {
+    final StringWriter text = new StringWriter();
+    new JsonWriter(text).beginObject().name("error").value(message).endObject();
+    final byte[] body = text.toString().getBytes(StandardCharsets.UTF_8);
+    exchange.getResponseHeaders().set("Content-Type", JSON);
+    exchange.sendResponseHeaders(status, body.length);
+    exchange.getResponseBody().write(body);
+  }
+
+  /**
+   * Sends {@code 405 Method Not Allowed}.
+   *
+   * @param exchange the request
+   * @param allowed the methods the resource supports, e.g. {@code GET, POST}
+   * @throws IOException if writing fails
+   */
+  /* package */ static void methodNotAllowed(final HttpExchange exchange, final String allowed)
+      throws IOException {
+    exchange.getResponseHeaders().set("Allow", allowed);
+    sendError(
+        exchange,
+        METHOD_NOT_ALLOWED,
+        exchange.getRequestMethod() + " is not supported here; use " + allowed);
+  }
+
+  /** Thrown when a request body exceeds {@link #MAX_BODY_BYTES}. */
+  /* package */ static final class PayloadTooLargeException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    /* package */ PayloadTooLargeException(final int limit) {
+      super("Request body exceeds " + limit + " bytes");
+    }
+  }
+}
@@ -0,0 +1,37 @@
+package com.spantry.http;
+
+import com.spantry.inventory.domain.InventoryItem;
+import com.spantry.inventory.repository.InventoryListener;
+import java.time.LocalDate;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts the changes made to the inventory, so that every response can carry an entity tag without
+ * hashing its body: as long as the counter has not moved, nothing a response shows can have
+ * changed. The tag also holds the current date, because filters such as {@code expires < today+3}
+ * and the default as-of date of the statistics change with it, and a random number drawn at start
+ * so tags handed out by an earlier run of the server never match.
+ */
+/* package */ final class InventoryGeneration implements InventoryListener {
+
+  private final String instance = Long.toHexString(ThreadLocalRandom.current().nextLong());
+  private final AtomicLong generation = new AtomicLong();
+
+  @Override
+  public void itemChanged(final InventoryItem previous, final InventoryItem current) {
+    generation.incrementAndGet();
+  }
+
+  /**
+   * Returns the entity tag of the inventory as it is now. Take it before reading the inventory: a
+   * change racing with the read then only makes the tag older than the body, which costs the client
+   * a needless download later, never a stale {@code 304}.
+   *
+   * @param today the current date
+   * @return the quoted entity tag
+   */
+  /* package */ String etag(final LocalDate today) {
+    return "\"" + instance + '-' + generation.get() + '-' + today.toEpochDay() + '"';
+  }
+}
@@ -0,0 +1,64 @@
+package com.spantry.http;
+
+import com.spantry.inventory.service.InventoryService;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import java.io.IOException;
+import java.time.Clock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Base of the API's handlers: maps the exceptions a request can raise to error responses and always
+ * closes the exchange, so a failed request never leaves its connection hanging.
+ */
+/* package */ abstract class InventoryHandler implements HttpHandler {
+
+  private static final Logger LOG = LoggerFactory.getLogger(InventoryHandler.class);
+
+  /* package */ final InventoryService inventoryService;
+  /* package */ final InventoryGeneration generation;
+  /* package */ final Clock clock;
+
+  /* package */ InventoryHandler(
+      final InventoryService inventoryService,
+      final InventoryGeneration generation,
+      final Clock clock) {
+    this.inventoryService = inventoryService;
+    this.generation = generation;
+    this.clock = clock;
+  }
+
+  /**
+   * Answers one request. Invalid input is reported by throwing {@link IllegalArgumentException}.
+   *
+   * @param exchange the request
+   * @throws IOException if reading the request or writing the response fails
+   */
+  protected abstract void serve(HttpExchange exchange) throws IOException;
+
+  @Override
+  // Suppress AvoidCatchingGenericException for the request boundary catch block
+  @SuppressWarnings("PMD.AvoidCatchingGenericException")
+  public final void handle(final HttpExchange exchange) throws IOException {
+    try (exchange) {
+      try {
+        serve(exchange);
+      } catch (Exchanges.PayloadTooLargeException e) {
+        Exchanges.sendError(exchange, Exchanges.PAYLOAD_TOO_LARGE, e.getMessage());
+      } catch (IllegalArgumentException e) {
+        Exchanges.sendError(exchange, Exchanges.BAD_REQUEST, e.getMessage());
+      } catch (RuntimeException e) {
+        if (LOG.isErrorEnabled()) {
+          LOG.error(
+              "Unexpected error serving {} {}: {}",
+              exchange.getRequestMethod(),
+              exchange.getRequestURI(),
+              e.getMessage(),
+              e);
+        }
+        Exchanges.sendError(exchange, Exchanges.INTERNAL_ERROR, "Internal error");
+      }
+    }
+  }
+}
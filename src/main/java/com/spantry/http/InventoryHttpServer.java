@@ -0,0 +1,147 @@
+package com.spantry.http;
+
+import com.spantry.inventory.service.InventoryService;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.net.Inet6Address;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.time.Clock;
+import java.util.Objects;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Exposes an {@link InventoryService} as a JSON API over HTTP, on the JDK's built-in server, so
+ * that other programs on the machine can use the inventory without starting a process per call.
+ *
+ * <ul>
+ *   <li>{@code GET /items}: a page of items, filtered and sorted like {@code item list}
+ *   <li>{@code POST /items}: adds the item in the JSON body ({@code name}, {@code quantity}, {@code
+ *       location}, optional {@code expirationDate})
+ *   <li>{@code GET /items/<id>}, {@code DELETE /items/<id>}: one item
+ *   <li>{@code GET /stats}: the inventory statistics
+ * </ul>
+ *
+ * <p>Requests are handled on a fixed pool of threads, so a burst of clients queues up instead of
+ * starting a thread each. Every {@code GET} response carries an entity tag derived from a counter
+ * of inventory changes (see {@link InventoryGeneration}); a client that repeats a request with
+ * {@code If-None-Match} gets {@code 304 Not Modified} without the inventory being read, as long as
+ * nothing changed.
+ */
+public final class InventoryHttpServer implements AutoCloseable {
+
+  private static final Logger LOG = LoggerFactory.getLogger(InventoryHttpServer.class);
+
+  /** Connections the operating system queues while all handler threads are busy. */
+  private static final int BACKLOG = 1024;
+
+  /** The JDK server's switch for {@code TCP_NODELAY} on accepted connections; off by default. */
+  private static final String NODELAY_PROPERTY = "sun.net.httpserver.nodelay";
+
+  static {
+    // A response goes out in several small writes (headers, body chunks, the last chunk), and
+    // Nagle's algorithm holds each back until the client acknowledges the previous one, which a
+    // delayed acknowledgement stretches to tens of milliseconds. The server reads the property
+    // once, so it has to be set before the first server is created; an explicit setting wins.
+    if (System.getProperty(NODELAY_PROPERTY) == null) {
+      System.setProperty(NODELAY_PROPERTY, "true");
+    }
+  }
+
+  private final HttpServer server;
+  private final ExecutorService workers;
+  private final InventoryService inventoryService;
+  private final InventoryGeneration generation = new InventoryGeneration();
+  private final AtomicBoolean closing = new AtomicBoolean();
+  private final CountDownLatch closed = new CountDownLatch(1);
+
+  /**
+   * Binds the server socket; requests are served once {@link #start()} is called.
+   *
+   * @param address where to listen; port 0 picks a free port
+   * @param inventoryService the service to expose
+   * @param threads size of the handler thread pool (must be positive)
+   * @throws IOException if the address cannot be bound
+   */
+  public InventoryHttpServer(
+      final InetSocketAddress address, final InventoryService inventoryService, final int threads)
+      throws IOException {
+    Objects.requireNonNull(address, "address cannot be null");
+    this.inventoryService =
+        Objects.requireNonNull(inventoryService, "inventoryService cannot be null");
+    if (threads <= 0) {
+      throw new IllegalArgumentException("Thread count must be positive: " + threads);
+    }
+    this.server = HttpServer.create(address, BACKLOG);
+    this.workers = Executors.newFixedThreadPool(threads, new WorkerThreadFactory());
+    final Clock clock = Clock.systemDefaultZone();
+    server.createContext(ItemsHandler.PATH, new ItemsHandler(inventoryService, generation, clock));
+    server.createContext(StatsHandler.PATH, new StatsHandler(inventoryService, generation, clock));
+    server.setExecutor(workers);
+  }
+
+  /** Starts serving requests in the background. */
+  public void start() {
+    // Count changes from here on; entity tags handed out before would not match anyway
+    inventoryService.subscribe(generation);
+    server.start();
+    if (LOG.isInfoEnabled()) {
+      LOG.info("Spantry HTTP API listening on {}", uri());
+    }
+  }
+
+  /**
+   * Returns the base URI of the API, with the port actually bound.
+   *
+   * @return for instance {@code http://127.0.0.1:8080/}
+   */
+  public URI uri() {
+    final InetSocketAddress address = server.getAddress();
+    final String host = address.getAddress().getHostAddress();
+    return URI.create(
+        "http://"
+            + (address.getAddress() instanceof Inet6Address ? "[" + host + "]" : host)
+            + ":"
+            + address.getPort()
+            + "/");
+  }
+
+  /**
+   * Waits until the server is closed, for instance by a shutdown hook.
+   *
+   * @throws InterruptedException if interrupted while waiting
+   */
+  public void awaitClose() throws InterruptedException {
+    closed.await();
+  }
+
+  /** Stops accepting requests, abandons those in progress and stops the handler threads. */
+  @Override
+  public void close() {
+    if (closing.compareAndSet(false, true)) {
+      server.stop(0);
+      workers.shutdownNow();
+      inventoryService.unsubscribe(generation);
+      closed.countDown();
+    }
+  }
+
+  /** Daemon threads so that request handling never keeps the JVM alive after shutdown. */
+  private static final class WorkerThreadFactory implements ThreadFactory {
+    private final AtomicInteger counter = new AtomicInteger();
+
+    @Override
+    public Thread newThread(final Runnable task) {
+      final Thread thread = new Thread(task, "spantry-http-" + counter.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    }
+  }
+}
@@ -0,0 +1,238 @@
+package com.spantry.http;
+
+import com.spantry.inventory.domain.InventoryItem;
+import com.spantry.inventory.domain.Location;
+import com.spantry.inventory.filter.ItemFilter;
+import com.spantry.inventory.io.ItemRecordFormat;
+import com.spantry.inventory.repository.ItemQuery;
+import com.spantry.inventory.service.InventoryService;
+import com.spantry.inventory.service.dto.AddItemCommandDto;
+import com.spantry.inventory.service.exception.ItemNotFoundException;
+import com.spantry.validation.ObjectValidator;
+import com.spantry.validation.Validators;
+import com.sun.net.httpserver.HttpExchange;
+import java.io.IOException;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Serves {@code /items}: {@code GET} lists items a page at a time, {@code POST} adds one, and
+ * {@code GET} and {@code DELETE} on {@code /items/<id>} read and remove a single item.
+ *
+ * <p>Lists take the filters of {@code item list} as query parameters ({@code location}, {@code
+ * name}, {@code minQty}, {@code maxQty}, {@code expiresFrom}, {@code expiresTo}, {@code where},
+ * {@code sort}) plus {@code offset} and {@code limit}. Pages are cut from a sorted result, by name
+ * unless requested otherwise, so consecutive pages neither repeat nor skip items while the
+ * inventory is unchanged; the repository stops after the items the page needs when its index yields
+ * the order.
+ */
+/* package */ final class ItemsHandler extends InventoryHandler {
+
+  /* package */ static final String PATH = "/items";
+
+  /** Page size when the request does not give one. */
+  /* package */ static final int DEFAULT_LIMIT = 100;
+
+  /** Largest page served; a client wanting more asks for the next page. */
+  /* package */ static final int MAX_LIMIT = 1000;
+
+  private static final ObjectValidator<AddItemCommandDto> VALIDATOR =
+      Validators.forType(AddItemCommandDto.class);
+
+  /* package */ ItemsHandler(
+      final InventoryService inventoryService,
+      final InventoryGeneration generation,
+      final Clock clock) {
+    super(inventoryService, generation, clock);
+  }
+
+  @Override
+  protected void serve(final HttpExchange exchange) throws IOException {
+    final String path = exchange.getRequestURI().getPath();
+    final String method = exchange.getRequestMethod();
+    final String rest = path.substring(PATH.length());
+    if (rest.isEmpty() || "/".equals(rest)) {
+      if ("GET".equals(method)) {
+        list(exchange);
+      } else if ("POST".equals(method)) {
+        add(exchange);
+      } else {
+        Exchanges.methodNotAllowed(exchange, "GET, POST");
+      }
+    } else if (rest.charAt(0) != '/' || rest.indexOf('/', 1) >= 0) {
+      Exchanges.sendError(exchange, Exchanges.NOT_FOUND, "No such resource: " + path);
+    } else {
+      final String itemId = rest.substring(1);
+      if ("GET".equals(method)) {
+        get(exchange, itemId);
+      } else if ("DELETE".equals(method)) {
+        remove(exchange, itemId);
+      } else {
+        Exchanges.methodNotAllowed(exchange, "GET, DELETE");
+      }
+    }
+  }
+
+  private void list(final HttpExchange exchange) throws IOException {
+    final Map<String, String> parameters = Exchanges.query(exchange);
+    final int offset = intParameter(parameters, "offset", 0);
+    final int limit = intParameter(parameters, "limit", DEFAULT_LIMIT);
+    if (offset < 0 || limit < 0 || limit > MAX_LIMIT) {
+      throw new IllegalArgumentException(
+          "offset must not be negative and limit must be between 0 and " + MAX_LIMIT);
+    }
+    final ItemQuery query = query(parameters);
+    final String etag = generation.etag(LocalDate.now(clock));
+    if (!Exchanges.notModified(exchange, etag)) {
+      // One item beyond the page tells whether there is another page
+      final long wanted = (long) offset + limit + 1;
+      final List<InventoryItem> items =
+          inventoryService.findItems(query.limitedTo((int) Math.min(wanted, ItemQuery.NO_LIMIT)));
+      final int from = Math.min(offset, items.size());
+      final int to = (int) Math.min(wanted - 1, items.size());
+      final JsonWriter json = Exchanges.streamJson(exchange, Exchanges.OK, etag);
+      json.beginObject()
+          .name("offset")
+          .value(offset)
+          .name("limit")
+          .value(limit)
+          .name("more")
+          .value(items.size() > to)
+          .name("items")
+          .beginArray();
+      for (final InventoryItem item : items.subList(from, to)) {
+        writeItem(json, item);
+      }
+      json.endArray().endObject().flush();
+    }
+  }
+
+  private void get(final HttpExchange exchange, final String itemId) throws IOException {
+    final String etag = generation.etag(LocalDate.now(clock));
+    if (!Exchanges.notModified(exchange, etag)) {
+      final Optional<InventoryItem> item = inventoryService.getItem(itemId);
+      if (item.isPresent()) {
+        final JsonWriter json = Exchanges.streamJson(exchange, Exchanges.OK, etag);
+        writeItem(json, item.get());
+        json.flush();
+      } else {
+        Exchanges.sendError(exchange, Exchanges.NOT_FOUND, "Item not found with ID: " + itemId);
+      }
+    }
+  }
+
+  private void add(final HttpExchange exchange) throws IOException {
+    // JSON strings cannot hold raw line breaks, so a pretty-printed body can be read as one line
+    final String body = Exchanges.body(exchange).replace('\n', ' ').replace('\r', ' ').strip();
+    final AddItemCommandDto command = ItemRecordFormat.NDJSON.parse(body);
+    final List<String> violations = VALIDATOR.validate(command);
+    if (violations.isEmpty()) {
+      final InventoryItem item = inventoryService.addItem(command);
+      exchange.getResponseHeaders().set("Location", PATH + "/" + item.itemId());
+      final JsonWriter json = Exchanges.streamJson(exchange, Exchanges.CREATED, null);
+      writeItem(json, item);
+      json.flush();
+    } else {
+      Exchanges.sendError(exchange, Exchanges.BAD_REQUEST, String.join(" ", violations));
+    }
+  }
+
+  private void remove(final HttpExchange exchange, final String itemId) throws IOException {
+    try {
+      inventoryService.removeItem(itemId);
+      Exchanges.sendEmpty(exchange, Exchanges.NO_CONTENT);
+    } catch (ItemNotFoundException e) {
+      Exchanges.sendError(exchange, Exchanges.NOT_FOUND, e.getMessage());
+    }
+  }
+
+  /**
+   * Translates the query parameters into a repository query, the way {@code item list} translates
+   * its options.
+   */
+  private static ItemQuery query(final Map<String, String> parameters) {
+    final String sort = parameters.getOrDefault("sort", ItemQuery.Sort.NAME.name());
+    ItemQuery query;
+    try {
+      query = ItemQuery.ALL.sortedBy(ItemQuery.Sort.valueOf(sort.toUpperCase(Locale.ROOT)));
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException("Unknown sort order: " + sort, e);
+    }
+    query =
+        query
+            .withNamePrefix(parameters.get("name"))
+            .withExpiryBetween(
+                dateParameter(parameters, "expiresFrom"), dateParameter(parameters, "expiresTo"))
+            .withQuantityBetween(
+                intParameter(parameters, "minQty", Integer.MIN_VALUE),
+                intParameter(parameters, "maxQty", Integer.MAX_VALUE));
+    final String locations = parameters.get("location");
+    if (locations != null && !locations.isBlank()) {
+      final List<Location> allowed = new ArrayList<>();
+      for (final String location : locations.split(",")) {
+        try {
+          allowed.add(Location.valueOf(location.trim().toUpperCase(Locale.ROOT)));
+        } catch (IllegalArgumentException e) {
+          throw new IllegalArgumentException("Unknown location: " + location, e);
+        }
+      }
+      query = query.withLocations(allowed);
+    }
+    final String where = parameters.get("where");
+    if (where != null && !where.isBlank()) {
+      query = ItemFilter.compile(where).applyTo(query);
+    }
+    return query;
+  }
+
+  private static int intParameter(
+      final Map<String, String> parameters, final String name, final int defaultValue) {
+    final String value = parameters.get(name);
+    int result = defaultValue;
+    if (value != null && !value.isBlank()) {
+      try {
+        result = Integer.parseInt(value.trim());
+      } catch (NumberFormatException e) {
+        throw new IllegalArgumentException("Invalid " + name + ": " + value, e);
+      }
+    }
+    return result;
+  }
+
+  private static LocalDate dateParameter(final Map<String, String> parameters, final String name) {
+    final String value = parameters.get(name);
+    LocalDate result = null;
+    if (value != null && !value.isBlank()) {
+      try {
+        result = LocalDate.parse(value.trim());
+      } catch (DateTimeParseException e) {
+        throw new IllegalArgumentException("Invalid " + name + " (use YYYY-MM-DD): " + value, e);
+      }
+    }
+    return result;
+  }
+
+  private static void writeItem(final JsonWriter json, final InventoryItem item)
+      throws IOException {
+    json.beginObject()
+        .name("itemId")
+        .value(item.itemId())
+        .name("name")
+        .value(item.name())
+        .name("quantity")
+        .value(item.quantity())
+        .name("location")
+        .value(item.location().name())
+        .name("expirationDate")
+        .value(item.expirationDate())
+        .name("version")
+        .value(item.version())
+        .endObject();
+  }
+}
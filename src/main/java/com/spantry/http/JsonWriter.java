@@ -0,0 +1,157 @@
+package com.spantry.http;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Streaming JSON encoder. Values are written straight to the underlying writer as they are
+ * produced, so a response of any length is encoded without building it, or a tree of it, in memory
+ * first. The writer tracks only whether a separator is due at each nesting level; it does not check
+ * that names and values alternate correctly, which is up to the caller.
+ */
+/* package */ final class JsonWriter {
+
+  private static final int MAX_DEPTH = 32;
+  private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+  private final Writer out;
+  // Per nesting level: whether the container already holds a member or element
+  private final boolean[] hasValue = new boolean[MAX_DEPTH];
+  private int depth;
+  // Set after a member name, so the value that follows takes no separator
+  private boolean afterName;
+
+  /* package */ JsonWriter(final Writer out) {
+    this.out = out;
+  }
+
+  /* package */ JsonWriter beginObject() throws IOException {
+    return open('{');
+  }
+
+  /* package */ JsonWriter endObject() throws IOException {
+    return close('}');
+  }
+
+  /* package */ JsonWriter beginArray() throws IOException {
+    return open('[');
+  }
+
+  /* package */ JsonWriter endArray() throws IOException {
+    return close(']');
+  }
+
+  /**
+   * Writes a member name; the next call must write its value.
+   *
+   * @param name the member name
+   * @return this writer
+   * @throws IOException if writing fails
+   */
+  /* package */ JsonWriter name(final String name) throws IOException {
+    separate();
+    string(name);
+    out.write(':');
+    afterName = true;
+    return this;
+  }
+
+  /**
+   * Writes a string value, or {@code null}.
+   *
+   * @param value the value
+   * @return this writer
+   * @throws IOException if writing fails
+   */
+  /* package */ JsonWriter value(final String value) throws IOException {
+    separate();
+    if (value == null) {
+      out.write("null");
+    } else {
+      string(value);
+    }
+    return this;
+  }
+
+  /* package */ JsonWriter value(final long value) throws IOException {
+    separate();
+    out.write(Long.toString(value));
+    return this;
+  }
+
+  /* package */ JsonWriter value(final boolean value) throws IOException {
+    separate();
+    out.write(value ? "true" : "false");
+    return this;
+  }
+
+  /* package */ JsonWriter value(final Object value) throws IOException {
+    return value(value == null ? null : value.toString());
+  }
+
+  /* package */ void flush() throws IOException {
+    out.flush();
+  }
+
+  private JsonWriter open(final char bracket) throws IOException {
+    if (depth == MAX_DEPTH) {
+      throw new IllegalStateException("JSON nested deeper than " + MAX_DEPTH + " levels");
+    }
+    separate();
+    out.write(bracket);
+    hasValue[depth++] = false;
+    return this;
+  }
+
+  private JsonWriter close(final char bracket) throws IOException {
+    if (depth == 0) {
+      throw new IllegalStateException("No open JSON object or array to close");
+    }
+    depth--;
+    out.write(bracket);
+    return this;
+  }
+
+  private void separate() throws IOException {
+    if (afterName) {
+      afterName = false;
+    } else if (depth > 0) {
+      if (hasValue[depth - 1]) {
+        out.write(',');
+      }
+      hasValue[depth - 1] = true;
+    }
+  }
+
+  private void string(final String value) throws IOException {
+    out.write('"');
+    // Copy unescaped runs in one call; most names and IDs need no escaping at all
+    int run = 0;
+    final int length = value.length();
+    for (int i = 0; i < length; i++) {
+      final char c = value.charAt(i);
+      if (c == '"' || c == '\\' || c < 0x20) {
+        out.write(value, run, i - run);
+        escape(c);
+        run = i + 1;
+      }
+    }
+    out.write(value, run, length - run);
+    out.write('"');
+  }
+
+  private void escape(final char c) throws IOException {
+    switch (c) {
+      case '"' -> out.write("\\\"");
+      case '\\' -> out.write("\\\\");
+      case '\n' -> out.write("\\n");
+      case '\r' -> out.write("\\r");
+      case '\t' -> out.write("\\t");
+      default -> {
+        out.write("\\u00");
+        out.write(HEX[c >> 4]);
+        out.write(HEX[c & 0xf]);
+      }
+    }
+  }
+}
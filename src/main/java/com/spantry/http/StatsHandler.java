@@ -0,0 +1,85 @@
+package com.spantry.http;
+
+import com.spantry.inventory.domain.Location;
+import com.spantry.inventory.repository.InventoryStats;
+import com.spantry.inventory.service.InventoryService;
+import com.sun.net.httpserver.HttpExchange;
+import java.io.IOException;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
+
+/**
+ * Serves {@code GET /stats}: the totals of {@code item stats} per location and by expiry, as of
+ * today or the date given in the {@code asOf} query parameter.
+ */
+/* package */ final class StatsHandler extends InventoryHandler {
+
+  /* package */ static final String PATH = "/stats";
+
+  /* package */ StatsHandler(
+      final InventoryService inventoryService,
+      final InventoryGeneration generation,
+      final Clock clock) {
+    super(inventoryService, generation, clock);
+  }
+
+  @Override
+  protected void serve(final HttpExchange exchange) throws IOException {
+    if (!PATH.equals(exchange.getRequestURI().getPath())) {
+      Exchanges.sendError(
+          exchange, Exchanges.NOT_FOUND, "No such resource: " + exchange.getRequestURI().getPath());
+    } else if ("GET".equals(exchange.getRequestMethod())) {
+      final LocalDate today = LocalDate.now(clock);
+      final LocalDate asOf = asOf(Exchanges.query(exchange).get("asOf"), today);
+      final String etag = generation.etag(today);
+      if (!Exchanges.notModified(exchange, etag)) {
+        write(inventoryService.getStats(asOf), Exchanges.streamJson(exchange, Exchanges.OK, etag));
+      }
+    } else {
+      Exchanges.methodNotAllowed(exchange, "GET");
+    }
+  }
+
+  private static LocalDate asOf(final String value, final LocalDate today) {
+    LocalDate asOf = today;
+    if (value != null && !value.isBlank()) {
+      try {
+        asOf = LocalDate.parse(value.trim());
+      } catch (DateTimeParseException e) {
+        throw new IllegalArgumentException("Invalid asOf (use YYYY-MM-DD): " + value, e);
+      }
+    }
+    return asOf;
+  }
+
+  private static void write(final InventoryStats stats, final JsonWriter json) throws IOException {
+    json.beginObject()
+        .name("asOf")
+        .value(stats.asOf())
+        .name("totalItems")
+        .value(stats.totalItems())
+        .name("totalQuantity")
+        .value(stats.totalQuantity())
+        .name("expired")
+        .value(stats.expired())
+        .name("expiringThisWeek")
+        .value(stats.expiringThisWeek())
+        .name("undated")
+        .value(stats.undated())
+        .name("locations")
+        .beginObject();
+    for (final Map.Entry<Location, InventoryStats.LocationTotals> entry :
+        stats.locations().entrySet()) {
+      json.name(entry.getKey().name())
+          .beginObject()
+          .name("items")
+          .value(entry.getValue().items())
+          .name("quantity")
+          .value(entry.getValue().quantity())
+          .endObject();
+    }
+    json.endObject().endObject().flush();
+  }
+}
@@ -23,11 +23,16 @@ public record InventoryItem(
     @Min(value = 1, message = "Item quantity must be positive.") int quantity,
     @NotNull(message = "Item location cannot be null.") Location location,
     // Store LocalDate directly (can be null), it is Serializable
-    LocalDate expirationDate)
+    LocalDate expirationDate,
+    // Optimistic concurrency version, assigned by the repository on every write
+    long version)
     implements Serializable { // Implement Serializable
 
-  // Static factory method or alternative constructors could be added if needed
-  // for different creation scenarios (e.g., without ID before saving).
+  /**
+   * Version carried by items that have never been stored. Repositories assign versions starting at
+   * 1, so a stored item never carries this value.
+   */
+  public static final long UNSAVED_VERSION = 0L;
 
   /**
    * Canonical constructor generated by the record.
@@ -37,11 +42,40 @@ public record InventoryItem(
    * @param quantity Quantity (required, positive)
    * @param location Location (required)
    * @param expirationDate Expiration date (can be null)
+   * @param version Version assigned by the repository ({@link #UNSAVED_VERSION} before saving)
    */
   public InventoryItem {
     // No explicit validation needed here now for expirationDate nullness
   }
 
+  /**
+   * Creates an item that has not been stored yet, carrying {@link #UNSAVED_VERSION}.
+   *
+   * @param itemId ID (can be null before saving)
+   * @param name Name (required)
+   * @param quantity Quantity (required, positive)
+   * @param location Location (required)
+   * @param expirationDate Expiration date (can be null)
+   */
+  public InventoryItem(
+      final String itemId,
+      final String name,
+      final int quantity,
+      final Location location,
+      final LocalDate expirationDate) {
+    this(itemId, name, quantity, location, expirationDate, UNSAVED_VERSION);
+  }
+
+  /**
+   * Returns a copy of this item carrying the given version.
+   *
+   * @param newVersion the version to assign
+   * @return a copy of this item with {@code newVersion}
+   */
+  public InventoryItem withVersion(final long newVersion) {
+    return new InventoryItem(itemId, name, quantity, location, expirationDate, newVersion);
+  }
+
   /**
    * Provides the expiration date as an Optional for convenience.
    *
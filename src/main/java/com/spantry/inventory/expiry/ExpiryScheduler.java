@@ -0,0 +1,195 @@
+package com.spantry.inventory.expiry;
+
+import com.spantry.inventory.domain.InventoryItem;
+import com.spantry.inventory.repository.InventoryListener;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Calls back when items come within an "expiring soon" horizon of their expiration date, without
+ * polling the inventory.
+ *
+ * <p>Subscribe the scheduler to a repository ({@link
+ * com.spantry.inventory.repository.InventoryRepository#subscribe}); it keeps a {@link TimingWheel}
+ * timer per dated item, moved or cancelled as items are saved and removed. Each {@link #tick()}
+ * advances the wheel to the current day and hands the items that became due to the callback, so a
+ * tick costs O(items firing) rather than O(inventory), and ticks within a day cost nothing. An item
+ * fires once; it fires again only if its expiration date changes. Items already within the horizon
+ * when first seen fire on the next tick.
+ *
+ * <p>Callbacks run on a bounded executor: one thread and a queue of {@value #CALLBACK_QUEUE} items.
+ * When the queue is full, the ticking thread runs the callback itself, which slows ticking down
+ * instead of dropping notifications.
+ */
+public final class ExpiryScheduler implements InventoryListener, AutoCloseable {
+
+  private static final Logger LOG = LoggerFactory.getLogger(ExpiryScheduler.class);
+
+  /** Capacity of the callback queue. */
+  public static final int CALLBACK_QUEUE = 1024;
+
+  private final int horizonDays;
+  private final Clock clock;
+  private final Consumer<InventoryItem> callback;
+  private final Executor callbackExecutor;
+  private final ExecutorService ownedExecutor;
+  private final ScheduledExecutorService ticker;
+
+  // Guarded by this
+  private final TimingWheel<String, InventoryItem> wheel;
+
+  /**
+   * Creates a scheduler with its own bounded callback executor.
+   *
+   * @param horizonDays how many days before its expiration date an item fires (0 fires on the day)
+   * @param clock the clock defining the current day
+   * @param callback called with each item coming within the horizon
+   * @throws IllegalArgumentException if the horizon is negative
+   */
+  public ExpiryScheduler(
+      final int horizonDays, final Clock clock, final Consumer<InventoryItem> callback) {
+    this(horizonDays, clock, callback, boundedExecutor(), true);
+  }
+
+  /**
+   * Creates a scheduler that runs callbacks on the given executor, which is not shut down by {@link
+   * #close()}.
+   *
+   * @param horizonDays how many days before its expiration date an item fires
+   * @param clock the clock defining the current day
+   * @param callback called with each item coming within the horizon
+   * @param callbackExecutor runs the callbacks
+   */
+  /* package */ ExpiryScheduler(
+      final int horizonDays,
+      final Clock clock,
+      final Consumer<InventoryItem> callback,
+      final Executor callbackExecutor) {
+    this(horizonDays, clock, callback, callbackExecutor, false);
+  }
+
+  private ExpiryScheduler(
+      final int horizonDays,
+      final Clock clock,
+      final Consumer<InventoryItem> callback,
+      final Executor callbackExecutor,
+      final boolean ownsExecutor) {
+    if (horizonDays < 0) {
+      throw new IllegalArgumentException("Horizon cannot be negative: " + horizonDays);
+    }
+    this.horizonDays = horizonDays;
+    this.clock = Objects.requireNonNull(clock, "Clock cannot be null");
+    this.callback = Objects.requireNonNull(callback, "Callback cannot be null");
+    this.callbackExecutor = Objects.requireNonNull(callbackExecutor, "Executor cannot be null");
+    this.ownedExecutor = ownsExecutor ? (ExecutorService) callbackExecutor : null;
+    this.ticker =
+        Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+              final Thread thread = new Thread(runnable, "spantry-expiry-ticker");
+              thread.setDaemon(true);
+              return thread;
+            });
+    this.wheel = new TimingWheel<>(LocalDate.now(clock).toEpochDay());
+  }
+
+  private static ExecutorService boundedExecutor() {
+    return new ThreadPoolExecutor(
+        1,
+        1,
+        0,
+        TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(CALLBACK_QUEUE),
+        runnable -> {
+          final Thread thread = new Thread(runnable, "spantry-expiry-callback");
+          thread.setDaemon(true);
+          return thread;
+        },
+        new ThreadPoolExecutor.CallerRunsPolicy());
+  }
+
+  @Override
+  public synchronized void itemChanged(final InventoryItem previous, final InventoryItem current) {
+    final String itemId = previous == null ? current.itemId() : previous.itemId();
+    final LocalDate date = current == null ? null : current.expirationDate();
+    final boolean sameDate =
+        previous != null && current != null && Objects.equals(previous.expirationDate(), date);
+    if (sameDate) {
+      // Quantity or location changes keep the timer, or the fact that it fired
+      wheel.update(itemId, current);
+    } else {
+      wheel.cancel(itemId);
+      if (date != null) {
+        wheel.schedule(itemId, date.toEpochDay() - horizonDays, current);
+      }
+    }
+  }
+
+  /**
+   * Advances to the current day and hands every item that came within the horizon to the callback
+   * executor.
+   *
+   * @return the number of items that fired
+   */
+  public int tick() {
+    final List<InventoryItem> due;
+    synchronized (this) {
+      due = wheel.advanceTo(LocalDate.now(clock).toEpochDay());
+    }
+    // Outside the lock: a full queue makes this thread run callbacks itself
+    for (final InventoryItem item : due) {
+      callbackExecutor.execute(() -> deliver(item));
+    }
+    return due.size();
+  }
+
+  private void deliver(final InventoryItem item) {
+    try {
+      callback.accept(item);
+    } catch (RuntimeException e) {
+      if (LOG.isWarnEnabled()) {
+        LOG.warn("Expiry callback failed for item {}: {}", item.itemId(), e.getMessage(), e);
+      }
+    }
+  }
+
+  /**
+   * Starts ticking in the background.
+   *
+   * @param interval time between ticks; a tick only does work when the day has changed
+   */
+  public void start(final Duration interval) {
+    final long millis = Math.max(1, interval.toMillis());
+    ticker.scheduleWithFixedDelay(this::tick, 0, millis, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Returns the number of items waiting to come within the horizon.
+   *
+   * @return the pending timer count
+   */
+  public synchronized int pending() {
+    return wheel.size();
+  }
+
+  /** Stops ticking and, if the scheduler created it, the callback executor. */
+  @Override
+  public void close() {
+    ticker.shutdownNow();
+    if (ownedExecutor != null) {
+      ownedExecutor.shutdown();
+    }
+  }
+}
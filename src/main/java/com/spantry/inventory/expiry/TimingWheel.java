@@ -0,0 +1,191 @@
+package com.spantry.inventory.expiry;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Hierarchical timing wheel with a resolution of one day. Not thread-safe.
+ *
+ * <p>Three wheels cover the near future at decreasing resolution: seven day slots, five week slots
+ * (35 days) and twelve slots of 35 days (420 days, roughly a year). A timer goes into the finest
+ * wheel whose range contains its day; when a coarser slot comes up, its timers are cascaded into
+ * the finer wheels. Timers further out wait in an overflow map that is drained once per coarse
+ * revolution. Scheduling and cancelling are O(1); advancing by a day costs O(1) plus the timers
+ * that fire or cascade that day, and every timer cascades at most twice.
+ *
+ * <p>Days are epoch days ({@link java.time.LocalDate#toEpochDay()}); slots are aligned to multiples
+ * of their width.
+ *
+ * @param <K> the timer key
+ * @param <V> the value handed back when a timer fires
+ */
+/* package */ final class TimingWheel<K, V> {
+
+  private static final int DAY_SLOTS = 7;
+  private static final int WEEK_SLOTS = 5;
+  private static final int MONTH_SLOTS = 12;
+  private static final long WEEK = DAY_SLOTS;
+  private static final long MONTH = WEEK * WEEK_SLOTS;
+  private static final long HORIZON = MONTH * MONTH_SLOTS;
+
+  private final List<Map<K, Timer<V>>> days = slots(DAY_SLOTS);
+  private final List<Map<K, Timer<V>>> weeks = slots(WEEK_SLOTS);
+  private final List<Map<K, Timer<V>>> months = slots(MONTH_SLOTS);
+  private final NavigableMap<Long, Map<K, Timer<V>>> overflow = new TreeMap<>();
+  // Timers whose day has come, in the order they became due
+  private final Map<K, Timer<V>> due = new LinkedHashMap<>();
+  // Every scheduled timer by key, so that cancelling finds its slot in O(1)
+  private final Map<K, Timer<V>> timers = new HashMap<>();
+
+  private long today;
+
+  /** A scheduled value and the slot currently holding it. */
+  private static final class Timer<V> {
+    private final long day;
+    private V value;
+    private Map<?, Timer<V>> slot;
+
+    private Timer(final long day, final V value) {
+      this.day = day;
+      this.value = value;
+    }
+  }
+
+  /**
+   * Creates an empty wheel.
+   *
+   * @param today the current epoch day
+   */
+  /* package */ TimingWheel(final long today) {
+    this.today = today;
+  }
+
+  private static <K, V> List<Map<K, Timer<V>>> slots(final int count) {
+    final List<Map<K, Timer<V>>> slots = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      slots.add(new HashMap<>());
+    }
+    return slots;
+  }
+
+  /**
+   * Schedules a timer, replacing any timer of the same key. A day that is not in the future makes
+   * the timer due immediately.
+   *
+   * @param key the timer key
+   * @param day the epoch day to fire on
+   * @param value the value to hand back
+   */
+  /* package */ void schedule(final K key, final long day, final V value) {
+    cancel(key);
+    final Timer<V> timer = new Timer<>(day, value);
+    timers.put(key, timer);
+    place(key, timer);
+  }
+
+  /**
+   * Replaces the value of a scheduled timer without moving it.
+   *
+   * @param key the timer key
+   * @param value the new value
+   * @return true if a timer of that key was scheduled
+   */
+  /* package */ boolean update(final K key, final V value) {
+    final Timer<V> timer = timers.get(key);
+    if (timer != null) {
+      timer.value = value;
+    }
+    return timer != null;
+  }
+
+  /**
+   * Cancels a timer.
+   *
+   * @param key the timer key
+   * @return true if a timer of that key was scheduled
+   */
+  /* package */ boolean cancel(final K key) {
+    final Timer<V> timer = timers.remove(key);
+    if (timer != null) {
+      timer.slot.remove(key);
+    }
+    return timer != null;
+  }
+
+  /**
+   * Returns the number of scheduled timers, due ones included.
+   *
+   * @return the timer count
+   */
+  /* package */ int size() {
+    return timers.size();
+  }
+
+  /**
+   * Moves the wheel forward and removes the timers that are due. Moving backwards does nothing.
+   *
+   * @param day the new current epoch day
+   * @return the values of the due timers, in the order they became due
+   */
+  /* package */ List<V> advanceTo(final long day) {
+    while (today < day) {
+      today++;
+      if (Math.floorMod(today, MONTH) == 0) {
+        cascade(months.get(slot(today, MONTH, MONTH_SLOTS)));
+        final Map<Long, Map<K, Timer<V>>> arrived = overflow.headMap(today + HORIZON, false);
+        for (final Map<K, Timer<V>> bucket : arrived.values()) {
+          cascade(bucket);
+        }
+        arrived.clear();
+      }
+      if (Math.floorMod(today, WEEK) == 0) {
+        cascade(weeks.get(slot(today, WEEK, WEEK_SLOTS)));
+      }
+      cascade(days.get(slot(today, 1, DAY_SLOTS)));
+    }
+    final List<V> fired = new ArrayList<>(due.size());
+    for (final Map.Entry<K, Timer<V>> entry : due.entrySet()) {
+      timers.remove(entry.getKey());
+      fired.add(entry.getValue().value);
+    }
+    due.clear();
+    return fired;
+  }
+
+  private void cascade(final Map<K, Timer<V>> slot) {
+    if (!slot.isEmpty()) {
+      final List<Map.Entry<K, Timer<V>>> entries = new ArrayList<>(slot.entrySet());
+      slot.clear();
+      for (final Map.Entry<K, Timer<V>> entry : entries) {
+        place(entry.getKey(), entry.getValue());
+      }
+    }
+  }
+
+  private void place(final K key, final Timer<V> timer) {
+    final long day = timer.day;
+    final Map<K, Timer<V>> slot;
+    if (day <= today) {
+      slot = due;
+    } else if (day < today + DAY_SLOTS) {
+      slot = days.get(slot(day, 1, DAY_SLOTS));
+    } else if (day < today - Math.floorMod(today, WEEK) + MONTH) {
+      slot = weeks.get(slot(day, WEEK, WEEK_SLOTS));
+    } else if (day < today - Math.floorMod(today, MONTH) + HORIZON) {
+      slot = months.get(slot(day, MONTH, MONTH_SLOTS));
+    } else {
+      slot = overflow.computeIfAbsent(Math.floorDiv(day, MONTH) * MONTH, start -> new HashMap<>());
+    }
+    slot.put(key, timer);
+    timer.slot = slot;
+  }
+
+  private static int slot(final long day, final long width, final int count) {
+    return (int) Math.floorMod(Math.floorDiv(day, width), (long) count);
+  }
+}
@@ -0,0 +1,151 @@
+package com.spantry.inventory.filter;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * Syntax tree of a filter expression. {@link #toString()} renders the canonical form, fully
+ * parenthesized, which is what plans show.
+ */
+public sealed interface FilterExpression {
+
+  /** Item fields a filter can test. */
+  enum Field {
+    /** The item name, compared ignoring case and surrounding whitespace. */
+    NAME("name"),
+    /** The item ID. */
+    ID("id"),
+    /** The quantity. */
+    QUANTITY("qty", "quantity"),
+    /** The storage location. */
+    LOCATION("loc", "location"),
+    /** The expiration date; {@code none} stands for items without one. */
+    EXPIRES("expires", "expiry");
+
+    private final List<String> names;
+
+    Field(final String... names) {
+      this.names = List.of(names);
+    }
+
+    /**
+     * Looks up a field by one of its names, ignoring case.
+     *
+     * @param name the name used in the expression
+     * @return the field, or null if there is none of that name
+     */
+    /* package */ static Field byName(final String name) {
+      final String key = name.toLowerCase(Locale.ROOT);
+      Field found = null;
+      for (final Field field : values()) {
+        if (field.names.contains(key)) {
+          found = field;
+        }
+      }
+      return found;
+    }
+
+    @Override
+    public String toString() {
+      return names.get(0);
+    }
+  }
+
+  /** Comparison operators. */
+  enum Operator {
+    /** Equal. */
+    EQ("="),
+    /** Not equal. */
+    NE("!="),
+    /** Less than. */
+    LT("<"),
+    /** Less than or equal. */
+    LE("<="),
+    /** Greater than. */
+    GT(">"),
+    /** Greater than or equal. */
+    GE(">="),
+    /** Equal to one of a list of values. */
+    IN("in"),
+    /** Text starting with a prefix. */
+    STARTS("starts"),
+    /** Text containing a fragment. */
+    CONTAINS("contains");
+
+    private final String symbol;
+
+    Operator(final String symbol) {
+      this.symbol = symbol;
+    }
+
+    @Override
+    public String toString() {
+      return symbol;
+    }
+  }
+
+  /**
+   * All operands hold.
+   *
+   * @param operands two or more operands
+   */
+  record And(List<FilterExpression> operands) implements FilterExpression {
+    @Override
+    public String toString() {
+      return operands.stream().map(Object::toString).collect(Collectors.joining(" and ", "(", ")"));
+    }
+  }
+
+  /**
+   * At least one operand holds.
+   *
+   * @param operands two or more operands
+   */
+  record Or(List<FilterExpression> operands) implements FilterExpression {
+    @Override
+    public String toString() {
+      return operands.stream().map(Object::toString).collect(Collectors.joining(" or ", "(", ")"));
+    }
+  }
+
+  /**
+   * The operand does not hold.
+   *
+   * @param operand the negated expression
+   */
+  record Not(FilterExpression operand) implements FilterExpression {
+    @Override
+    public String toString() {
+      return "not " + operand;
+    }
+  }
+
+  /**
+   * Compares a field with one or more literal values.
+   *
+   * @param field the tested field
+   * @param operator the comparison
+   * @param values the literal values as written, one unless the operator is {@code in}
+   * @param position offset of the comparison in the expression, for error messages
+   */
+  record Comparison(Field field, Operator operator, List<String> values, int position)
+      implements FilterExpression {
+    @Override
+    public String toString() {
+      final String operand =
+          operator == Operator.IN
+              ? values.stream().map(Comparison::literal).collect(Collectors.joining(", ", "(", ")"))
+              : literal(values.get(0));
+      return field + " " + operator + " " + operand;
+    }
+
+    private static String literal(final String value) {
+      return value.chars().allMatch(c -> Character.isLetterOrDigit(c) || "_.+-".indexOf(c) >= 0)
+              && !value.isEmpty()
+              && !FilterParser.isKeyword(value)
+          ? value
+          : "'" + value.replace("'", "''") + "'";
+    }
+  }
+}
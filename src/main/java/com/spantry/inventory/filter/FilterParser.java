@@ -0,0 +1,257 @@
+package com.spantry.inventory.filter;
+
+import com.spantry.inventory.filter.FilterExpression.Comparison;
+import com.spantry.inventory.filter.FilterExpression.Field;
+import com.spantry.inventory.filter.FilterExpression.Operator;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Recursive descent parser for filter expressions.
+ *
+ * <pre>
+ * expression := conjunction ("or" conjunction)*
+ * conjunction := unary ("and" unary)*
+ * unary      := "not" unary | "(" expression ")" | comparison
+ * comparison := field ("=" | "!=" | "&lt;" | "&lt;=" | "&gt;" | "&gt;=" | "starts" | "contains") value
+ *             | field ["not"] "in" "(" value ("," value)* ")"
+ * value      := word | 'quoted text' | "quoted text"
+ * </pre>
+ *
+ * <p>Keywords are case insensitive. Words are runs of letters, digits and {@code _ . + -}, which
+ * covers numbers, dates, locations and {@code today+3}; anything else has to be quoted, with the
+ * quote character doubled inside.
+ */
+/* package */ final class FilterParser {
+
+  private static final Set<String> KEYWORDS =
+      Set.of("and", "or", "not", "in", "starts", "contains");
+
+  private final String text;
+  private int pos;
+
+  private FilterParser(final String text) {
+    this.text = text;
+  }
+
+  /**
+   * Parses an expression.
+   *
+   * @param text the expression
+   * @return the syntax tree
+   * @throws IllegalArgumentException if the expression is malformed
+   */
+  /* package */ static FilterExpression parse(final String text) {
+    final FilterParser parser = new FilterParser(text);
+    final FilterExpression expression = parser.disjunction();
+    parser.skipWhitespace();
+    if (parser.pos < text.length()) {
+      throw parser.error("Unexpected '" + parser.peekToken() + "'");
+    }
+    return expression;
+  }
+
+  /**
+   * Whether a word would be read as a keyword, so that it has to be quoted as a value.
+   *
+   * @param word the word
+   * @return true for keywords
+   */
+  /* package */ static boolean isKeyword(final String word) {
+    return KEYWORDS.contains(word.toLowerCase(Locale.ROOT));
+  }
+
+  private FilterExpression disjunction() {
+    final List<FilterExpression> operands = new ArrayList<>();
+    operands.add(conjunction());
+    while (acceptKeyword("or")) {
+      operands.add(conjunction());
+    }
+    return operands.size() == 1 ? operands.get(0) : new FilterExpression.Or(List.copyOf(operands));
+  }
+
+  private FilterExpression conjunction() {
+    final List<FilterExpression> operands = new ArrayList<>();
+    operands.add(unary());
+    while (acceptKeyword("and")) {
+      operands.add(unary());
+    }
+    return operands.size() == 1 ? operands.get(0) : new FilterExpression.And(List.copyOf(operands));
+  }
+
+  private FilterExpression unary() {
+    final FilterExpression expression;
+    if (acceptKeyword("not")) {
+      expression = new FilterExpression.Not(unary());
+    } else if (accept("(")) {
+      expression = disjunction();
+      expect(")");
+    } else {
+      expression = comparison();
+    }
+    return expression;
+  }
+
+  private FilterExpression comparison() {
+    skipWhitespace();
+    final int start = pos;
+    final String fieldName = word();
+    final Field field = Field.byName(fieldName);
+    if (field == null) {
+      pos = start;
+      throw error(
+          fieldName.isEmpty()
+              ? "Expected a field name"
+              : "Unknown field '" + fieldName + "' (expected name, id, qty, loc or expires)");
+    }
+    final FilterExpression expression;
+    if (acceptKeyword("not")) {
+      expectKeyword("in");
+      expression = new FilterExpression.Not(in(field, start));
+    } else if (acceptKeyword("in")) {
+      expression = in(field, start);
+    } else {
+      final Operator operator = operator();
+      expression = new Comparison(field, operator, List.of(value()), start);
+    }
+    return expression;
+  }
+
+  private Comparison in(final Field field, final int start) {
+    expect("(");
+    final List<String> values = new ArrayList<>();
+    values.add(value());
+    while (accept(",")) {
+      values.add(value());
+    }
+    expect(")");
+    return new Comparison(field, Operator.IN, List.copyOf(values), start);
+  }
+
+  private Operator operator() {
+    final Operator operator;
+    if (accept("<=")) {
+      operator = Operator.LE;
+    } else if (accept(">=")) {
+      operator = Operator.GE;
+    } else if (accept("!=") || accept("<>")) {
+      operator = Operator.NE;
+    } else if (accept("<")) {
+      operator = Operator.LT;
+    } else if (accept(">")) {
+      operator = Operator.GT;
+    } else if (accept("=")) {
+      operator = Operator.EQ;
+    } else if (acceptKeyword("starts")) {
+      operator = Operator.STARTS;
+    } else if (acceptKeyword("contains")) {
+      operator = Operator.CONTAINS;
+    } else {
+      throw error("Expected a comparison operator");
+    }
+    return operator;
+  }
+
+  private String value() {
+    skipWhitespace();
+    final String value;
+    if (pos < text.length() && (text.charAt(pos) == '\'' || text.charAt(pos) == '"')) {
+      value = quoted(text.charAt(pos));
+    } else {
+      final int start = pos;
+      value = word();
+      if (value.isEmpty() || isKeyword(value)) {
+        pos = start;
+        throw error("Expected a value");
+      }
+    }
+    return value;
+  }
+
+  private String quoted(final char quote) {
+    final int start = pos;
+    final StringBuilder value = new StringBuilder();
+    pos++;
+    while (true) {
+      if (pos >= text.length()) {
+        pos = start;
+        throw error("Unterminated quoted value");
+      }
+      final char c = text.charAt(pos++);
+      if (c != quote) {
+        value.append(c);
+      } else if (pos < text.length() && text.charAt(pos) == quote) {
+        value.append(quote); // Doubled quote
+        pos++;
+      } else {
+        return value.toString();
+      }
+    }
+  }
+
+  private String word() {
+    skipWhitespace();
+    final int start = pos;
+    while (pos < text.length() && isWordChar(text.charAt(pos))) {
+      pos++;
+    }
+    return text.substring(start, pos);
+  }
+
+  private static boolean isWordChar(final char c) {
+    return Character.isLetterOrDigit(c) || c == '_' || c == '.' || c == '+' || c == '-';
+  }
+
+  private boolean accept(final String symbol) {
+    skipWhitespace();
+    final boolean matches = text.startsWith(symbol, pos);
+    if (matches) {
+      pos += symbol.length();
+    }
+    return matches;
+  }
+
+  private boolean acceptKeyword(final String keyword) {
+    skipWhitespace();
+    final int end = pos + keyword.length();
+    final boolean matches =
+        text.regionMatches(true, pos, keyword, 0, keyword.length())
+            && (end == text.length() || !isWordChar(text.charAt(end)));
+    if (matches) {
+      pos = end;
+    }
+    return matches;
+  }
+
+  private void expect(final String symbol) {
+    if (!accept(symbol)) {
+      throw error("Expected '" + symbol + "'");
+    }
+  }
+
+  private void expectKeyword(final String keyword) {
+    if (!acceptKeyword(keyword)) {
+      throw error("Expected '" + keyword + "'");
+    }
+  }
+
+  private void skipWhitespace() {
+    while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+      pos++;
+    }
+  }
+
+  private String peekToken() {
+    final int start = pos;
+    final String word = word();
+    pos = start;
+    return word.isEmpty() ? String.valueOf(text.charAt(pos)) : word;
+  }
+
+  private IllegalArgumentException error(final String message) {
+    return new IllegalArgumentException(
+        message + " at position " + (pos + 1) + " of filter: " + text);
+  }
+}
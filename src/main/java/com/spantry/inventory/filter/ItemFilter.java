@@ -0,0 +1,289 @@
+package com.spantry.inventory.filter;
+
+import com.spantry.inventory.domain.InventoryItem;
+import com.spantry.inventory.domain.Location;
+import com.spantry.inventory.filter.FilterExpression.Comparison;
+import com.spantry.inventory.filter.FilterExpression.Field;
+import com.spantry.inventory.filter.FilterExpression.Operator;
+import com.spantry.inventory.repository.ItemQuery;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * A compiled filter expression such as {@code loc in (FRIDGE, FREEZER) and qty < 2 and expires <
+ * today+3}.
+ *
+ * <p>Compiling splits the top-level conjuncts in two. Those an {@link ItemQuery} can express
+ * directly (location, quantity range, expiry window and name prefix) are pushed down, so the
+ * repository can answer them from its indexes. The rest are compiled into one residual predicate
+ * that the repository evaluates on the remaining candidates.
+ *
+ * <p>Compiled filters are kept in a small least-recently-used cache keyed by the expression text
+ * and the current date ({@code today} is resolved at compile time), so a repeated expression is
+ * neither parsed nor compiled again.
+ */
+public final class ItemFilter {
+
+  /** Maximum number of compiled filters kept in the cache. */
+  public static final int CACHE_SIZE = 256;
+
+  private static final Map<CacheKey, ItemFilter> CACHE =
+      new LinkedHashMap<>(64, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<CacheKey, ItemFilter> eldest) {
+          return size() > CACHE_SIZE;
+        }
+      };
+  private static final AtomicLong CACHE_HITS = new AtomicLong();
+  private static final AtomicLong CACHE_MISSES = new AtomicLong();
+
+  private final FilterExpression expression;
+  private final List<FilterExpression> pushedDown;
+  private final List<FilterExpression> residual;
+  private final Predicate<InventoryItem> residualPredicate;
+  private final Set<Location> locations;
+  private final int minQuantity;
+  private final int maxQuantity;
+  private final LocalDate expiresFrom;
+  private final LocalDate expiresTo;
+  private final String namePrefix;
+
+  private record CacheKey(String text, LocalDate today) {}
+
+  /**
+   * Hit and miss counts of the compiled filter cache.
+   *
+   * @param hits lookups answered from the cache
+   * @param misses lookups that had to parse and compile
+   * @param size filters currently cached
+   */
+  public record CacheStats(long hits, long misses, int size) {}
+
+  private ItemFilter(final FilterExpression expression, final LocalDate today) {
+    this.expression = expression;
+    final PredicateCompiler compiler = new PredicateCompiler(today);
+    final List<FilterExpression> pushed = new ArrayList<>();
+    final List<FilterExpression> rest = new ArrayList<>();
+    Set<Location> allowed = null;
+    long min = Integer.MIN_VALUE;
+    long max = Integer.MAX_VALUE;
+    LocalDate from = null;
+    LocalDate to = null;
+    String prefix = null;
+    final List<FilterExpression> conjuncts =
+        expression instanceof FilterExpression.And and ? and.operands() : List.of(expression);
+    for (final FilterExpression conjunct : conjuncts) {
+      // Compiled even when pushed down, so every conjunct is type-checked the same way
+      compiler.compile(conjunct);
+      boolean push = false;
+      if (conjunct instanceof Comparison comparison) {
+        final Operator operator = comparison.operator();
+        final Field field = comparison.field();
+        if (field == Field.LOCATION && allowed == null && operator != Operator.NE) {
+          allowed = PredicateCompiler.toLocations(comparison);
+          push = true;
+        } else if (field == Field.LOCATION && allowed == null) {
+          allowed = EnumSet.complementOf(EnumSet.copyOf(PredicateCompiler.toLocations(comparison)));
+          push = true;
+        } else if (field == Field.QUANTITY && isRange(operator)) {
+          final long value = PredicateCompiler.toInt(comparison.values().get(0), comparison);
+          if (operator == Operator.EQ || operator == Operator.GT || operator == Operator.GE) {
+            min = Math.max(min, operator == Operator.GT ? value + 1 : value);
+          }
+          if (operator == Operator.EQ || operator == Operator.LT || operator == Operator.LE) {
+            max = Math.min(max, operator == Operator.LT ? value - 1 : value);
+          }
+          push = true;
+        } else if (field == Field.EXPIRES && isRange(operator)) {
+          final LocalDate date = compiler.toDate(comparison.values().get(0), comparison);
+          if (date != null) {
+            if (operator == Operator.EQ || operator == Operator.GT || operator == Operator.GE) {
+              from = later(from, operator == Operator.GT ? date.plusDays(1) : date);
+            }
+            if (operator == Operator.EQ || operator == Operator.LT || operator == Operator.LE) {
+              to = earlier(to, operator == Operator.LT ? date.minusDays(1) : date);
+            }
+            push = true;
+          }
+        } else if (field == Field.NAME && operator == Operator.STARTS && prefix == null) {
+          prefix = comparison.values().get(0);
+          push = true;
+        }
+      }
+      (push ? pushed : rest).add(conjunct);
+    }
+    this.pushedDown = List.copyOf(pushed);
+    this.residual = List.copyOf(rest);
+    this.residualPredicate =
+        rest.isEmpty() ? null : compiler.compile(rest.size() == 1 ? rest.get(0) : and(rest));
+    this.locations = allowed == null ? null : Collections.unmodifiableSet(allowed);
+    // Strict bounds at the ends of the int range can leave it; such a range matches nothing
+    final boolean noQuantity = min > max;
+    this.minQuantity = noQuantity ? Integer.MAX_VALUE : (int) min;
+    this.maxQuantity = noQuantity ? Integer.MIN_VALUE : (int) max;
+    this.expiresFrom = from;
+    this.expiresTo = to;
+    this.namePrefix = prefix;
+  }
+
+  /**
+   * Compiles an expression, taking it from the cache when it was compiled before today.
+   *
+   * @param text the expression
+   * @return the compiled filter
+   * @throws IllegalArgumentException if the expression is malformed or does not type-check
+   */
+  public static ItemFilter compile(final String text) {
+    Objects.requireNonNull(text, "Filter expression cannot be null");
+    final CacheKey key = new CacheKey(text.strip(), LocalDate.now());
+    ItemFilter filter;
+    synchronized (CACHE) {
+      filter = CACHE.get(key);
+    }
+    if (filter == null) {
+      CACHE_MISSES.incrementAndGet();
+      filter = compile(key.text(), key.today());
+      synchronized (CACHE) {
+        CACHE.put(key, filter);
+      }
+    } else {
+      CACHE_HITS.incrementAndGet();
+    }
+    return filter;
+  }
+
+  /**
+   * Compiles an expression without the cache.
+   *
+   * @param text the expression
+   * @param today the date {@code today} stands for
+   * @return the compiled filter
+   * @throws IllegalArgumentException if the expression is malformed or does not type-check
+   */
+  public static ItemFilter compile(final String text, final LocalDate today) {
+    Objects.requireNonNull(text, "Filter expression cannot be null");
+    Objects.requireNonNull(today, "Today cannot be null");
+    return new ItemFilter(FilterParser.parse(text), today);
+  }
+
+  /**
+   * Returns the hit and miss counts of the compiled filter cache since start-up.
+   *
+   * @return the cache statistics
+   */
+  public static CacheStats cacheStats() {
+    final int size;
+    synchronized (CACHE) {
+      size = CACHE.size();
+    }
+    return new CacheStats(CACHE_HITS.get(), CACHE_MISSES.get(), size);
+  }
+
+  /**
+   * Narrows a query by this filter: pushed-down conjuncts become query criteria, intersected with
+   * the ones already set, and the residual becomes the query's further condition.
+   *
+   * @param base the query to narrow
+   * @return the narrowed query
+   */
+  public ItemQuery applyTo(final ItemQuery base) {
+    ItemQuery query = base;
+    if (locations != null) {
+      if (base.locations().isEmpty()) {
+        query = query.withLocations(locations);
+      } else {
+        final Set<Location> both = EnumSet.copyOf(base.locations());
+        both.retainAll(locations);
+        // An empty set would mean any location, so an empty intersection is a plain condition
+        query =
+            both.isEmpty()
+                ? query.withFilter(item -> locations.contains(item.location()))
+                : query.withLocations(both);
+      }
+    }
+    if (minQuantity != Integer.MIN_VALUE || maxQuantity != Integer.MAX_VALUE) {
+      query =
+          query.withQuantityBetween(
+              Math.max(minQuantity, base.minQuantity()), Math.min(maxQuantity, base.maxQuantity()));
+    }
+    if (expiresFrom != null || expiresTo != null) {
+      query =
+          query.withExpiryBetween(
+              later(expiresFrom, base.expiresFrom()), earlier(expiresTo, base.expiresTo()));
+    }
+    if (namePrefix != null) {
+      final String key = PredicateCompiler.nameKey(namePrefix);
+      if (key.startsWith(base.namePrefix())) {
+        query = query.withNamePrefix(key);
+      } else if (!base.namePrefix().startsWith(key)) {
+        query = query.withFilter(item -> PredicateCompiler.nameKey(item.name()).startsWith(key));
+      }
+    }
+    if (residualPredicate != null) {
+      query = query.withFilter(residualPredicate);
+    }
+    return query;
+  }
+
+  /**
+   * Returns the parsed expression.
+   *
+   * @return the syntax tree
+   */
+  public FilterExpression expression() {
+    return expression;
+  }
+
+  /**
+   * Returns the top-level conjuncts turned into query criteria.
+   *
+   * @return the pushed-down conjuncts, in expression order
+   */
+  public List<FilterExpression> pushedDown() {
+    return pushedDown;
+  }
+
+  /**
+   * Returns the conjuncts evaluated as a compiled predicate on every candidate.
+   *
+   * @return the residual conjuncts, in expression order
+   */
+  public List<FilterExpression> residual() {
+    return residual;
+  }
+
+  @Override
+  public String toString() {
+    return expression.toString();
+  }
+
+  private static boolean isRange(final Operator operator) {
+    return operator != Operator.NE
+        && operator != Operator.IN
+        && operator != Operator.STARTS
+        && operator != Operator.CONTAINS;
+  }
+
+  private static FilterExpression and(final List<FilterExpression> operands) {
+    return new FilterExpression.And(List.copyOf(operands));
+  }
+
+  private static LocalDate later(final LocalDate a, final LocalDate b) {
+    return a == null || b != null && b.isAfter(a) ? b : a;
+  }
+
+  private static LocalDate earlier(final LocalDate a, final LocalDate b) {
+    return a == null || b != null && b.isBefore(a) ? b : a;
+  }
+}
@@ -0,0 +1,288 @@
+package com.spantry.inventory.filter;
+
+import com.spantry.inventory.domain.InventoryItem;
+import com.spantry.inventory.domain.Location;
+import com.spantry.inventory.filter.FilterExpression.Comparison;
+import com.spantry.inventory.filter.FilterExpression.Operator;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Type-checks a syntax tree and turns it into a predicate. Every comparison becomes a lambda
+ * specialized for its field and operator, with the literal already converted to the field's type,
+ * so evaluating an item does no parsing, boxing or dispatch on the operator.
+ *
+ * <p>Names compare ignoring case and surrounding whitespace, like everywhere else. An item without
+ * an expiration date only satisfies {@code expires = none}, {@code expires != <date>} and negations
+ * of date comparisons.
+ */
+/* package */ final class PredicateCompiler {
+
+  private static final Set<Operator> ORDERING =
+      EnumSet.of(Operator.EQ, Operator.NE, Operator.LT, Operator.LE, Operator.GT, Operator.GE);
+
+  private final LocalDate today;
+
+  /**
+   * Creates a compiler.
+   *
+   * @param today the date {@code today} stands for
+   */
+  /* package */ PredicateCompiler(final LocalDate today) {
+    this.today = today;
+  }
+
+  /**
+   * Compiles an expression.
+   *
+   * @param expression the syntax tree
+   * @return the predicate
+   * @throws IllegalArgumentException if a value does not suit its field or operator
+   */
+  /* package */ Predicate<InventoryItem> compile(final FilterExpression expression) {
+    final Predicate<InventoryItem> predicate;
+    if (expression instanceof FilterExpression.And and) {
+      predicate = and.operands().stream().map(this::compile).reduce(Predicate::and).orElseThrow();
+    } else if (expression instanceof FilterExpression.Or or) {
+      predicate = or.operands().stream().map(this::compile).reduce(Predicate::or).orElseThrow();
+    } else if (expression instanceof FilterExpression.Not not) {
+      predicate = compile(not.operand()).negate();
+    } else {
+      predicate = compileComparison((Comparison) expression);
+    }
+    return predicate;
+  }
+
+  private Predicate<InventoryItem> compileComparison(final Comparison comparison) {
+    return switch (comparison.field()) {
+      case NAME -> name(comparison);
+      case ID -> id(comparison);
+      case QUANTITY -> quantity(comparison);
+      case LOCATION -> location(comparison);
+      case EXPIRES -> expires(comparison);
+    };
+  }
+
+  private static Predicate<InventoryItem> name(final Comparison comparison) {
+    final String value = nameKey(comparison.values().get(0));
+    return switch (comparison.operator()) {
+      case EQ -> item -> nameKey(item.name()).equals(value);
+      case NE -> item -> !nameKey(item.name()).equals(value);
+      case STARTS -> item -> nameKey(item.name()).startsWith(value);
+      case CONTAINS -> item -> nameKey(item.name()).contains(value);
+      case IN -> {
+        final Set<String> keys =
+            comparison.values().stream()
+                .map(PredicateCompiler::nameKey)
+                .collect(Collectors.toUnmodifiableSet());
+        yield item -> keys.contains(nameKey(item.name()));
+      }
+      default -> throw unsupported(comparison);
+    };
+  }
+
+  private static Predicate<InventoryItem> id(final Comparison comparison) {
+    final String value = comparison.values().get(0);
+    return switch (comparison.operator()) {
+      case EQ -> item -> value.equals(item.itemId());
+      case NE -> item -> !value.equals(item.itemId());
+      case STARTS -> item -> item.itemId() != null && item.itemId().startsWith(value);
+      case IN -> {
+        final Set<String> ids = Set.copyOf(comparison.values());
+        yield item -> ids.contains(item.itemId());
+      }
+      default -> throw unsupported(comparison);
+    };
+  }
+
+  private static Predicate<InventoryItem> quantity(final Comparison comparison) {
+    if (comparison.operator() == Operator.IN) {
+      final int[] values =
+          comparison.values().stream().mapToInt(v -> toInt(v, comparison)).distinct().toArray();
+      return item -> {
+        boolean found = false;
+        for (final int value : values) {
+          found |= item.quantity() == value;
+        }
+        return found;
+      };
+    }
+    if (!ORDERING.contains(comparison.operator())) {
+      throw unsupported(comparison);
+    }
+    final int value = toInt(comparison.values().get(0), comparison);
+    return switch (comparison.operator()) {
+      case EQ -> item -> item.quantity() == value;
+      case NE -> item -> item.quantity() != value;
+      case LT -> item -> item.quantity() < value;
+      case LE -> item -> item.quantity() <= value;
+      case GT -> item -> item.quantity() > value;
+      default -> item -> item.quantity() >= value;
+    };
+  }
+
+  private static Predicate<InventoryItem> location(final Comparison comparison) {
+    return switch (comparison.operator()) {
+      case EQ -> {
+        final Location value = toLocation(comparison.values().get(0), comparison);
+        yield item -> item.location() == value;
+      }
+      case NE -> {
+        final Location value = toLocation(comparison.values().get(0), comparison);
+        yield item -> item.location() != value;
+      }
+      case IN -> {
+        final Set<Location> values = toLocations(comparison);
+        yield item -> values.contains(item.location());
+      }
+      default -> throw unsupported(comparison);
+    };
+  }
+
+  private Predicate<InventoryItem> expires(final Comparison comparison) {
+    if (!ORDERING.contains(comparison.operator())) {
+      throw unsupported(comparison);
+    }
+    final LocalDate value = toDate(comparison.values().get(0), comparison);
+    final Predicate<InventoryItem> predicate;
+    if (value == null) {
+      predicate =
+          switch (comparison.operator()) {
+            case EQ -> item -> item.expirationDate() == null;
+            case NE -> item -> item.expirationDate() != null;
+            default ->
+                throw new IllegalArgumentException(
+                    "'none' only compares with = or != at position "
+                        + (comparison.position() + 1)
+                        + ": "
+                        + comparison);
+          };
+    } else {
+      predicate =
+          switch (comparison.operator()) {
+            case EQ -> item -> value.equals(item.expirationDate());
+            case NE -> item -> !value.equals(item.expirationDate());
+            case LT ->
+                item -> item.expirationDate() != null && item.expirationDate().isBefore(value);
+            case LE ->
+                item -> item.expirationDate() != null && !item.expirationDate().isAfter(value);
+            case GT ->
+                item -> item.expirationDate() != null && item.expirationDate().isAfter(value);
+            default ->
+                item -> item.expirationDate() != null && !item.expirationDate().isBefore(value);
+          };
+    }
+    return predicate;
+  }
+
+  /**
+   * Normalizes a name for comparison: ignoring case and surrounding whitespace.
+   *
+   * @param name the name, may be null
+   * @return the comparison key
+   */
+  /* package */ static String nameKey(final String name) {
+    return name == null ? "" : name.trim().toLowerCase(Locale.ROOT);
+  }
+
+  /**
+   * Converts a quantity literal.
+   *
+   * @param value the literal
+   * @param comparison the comparison it appears in, for the error message
+   * @return the quantity
+   */
+  /* package */ static int toInt(final String value, final Comparison comparison) {
+    try {
+      return Integer.parseInt(value);
+    } catch (NumberFormatException e) {
+      throw invalid(value, "a whole number", comparison);
+    }
+  }
+
+  /**
+   * Converts a location literal, ignoring case.
+   *
+   * @param value the literal
+   * @param comparison the comparison it appears in, for the error message
+   * @return the location
+   */
+  /* package */ static Location toLocation(final String value, final Comparison comparison) {
+    try {
+      return Location.valueOf(value.trim().toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException e) {
+      throw invalid(value, "one of " + List.of(Location.values()), comparison);
+    }
+  }
+
+  /**
+   * Converts the literals of a location comparison.
+   *
+   * @param comparison the comparison
+   * @return the locations
+   */
+  /* package */ static Set<Location> toLocations(final Comparison comparison) {
+    final Set<Location> locations = EnumSet.noneOf(Location.class);
+    comparison.values().forEach(value -> locations.add(toLocation(value, comparison)));
+    return locations;
+  }
+
+  /**
+   * Converts a date literal: {@code YYYY-MM-DD}, {@code today}, {@code today+N}, {@code today-N} or
+   * {@code none}.
+   *
+   * @param value the literal
+   * @param comparison the comparison it appears in, for the error message
+   * @return the date, or null for {@code none}
+   */
+  /* package */ LocalDate toDate(final String value, final Comparison comparison) {
+    final String text = value.trim().toLowerCase(Locale.ROOT);
+    final LocalDate date;
+    try {
+      if ("none".equals(text)) {
+        date = null;
+      } else if ("today".equals(text)) {
+        date = today;
+      } else if (text.startsWith("today+") || text.startsWith("today-")) {
+        // Integer.parseInt accepts the sign
+        date = today.plusDays(Integer.parseInt(text.substring("today".length())));
+      } else {
+        date = LocalDate.parse(text);
+      }
+    } catch (NumberFormatException | DateTimeParseException e) {
+      throw invalid(value, "a date (YYYY-MM-DD, today, today+N, today-N or none)", comparison);
+    }
+    return date;
+  }
+
+  private static IllegalArgumentException invalid(
+      final String value, final String expected, final Comparison comparison) {
+    return new IllegalArgumentException(
+        "Expected "
+            + expected
+            + " instead of '"
+            + value
+            + "' at position "
+            + (comparison.position() + 1)
+            + ": "
+            + comparison);
+  }
+
+  private static IllegalArgumentException unsupported(final Comparison comparison) {
+    return new IllegalArgumentException(
+        "Operator '"
+            + comparison.operator()
+            + "' does not apply to "
+            + comparison.field()
+            + " at position "
+            + (comparison.position() + 1)
+            + ": "
+            + comparison);
+  }
+}
@@ -0,0 +1,75 @@
+package com.spantry.inventory.io;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Minimal RFC 4180 style CSV field handling for single-line records: comma separated fields,
+ * optionally enclosed in double quotes, with {@code ""} escaping a quote inside a quoted field.
+ */
+final class CsvCodec {
+
+  private static final char SEPARATOR = ',';
+  private static final char QUOTE = '"';
+  private static final Pattern LINE_BREAK = Pattern.compile("\\r\\n|[\\r\\n]");
+
+  private CsvCodec() {
+    // Utility class
+  }
+
+  /**
+   * Splits a record into its fields.
+   *
+   * @param line the record, without line terminator
+   * @return the unquoted fields
+   * @throws IllegalArgumentException if a quoted field is not terminated
+   */
+  /* package */ static List<String> split(final String line) {
+    final List<String> fields = new ArrayList<>();
+    final StringBuilder field = new StringBuilder();
+    boolean quoted = false;
+    int index = 0;
+    while (index < line.length()) {
+      final char current = line.charAt(index);
+      if (quoted) {
+        if (current == QUOTE && index + 1 < line.length() && line.charAt(index + 1) == QUOTE) {
+          field.append(QUOTE);
+          index++;
+        } else if (current == QUOTE) {
+          quoted = false;
+        } else {
+          field.append(current);
+        }
+      } else if (current == QUOTE) {
+        quoted = true;
+      } else if (current == SEPARATOR) {
+        fields.add(field.toString().trim());
+        field.setLength(0);
+      } else {
+        field.append(current);
+      }
+      index++;
+    }
+    if (quoted) {
+      throw new IllegalArgumentException("Unterminated quoted field");
+    }
+    fields.add(field.toString().trim());
+    return fields;
+  }
+
+  /**
+   * Quotes a field if it contains a separator or quote. Line breaks become spaces, since a record
+   * must fit on one line to be read back.
+   *
+   * @param value the raw field value
+   * @return the value ready to be written into a record
+   */
+  /* package */ static String quote(final String value) {
+    String result = LINE_BREAK.matcher(value).replaceAll(" ");
+    if (result.indexOf(SEPARATOR) >= 0 || result.indexOf(QUOTE) >= 0) {
+      result = QUOTE + result.replace("\"", "\"\"") + QUOTE;
+    }
+    return result;
+  }
+}
@@ -0,0 +1,39 @@
+package com.spantry.inventory.io;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Outcome of a bulk import.
+ *
+ * @param recordsRead Number of non-blank record lines read (header excluded).
+ * @param imported Number of items stored.
+ * @param rejected Lines that could not be imported, in input order.
+ * @param elapsed Wall-clock time spent on the import.
+ */
+public record ImportReport(
+    long recordsRead, long imported, List<RejectedLine> rejected, Duration elapsed) {
+
+  /** Compact constructor making a defensive copy of the rejected lines. */
+  public ImportReport {
+    rejected = List.copyOf(rejected);
+  }
+
+  /**
+   * A line that was skipped because it could not be parsed or failed validation.
+   *
+   * @param lineNumber The 1-based line number in the input.
+   * @param reason Why the line was rejected.
+   */
+  public record RejectedLine(long lineNumber, String reason) {}
+
+  /**
+   * Import throughput.
+   *
+   * @return records read per second, or 0 if no time elapsed
+   */
+  public long recordsPerSecond() {
+    final long nanos = elapsed.toNanos();
+    return nanos == 0 ? 0 : recordsRead * 1_000_000_000L / nanos;
+  }
+}
@@ -0,0 +1,66 @@
+package com.spantry.inventory.io;
+
+import com.spantry.inventory.domain.InventoryItem;
+import com.spantry.inventory.service.InventoryService;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Streams the inventory to a channel as text records. The items are taken from a single
+ * point-in-time snapshot of the inventory and formatted straight into a buffered writer, so no
+ * intermediate strings or per-record log output are produced.
+ *
+ * <p>Only the text is streamed: the snapshot is the list of all items, so memory still grows with
+ * the inventory by one reference per item, although no item is copied. Visiting the items in place
+ * would mean holding the repository lock, and blocking every writer, for as long as the target
+ * takes to accept the output.
+ */
+public final class InventoryExporter {
+
+  private static final int BUFFER_SIZE = 1 << 16;
+
+  private final InventoryService inventoryService;
+
+  /**
+   * Creates an exporter.
+   *
+   * @param inventoryService the service providing the inventory
+   */
+  public InventoryExporter(final InventoryService inventoryService) {
+    this.inventoryService =
+        Objects.requireNonNull(inventoryService, "inventoryService cannot be null");
+  }
+
+  /**
+   * Writes all items in the given format. The channel is flushed but not closed.
+   *
+   * @param format the record format
+   * @param target the destination channel
+   * @return the number of items written
+   * @throws IOException if writing fails
+   */
+  @SuppressWarnings("PMD.CloseResource")
+  public long exportRecords(final ItemRecordFormat format, final WritableByteChannel target)
+      throws IOException {
+    Objects.requireNonNull(format, "format cannot be null");
+    Objects.requireNonNull(target, "target cannot be null");
+    // The list holds references to immutable items, so it is a consistent snapshot without
+    // copying any item data; it is the one part of the export that grows with the inventory
+    final List<InventoryItem> snapshot = inventoryService.getAllItems();
+    // Deliberately not closed: closing the writer would close the caller's channel
+    final Writer out =
+        new BufferedWriter(Channels.newWriter(target, StandardCharsets.UTF_8), BUFFER_SIZE);
+    format.writeHeader(out);
+    for (final InventoryItem item : snapshot) {
+      format.write(item, out);
+    }
+    out.flush();
+    return snapshot.size();
+  }
+}
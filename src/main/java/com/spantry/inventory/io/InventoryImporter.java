@@ -0,0 +1,276 @@
+package com.spantry.inventory.io;
+
+import com.spantry.inventory.service.InventoryService;
+import com.spantry.inventory.service.dto.AddItemCommandDto;
+import com.spantry.validation.ObjectValidator;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Streams item records from a text input into the inventory.
+ *
+ * <p>The reader thread cuts the input into chunks of {@code batchSize} lines and hands them to a
+ * pool of workers that parse and validate them in parallel. Parsed chunks are written back in input
+ * order, one {@link InventoryService#addItems} call (and therefore one persistence step) per chunk.
+ * At most two chunks per worker are in flight, so memory use is bounded regardless of input size.
+ */
+public final class InventoryImporter {
+
+  /** Default number of records per batch. */
+  public static final int DEFAULT_BATCH_SIZE = 4096;
+
+  private static final Logger LOG = LoggerFactory.getLogger(InventoryImporter.class);
+  private static final int CHUNKS_IN_FLIGHT_PER_WORKER = 2;
+
+  private final InventoryService inventoryService;
+  private final ObjectValidator<AddItemCommandDto> validator;
+  private final int batchSize;
+  private final int workers;
+
+  /**
+   * Creates an importer.
+   *
+   * @param inventoryService the service receiving the batches
+   * @param validator the (thread-safe) validator applied to every record
+   * @param batchSize records per batch (must be positive)
+   * @param workers parser threads (must be positive)
+   */
+  public InventoryImporter(
+      final InventoryService inventoryService,
+      final ObjectValidator<AddItemCommandDto> validator,
+      final int batchSize,
+      final int workers) {
+    this.inventoryService =
+        Objects.requireNonNull(inventoryService, "inventoryService cannot be null");
+    this.validator = Objects.requireNonNull(validator, "validator cannot be null");
+    if (batchSize <= 0) {
+      throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+    }
+    if (workers <= 0) {
+      throw new IllegalArgumentException("Worker count must be positive: " + workers);
+    }
+    this.batchSize = batchSize;
+    this.workers = workers;
+  }
+
+  /**
+   * Imports a UTF-8 file.
+   *
+   * @param file the input file
+   * @param format the record format
+   * @return the import report
+   * @throws IOException if the file cannot be read
+   */
+  public ImportReport importFile(final Path file, final ItemRecordFormat format)
+      throws IOException {
+    try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+      return importFrom(reader, format);
+    }
+  }
+
+  /**
+   * Imports all records from a reader. Blank lines are ignored; a header line is skipped when the
+   * format recognizes one at the start of the input.
+   *
+   * @param reader the input
+   * @param format the record format
+   * @return the import report
+   * @throws IOException if the input cannot be read or the import is interrupted
+   */
+  public ImportReport importFrom(final BufferedReader reader, final ItemRecordFormat format)
+      throws IOException {
+    Objects.requireNonNull(reader, "reader cannot be null");
+    Objects.requireNonNull(format, "format cannot be null");
+    final long start = System.nanoTime();
+    final ImportTally tally = new ImportTally();
+    final ExecutorService pool = Executors.newFixedThreadPool(workers, new WorkerThreadFactory());
+    try {
+      final Deque<Future<ParsedChunk>> inFlight = new ArrayDeque<>();
+      long lineNumber = 0;
+      boolean first = true;
+      List<String> lines = new ArrayList<>(batchSize);
+      long chunkStart = 1;
+      String line = reader.readLine();
+      while (line != null) {
+        lineNumber++;
+        if (first && !line.isBlank()) {
+          first = false;
+          if (isHeader(format, line)) {
+            line = ""; // Treated like a blank line below
+          }
+        }
+        if (lines.isEmpty()) {
+          chunkStart = lineNumber;
+        }
+        lines.add(line);
+        if (lines.size() == batchSize) {
+          submit(pool, inFlight, new RawChunk(chunkStart, lines, format), tally);
+          lines = new ArrayList<>(batchSize);
+        }
+        line = reader.readLine();
+      }
+      if (!lines.isEmpty()) {
+        submit(pool, inFlight, new RawChunk(chunkStart, lines, format), tally);
+      }
+      while (!inFlight.isEmpty()) {
+        write(inFlight.removeFirst(), tally);
+      }
+    } finally {
+      pool.shutdownNow();
+    }
+    final ImportReport report =
+        new ImportReport(
+            tally.recordsRead,
+            tally.imported,
+            tally.rejected,
+            Duration.ofNanos(System.nanoTime() - start));
+    if (LOG.isDebugEnabled()) {
+      LOG.debug(
+          "Imported {} of {} records in {} ms",
+          report.imported(),
+          report.recordsRead(),
+          report.elapsed().toMillis());
+    }
+    return report;
+  }
+
+  private void submit(
+      final ExecutorService pool,
+      final Deque<Future<ParsedChunk>> inFlight,
+      final RawChunk chunk,
+      final ImportTally tally)
+      throws IOException {
+    // Keep the window bounded: wait for the oldest chunk before reading further ahead
+    if (inFlight.size() >= workers * CHUNKS_IN_FLIGHT_PER_WORKER) {
+      write(inFlight.removeFirst(), tally);
+    }
+    inFlight.addLast(pool.submit(() -> parse(chunk)));
+  }
+
+  private void write(final Future<ParsedChunk> pending, final ImportTally tally)
+      throws IOException {
+    final ParsedChunk chunk;
+    try {
+      chunk = pending.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      final InterruptedIOException interrupted = new InterruptedIOException("Import interrupted");
+      interrupted.initCause(e);
+      throw interrupted;
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("Failed to parse import chunk", e.getCause());
+    }
+    if (!chunk.commands().isEmpty()) {
+      inventoryService.addItems(chunk.commands());
+    }
+    tally.recordsRead += chunk.recordCount();
+    tally.imported += chunk.commands().size();
+    tally.rejected.addAll(chunk.rejected());
+  }
+
+  private ParsedChunk parse(final RawChunk chunk) {
+    final List<AddItemCommandDto> commands = new ArrayList<>(chunk.lines().size());
+    final List<ImportReport.RejectedLine> rejected = new ArrayList<>();
+    int recordCount = 0;
+    long lineNumber = chunk.firstLineNumber();
+    for (final String line : chunk.lines()) {
+      if (!line.isBlank()) {
+        recordCount++;
+        final String reason = parseLine(line, chunk.format(), commands);
+        if (reason != null) {
+          rejected.add(new ImportReport.RejectedLine(lineNumber, reason));
+        }
+      }
+      lineNumber++;
+    }
+    return new ParsedChunk(commands, rejected, recordCount);
+  }
+
+  /**
+   * Whether the first line is a header. A line the format cannot even split is not one; it is
+   * parsed as a record and rejected like any other malformed line.
+   */
+  @SuppressWarnings("PMD.AvoidCatchingGenericException")
+  private static boolean isHeader(final ItemRecordFormat format, final String line) {
+    boolean header;
+    try {
+      header = format.isHeader(line);
+    } catch (RuntimeException e) {
+      header = false;
+    }
+    return header;
+  }
+
+  /**
+   * Parses and validates one record, adding it to the accepted commands on success. Any failure to
+   * parse rejects the line rather than the import.
+   *
+   * @return null on success, otherwise the rejection reason
+   */
+  @SuppressWarnings("PMD.AvoidCatchingGenericException")
+  private String parseLine(
+      final String line, final ItemRecordFormat format, final List<AddItemCommandDto> commands) {
+    String reason = null;
+    try {
+      final AddItemCommandDto command = format.parse(line);
+      final List<String> violations = validator.validate(command);
+      if (violations.isEmpty()) {
+        commands.add(command);
+      } else {
+        reason = violations.stream().sorted().collect(Collectors.joining(" "));
+      }
+    } catch (IllegalArgumentException e) {
+      reason = e.getMessage();
+    } catch (RuntimeException e) {
+      reason = "Unreadable record: " + e;
+    }
+    return reason;
+  }
+
+  /** A chunk of raw input lines. */
+  private record RawChunk(long firstLineNumber, List<String> lines, ItemRecordFormat format) {}
+
+  /** The parsed and validated form of a chunk. */
+  private record ParsedChunk(
+      List<AddItemCommandDto> commands,
+      List<ImportReport.RejectedLine> rejected,
+      int recordCount) {}
+
+  /** Running totals, only touched by the reading thread. */
+  private static final class ImportTally {
+    private long recordsRead;
+    private long imported;
+    private final List<ImportReport.RejectedLine> rejected = new ArrayList<>();
+  }
+
+  /** Daemon worker threads so a failed import never keeps the JVM alive. */
+  private static final class WorkerThreadFactory implements ThreadFactory {
+    private final AtomicInteger counter = new AtomicInteger();
+
+    @Override
+    public Thread newThread(final Runnable task) {
+      final Thread thread = new Thread(task, "spantry-import-" + counter.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    }
+  }
+}
@@ -0,0 +1,202 @@
+package com.spantry.inventory.io;
+
+import com.spantry.inventory.domain.InventoryItem;
+import com.spantry.inventory.domain.Location;
+import com.spantry.inventory.service.dto.AddItemCommandDto;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Line-oriented text formats for item records. Every record occupies exactly one line, which lets
+ * importers split the input into chunks and parse them independently.
+ *
+ * <ul>
+ *   <li>{@link #CSV}: {@code name,quantity,location,expirationDate,itemId} with an optional header
+ *       line; the expiration date may be empty and the item ID may be omitted. Line breaks in a
+ *       name are written as spaces.
+ *   <li>{@link #NDJSON}: one JSON object per line with the members {@code name}, {@code quantity},
+ *       {@code location} and optionally {@code expirationDate} and {@code itemId}.
+ * </ul>
+ *
+ * <p>Exported records carry the item ID so they can be correlated; imports ignore it and always
+ * create new items, so an export can be re-imported as is.
+ */
+public enum ItemRecordFormat {
+
+  /** Comma separated values. */
+  CSV {
+    @Override
+    public boolean isHeader(final String line) {
+      return "name".equalsIgnoreCase(CsvCodec.split(line).get(0));
+    }
+
+    @Override
+    public AddItemCommandDto parse(final String line) {
+      final List<String> fields = CsvCodec.split(line);
+      if (fields.size() < 3 || fields.size() > 5) {
+        throw new IllegalArgumentException(
+            "Expected 3 to 5 fields (name,quantity,location[,expirationDate[,itemId]]) but found "
+                + fields.size());
+      }
+      return toCommand(
+          fields.get(0), fields.get(1), fields.get(2), fields.size() >= 4 ? fields.get(3) : null);
+    }
+
+    @Override
+    public void writeHeader(final Appendable out) throws IOException {
+      out.append("name,quantity,location,expirationDate,itemId\n");
+    }
+
+    @Override
+    public void write(final InventoryItem item, final Appendable out) throws IOException {
+      out.append(CsvCodec.quote(item.name()))
+          .append(',')
+          .append(Integer.toString(item.quantity()))
+          .append(',')
+          .append(item.location().name())
+          .append(',');
+      if (item.expirationDate() != null) {
+        out.append(item.expirationDate().toString());
+      }
+      out.append(',').append(CsvCodec.quote(item.itemId())).append('\n');
+    }
+  },
+
+  /** Newline delimited JSON. */
+  NDJSON {
+    @Override
+    public boolean isHeader(final String line) {
+      return false;
+    }
+
+    @Override
+    public AddItemCommandDto parse(final String line) {
+      final Map<String, String> members = JsonCodec.parseObject(line);
+      return toCommand(
+          members.get("name"),
+          members.get("quantity"),
+          members.get("location"),
+          members.get("expirationDate"));
+    }
+
+    @Override
+    public void writeHeader(final Appendable out) {
+      // NDJSON has no header
+    }
+
+    @Override
+    public void write(final InventoryItem item, final Appendable out) throws IOException {
+      out.append("{\"itemId\":")
+          .append(JsonCodec.quote(item.itemId()))
+          .append(",\"name\":")
+          .append(JsonCodec.quote(item.name()))
+          .append(",\"quantity\":")
+          .append(Integer.toString(item.quantity()))
+          .append(",\"location\":\"")
+          .append(item.location().name())
+          .append("\",\"expirationDate\":");
+      if (item.expirationDate() == null) {
+        out.append("null");
+      } else {
+        out.append('"').append(item.expirationDate().toString()).append('"');
+      }
+      out.append("}\n");
+    }
+  };
+
+  /**
+   * Whether the given first line of an input is a header rather than a record.
+   *
+   * @param line the first non-blank line of the input
+   * @return true if the line should be skipped
+   */
+  public abstract boolean isHeader(String line);
+
+  /**
+   * Parses one record into an add command. The command is not validated beyond what parsing
+   * requires; callers are expected to run bean validation on it.
+   *
+   * @param line the record, without line terminator
+   * @return the parsed command
+   * @throws IllegalArgumentException if the line is malformed
+   */
+  public abstract AddItemCommandDto parse(String line);
+
+  /**
+   * Writes the header line, if the format has one.
+   *
+   * @param out the destination
+   * @throws IOException if writing fails
+   */
+  public abstract void writeHeader(Appendable out) throws IOException;
+
+  /**
+   * Writes one item as a record, including the line terminator.
+   *
+   * @param item the item to write
+   * @param out the destination
+   * @throws IOException if writing fails
+   */
+  public abstract void write(InventoryItem item, Appendable out) throws IOException;
+
+  /**
+   * Picks the format from a file extension: {@code .ndjson}, {@code .jsonl} and {@code .json} map
+   * to {@link #NDJSON}, everything else to {@link #CSV}.
+   *
+   * @param file the input file
+   * @return the matching format
+   */
+  public static ItemRecordFormat forFile(final Path file) {
+    final String fileName = String.valueOf(file.getFileName()).toLowerCase(Locale.ROOT);
+    final boolean json =
+        fileName.endsWith(".ndjson") || fileName.endsWith(".jsonl") || fileName.endsWith(".json");
+    return json ? NDJSON : CSV;
+  }
+
+  private static AddItemCommandDto toCommand(
+      final String name, final String quantity, final String location, final String expiration) {
+    return new AddItemCommandDto(
+        name, parseQuantity(quantity), parseLocation(location), parseDate(expiration));
+  }
+
+  private static int parseQuantity(final String value) {
+    if (value == null || value.isBlank()) {
+      throw new IllegalArgumentException("Quantity is missing");
+    }
+    try {
+      return Integer.parseInt(value.trim());
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Invalid quantity '" + value + "'", e);
+    }
+  }
+
+  private static Location parseLocation(final String value) {
+    Location location = null;
+    if (value != null && !value.isBlank()) {
+      try {
+        location = Location.valueOf(value.trim().toUpperCase(Locale.ROOT));
+      } catch (IllegalArgumentException e) {
+        throw new IllegalArgumentException("Unknown location '" + value + "'", e);
+      }
+    }
+    return location; // A missing location is reported by validation
+  }
+
+  private static LocalDate parseDate(final String value) {
+    LocalDate date = null;
+    if (value != null && !value.isBlank()) {
+      try {
+        date = LocalDate.parse(value.trim());
+      } catch (DateTimeParseException e) {
+        throw new IllegalArgumentException(
+            "Invalid date format '" + value + "'. Please use YYYY-MM-DD.", e);
+      }
+    }
+    return date;
+  }
+}
@@ -0,0 +1,175 @@
+package com.spantry.inventory.io;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Minimal JSON handling for NDJSON item records. Only flat objects whose values are strings,
+ * numbers, booleans or {@code null} are supported, which is all an item record needs; nested values
+ * are rejected.
+ */
+final class JsonCodec {
+
+  private final String text;
+  private int pos;
+
+  private JsonCodec(final String text) {
+    this.text = text;
+  }
+
+  /**
+   * Parses a flat JSON object. Numbers and booleans are returned as their literal text; {@code
+   * null} values are returned as Java nulls.
+   *
+   * @param line the JSON object
+   * @return the member values by name
+   * @throws IllegalArgumentException if the line is not a flat JSON object
+   */
+  /* package */ static Map<String, String> parseObject(final String line) {
+    final JsonCodec parser = new JsonCodec(line);
+    final Map<String, String> members = new HashMap<>();
+    parser.expect('{');
+    if (parser.peek() == '}') {
+      parser.pos++;
+    } else {
+      boolean more = true;
+      while (more) {
+        parser.skipWhitespace();
+        final String key = parser.readString();
+        parser.expect(':');
+        members.put(key, parser.readValue());
+        parser.skipWhitespace();
+        more = parser.peek() == ',';
+        if (more) {
+          parser.pos++;
+        } else {
+          parser.expect('}');
+        }
+      }
+    }
+    parser.skipWhitespace();
+    if (parser.pos != line.length()) {
+      throw new IllegalArgumentException(
+          "Unexpected content after JSON object at column " + parser.pos);
+    }
+    return members;
+  }
+
+  /**
+   * Encodes a value as a JSON string literal.
+   *
+   * @param value the raw value
+   * @return the quoted and escaped literal
+   */
+  /* package */ static String quote(final String value) {
+    final StringBuilder out = new StringBuilder(value.length() + 2).append('"');
+    for (int i = 0; i < value.length(); i++) {
+      final char c = value.charAt(i);
+      switch (c) {
+        case '"' -> out.append("\\\"");
+        case '\\' -> out.append("\\\\");
+        case '\n' -> out.append("\\n");
+        case '\r' -> out.append("\\r");
+        case '\t' -> out.append("\\t");
+        default -> {
+          if (c < 0x20) {
+            out.append(String.format("\\u%04x", (int) c));
+          } else {
+            out.append(c);
+          }
+        }
+      }
+    }
+    return out.append('"').toString();
+  }
+
+  private char peek() {
+    skipWhitespace();
+    if (pos >= text.length()) {
+      throw new IllegalArgumentException("Unexpected end of JSON");
+    }
+    return text.charAt(pos);
+  }
+
+  private void expect(final char expected) {
+    if (peek() != expected) {
+      throw new IllegalArgumentException(
+          "Expected '" + expected + "' at column " + pos + " but found '" + text.charAt(pos) + "'");
+    }
+    pos++;
+  }
+
+  private void skipWhitespace() {
+    while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+      pos++;
+    }
+  }
+
+  private String readValue() {
+    final char first = peek();
+    final String value;
+    if (first == '"') {
+      value = readString();
+    } else if (first == '{' || first == '[') {
+      throw new IllegalArgumentException("Nested JSON values are not supported");
+    } else {
+      final int start = pos;
+      while (pos < text.length() && ",} \t".indexOf(text.charAt(pos)) < 0) {
+        pos++;
+      }
+      final String literal = text.substring(start, pos);
+      value = "null".equals(literal) ? null : literal;
+    }
+    return value;
+  }
+
+  private String readString() {
+    expect('"');
+    final StringBuilder out = new StringBuilder();
+    boolean closed = false;
+    while (!closed) {
+      if (pos >= text.length()) {
+        throw new IllegalArgumentException("Unterminated JSON string");
+      }
+      final char c = text.charAt(pos++);
+      if (c == '"') {
+        closed = true;
+      } else if (c == '\\') {
+        out.append(readEscape());
+      } else {
+        out.append(c);
+      }
+    }
+    return out.toString();
+  }
+
+  private char readEscape() {
+    if (pos >= text.length()) {
+      throw new IllegalArgumentException("Unterminated JSON escape");
+    }
+    final char escaped = text.charAt(pos++);
+    return switch (escaped) {
+      case '"', '\\', '/' -> escaped;
+      case 'b' -> '\b';
+      case 'f' -> '\f';
+      case 'n' -> '\n';
+      case 'r' -> '\r';
+      case 't' -> '\t';
+      case 'u' -> readUnicodeEscape();
+      default -> throw new IllegalArgumentException("Invalid JSON escape: \\" + escaped);
+    };
+  }
+
+  private char readUnicodeEscape() {
+    if (pos + 4 > text.length()) {
+      throw new IllegalArgumentException("Truncated JSON unicode escape");
+    }
+    final String hex = text.substring(pos, pos + 4);
+    pos += 4;
+    try {
+      return (char) Integer.parseInt(hex, 16);
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Invalid JSON unicode escape: \\u" + hex, e);
+    }
+  }
+}
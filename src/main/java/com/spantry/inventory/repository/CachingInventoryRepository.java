@@ -0,0 +1,276 @@
+package com.spantry.inventory.repository;
+
+import com.spantry.inventory.domain.InventoryItem;
+import com.spantry.inventory.domain.Location;
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Repository that keeps recently and frequently read items in memory in front of a slow delegate,
+ * such as one backed by a database or by files. Lookups by ID ({@link #findById}) and by name
+ * ({@link #findByNameOrderByExpiry}) are cached, each in a bounded {@link TinyLfuCache}; other
+ * queries go to the delegate.
+ *
+ * <p>Writes go to the delegate first and then invalidate what they changed: the item's ID and the
+ * name lists holding the item before and after the change. Changes made to the delegate behind the
+ * cache's back are not seen, so every writer must go through this class.
+ */
+public final class CachingInventoryRepository implements InventoryRepository {
+
+  /** System property that enables the cache in the application and sets its size per lookup. */
+  public static final String SIZE_PROPERTY = "spantry.cache.size";
+
+  private final InventoryRepository delegate;
+  private final TinyLfuCache<String, Optional<InventoryItem>> byId;
+  private final TinyLfuCache<String, List<InventoryItem>> byName;
+  // Name key of the cached name list holding each item; a stale entry only costs an extra
+  // invalidation
+  private final ConcurrentMap<String, String> listedUnder = new ConcurrentHashMap<>();
+
+  /**
+   * Counters of the caches since the repository was created.
+   *
+   * @param hits lookups answered from memory
+   * @param misses lookups that went to the delegate
+   * @param evictions entries dropped to stay within the size bound
+   * @param size entries currently cached
+   */
+  public record CacheStats(long hits, long misses, long evictions, int size) {
+
+    /**
+     * Returns the ratio of hits to lookups.
+     *
+     * @return the hit ratio, or 0 before the first lookup
+     */
+    public double hitRatio() {
+      final long lookups = hits + misses;
+      return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    private CacheStats plus(final CacheStats other) {
+      return new CacheStats(
+          hits + other.hits, misses + other.misses, evictions + other.evictions, size + other.size);
+    }
+  }
+
+  /**
+   * Creates a caching repository.
+   *
+   * @param delegate the repository holding the items
+   * @param maximumSize the maximum number of IDs, and separately of names, to keep
+   * @throws IllegalArgumentException if the size is not positive
+   */
+  public CachingInventoryRepository(final InventoryRepository delegate, final int maximumSize) {
+    this.delegate = Objects.requireNonNull(delegate, "Delegate repository cannot be null");
+    this.byId = new TinyLfuCache<>(maximumSize);
+    this.byName = new TinyLfuCache<>(maximumSize);
+  }
+
+  /**
+   * Returns the counters of both caches combined.
+   *
+   * @return hits, misses, evictions and size
+   */
+  public CacheStats cacheStats() {
+    return byId.stats().plus(byName.stats());
+  }
+
+  @Override
+  public InventoryItem save(final InventoryItem item) {
+    Objects.requireNonNull(item, "Item cannot be null for saving");
+    InventoryItem saved = item;
+    try {
+      saved = delegate.save(item);
+      return saved;
+    } finally {
+      invalidate(saved.itemId(), saved.name());
+    }
+  }
+
+  @Override
+  public Optional<InventoryItem> findById(final String itemId) {
+    Objects.requireNonNull(itemId, "Item ID cannot be null for findById");
+    return byId.get(itemId, delegate::findById);
+  }
+
+  @Override
+  public List<InventoryItem> findAll() {
+    return delegate.findAll();
+  }
+
+  @Override
+  public void deleteById(final String itemId) {
+    try {
+      delegate.deleteById(itemId);
+    } finally {
+      invalidate(itemId, null);
+    }
+  }
+
+  @Override
+  public List<InventoryItem> findByLocation(final Location location) {
+    return delegate.findByLocation(location);
+  }
+
+  @Override
+  public List<InventoryItem> saveAll(final Collection<InventoryItem> items) {
+    Objects.requireNonNull(items, "Items collection cannot be null for saveAll");
+    List<InventoryItem> saved = null;
+    try {
+      saved = delegate.saveAll(items);
+      return saved;
+    } finally {
+      invalidateAll(saved == null ? items : saved);
+    }
+  }
+
+  @Override
+  public int deleteAllById(final Collection<String> itemIds) {
+    Objects.requireNonNull(itemIds, "Item IDs cannot be null for deleteAllById");
+    try {
+      return delegate.deleteAllById(itemIds);
+    } finally {
+      for (final String itemId : itemIds) {
+        invalidate(itemId, null);
+      }
+    }
+  }
+
+  @Override
+  public Optional<InventoryItem> findAndDeleteById(final String itemId) {
+    try {
+      return delegate.findAndDeleteById(itemId);
+    } finally {
+      invalidate(itemId, null);
+    }
+  }
+
+  @Override
+  public Optional<InventoryItem> insertIfAbsent(final InventoryItem item) {
+    Objects.requireNonNull(item, "Item cannot be null for insertIfAbsent");
+    try {
+      return delegate.insertIfAbsent(item);
+    } finally {
+      invalidate(item.itemId(), item.name());
+    }
+  }
+
+  @Override
+  public Optional<InventoryItem> compareAndSet(final InventoryItem item) {
+    Objects.requireNonNull(item, "Item cannot be null for compareAndSet");
+    try {
+      return delegate.compareAndSet(item);
+    } finally {
+      invalidate(item.itemId(), item.name());
+    }
+  }
+
+  @Override
+  public boolean compareAndDelete(final String itemId, final long expectedVersion) {
+    try {
+      return delegate.compareAndDelete(itemId, expectedVersion);
+    } finally {
+      invalidate(itemId, null);
+    }
+  }
+
+  @Override
+  public List<InventoryItem> findByNameOrderByExpiry(final String name) {
+    Objects.requireNonNull(name, "Name cannot be null for findByNameOrderByExpiry");
+    return byName.get(ItemOrdering.nameKey(name), key -> loadLots(name, key));
+  }
+
+  private List<InventoryItem> loadLots(final String name, final String key) {
+    final List<InventoryItem> lots = delegate.findByNameOrderByExpiry(name);
+    for (final InventoryItem lot : lots) {
+      listedUnder.put(lot.itemId(), key);
+    }
+    return lots;
+  }
+
+  @Override
+  public List<InventoryItem> findByQuery(final ItemQuery query) {
+    return delegate.findByQuery(query);
+  }
+
+  @Override
+  public List<InventoryItem> findByQueryAsOf(final ItemQuery query, final Instant asOf) {
+    return delegate.findByQueryAsOf(query, asOf);
+  }
+
+  @Override
+  public QueryPlan explain(final ItemQuery query) {
+    return delegate.explain(query);
+  }
+
+  @Override
+  public InventoryStats stats(final LocalDate asOf) {
+    return delegate.stats(asOf);
+  }
+
+  @Override
+  public void subscribe(final InventoryListener listener) {
+    delegate.subscribe(listener);
+  }
+
+  @Override
+  public void unsubscribe(final InventoryListener listener) {
+    delegate.unsubscribe(listener);
+  }
+
+  @Override
+  public boolean compareAndApply(
+      final Collection<InventoryItem> updates, final Collection<InventoryItem> deletions) {
+    Objects.requireNonNull(updates, "Updates cannot be null for compareAndApply");
+    Objects.requireNonNull(deletions, "Deletions cannot be null for compareAndApply");
+    try {
+      return delegate.compareAndApply(updates, deletions);
+    } finally {
+      invalidateAll(updates);
+      invalidateAll(deletions);
+    }
+  }
+
+  @Override
+  public long transferSnapshotTo(final WritableByteChannel target) throws IOException {
+    return delegate.transferSnapshotTo(target);
+  }
+
+  private void invalidateAll(final Collection<InventoryItem> items) {
+    for (final InventoryItem item : items) {
+      if (item != null) {
+        invalidate(item.itemId(), item.name());
+      }
+    }
+  }
+
+  /**
+   * Drops the cached state of an item after the delegate changed it, or failed to: the lookup of
+   * its ID, the name list it was listed under and the name list of its new name.
+   *
+   * @param itemId the item's ID, or null if the delegate assigns it
+   * @param name the item's name after the change, or null if it was deleted
+   */
+  private void invalidate(final String itemId, final String name) {
+    // A name list being loaded right now may or may not include this change
+    byName.withdrawLoads();
+    if (itemId != null) {
+      byId.invalidate(itemId);
+      final String listed = listedUnder.remove(itemId);
+      if (listed != null) {
+        byName.invalidate(listed);
+      }
+    }
+    if (name != null) {
+      byName.invalidate(ItemOrdering.nameKey(name));
+    }
+  }
+}
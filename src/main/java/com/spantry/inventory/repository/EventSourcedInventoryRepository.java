@@ -0,0 +1,654 @@
+package com.spantry.inventory.repository;
+
+import com.spantry.exception.InitializationException;
+import com.spantry.inventory.domain.InventoryItem;
+import com.spantry.inventory.domain.Location;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An inventory repository that stores the history of changes instead of the latest state of each
+ * item. Every change appends {@link InventoryEvent}s (item added, quantity changed, item moved,
+ * item removed, item revised) to an append-only {@link InventoryEventLog}; the inventory is the
+ * {@link InventoryProjection} of that log, which keeps the current items, a location index, expiry
+ * buckets and the lots per name, and is updated incrementally by each event as it is appended.
+ *
+ * <p>Loading rebuilds the projection by replay. To keep restarts from replaying the whole history,
+ * the projection is checkpointed (see {@link ProjectionCheckpoints}) once the events since the last
+ * checkpoint outnumber both the items and {@value #CHECKPOINT_INTERVAL}; a restart loads the latest
+ * checkpoint and replays only the tail of the log after it. As with the journal compaction of
+ * {@link InMemoryInventoryRepository}, writing checkpoints costs a constant amount per event.
+ *
+ * <p>Because nothing is overwritten, any earlier state can be queried: {@link #findByQueryAsOf}
+ * rebuilds the projection as of a point in time from the nearest earlier checkpoint. Enable this
+ * repository in the application by setting the system property {@value #STORAGE_PROPERTY} to
+ * {@value #EVENTS}.
+ */
+public class EventSourcedInventoryRepository implements InventoryRepository {
+
+  private static final Logger LOG = LoggerFactory.getLogger(EventSourcedInventoryRepository.class);
+
+  /** System property selecting the storage: {@code snapshot} (default) or {@value #EVENTS}. */
+  public static final String STORAGE_PROPERTY = "spantry.storage";
+
+  /** Value of {@link #STORAGE_PROPERTY} selecting this repository. */
+  public static final String EVENTS = "events";
+
+  /** Fewest events between two checkpoints, so that a small inventory is not rewritten often. */
+  /* package */ static final int CHECKPOINT_INTERVAL = 1024;
+
+  private static final Path EVENT_LOG_PATH = Paths.get("build", "e2e-inventory.events");
+
+  private final InventoryEventLog log;
+  private final ProjectionCheckpoints checkpoints;
+  private final Clock clock;
+
+  // Guards the projection, the log size and the files; held across log appends (see
+  // RequestThreads)
+  private final ReentrantLock lock = new ReentrantLock();
+
+  // Notified of every change while the lock is held
+  private final List<InventoryListener> listeners = new CopyOnWriteArrayList<>();
+
+  // The current inventory, the log size it reflects and the events since the last checkpoint;
+  // guarded by lock
+  private final InventoryProjection projection;
+  private long logSize;
+  private int eventsSinceCheckpoint;
+
+  /** Constructor that loads the inventory from the default event log. */
+  public EventSourcedInventoryRepository() {
+    this(EVENT_LOG_PATH);
+  }
+
+  /**
+   * Constructor that loads the inventory from the given event log and its checkpoints.
+   *
+   * @param logPath location of the event log; the checkpoints live next to it
+   */
+  public EventSourcedInventoryRepository(final Path logPath) {
+    this(logPath, Clock.systemUTC());
+  }
+
+  /**
+   * Constructor with the clock that timestamps the events.
+   *
+   * @param logPath location of the event log; the checkpoints live next to it
+   * @param clock the clock
+   * @throws InitializationException if the log cannot be read or is inconsistent
+   */
+  /* package */ EventSourcedInventoryRepository(final Path logPath, final Clock clock) {
+    Objects.requireNonNull(logPath, "logPath cannot be null");
+    this.clock = Objects.requireNonNull(clock, "clock cannot be null");
+    this.log = new InventoryEventLog(logPath);
+    this.checkpoints = new ProjectionCheckpoints(logPath);
+    this.projection = load();
+  }
+
+  /**
+   * Whether the application should store the inventory as events, as selected by {@value
+   * #STORAGE_PROPERTY}.
+   *
+   * @return true if the property is set to {@value #EVENTS}
+   */
+  public static boolean enabled() {
+    return EVENTS.equals(System.getProperty(STORAGE_PROPERTY, "").toLowerCase(Locale.ROOT));
+  }
+
+  @Override
+  public InventoryItem save(final InventoryItem item) {
+    Objects.requireNonNull(item, "Item cannot be null for saving");
+    final InventoryItem itemWithId = InMemoryInventoryRepository.withAssignedId(item);
+    lock.lock();
+    try {
+      final PendingChange change = new PendingChange();
+      final InventoryItem stored = change.put(itemWithId);
+      commit(change);
+      return stored;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public Optional<InventoryItem> findById(final String itemId) {
+    Objects.requireNonNull(itemId, "Item ID cannot be null for findById");
+    lock.lock();
+    try {
+      return Optional.ofNullable(projection.get(itemId));
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public List<InventoryItem> findAll() {
+    lock.lock();
+    try {
+      return List.copyOf(projection.items());
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public void deleteById(final String itemId) {
+    Objects.requireNonNull(itemId, "Item ID cannot be null for deleteById");
+    lock.lock();
+    try {
+      final PendingChange change = new PendingChange();
+      change.remove(itemId);
+      commit(change);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public List<InventoryItem> findByLocation(final Location location) {
+    Objects.requireNonNull(location, "Location cannot be null for findByLocation");
+    lock.lock();
+    try {
+      return List.copyOf(projection.inLocation(location));
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public List<InventoryItem> saveAll(final Collection<InventoryItem> items) {
+    Objects.requireNonNull(items, "Items cannot be null for saveAll");
+    final List<InventoryItem> itemsWithIds = new ArrayList<>(items.size());
+    for (final InventoryItem item : items) {
+      itemsWithIds.add(
+          InMemoryInventoryRepository.withAssignedId(
+              Objects.requireNonNull(item, "Item cannot be null")));
+    }
+    final List<InventoryItem> storedItems = new ArrayList<>(itemsWithIds.size());
+    lock.lock();
+    try {
+      final PendingChange change = new PendingChange();
+      for (final InventoryItem itemWithId : itemsWithIds) {
+        storedItems.add(change.put(itemWithId));
+      }
+      commit(change); // One append for the whole batch
+    } finally {
+      lock.unlock();
+    }
+    return List.copyOf(storedItems);
+  }
+
+  @Override
+  public int deleteAllById(final Collection<String> itemIds) {
+    Objects.requireNonNull(itemIds, "Item IDs cannot be null for deleteAllById");
+    for (final String itemId : itemIds) {
+      Objects.requireNonNull(itemId, "Item ID cannot be null for deleteAllById");
+    }
+    lock.lock();
+    try {
+      final PendingChange change = new PendingChange();
+      for (final String itemId : itemIds) {
+        change.remove(itemId);
+      }
+      commit(change);
+      return change.events.size();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public Optional<InventoryItem> findAndDeleteById(final String itemId) {
+    Objects.requireNonNull(itemId, "Item ID cannot be null for findAndDeleteById");
+    lock.lock();
+    try {
+      final PendingChange change = new PendingChange();
+      final InventoryItem removed = change.remove(itemId);
+      commit(change);
+      return Optional.ofNullable(removed);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public Optional<InventoryItem> insertIfAbsent(final InventoryItem item) {
+    Objects.requireNonNull(item, "Item cannot be null for insertIfAbsent");
+    final InventoryItem itemWithId = InMemoryInventoryRepository.withAssignedId(item);
+    lock.lock();
+    try {
+      InventoryItem inserted = null;
+      if (projection.get(itemWithId.itemId()) == null) {
+        final PendingChange change = new PendingChange();
+        inserted = change.put(itemWithId);
+        commit(change);
+      }
+      return Optional.ofNullable(inserted);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public Optional<InventoryItem> compareAndSet(final InventoryItem item) {
+    Objects.requireNonNull(item, "Item cannot be null for compareAndSet");
+    Objects.requireNonNull(item.itemId(), "Item ID cannot be null for compareAndSet");
+    lock.lock();
+    try {
+      final InventoryItem current = projection.get(item.itemId());
+      InventoryItem stored = null;
+      if (current != null && current.version() == item.version()) {
+        final PendingChange change = new PendingChange();
+        stored = change.put(item);
+        commit(change);
+      }
+      return Optional.ofNullable(stored);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public boolean compareAndDelete(final String itemId, final long expectedVersion) {
+    Objects.requireNonNull(itemId, "Item ID cannot be null for compareAndDelete");
+    lock.lock();
+    try {
+      final InventoryItem current = projection.get(itemId);
+      final boolean matches = current != null && current.version() == expectedVersion;
+      if (matches) {
+        final PendingChange change = new PendingChange();
+        change.remove(itemId);
+        commit(change);
+      }
+      return matches;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public List<InventoryItem> findByNameOrderByExpiry(final String name) {
+    Objects.requireNonNull(name, "Name cannot be null for findByNameOrderByExpiry");
+    lock.lock();
+    try {
+      return projection.lots(name);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public boolean compareAndApply(
+      final Collection<InventoryItem> updates, final Collection<InventoryItem> deletions) {
+    Objects.requireNonNull(updates, "Updates cannot be null for compareAndApply");
+    Objects.requireNonNull(deletions, "Deletions cannot be null for compareAndApply");
+    final List<InventoryItem> expected = new ArrayList<>(updates.size() + deletions.size());
+    expected.addAll(updates);
+    expected.addAll(deletions);
+    for (final InventoryItem item : expected) {
+      Objects.requireNonNull(item, "Item cannot be null for compareAndApply");
+      Objects.requireNonNull(item.itemId(), "Item ID cannot be null for compareAndApply");
+    }
+
+    lock.lock();
+    try {
+      // Validate every expected version before recording anything: all or nothing
+      boolean matches = true;
+      for (final InventoryItem item : updates) {
+        matches = matches && isCurrent(item, true);
+      }
+      for (final InventoryItem item : deletions) {
+        matches = matches && isCurrent(item, false);
+      }
+      if (matches) {
+        final PendingChange change = new PendingChange();
+        for (final InventoryItem item : updates) {
+          change.put(item);
+        }
+        for (final InventoryItem item : deletions) {
+          change.remove(item.itemId());
+        }
+        commit(change); // One append for the whole change
+      }
+      return matches;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public List<InventoryItem> findByQuery(final ItemQuery query) {
+    Objects.requireNonNull(query, "Query cannot be null for findByQuery");
+    lock.lock();
+    try {
+      return projection.select(query);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>A time at or after the latest change is answered from the current projection. An earlier
+   * time rebuilds the projection from the latest checkpoint not after it, or from the start of the
+   * log if there is none, replaying the events up to and including that time. The rebuild reads
+   * only files and happens outside the lock, so it does not hold up changes.
+   */
+  @Override
+  public List<InventoryItem> findByQueryAsOf(final ItemQuery query, final Instant asOf) {
+    Objects.requireNonNull(query, "Query cannot be null for findByQueryAsOf");
+    Objects.requireNonNull(asOf, "As-of time cannot be null for findByQueryAsOf");
+    List<InventoryItem> found = null;
+    lock.lock();
+    try {
+      if (!asOf.isBefore(projection.timestamp())) {
+        found = projection.select(query);
+      }
+    } finally {
+      lock.unlock();
+    }
+    if (found == null) {
+      found = projectionAsOf(asOf).select(query);
+    }
+    return found;
+  }
+
+  @Override
+  public QueryPlan explain(final ItemQuery query) {
+    Objects.requireNonNull(query, "Query cannot be null for explain");
+    lock.lock();
+    try {
+      return projection.explain(query);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public InventoryStats stats(final LocalDate asOf) {
+    Objects.requireNonNull(asOf, "As-of date cannot be null for stats");
+    lock.lock();
+    try {
+      return projection.stats(asOf);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public void subscribe(final InventoryListener listener) {
+    Objects.requireNonNull(listener, "Listener cannot be null for subscribe");
+    lock.lock();
+    try {
+      for (final InventoryItem item : projection.items()) {
+        listener.itemChanged(null, item);
+      }
+      listeners.add(listener);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public void unsubscribe(final InventoryListener listener) {
+    Objects.requireNonNull(listener, "Listener cannot be null for unsubscribe");
+    listeners.remove(listener);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>The native format is the event log itself: the whole history, from which this repository
+   * rebuilds the inventory. The log is copied up to its size when the call starts; later changes
+   * are appended after that point and are not included.
+   */
+  @Override
+  public long transferSnapshotTo(final WritableByteChannel target) throws IOException {
+    Objects.requireNonNull(target, "Target channel cannot be null for transferSnapshotTo");
+    final long size;
+    lock.lock();
+    try {
+      size = logSize;
+    } finally {
+      lock.unlock();
+    }
+    return log.transferTo(size, target);
+  }
+
+  /**
+   * Checks an expected state for {@link #compareAndApply}. Must be called while holding the
+   * repository lock.
+   */
+  private boolean isCurrent(final InventoryItem expected, final boolean mayInsert) {
+    final InventoryItem current = projection.get(expected.itemId());
+    final boolean insert = mayInsert && expected.version() == InventoryItem.UNSAVED_VERSION;
+    return insert ? current == null : current != null && current.version() == expected.version();
+  }
+
+  /**
+   * Appends the events of a change to the log, then applies them to the projection and tells the
+   * listeners. The log is written first: a change that cannot be recorded is rejected, leaving the
+   * inventory as it was. Must be called while holding the repository lock.
+   *
+   * @param change the change; nothing happens if it has no events
+   * @throws UncheckedIOException if the log cannot be written
+   */
+  private void commit(final PendingChange change) {
+    if (!change.events.isEmpty()) {
+      // Timestamps never go backwards, even if the clock does, so that a point in time splits the
+      // log in two; the events of one change share their timestamp and are never split
+      final Instant now = Instant.ofEpochMilli(clock.millis());
+      final Instant timestamp = now.isBefore(projection.timestamp()) ? projection.timestamp() : now;
+      final List<InventoryEventLog.Entry> entries = new ArrayList<>(change.events.size());
+      long sequence = projection.sequence();
+      for (final InventoryEvent event : change.events) {
+        sequence++;
+        entries.add(new InventoryEventLog.Entry(sequence, timestamp, event));
+      }
+      append(entries);
+      for (final InventoryEventLog.Entry entry : entries) {
+        final InventoryItem previous = projection.apply(entry);
+        final InventoryItem current = projection.get(entry.event().itemId());
+        for (final InventoryListener listener : listeners) {
+          listener.itemChanged(previous, current);
+        }
+      }
+      eventsSinceCheckpoint += entries.size();
+      if (eventsSinceCheckpoint >= Math.max(CHECKPOINT_INTERVAL, projection.size())) {
+        writeCheckpoint();
+      }
+    }
+  }
+
+  private void append(final List<InventoryEventLog.Entry> entries) {
+    final JournalAppendEvent event = new JournalAppendEvent();
+    event.begin();
+    try {
+      createDataDirectory();
+      final long bytes = log.append(entries);
+      logSize += bytes;
+      event.path = log.path().toString();
+      event.entries = entries.size();
+      event.bytes = bytes;
+      event.commit();
+      if (LOG.isDebugEnabled()) {
+        LOG.debug("Appended {} events ({} bytes) to: {}", entries.size(), bytes, log.path());
+      }
+    } catch (IOException e) {
+      // Cut off whatever part of the change reached the file, so the next append follows intact
+      // records
+      try {
+        log.truncate(logSize);
+      } catch (IOException truncateFailure) {
+        e.addSuppressed(truncateFailure);
+      }
+      throw new UncheckedIOException("Could not append to the event log: " + log.path(), e);
+    }
+  }
+
+  private void writeCheckpoint() {
+    final SnapshotWriteEvent event = new SnapshotWriteEvent();
+    event.begin();
+    try {
+      event.bytes = checkpoints.write(projection, logSize);
+      eventsSinceCheckpoint = 0;
+      event.path = log.path().toString();
+      event.items = projection.size();
+      event.commit();
+      if (LOG.isDebugEnabled()) {
+        LOG.debug("Checkpointed {} items at event #{}", projection.size(), projection.sequence());
+      }
+    } catch (IOException e) {
+      // The log holds every change; without the checkpoint a restart just replays more of it
+      if (LOG.isErrorEnabled()) {
+        LOG.error("Failed to write a checkpoint of the event log: {}", log.path(), e);
+      }
+    }
+  }
+
+  private void createDataDirectory() throws IOException {
+    final Path parent = log.path().toAbsolutePath().getParent();
+    if (parent != null) {
+      Files.createDirectories(parent);
+    }
+  }
+
+  /**
+   * Rebuilds the current inventory: the latest checkpoint plus the events after it. A torn record
+   * at the end of the log, left by a crash during an append, is cut off.
+   */
+  private InventoryProjection load() {
+    final InventoryLoadEvent event = new InventoryLoadEvent();
+    event.begin();
+    try {
+      final long fileSize = Files.exists(log.path()) ? Files.size(log.path()) : 0;
+      InventoryProjection loaded = new InventoryProjection();
+      long offset = 0;
+      final Optional<ProjectionCheckpoints.Checkpoint> checkpoint = checkpoints.latest(null);
+      if (checkpoint.isPresent() && checkpoint.get().offset() > fileSize) {
+        // The log was replaced or cut short: the checkpoints describe another history
+        if (LOG.isWarnEnabled()) {
+          LOG.warn("Discarding checkpoints beyond the end of the event log: {}", log.path());
+        }
+        checkpoints.clear();
+      } else if (checkpoint.isPresent()) {
+        try {
+          loaded = checkpoints.load(checkpoint.get());
+          offset = checkpoint.get().offset();
+          event.snapshotBytes = Files.size(checkpoint.get().path());
+        } catch (IOException e) {
+          if (LOG.isWarnEnabled()) {
+            LOG.warn(
+                "Replaying the whole event log, {} is unreadable: {}",
+                checkpoint.get().path(),
+                e.getMessage());
+          }
+        }
+      }
+      final InventoryProjection replayed = loaded;
+      final long checkpointSequence = replayed.sequence();
+      logSize = log.replay(offset, null, replayed::apply);
+      if (logSize < fileSize) {
+        if (LOG.isWarnEnabled()) {
+          LOG.warn("Cutting off a torn record at the end of the event log: {}", log.path());
+        }
+        log.truncate(logSize);
+      }
+      eventsSinceCheckpoint = (int) (replayed.sequence() - checkpointSequence);
+      if (eventsSinceCheckpoint > 0 && LOG.isDebugEnabled()) {
+        LOG.debug("Replayed {} events from: {}", eventsSinceCheckpoint, log.path());
+      }
+      event.path = log.path().toString();
+      event.items = replayed.size();
+      event.journalEntries = eventsSinceCheckpoint;
+      event.commit();
+      return replayed;
+    } catch (IOException | IllegalStateException | IllegalArgumentException e) {
+      // IllegalArgumentException: a record naming a location this version does not know
+      throw new InitializationException("Could not load the event log: " + log.path(), e);
+    }
+  }
+
+  /**
+   * Rebuilds the inventory as it was at a point in time. Reads only files; does not need the lock.
+   *
+   * @param asOf the point in time
+   * @return a projection private to the caller
+   * @throws UncheckedIOException if the log cannot be read
+   */
+  private InventoryProjection projectionAsOf(final Instant asOf) {
+    InventoryProjection past = new InventoryProjection();
+    long offset = 0;
+    final Optional<ProjectionCheckpoints.Checkpoint> checkpoint = checkpoints.latest(asOf);
+    if (checkpoint.isPresent()) {
+      try {
+        past = checkpoints.load(checkpoint.get());
+        offset = checkpoint.get().offset();
+      } catch (IOException e) {
+        // Pruned by a concurrent checkpoint, say: the log alone is enough
+        if (LOG.isDebugEnabled()) {
+          LOG.debug("Replaying from the start instead of {}: {}", checkpoint.get(), e.getMessage());
+        }
+      }
+    }
+    try {
+      log.replay(offset, asOf, past::apply);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not read the event log: " + log.path(), e);
+    }
+    return past;
+  }
+
+  /**
+   * The events of a change being prepared under the lock, with the item states they lead to, so
+   * that a change touching an item twice versions it like two consecutive writes.
+   */
+  private final class PendingChange {
+    private final Map<String, InventoryItem> pending = new HashMap<>();
+    private final List<InventoryEvent> events = new ArrayList<>();
+
+    private InventoryItem current(final String itemId) {
+      return pending.containsKey(itemId) ? pending.get(itemId) : projection.get(itemId);
+    }
+
+    /** Records storing the item with the version following the current one (1 for a new item). */
+    private InventoryItem put(final InventoryItem item) {
+      final InventoryItem previous = current(item.itemId());
+      final InventoryItem stored =
+          item.withVersion(previous == null ? 1L : previous.version() + 1L);
+      events.add(InventoryEvent.between(previous, stored));
+      pending.put(stored.itemId(), stored);
+      return stored;
+    }
+
+    /** Records removing the item, if it exists. */
+    private InventoryItem remove(final String itemId) {
+      final InventoryItem previous = current(itemId);
+      if (previous != null) {
+        events.add(new InventoryEvent.ItemRemoved(itemId));
+        pending.put(itemId, null);
+      }
+      return previous;
+    }
+  }
+}
@@ -0,0 +1,97 @@
+package com.spantry.inventory.repository;
+
+/**
+ * Approximate access frequencies for the admission policy of {@link TinyLfuCache}: a count-min
+ * sketch of 4-bit counters, sixteen to a {@code long}. Each key maps to one counter in each of four
+ * rows; its estimate is the smallest of them. Once the number of increments reaches ten times the
+ * cache size, every counter is halved, so the sketch follows changes in popularity instead of
+ * remembering old favourites forever. Not thread-safe.
+ */
+/* package */ final class FrequencySketch {
+
+  private static final long[] SEEDS = {
+    0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L
+  };
+  private static final long RESET_MASK = 0x7777777777777777L;
+  private static final int MAX_COUNT = 15;
+
+  private final long[] table;
+  private final int sampleSize;
+  private int additions;
+
+  /**
+   * Creates a sketch sized for a cache.
+   *
+   * @param maximumSize the cache capacity
+   */
+  /* package */ FrequencySketch(final int maximumSize) {
+    final int counters = Math.max(16, Integer.highestOneBit(Math.max(1, maximumSize - 1)) << 1);
+    this.table = new long[Math.max(1, counters / 16 * 4)];
+    this.sampleSize = Math.max(10, 10 * maximumSize);
+  }
+
+  /**
+   * Returns the estimated number of recent accesses to a key, at most 15.
+   *
+   * @param key the key
+   * @return the estimate
+   */
+  /* package */ int frequency(final Object key) {
+    final int hash = spread(key.hashCode());
+    int frequency = MAX_COUNT;
+    for (int row = 0; row < SEEDS.length; row++) {
+      final long slot = slot(hash, row);
+      final int index = (int) (slot >>> 32);
+      final int shift = (int) slot;
+      frequency = Math.min(frequency, (int) (table[index] >>> shift) & MAX_COUNT);
+    }
+    return frequency;
+  }
+
+  /**
+   * Records an access to a key.
+   *
+   * @param key the key
+   */
+  /* package */ void increment(final Object key) {
+    final int hash = spread(key.hashCode());
+    boolean added = false;
+    for (int row = 0; row < SEEDS.length; row++) {
+      final long slot = slot(hash, row);
+      final int index = (int) (slot >>> 32);
+      final int shift = (int) slot;
+      if (((table[index] >>> shift) & MAX_COUNT) < MAX_COUNT) {
+        table[index] += 1L << shift;
+        added = true;
+      }
+    }
+    if (added && ++additions >= sampleSize) {
+      reset();
+    }
+  }
+
+  /** Halves every counter. */
+  private void reset() {
+    for (int i = 0; i < table.length; i++) {
+      table[i] = (table[i] >>> 1) & RESET_MASK;
+    }
+    additions /= 2;
+  }
+
+  /**
+   * Locates the counter of a key in a row: the table index in the high half, the bit offset of the
+   * counter within that {@code long} in the low half.
+   */
+  private long slot(final int hash, final int row) {
+    long h = (hash + SEEDS[row]) * SEEDS[row];
+    h ^= h >>> 32;
+    final int index = (int) ((h >>> 8) % table.length);
+    final int counter = (int) (h & 15);
+    return ((long) index << 32) | (counter << 2);
+  }
+
+  private static int spread(final int hash) {
+    final int h = hash * 0x9e3779b9;
+    return h ^ (h >>> 16);
+  }
+}
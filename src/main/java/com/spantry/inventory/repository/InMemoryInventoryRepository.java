@@ -8,55 +8,121 @@ import java.io.File;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableSet;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.TreeSet;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * An inventory repository implementation that persists items to a file using Java Serialization.
  * Intended primarily for E2E testing where state needs to persist across process executions.
+ *
+ * <p>Mutations are appended to a small binary journal next to the data file, so a change costs a
+ * write proportional to the items it touches rather than a rewrite of the whole inventory. Once the
+ * journal holds more entries than the inventory holds items, it is folded into a fresh snapshot of
+ * the data file and truncated, which keeps the amortized cost per change constant.
+ *
+ * <p>Items are also indexed by name: each name maps to its lots ordered by expiration date, so
+ * name-based lookups touch only the lots of that name instead of scanning the inventory.
+ *
+ * <p>{@link #findByQuery} additionally uses a sorted set of names, a location index and an expiry
+ * index. It picks the most selective of them for a query and, when that index already yields the
+ * requested order, stops as soon as the limit is reached instead of sorting. These secondary
+ * indexes are built on first use and maintained from then on: a one-shot command pays only for the
+ * index its query needs, a long-running shell or daemon builds each one once.
+ *
+ * <p>Aggregate counters for {@link #stats} (per location, per expiry day) are updated on every
+ * change alongside the name index, so reading them does not visit the items.
  */
 public class InMemoryInventoryRepository implements InventoryRepository {
 
   private static final Logger LOG = LoggerFactory.getLogger(InMemoryInventoryRepository.class);
   private static final Path DATA_FILE_PATH = Paths.get("build", "e2e-inventory.dat");
+  private static final String JOURNAL_SUFFIX = ".journal";
+  private static final String TEMP_SUFFIX = ".tmp";
+
+  /** Minimum number of journal entries before a compaction into the snapshot is considered. */
+  private static final int MIN_COMPACTION_ENTRIES = 1024;
 
   // Map is now an instance variable
   private final Map<String, InventoryItem> inventory;
+  private final Path dataFilePath;
+  private final InventoryJournal journal;
+
+  // Guards the inventory, its indexes and the files; held across journal writes (see
+  // RequestThreads)
+  private final ReentrantLock lock = new ReentrantLock();
+
+  // Lots per lower-cased name in expiry order; guarded by lock
+  private final Map<String, NavigableSet<InventoryItem>> lotsByName = new HashMap<>();
+
+  // Counts per location and expiry day, maintained with the name index; guarded by lock
+  private final InventoryAggregates aggregates = new InventoryAggregates();
+
+  // Notified of every change while the lock is held
+  private final List<InventoryListener> listeners = new CopyOnWriteArrayList<>();
+
+  // Secondary indexes, null until first used; guarded by lock
+  private NavigableSet<String> sortedNames;
+  private NavigableSet<InventoryItem> byExpiry;
+  private Map<Location, Map<String, InventoryItem>> byLocation;
+
+  // Entries appended since the last snapshot; guarded by lock
+  private int journalEntries;
 
   /** Constructor that loads data from the file. */
   public InMemoryInventoryRepository() {
+    this(DATA_FILE_PATH);
+  }
+
+  /**
+   * Constructor that loads data from the given data file and its journal.
+   *
+   * @param dataFilePath location of the snapshot file; the journal lives next to it
+   */
+  public InMemoryInventoryRepository(final Path dataFilePath) {
+    this.dataFilePath = Objects.requireNonNull(dataFilePath, "dataFilePath cannot be null");
+    this.journal = new InventoryJournal(journalPathFor(dataFilePath));
     this.inventory = loadInventoryFromFile();
+    for (final InventoryItem item : inventory.values()) {
+      index(item);
+    }
   }
 
   @Override
   public InventoryItem save(final InventoryItem item) {
     Objects.requireNonNull(item, "Item cannot be null for saving");
+    final InventoryItem itemWithId = withAssignedId(item);
 
-    String itemId = item.itemId();
-    InventoryItem itemToStore;
-
-    if (itemId == null || itemId.isBlank()) {
-      itemId = UUID.randomUUID().toString();
-      itemToStore =
-          new InventoryItem(
-              itemId, item.name(), item.quantity(), item.location(), item.expirationDate());
-    } else {
-      itemToStore = item;
-    }
-
-    synchronized (this) {
-      inventory.put(itemToStore.itemId(), itemToStore);
-      saveInventoryToFile(); // Save after modification
+    final InventoryItem itemToStore;
+    lock.lock();
+    try {
+      itemToStore = putNextVersion(itemWithId);
+      persist(List.of(InventoryJournal.Entry.put(itemToStore))); // Save after modification
+    } finally {
+      lock.unlock();
     }
     return itemToStore;
   }
@@ -64,80 +130,723 @@ public class InMemoryInventoryRepository implements InventoryRepository {
   @Override
   public Optional<InventoryItem> findById(final String itemId) {
     Objects.requireNonNull(itemId, "Item ID cannot be null for findById");
-    synchronized (this) {
+    lock.lock();
+    try {
       return Optional.ofNullable(inventory.get(itemId));
+    } finally {
+      lock.unlock();
     }
   }
 
   @Override
   public List<InventoryItem> findAll() {
-    synchronized (this) {
+    lock.lock();
+    try {
       return List.copyOf(inventory.values());
+    } finally {
+      lock.unlock();
     }
   }
 
   @Override
   public void deleteById(final String itemId) {
     Objects.requireNonNull(itemId, "Item ID cannot be null for deleteById");
-    synchronized (this) {
-      if (inventory.remove(itemId) != null) {
-        saveInventoryToFile(); // Save only if something was actually removed
+    lock.lock();
+    try {
+      if (removeStored(itemId) != null) {
+        // Save only if something was actually removed
+        persist(List.of(InventoryJournal.Entry.delete(itemId)));
       }
+    } finally {
+      lock.unlock();
     }
   }
 
   @Override
   public List<InventoryItem> findByLocation(final Location location) {
     Objects.requireNonNull(location, "Location cannot be null for findByLocation");
-    synchronized (this) {
-      return inventory.values().stream()
-          .filter(item -> item.location() == location)
-          .collect(Collectors.toUnmodifiableList());
+    lock.lock();
+    try {
+      return List.copyOf(locationIndex().get(location).values());
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public List<InventoryItem> saveAll(final Collection<InventoryItem> items) {
+    Objects.requireNonNull(items, "Items cannot be null for saveAll");
+    // Assign IDs outside the lock; the batch is applied and persisted as a single unit below
+    final List<InventoryItem> itemsWithIds = new ArrayList<>(items.size());
+    for (final InventoryItem item : items) {
+      itemsWithIds.add(withAssignedId(Objects.requireNonNull(item, "Item cannot be null")));
+    }
+
+    final List<InventoryItem> storedItems = new ArrayList<>(itemsWithIds.size());
+    if (!itemsWithIds.isEmpty()) {
+      final List<InventoryJournal.Entry> entries = new ArrayList<>(itemsWithIds.size());
+      lock.lock();
+      try {
+        for (final InventoryItem itemWithId : itemsWithIds) {
+          final InventoryItem stored = putNextVersion(itemWithId);
+          storedItems.add(stored);
+          entries.add(InventoryJournal.Entry.put(stored));
+        }
+        persist(entries); // One write for the whole batch
+      } finally {
+        lock.unlock();
+      }
+    }
+    return List.copyOf(storedItems);
+  }
+
+  @Override
+  public int deleteAllById(final Collection<String> itemIds) {
+    Objects.requireNonNull(itemIds, "Item IDs cannot be null for deleteAllById");
+    for (final String itemId : itemIds) {
+      Objects.requireNonNull(itemId, "Item ID cannot be null for deleteAllById");
+    }
+
+    final List<InventoryJournal.Entry> entries = new ArrayList<>();
+    lock.lock();
+    try {
+      for (final String itemId : itemIds) {
+        if (removeStored(itemId) != null) {
+          entries.add(InventoryJournal.Entry.delete(itemId));
+        }
+      }
+      if (!entries.isEmpty()) {
+        persist(entries); // Save only if something was actually removed
+      }
+    } finally {
+      lock.unlock();
+    }
+    return entries.size();
+  }
+
+  @Override
+  public Optional<InventoryItem> findAndDeleteById(final String itemId) {
+    Objects.requireNonNull(itemId, "Item ID cannot be null for findAndDeleteById");
+    lock.lock();
+    try {
+      final InventoryItem removed = removeStored(itemId);
+      if (removed != null) {
+        persist(List.of(InventoryJournal.Entry.delete(itemId)));
+      }
+      return Optional.ofNullable(removed);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public Optional<InventoryItem> insertIfAbsent(final InventoryItem item) {
+    Objects.requireNonNull(item, "Item cannot be null for insertIfAbsent");
+    final InventoryItem itemWithId = withAssignedId(item);
+    lock.lock();
+    try {
+      InventoryItem inserted = null;
+      if (!inventory.containsKey(itemWithId.itemId())) {
+        inserted = putNextVersion(itemWithId);
+        persist(List.of(InventoryJournal.Entry.put(inserted)));
+      }
+      return Optional.ofNullable(inserted);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public Optional<InventoryItem> compareAndSet(final InventoryItem item) {
+    Objects.requireNonNull(item, "Item cannot be null for compareAndSet");
+    Objects.requireNonNull(item.itemId(), "Item ID cannot be null for compareAndSet");
+    lock.lock();
+    try {
+      final InventoryItem current = inventory.get(item.itemId());
+      InventoryItem stored = null;
+      if (current != null && current.version() == item.version()) {
+        stored = putNextVersion(item);
+        persist(List.of(InventoryJournal.Entry.put(stored)));
+      }
+      return Optional.ofNullable(stored);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public boolean compareAndDelete(final String itemId, final long expectedVersion) {
+    Objects.requireNonNull(itemId, "Item ID cannot be null for compareAndDelete");
+    lock.lock();
+    try {
+      final InventoryItem current = inventory.get(itemId);
+      final boolean matches = current != null && current.version() == expectedVersion;
+      if (matches) {
+        removeStored(itemId);
+        persist(List.of(InventoryJournal.Entry.delete(itemId)));
+      }
+      return matches;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public List<InventoryItem> findByNameOrderByExpiry(final String name) {
+    Objects.requireNonNull(name, "Name cannot be null for findByNameOrderByExpiry");
+    lock.lock();
+    try {
+      final NavigableSet<InventoryItem> lots = lotsByName.get(ItemOrdering.nameKey(name));
+      return lots == null ? List.of() : List.copyOf(lots);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public List<InventoryItem> findByQuery(final ItemQuery query) {
+    Objects.requireNonNull(query, "Query cannot be null for findByQuery");
+    lock.lock();
+    try {
+      final AccessPath path = accessPath(query);
+      return query.select(path.candidates(), path.order());
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public QueryPlan explain(final ItemQuery query) {
+    Objects.requireNonNull(query, "Query cannot be null for explain");
+    lock.lock();
+    try {
+      final AccessPath path = accessPath(query);
+      return query.explain(path.candidates(), path.order(), path.description());
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public InventoryStats stats(final LocalDate asOf) {
+    Objects.requireNonNull(asOf, "As-of date cannot be null for stats");
+    lock.lock();
+    try {
+      return aggregates.snapshot(asOf);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public void subscribe(final InventoryListener listener) {
+    Objects.requireNonNull(listener, "Listener cannot be null for subscribe");
+    lock.lock();
+    try {
+      for (final InventoryItem item : inventory.values()) {
+        listener.itemChanged(null, item);
+      }
+      listeners.add(listener);
+    } finally {
+      lock.unlock();
     }
   }
 
+  @Override
+  public void unsubscribe(final InventoryListener listener) {
+    Objects.requireNonNull(listener, "Listener cannot be null for unsubscribe");
+    listeners.remove(listener);
+  }
+
+  @Override
+  public boolean compareAndApply(
+      final Collection<InventoryItem> updates, final Collection<InventoryItem> deletions) {
+    Objects.requireNonNull(updates, "Updates cannot be null for compareAndApply");
+    Objects.requireNonNull(deletions, "Deletions cannot be null for compareAndApply");
+    final List<InventoryItem> expected = new ArrayList<>(updates.size() + deletions.size());
+    expected.addAll(updates);
+    expected.addAll(deletions);
+    for (final InventoryItem item : expected) {
+      Objects.requireNonNull(item, "Item cannot be null for compareAndApply");
+      Objects.requireNonNull(item.itemId(), "Item ID cannot be null for compareAndApply");
+    }
+
+    lock.lock();
+    try {
+      // Validate every expected version before touching anything: all or nothing
+      boolean matches = true;
+      for (final InventoryItem item : updates) {
+        matches = matches && isCurrent(item, true);
+      }
+      for (final InventoryItem item : deletions) {
+        matches = matches && isCurrent(item, false);
+      }
+      if (matches && !expected.isEmpty()) {
+        final List<InventoryJournal.Entry> entries = new ArrayList<>(expected.size());
+        for (final InventoryItem item : updates) {
+          entries.add(InventoryJournal.Entry.put(putNextVersion(item)));
+        }
+        for (final InventoryItem item : deletions) {
+          removeStored(item.itemId());
+          entries.add(InventoryJournal.Entry.delete(item.itemId()));
+        }
+        persist(entries); // One write for the whole change
+      }
+      return matches;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>The native format is the serialized snapshot file. Pending journal entries are first folded
+   * into it, then the file is opened while holding the lock and copied with {@link
+   * FileChannel#transferTo}, which lets the operating system move the bytes directly. Snapshots are
+   * replaced by atomic moves, so the opened file stays consistent even if writers create a newer
+   * snapshot while the copy runs; writers are not blocked by the export.
+   */
+  @Override
+  public long transferSnapshotTo(final WritableByteChannel target) throws IOException {
+    Objects.requireNonNull(target, "Target channel cannot be null for transferSnapshotTo");
+    final FileChannel snapshot;
+    lock.lock();
+    try {
+      if (journalEntries > 0 || !Files.exists(dataFilePath)) {
+        saveInventoryToFile();
+      }
+      if (journalEntries > 0 || !Files.exists(dataFilePath)) {
+        throw new IOException("Could not write an up-to-date snapshot to: " + dataFilePath);
+      }
+      snapshot = FileChannel.open(dataFilePath, StandardOpenOption.READ);
+    } finally {
+      lock.unlock();
+    }
+    long transferred = 0;
+    try (snapshot) {
+      final long size = snapshot.size();
+      while (transferred < size) {
+        transferred += snapshot.transferTo(transferred, size - transferred, target);
+      }
+    }
+    return transferred;
+  }
+
+  /**
+   * Stores the item with the version following the currently stored one (1 for a new item). Must be
+   * called while holding the repository lock.
+   *
+   * @param item the item to store, with a non-blank ID
+   * @return the stored item carrying its new version
+   */
+  private InventoryItem putNextVersion(final InventoryItem item) {
+    final InventoryItem previous = inventory.get(item.itemId());
+    final long nextVersion = previous == null ? 1L : previous.version() + 1L;
+    final InventoryItem stored = item.withVersion(nextVersion);
+    inventory.put(stored.itemId(), stored);
+    if (previous != null) {
+      unindex(previous);
+    }
+    index(stored);
+    for (final InventoryListener listener : listeners) {
+      listener.itemChanged(previous, stored);
+    }
+    return stored;
+  }
+
+  /**
+   * Checks an expected state for {@link #compareAndApply}. Must be called while holding the
+   * repository lock.
+   *
+   * @param expected the item carrying the version the caller observed
+   * @param mayInsert whether an unsaved version stands for "must not exist yet"
+   * @return true if the stored state matches the expectation
+   */
+  private boolean isCurrent(final InventoryItem expected, final boolean mayInsert) {
+    final InventoryItem current = inventory.get(expected.itemId());
+    final boolean insert = mayInsert && expected.version() == InventoryItem.UNSAVED_VERSION;
+    return insert ? current == null : current != null && current.version() == expected.version();
+  }
+
+  /**
+   * Removes an item from the map and the indexes. Must be called while holding the repository lock.
+   *
+   * @param itemId the ID to remove
+   * @return the removed item, or null if none was stored
+   */
+  private InventoryItem removeStored(final String itemId) {
+    final InventoryItem removed = inventory.remove(itemId);
+    if (removed != null) {
+      unindex(removed);
+      for (final InventoryListener listener : listeners) {
+        listener.itemChanged(removed, null);
+      }
+    }
+    return removed;
+  }
+
+  private void index(final InventoryItem item) {
+    final String key = ItemOrdering.nameKey(item.name());
+    NavigableSet<InventoryItem> lots = lotsByName.get(key);
+    if (lots == null) {
+      lots = new TreeSet<>(ItemOrdering.EXPIRY_ORDER);
+      lotsByName.put(key, lots);
+      if (sortedNames != null) {
+        sortedNames.add(key);
+      }
+    }
+    lots.add(item);
+    aggregates.add(item);
+    if (byExpiry != null) {
+      byExpiry.add(item);
+    }
+    if (byLocation != null) {
+      byLocation.get(item.location()).put(item.itemId(), item);
+    }
+  }
+
+  private void unindex(final InventoryItem item) {
+    final String key = ItemOrdering.nameKey(item.name());
+    final NavigableSet<InventoryItem> lots = lotsByName.get(key);
+    if (lots != null) {
+      lots.remove(item);
+      if (lots.isEmpty()) {
+        lotsByName.remove(key);
+        if (sortedNames != null) {
+          sortedNames.remove(key);
+        }
+      }
+    }
+    aggregates.remove(item);
+    if (byExpiry != null) {
+      byExpiry.remove(item);
+    }
+    if (byLocation != null) {
+      byLocation.get(item.location()).remove(item.itemId());
+    }
+  }
+
+  /** Returns the sorted name keys, building them on first use. Requires the repository lock. */
+  private NavigableSet<String> nameIndex() {
+    if (sortedNames == null) {
+      sortedNames = new TreeSet<>(lotsByName.keySet());
+    }
+    return sortedNames;
+  }
+
+  /** Returns all items in expiry order, building the index on first use. Requires the lock. */
+  private NavigableSet<InventoryItem> expiryIndex() {
+    if (byExpiry == null) {
+      byExpiry = new TreeSet<>(ItemOrdering.EXPIRY_ORDER);
+      byExpiry.addAll(inventory.values());
+    }
+    return byExpiry;
+  }
+
+  /** Returns the items per location, building the index on first use. Requires the lock. */
+  private Map<Location, Map<String, InventoryItem>> locationIndex() {
+    if (byLocation == null) {
+      byLocation = new EnumMap<>(Location.class);
+      for (final Location location : Location.values()) {
+        byLocation.put(location, new HashMap<>());
+      }
+      for (final InventoryItem item : inventory.values()) {
+        byLocation.get(item.location()).put(item.itemId(), item);
+      }
+    }
+    return byLocation;
+  }
+
+  /**
+   * Picks the index that narrows a query the most: a name prefix range, then an expiry window, then
+   * the location buckets. Without any of these the scan walks the index matching the requested
+   * order, if there is one. Must be called while holding the repository lock.
+   *
+   * @param query the query to execute
+   * @return the candidates and the order they come in
+   */
+  private AccessPath accessPath(final ItemQuery query) {
+    final AccessPath path;
+    if (!query.namePrefix().isEmpty()) {
+      path =
+          new AccessPath(
+              "name index range scan ['" + query.namePrefix() + "'*]",
+              nameIndex()
+                  .subSet(query.namePrefix(), true, query.namePrefix() + Character.MAX_VALUE, false)
+                  .stream()
+                  .flatMap(name -> lotsByName.get(name).stream()),
+              ItemQuery.Sort.NAME);
+    } else if (query.hasExpiryWindow() && !locationsNarrowerThanExpiry(query)) {
+      path =
+          new AccessPath(
+              "expiry index range scan ["
+                  + (query.expiresFrom() == null ? "" : query.expiresFrom())
+                  + ".."
+                  + (query.expiresTo() == null ? "" : query.expiresTo())
+                  + "]",
+              expiryRange(query.expiresFrom(), query.expiresTo()).stream(),
+              ItemQuery.Sort.EXPIRATION);
+    } else if (!query.locations().isEmpty()) {
+      path =
+          new AccessPath(
+              "location index lookup " + new TreeSet<>(query.locations()),
+              query.locations().stream()
+                  .flatMap(location -> locationIndex().get(location).values().stream()),
+              ItemQuery.Sort.NONE);
+    } else {
+      path =
+          switch (query.sort()) {
+            case NAME ->
+                new AccessPath(
+                    "full scan in name index order",
+                    nameIndex().stream().flatMap(name -> lotsByName.get(name).stream()),
+                    ItemQuery.Sort.NAME);
+            case EXPIRATION ->
+                new AccessPath(
+                    "full scan in expiry index order",
+                    expiryIndex().stream(),
+                    ItemQuery.Sort.EXPIRATION);
+            default ->
+                new AccessPath("full scan", inventory.values().stream(), ItemQuery.Sort.NONE);
+          };
+    }
+    return path;
+  }
+
+  /**
+   * Whether the location index yields fewer candidates than the expiry window. The location side is
+   * a sum of index sizes; the window is counted only until it exceeds that sum, so the comparison
+   * costs no more than scanning the smaller side.
+   */
+  private boolean locationsNarrowerThanExpiry(final ItemQuery query) {
+    boolean narrower = false;
+    if (!query.locations().isEmpty() && query.sort() != ItemQuery.Sort.EXPIRATION) {
+      long fromLocations = 0;
+      for (final Location location : query.locations()) {
+        fromLocations += locationIndex().get(location).size();
+      }
+      narrower =
+          expiryRange(query.expiresFrom(), query.expiresTo()).stream()
+                  .limit(fromLocations + 1)
+                  .count()
+              > fromLocations;
+    }
+    return narrower;
+  }
+
+  /**
+   * Returns the dated items expiring within a window, in expiry order. Must be called while holding
+   * the repository lock.
+   *
+   * @param from the earliest date, inclusive, or null for no lower bound
+   * @param to the latest date, inclusive, or null for no upper bound
+   * @return a view of the expiry index
+   */
+  private NavigableSet<InventoryItem> expiryRange(final LocalDate from, final LocalDate to) {
+    // A probe sorts before every item of its date, as the empty ID is the smallest ID. A probe
+    // without a date sorts before every undated item, so it cuts those off.
+    final InventoryItem upper =
+        to == null || to.equals(LocalDate.MAX) ? probe(null) : probe(to.plusDays(1));
+    NavigableSet<InventoryItem> range = Collections.emptyNavigableSet();
+    if (from == null) {
+      range = expiryIndex().headSet(upper, false);
+    } else if (ItemOrdering.EXPIRY_ORDER.compare(probe(from), upper) < 0) {
+      range = expiryIndex().subSet(probe(from), true, upper, false);
+    }
+    return range;
+  }
+
+  private static InventoryItem probe(final LocalDate expirationDate) {
+    return new InventoryItem(
+        "", "", 1, Location.PANTRY, expirationDate, InventoryItem.UNSAVED_VERSION);
+  }
+
+  /**
+   * Returns the item unchanged if it already carries an ID, or a copy with a newly generated ID.
+   * Shared with {@link EventSourcedInventoryRepository} and {@link StagedInventoryRepository}.
+   *
+   * @param item the item to store
+   * @return the item with a non-blank ID
+   */
+  /* package */ static InventoryItem withAssignedId(final InventoryItem item) {
+    final String itemId = item.itemId();
+    InventoryItem itemToStore = item;
+    if (itemId == null || itemId.isBlank()) {
+      itemToStore =
+          new InventoryItem(
+              UUID.randomUUID().toString(),
+              item.name(),
+              item.quantity(),
+              item.location(),
+              item.expirationDate(),
+              item.version());
+    }
+    return itemToStore;
+  }
+
   // --- Serialization/Deserialization Logic ---
 
-  private void saveInventoryToFile() {
+  /**
+   * Persists a change that has already been applied to the in-memory map. The change is appended to
+   * the journal; once the journal has grown past the size of the inventory it is folded into a new
+   * snapshot instead. Must be called while holding the repository lock.
+   *
+   * @param entries the journal entries describing the change
+   */
+  private void persist(final List<InventoryJournal.Entry> entries) {
+    journalEntries += entries.size();
+    if (journalEntries > Math.max(MIN_COMPACTION_ENTRIES, inventory.size())) {
+      saveInventoryToFile();
+    } else {
+      appendToJournal(entries);
+    }
+  }
+
+  private void appendToJournal(final List<InventoryJournal.Entry> entries) {
+    final JournalAppendEvent event = new JournalAppendEvent();
+    event.begin();
+    try {
+      createDataDirectory();
+      final long bytes = journal.append(entries);
+      event.path = journal.path().toString();
+      event.entries = entries.size();
+      event.bytes = bytes;
+      event.commit();
+      if (LOG.isDebugEnabled()) {
+        LOG.debug(
+            "Appended {} entries ({} bytes) to journal: {}", entries.size(), bytes, journal.path());
+      }
+    } catch (IOException e) {
+      if (LOG.isErrorEnabled()) {
+        LOG.error("Failed to append to inventory journal: {}", journal.path(), e);
+      }
+      // Fall back to a full snapshot so the change is not lost
+      saveInventoryToFile();
+    }
+  }
+
+  /**
+   * Writes a full snapshot of the inventory and truncates the journal. The snapshot is written to a
+   * temporary file first and atomically moved into place, so readers never see a partial file.
+   * Package-private for the snapshot benchmark; takes the repository lock, which callers inside the
+   * repository already hold.
+   */
+  /* package */ void saveInventoryToFile() {
+    lock.lock();
+    try {
+      writeSnapshot();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void writeSnapshot() {
     // Ensure build directory exists
     try {
-      Files.createDirectories(DATA_FILE_PATH.getParent());
+      createDataDirectory();
     } catch (IOException e) {
       if (LOG.isErrorEnabled()) {
-        LOG.error("Failed to create directory for data file: {}", DATA_FILE_PATH.getParent(), e);
+        LOG.error("Failed to create directory for data file: {}", dataFilePath, e);
       }
       // Decide if we should throw or just log - logging for now
       return; // Cannot save if dir fails
     }
 
-    try (ObjectOutputStream oos = new ObjectOutputStream(Files.newOutputStream(DATA_FILE_PATH))) {
-      oos.writeObject(new ConcurrentHashMap<>(this.inventory)); // Save a copy
+    final Path tempPath = dataFilePath.resolveSibling(dataFilePath.getFileName() + TEMP_SUFFIX);
+    final SnapshotWriteEvent event = new SnapshotWriteEvent();
+    event.begin();
+    try {
+      try (ObjectOutputStream oos = new ObjectOutputStream(Files.newOutputStream(tempPath))) {
+        oos.writeObject(new ConcurrentHashMap<>(this.inventory)); // Save a copy
+      }
+      // Only pay for the extra stat while a recording is running
+      event.bytes = event.isEnabled() ? Files.size(tempPath) : 0;
+      Files.move(
+          tempPath,
+          dataFilePath,
+          StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+      journal.truncate();
+      journalEntries = 0;
+      event.path = dataFilePath.toString();
+      event.items = inventory.size();
+      event.commit();
       if (LOG.isDebugEnabled()) {
-        LOG.debug("Inventory saved to file: {}", DATA_FILE_PATH);
+        LOG.debug("Inventory saved to file: {}", dataFilePath);
       }
     } catch (IOException e) {
       if (LOG.isErrorEnabled()) {
-        LOG.error("Failed to save inventory to file: {}", DATA_FILE_PATH, e);
+        LOG.error("Failed to save inventory to file: {}", dataFilePath, e);
       }
     }
   }
 
-  @SuppressWarnings("unchecked")
+  private void createDataDirectory() throws IOException {
+    final Path parent = dataFilePath.toAbsolutePath().getParent();
+    if (parent != null) {
+      Files.createDirectories(parent);
+    }
+  }
+
   private Map<String, InventoryItem> loadInventoryFromFile() {
-    final File dataFile = DATA_FILE_PATH.toFile();
+    final File dataFile = dataFilePath.toFile();
     final Map<String, InventoryItem> result = new ConcurrentHashMap<>();
+    final InventoryLoadEvent event = new InventoryLoadEvent();
+    event.begin();
 
     // Check if file exists
     if (dataFile.exists()) {
+      event.snapshotBytes = dataFile.length();
       // Try to load existing file
       tryLoadExistingInventoryFile(result);
     } else if (LOG.isDebugEnabled()) {
-      LOG.debug("Inventory data file not found, starting fresh: {}", DATA_FILE_PATH);
+      LOG.debug("Inventory data file not found, starting fresh: {}", dataFilePath);
     }
+    replayJournal(result);
 
+    event.path = dataFilePath.toString();
+    event.items = result.size();
+    event.journalEntries = journalEntries;
+    event.commit();
     return result;
   }
 
+  /**
+   * Applies the journal on top of the loaded snapshot. A torn or damaged tail is cut off, so that
+   * the next append follows the last complete record instead of the damaged bytes.
+   *
+   * @param resultMap the map holding the snapshot state
+   */
+  private void replayJournal(final Map<String, InventoryItem> resultMap) {
+    journalEntries = 0;
+    try {
+      final long intactSize =
+          journal.replay(
+              entry -> {
+                if (entry.isDelete()) {
+                  resultMap.remove(entry.itemId());
+                } else {
+                  resultMap.put(entry.itemId(), entry.item());
+                }
+                journalEntries++;
+              });
+      if (Files.exists(journal.path()) && intactSize < Files.size(journal.path())) {
+        if (LOG.isWarnEnabled()) {
+          LOG.warn("Cutting off a damaged record at the end of the journal: {}", journal.path());
+        }
+        journal.truncate(intactSize);
+      }
+      if (journalEntries > 0 && LOG.isDebugEnabled()) {
+        LOG.debug("Replayed {} journal entries from: {}", journalEntries, journal.path());
+      }
+    } catch (IOException e) {
+      if (LOG.isErrorEnabled()) {
+        LOG.error("Failed to replay inventory journal: {}", journal.path(), e);
+      }
+    }
+  }
+
   /**
    * Helper method to try loading inventory from an existing file. This method modifies the provided
    * map by reference.
@@ -146,16 +855,21 @@ public class InMemoryInventoryRepository implements InventoryRepository {
    */
   @SuppressWarnings("unchecked")
   private void tryLoadExistingInventoryFile(final Map<String, InventoryItem> resultMap) {
-    try (ObjectInputStream ois = new ObjectInputStream(Files.newInputStream(DATA_FILE_PATH))) {
+    try (ObjectInputStream ois = new ObjectInputStream(Files.newInputStream(dataFilePath))) {
       final Object readObject = ois.readObject();
 
       // Check if object is the expected Map type
       if (readObject instanceof Map) {
         if (LOG.isDebugEnabled()) {
-          LOG.debug("Inventory loaded from file: {}", DATA_FILE_PATH);
+          LOG.debug("Inventory loaded from file: {}", dataFilePath);
+        }
+        // Copy data to the provided result map. Files written before items were versioned
+        // deserialize with the unsaved version, so treat those items as first versions.
+        for (final InventoryItem item : ((Map<String, InventoryItem>) readObject).values()) {
+          final InventoryItem loaded =
+              item.version() == InventoryItem.UNSAVED_VERSION ? item.withVersion(1L) : item;
+          resultMap.put(loaded.itemId(), loaded);
         }
-        // Copy data to the provided result map
-        resultMap.putAll((Map<String, InventoryItem>) readObject);
       } else {
         handleCorruptedFile("unexpected object type: " + readObject.getClass().getName());
       }
@@ -175,13 +889,13 @@ public class InMemoryInventoryRepository implements InventoryRepository {
   private void handleCorruptedFile(final String reason, final Exception... exception) {
     if (exception.length > 0 && exception[0] instanceof EOFException) {
       if (LOG.isWarnEnabled()) {
-        LOG.warn("Inventory data file is empty or truncated. Starting fresh: {}", DATA_FILE_PATH);
+        LOG.warn("Inventory data file is empty or truncated. Starting fresh: {}", dataFilePath);
       }
     } else if (exception.length > 0) {
       if (LOG.isErrorEnabled()) {
         LOG.error(
             "Failed to load inventory from file: {}. Starting fresh. Reason: {}",
-            DATA_FILE_PATH,
+            dataFilePath,
             reason,
             exception[0]);
       }
@@ -190,26 +904,40 @@ public class InMemoryInventoryRepository implements InventoryRepository {
         LOG.error("Inventory data file is corrupted ({}). Starting fresh.", reason);
       }
     }
-    deleteDataFile();
+    deleteFiles(dataFilePath);
   }
 
-  /** Deletes the data file, logging errors but not throwing exceptions. */
+  /** Deletes the data file and its journal, logging errors but not throwing exceptions. */
   public static void deleteDataFile() {
-    try {
-      final boolean deleted = Files.deleteIfExists(DATA_FILE_PATH);
-      if (deleted) {
-        if (LOG.isInfoEnabled()) {
-          LOG.info("Deleted inventory data file: {}", DATA_FILE_PATH);
+    deleteFiles(DATA_FILE_PATH);
+  }
+
+  private static Path journalPathFor(final Path dataFilePath) {
+    return dataFilePath.resolveSibling(dataFilePath.getFileName() + JOURNAL_SUFFIX);
+  }
+
+  private static void deleteFiles(final Path dataFilePath) {
+    for (final Path path : List.of(dataFilePath, journalPathFor(dataFilePath))) {
+      try {
+        final boolean deleted = Files.deleteIfExists(path);
+        if (deleted) {
+          if (LOG.isInfoEnabled()) {
+            LOG.info("Deleted inventory data file: {}", path);
+          }
+        } else {
+          if (LOG.isDebugEnabled()) {
+            LOG.debug("Inventory data file did not exist, nothing to delete: {}", path);
+          }
         }
-      } else {
-        if (LOG.isDebugEnabled()) {
-          LOG.debug("Inventory data file did not exist, nothing to delete: {}", DATA_FILE_PATH);
+      } catch (IOException e) {
+        if (LOG.isErrorEnabled()) {
+          LOG.error("Failed to delete inventory data file: {}", path, e);
         }
       }
-    } catch (IOException e) {
-      if (LOG.isErrorEnabled()) {
-        LOG.error("Failed to delete inventory data file: {}", DATA_FILE_PATH, e);
-      }
     }
   }
+
+  /** Candidate items of a query as yielded by one index, with a description for plans. */
+  private record AccessPath(
+      String description, Stream<InventoryItem> candidates, ItemQuery.Sort order) {}
 }
@@ -0,0 +1,123 @@
+package com.spantry.inventory.repository;
+
+import com.spantry.inventory.domain.InventoryItem;
+import com.spantry.inventory.domain.Location;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Aggregate counters kept up to date on every change, so that {@link InventoryStats} can be read
+ * without visiting the items. Not thread-safe; the owning repository guards it with its lock.
+ *
+ * <p>Per location it keeps the item count and quantity sum. Expiration dates are kept as per-day
+ * buckets of item counts, from which two running sums are derived relative to a cursor day: the
+ * items expiring before it and those expiring within the following week. Reading the figures for
+ * the cursor day is O(1). When the day moves on, the cursor slides forward one day at a time,
+ * moving one bucket into the expired sum and one into the week, so a poller reading once per minute
+ * pays for each day once; only a jump backwards or across more days than there are buckets
+ * recomputes the sums from the buckets.
+ */
+/* package */ final class InventoryAggregates {
+
+  private final long[] items = new long[Location.values().length];
+  private final long[] quantities = new long[items.length];
+  private final NavigableMap<LocalDate, long[]> itemsByExpiry = new TreeMap<>();
+  private long undated;
+
+  // Day the running sums refer to, null until the figures are first read
+  private LocalDate cursor;
+  private long expiredBeforeCursor;
+  private long dueWithinWeek;
+
+  /**
+   * Counts an item that entered the inventory.
+   *
+   * @param item the added item
+   */
+  /* package */ void add(final InventoryItem item) {
+    count(item, 1);
+  }
+
+  /**
+   * Uncounts an item that left the inventory.
+   *
+   * @param item the removed item, as it was counted
+   */
+  /* package */ void remove(final InventoryItem item) {
+    count(item, -1);
+  }
+
+  /**
+   * Returns the figures as of a day.
+   *
+   * @param asOf the day the expiry figures are relative to
+   * @return the figures
+   */
+  /* package */ InventoryStats snapshot(final LocalDate asOf) {
+    moveCursorTo(asOf);
+    final Map<Location, InventoryStats.LocationTotals> totals = new EnumMap<>(Location.class);
+    for (final Location location : Location.values()) {
+      totals.put(
+          location,
+          new InventoryStats.LocationTotals(
+              items[location.ordinal()], quantities[location.ordinal()]));
+    }
+    return new InventoryStats(asOf, totals, expiredBeforeCursor, dueWithinWeek, undated);
+  }
+
+  private void count(final InventoryItem item, final int sign) {
+    items[item.location().ordinal()] += sign;
+    quantities[item.location().ordinal()] += (long) sign * item.quantity();
+    final LocalDate date = item.expirationDate();
+    if (date == null) {
+      undated += sign;
+    } else {
+      final long[] bucket = itemsByExpiry.computeIfAbsent(date, day -> new long[1]);
+      bucket[0] += sign;
+      if (bucket[0] == 0) {
+        itemsByExpiry.remove(date);
+      }
+      if (cursor != null) {
+        if (date.isBefore(cursor)) {
+          expiredBeforeCursor += sign;
+        } else if (date.isBefore(cursor.plusDays(InventoryStats.WEEK_DAYS))) {
+          dueWithinWeek += sign;
+        }
+      }
+    }
+  }
+
+  private void moveCursorTo(final LocalDate day) {
+    if (cursor == null
+        || day.isBefore(cursor)
+        || ChronoUnit.DAYS.between(cursor, day) > itemsByExpiry.size()) {
+      cursor = day;
+      expiredBeforeCursor = sum(itemsByExpiry.headMap(day, false));
+      dueWithinWeek =
+          sum(itemsByExpiry.subMap(day, true, day.plusDays(InventoryStats.WEEK_DAYS), false));
+    }
+    while (cursor.isBefore(day)) {
+      final long leaving = bucket(cursor);
+      expiredBeforeCursor += leaving;
+      dueWithinWeek += bucket(cursor.plusDays(InventoryStats.WEEK_DAYS)) - leaving;
+      cursor = cursor.plusDays(1);
+    }
+  }
+
+  private long bucket(final LocalDate day) {
+    final long[] bucket = itemsByExpiry.get(day);
+    return bucket == null ? 0 : bucket[0];
+  }
+
+  private static long sum(final Map<LocalDate, long[]> buckets) {
+    long total = 0;
+    for (final long[] bucket : buckets.values()) {
+      total += bucket[0];
+    }
+    return total;
+  }
+}
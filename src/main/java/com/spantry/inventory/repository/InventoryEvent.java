@@ -0,0 +1,154 @@
+package com.spantry.inventory.repository;
+
+import com.spantry.inventory.domain.InventoryItem;
+import com.spantry.inventory.domain.Location;
+import java.util.Objects;
+
+/**
+ * A change to one item, as recorded by {@link EventSourcedInventoryRepository}. Events describe
+ * what happened rather than the resulting row: a consumption is a {@link QuantityChanged}, a move
+ * an {@link ItemMoved}. Applying the events of the log in order to an empty inventory rebuilds
+ * every item, versions included, because each event other than {@link ItemAdded} and {@link
+ * ItemRevised} advances the version by exactly one, as a repository write does.
+ */
+/* package */ sealed interface InventoryEvent {
+
+  /**
+   * Returns the ID of the affected item.
+   *
+   * @return the item ID
+   */
+  String itemId();
+
+  /**
+   * Computes the state of the item after this event.
+   *
+   * @param previous the item before the event, or null if it does not exist
+   * @return the item after the event, or null if the event removes it
+   * @throws IllegalStateException if the event changes an item that does not exist
+   */
+  InventoryItem applyTo(InventoryItem previous);
+
+  /**
+   * Describes a stored change as an event: the most specific one that reproduces it.
+   *
+   * @param previous the item before the change, or null if it was added
+   * @param current the item after the change, or null if it was removed
+   * @return the event
+   */
+  static InventoryEvent between(final InventoryItem previous, final InventoryItem current) {
+    final InventoryEvent event;
+    if (current == null) {
+      event = new ItemRemoved(previous.itemId());
+    } else if (previous == null) {
+      event = new ItemAdded(current);
+    } else if (current.version() != previous.version() + 1
+        || !current.name().equals(previous.name())
+        || !Objects.equals(current.expirationDate(), previous.expirationDate())) {
+      event = new ItemRevised(current);
+    } else if (current.location() == previous.location()) {
+      event = new QuantityChanged(current.itemId(), current.quantity());
+    } else if (current.quantity() == previous.quantity()) {
+      event = new ItemMoved(current.itemId(), current.location());
+    } else {
+      event = new ItemRevised(current);
+    }
+    return event;
+  }
+
+  private static InventoryItem existing(final InventoryItem previous, final String itemId) {
+    if (previous == null) {
+      throw new IllegalStateException("Event for an item that does not exist: " + itemId);
+    }
+    return previous;
+  }
+
+  /**
+   * A new item entered the inventory.
+   *
+   * @param item the item as stored, with its version
+   */
+  record ItemAdded(InventoryItem item) implements InventoryEvent {
+    @Override
+    public String itemId() {
+      return item.itemId();
+    }
+
+    @Override
+    public InventoryItem applyTo(final InventoryItem previous) {
+      return item;
+    }
+  }
+
+  /**
+   * The quantity of an item was set, by a consumption or a restock.
+   *
+   * @param itemId the item
+   * @param quantity the new quantity
+   */
+  record QuantityChanged(String itemId, int quantity) implements InventoryEvent {
+    @Override
+    public InventoryItem applyTo(final InventoryItem previous) {
+      final InventoryItem item = existing(previous, itemId);
+      return new InventoryItem(
+          itemId,
+          item.name(),
+          quantity,
+          item.location(),
+          item.expirationDate(),
+          item.version() + 1);
+    }
+  }
+
+  /**
+   * An item was moved to another location.
+   *
+   * @param itemId the item
+   * @param location the new location
+   */
+  record ItemMoved(String itemId, Location location) implements InventoryEvent {
+    @Override
+    public InventoryItem applyTo(final InventoryItem previous) {
+      final InventoryItem item = existing(previous, itemId);
+      return new InventoryItem(
+          itemId,
+          item.name(),
+          item.quantity(),
+          location,
+          item.expirationDate(),
+          item.version() + 1);
+    }
+  }
+
+  /**
+   * An item left the inventory.
+   *
+   * @param itemId the item
+   */
+  record ItemRemoved(String itemId) implements InventoryEvent {
+    @Override
+    public InventoryItem applyTo(final InventoryItem previous) {
+      existing(previous, itemId);
+      return null;
+    }
+  }
+
+  /**
+   * An item was overwritten in a way no narrower event describes, such as a rename or a new
+   * expiration date.
+   *
+   * @param item the item as stored, with its version
+   */
+  record ItemRevised(InventoryItem item) implements InventoryEvent {
+    @Override
+    public String itemId() {
+      return item.itemId();
+    }
+
+    @Override
+    public InventoryItem applyTo(final InventoryItem previous) {
+      existing(previous, item.itemId());
+      return item;
+    }
+  }
+}
@@ -0,0 +1,288 @@
+package com.spantry.inventory.repository;
+
+import com.spantry.inventory.domain.InventoryItem;
+import com.spantry.inventory.domain.Location;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Append-only event store of {@link EventSourcedInventoryRepository}. Unlike {@link
+ * InventoryJournal} it is never truncated: the log is the inventory's history, and every state it
+ * went through can be rebuilt from it.
+ *
+ * <p>Each record is length-prefixed and holds one {@link Entry}: sequence number, timestamp, event
+ * type and the event's fields, written with {@link DataOutputStream}. The length prefix lets replay
+ * report the exact byte offset after every record, which checkpoints store so that a restart can
+ * seek past the events they already cover. A record torn by a crash at the end of the file ends the
+ * replay; the repository cuts it off before appending again.
+ *
+ * <p>Not thread-safe: callers must serialize appends (the repository does so under its lock).
+ * Reading the part of the file that was complete when the read began is safe while appends go on.
+ */
+/* package */ final class InventoryEventLog {
+
+  private static final byte ITEM_ADDED = 1;
+  private static final byte QUANTITY_CHANGED = 2;
+  private static final byte ITEM_MOVED = 3;
+  private static final byte ITEM_REMOVED = 4;
+  private static final byte ITEM_REVISED = 5;
+  private static final long NO_EXPIRATION = Long.MIN_VALUE;
+  private static final int LENGTH_BYTES = Integer.BYTES;
+  // Two names of at most 64 KiB each bound a record; anything longer is a damaged length prefix
+  private static final int MAX_RECORD_BYTES = 1 << 18;
+  private static final int READ_BUFFER_SIZE = 1 << 16;
+
+  private final Path logPath;
+
+  /**
+   * Creates a log backed by the given file. The file is created on first append.
+   *
+   * @param logPath location of the log file
+   */
+  /* package */ InventoryEventLog(final Path logPath) {
+    this.logPath = Objects.requireNonNull(logPath, "logPath cannot be null");
+  }
+
+  /**
+   * A logged event with its position in the history.
+   *
+   * @param sequence the event's number, counting from 1 without gaps
+   * @param timestamp when the change was made; never earlier than the previous entry's
+   * @param event the change
+   */
+  /* package */ record Entry(long sequence, Instant timestamp, InventoryEvent event) {}
+
+  /**
+   * Returns the log file location.
+   *
+   * @return the log path
+   */
+  /* package */ Path path() {
+    return logPath;
+  }
+
+  /**
+   * Appends the entries with a single write call.
+   *
+   * @param entries the entries to append, in sequence order
+   * @return the number of bytes appended
+   * @throws IOException if the log cannot be written
+   */
+  /* package */ long append(final List<Entry> entries) throws IOException {
+    final ByteArrayOutputStream buffer = new ByteArrayOutputStream(entries.size() * 112);
+    final ByteArrayOutputStream record = new ByteArrayOutputStream(112);
+    try (DataOutputStream out = new DataOutputStream(buffer);
+        DataOutputStream recordOut = new DataOutputStream(record)) {
+      for (final Entry entry : entries) {
+        record.reset();
+        writeEntry(recordOut, entry);
+        recordOut.flush();
+        out.writeInt(record.size());
+        record.writeTo(out);
+      }
+    }
+    final ByteBuffer bytes = ByteBuffer.wrap(buffer.toByteArray());
+    try (FileChannel channel =
+        FileChannel.open(
+            logPath,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE,
+            StandardOpenOption.APPEND)) {
+      while (bytes.hasRemaining()) {
+        channel.write(bytes);
+      }
+    }
+    return bytes.limit();
+  }
+
+  /**
+   * Reads the entries from a byte offset on, in order, up to a point in time.
+   *
+   * @param offset where to start; 0 or an offset returned by an earlier replay
+   * @param until the latest timestamp to include, or null for the whole log
+   * @param sink receives each entry
+   * @return the offset just after the last entry passed to the sink (or {@code offset} if none)
+   * @throws IOException if the log exists but cannot be read or holds an unknown event type
+   */
+  /* package */ long replay(final long offset, final Instant until, final Consumer<Entry> sink)
+      throws IOException {
+    long position = offset;
+    if (Files.exists(logPath)) {
+      try (FileChannel channel = FileChannel.open(logPath, StandardOpenOption.READ);
+          DataInputStream in =
+              new DataInputStream(
+                  new BufferedInputStream(
+                      Channels.newInputStream(channel.position(offset)), READ_BUFFER_SIZE))) {
+        byte[] record = readRecord(in);
+        boolean more = record != null;
+        while (more) {
+          final Entry entry = decode(new DataInputStream(new ByteArrayInputStream(record)));
+          more = until == null || !entry.timestamp().isAfter(until);
+          if (more) {
+            sink.accept(entry);
+            position += LENGTH_BYTES + record.length;
+            record = readRecord(in);
+            more = record != null;
+          }
+        }
+      }
+    }
+    return position;
+  }
+
+  /**
+   * Cuts the log back to the given size, dropping a torn record or an append that failed halfway.
+   *
+   * @param size the size to keep, an offset returned by {@link #replay}
+   * @throws IOException if the file cannot be truncated
+   */
+  /* package */ void truncate(final long size) throws IOException {
+    if (Files.exists(logPath)) {
+      try (FileChannel channel = FileChannel.open(logPath, StandardOpenOption.WRITE)) {
+        channel.truncate(size);
+      }
+    }
+  }
+
+  /**
+   * Copies the first {@code size} bytes of the log to the target, letting the operating system move
+   * the bytes where it can.
+   *
+   * @param size the number of bytes to copy, a size the log had at some point
+   * @param target the channel to write to; it is not closed
+   * @return the number of bytes copied
+   * @throws IOException if the log cannot be read or the target written
+   */
+  /* package */ long transferTo(final long size, final WritableByteChannel target)
+      throws IOException {
+    long transferred = 0;
+    if (size > 0) {
+      try (FileChannel channel = FileChannel.open(logPath, StandardOpenOption.READ)) {
+        while (transferred < size) {
+          transferred += channel.transferTo(transferred, size - transferred, target);
+        }
+      }
+    }
+    return transferred;
+  }
+
+  /**
+   * Writes an item's fields; shared with the checkpoint files.
+   *
+   * @param out where to write
+   * @param item the item
+   * @throws IOException if writing fails
+   */
+  /* package */ static void writeItem(final DataOutput out, final InventoryItem item)
+      throws IOException {
+    out.writeUTF(item.itemId());
+    out.writeUTF(item.name());
+    out.writeInt(item.quantity());
+    out.writeUTF(item.location().name());
+    out.writeLong(
+        item.expirationDate() == null ? NO_EXPIRATION : item.expirationDate().toEpochDay());
+    out.writeLong(item.version());
+  }
+
+  /**
+   * Reads an item written by {@link #writeItem}.
+   *
+   * @param in where to read
+   * @return the item
+   * @throws IOException if reading fails
+   */
+  /* package */ static InventoryItem readItem(final DataInput in) throws IOException {
+    final String itemId = in.readUTF();
+    final String name = in.readUTF();
+    final int quantity = in.readInt();
+    final Location location = Location.valueOf(in.readUTF());
+    final long epochDay = in.readLong();
+    final long version = in.readLong();
+    final LocalDate expirationDate =
+        epochDay == NO_EXPIRATION ? null : LocalDate.ofEpochDay(epochDay);
+    return new InventoryItem(itemId, name, quantity, location, expirationDate, version);
+  }
+
+  private static void writeEntry(final DataOutputStream out, final Entry entry) throws IOException {
+    out.writeLong(entry.sequence());
+    out.writeLong(entry.timestamp().toEpochMilli());
+    final InventoryEvent event = entry.event();
+    if (event instanceof InventoryEvent.ItemAdded added) {
+      out.writeByte(ITEM_ADDED);
+      writeItem(out, added.item());
+    } else if (event instanceof InventoryEvent.QuantityChanged changed) {
+      out.writeByte(QUANTITY_CHANGED);
+      out.writeUTF(changed.itemId());
+      out.writeInt(changed.quantity());
+    } else if (event instanceof InventoryEvent.ItemMoved moved) {
+      out.writeByte(ITEM_MOVED);
+      out.writeUTF(moved.itemId());
+      out.writeUTF(moved.location().name());
+    } else if (event instanceof InventoryEvent.ItemRemoved removed) {
+      out.writeByte(ITEM_REMOVED);
+      out.writeUTF(removed.itemId());
+    } else {
+      out.writeByte(ITEM_REVISED);
+      writeItem(out, ((InventoryEvent.ItemRevised) event).item());
+    }
+  }
+
+  /**
+   * Reads the next record.
+   *
+   * @param in the log stream
+   * @return the record's bytes, or null at the end of the log or at a torn trailing record
+   * @throws IOException if the log cannot be read or the length prefix is implausible
+   */
+  private static byte[] readRecord(final DataInputStream in) throws IOException {
+    byte[] record = null;
+    try {
+      final int length = in.readInt();
+      if (length < 0 || length > MAX_RECORD_BYTES) {
+        throw new IOException("Corrupt event log record length: " + length);
+      }
+      record = new byte[length];
+      in.readFully(record);
+    } catch (EOFException e) {
+      // End of the log, or a torn record from an interrupted append: everything before is intact
+      record = null;
+    }
+    return record;
+  }
+
+  private static Entry decode(final DataInputStream in) throws IOException {
+    final long sequence = in.readLong();
+    final Instant timestamp = Instant.ofEpochMilli(in.readLong());
+    final int type = in.readByte();
+    final InventoryEvent event =
+        switch (type) {
+          case ITEM_ADDED -> new InventoryEvent.ItemAdded(readItem(in));
+          case QUANTITY_CHANGED -> new InventoryEvent.QuantityChanged(in.readUTF(), in.readInt());
+          case ITEM_MOVED ->
+              new InventoryEvent.ItemMoved(in.readUTF(), Location.valueOf(in.readUTF()));
+          case ITEM_REMOVED -> new InventoryEvent.ItemRemoved(in.readUTF());
+          case ITEM_REVISED -> new InventoryEvent.ItemRevised(readItem(in));
+          default -> throw new IOException("Unknown event type " + type + " at #" + sequence);
+        };
+    return new Entry(sequence, timestamp, event);
+  }
+}
@@ -0,0 +1,266 @@
+package com.spantry.inventory.repository;
+
+import com.spantry.inventory.domain.InventoryItem;
+import com.spantry.inventory.domain.Location;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UTFDataFormatException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Append-only change log for {@link InMemoryInventoryRepository}. Every mutation appends one small
+ * record per affected item instead of rewriting the whole snapshot, so the bytes written per change
+ * are independent of the inventory size. The repository periodically folds the journal back into
+ * its snapshot file (compaction) and truncates it.
+ *
+ * <p>Records use a compact binary layout written with {@link DataOutputStream}: an operation byte
+ * followed by the item fields. A record torn by a crash at the end of the file, or anything else
+ * that does not decode as a record, ends the replay; the repository cuts the journal back to the
+ * last complete record before appending again, so later records never follow damaged bytes.
+ *
+ * <p>Not thread-safe: callers must serialize access (the repository does so under its own lock).
+ */
+final class InventoryJournal {
+
+  private static final byte OP_PUT = 1;
+  private static final byte OP_DELETE = 2;
+  private static final long NO_EXPIRATION = Long.MIN_VALUE;
+  private static final int READ_BUFFER_SIZE = 1 << 16;
+
+  private final Path journalPath;
+
+  /**
+   * Creates a journal backed by the given file. The file is created lazily on first append.
+   *
+   * @param journalPath location of the journal file
+   */
+  /* package */ InventoryJournal(final Path journalPath) {
+    this.journalPath = Objects.requireNonNull(journalPath, "journalPath cannot be null");
+  }
+
+  /**
+   * A single journaled change: either the new state of an item or the deletion of an item ID.
+   *
+   * @param itemId the affected item ID
+   * @param item the new item state, or null when the entry records a deletion
+   */
+  /* package */ record Entry(String itemId, InventoryItem item) {
+
+    /**
+     * Creates an entry recording that the given item was stored.
+     *
+     * @param item the stored item
+     * @return the entry
+     */
+    /* package */ static Entry put(final InventoryItem item) {
+      return new Entry(item.itemId(), item);
+    }
+
+    /**
+     * Creates an entry recording that the given item ID was removed.
+     *
+     * @param itemId the removed ID
+     * @return the entry
+     */
+    /* package */ static Entry delete(final String itemId) {
+      return new Entry(itemId, null);
+    }
+
+    /**
+     * Whether this entry records a deletion.
+     *
+     * @return true for deletions
+     */
+    /* package */ boolean isDelete() {
+      return item == null;
+    }
+  }
+
+  /**
+   * Returns the journal file location.
+   *
+   * @return the journal path
+   */
+  /* package */ Path path() {
+    return journalPath;
+  }
+
+  /**
+   * Appends the entries with a single write call.
+   *
+   * @param entries the entries to append, in application order
+   * @return the number of bytes appended
+   * @throws IOException if the journal cannot be written
+   */
+  /* package */ long append(final List<Entry> entries) throws IOException {
+    final ByteArrayOutputStream buffer = new ByteArrayOutputStream(entries.size() * 96);
+    try (DataOutputStream out = new DataOutputStream(buffer)) {
+      for (final Entry entry : entries) {
+        writeEntry(out, entry);
+      }
+    }
+    final ByteBuffer bytes = ByteBuffer.wrap(buffer.toByteArray());
+    try (FileChannel channel =
+        FileChannel.open(
+            journalPath,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE,
+            StandardOpenOption.APPEND)) {
+      while (bytes.hasRemaining()) {
+        channel.write(bytes);
+      }
+    }
+    return bytes.limit();
+  }
+
+  /**
+   * Replays all complete records in order. A torn record at the end of the file (left behind by a
+   * crash during append) or a record that does not decode terminates the replay.
+   *
+   * @param sink receives each entry
+   * @return the offset just after the last entry passed to the sink, 0 if none
+   * @throws IOException if the journal exists but cannot be read
+   */
+  /* package */ long replay(final Consumer<Entry> sink) throws IOException {
+    long position = 0;
+    if (Files.exists(journalPath)) {
+      try (CountingInputStream counted =
+              new CountingInputStream(
+                  new BufferedInputStream(Files.newInputStream(journalPath), READ_BUFFER_SIZE));
+          DataInputStream in = new DataInputStream(counted)) {
+        Entry entry = readEntry(in);
+        while (entry != null) {
+          sink.accept(entry);
+          position = counted.count;
+          entry = readEntry(in);
+        }
+      }
+    }
+    return position;
+  }
+
+  /**
+   * Removes all entries, typically right after they were folded into a snapshot.
+   *
+   * @throws IOException if the journal cannot be deleted
+   */
+  /* package */ void truncate() throws IOException {
+    Files.deleteIfExists(journalPath);
+  }
+
+  /**
+   * Cuts the journal back to the given size, dropping a torn or undecodable tail.
+   *
+   * @param size the size to keep, an offset returned by {@link #replay}
+   * @throws IOException if the file cannot be truncated
+   */
+  /* package */ void truncate(final long size) throws IOException {
+    if (Files.exists(journalPath)) {
+      try (FileChannel channel = FileChannel.open(journalPath, StandardOpenOption.WRITE)) {
+        channel.truncate(size);
+      }
+    }
+  }
+
+  private static void writeEntry(final DataOutputStream out, final Entry entry) throws IOException {
+    if (entry.isDelete()) {
+      out.writeByte(OP_DELETE);
+      out.writeUTF(entry.itemId());
+    } else {
+      final InventoryItem item = entry.item();
+      out.writeByte(OP_PUT);
+      out.writeUTF(item.itemId());
+      out.writeUTF(item.name());
+      out.writeInt(item.quantity());
+      out.writeUTF(item.location().name());
+      out.writeLong(
+          item.expirationDate() == null ? NO_EXPIRATION : item.expirationDate().toEpochDay());
+      out.writeLong(item.version());
+    }
+  }
+
+  /**
+   * Reads the next entry.
+   *
+   * @param in the journal stream
+   * @return the entry, or null at the end of the journal, at a torn trailing record or at bytes
+   *     that are not a record
+   * @throws IOException if the journal cannot be read
+   */
+  private static Entry readEntry(final DataInputStream in) throws IOException {
+    Entry entry = null;
+    final int op = in.read();
+    try {
+      if (op == OP_DELETE) {
+        entry = Entry.delete(in.readUTF());
+      } else if (op == OP_PUT) {
+        entry = readPut(in);
+      }
+      // Anything else is the end of the journal or damage; everything before it is intact
+    } catch (EOFException | UTFDataFormatException | IllegalArgumentException e) {
+      // Torn record from an interrupted append, or a field that does not decode
+      entry = null;
+    }
+    return entry;
+  }
+
+  private static Entry readPut(final DataInputStream in) throws IOException {
+    final String itemId = in.readUTF();
+    final String name = in.readUTF();
+    final int quantity = in.readInt();
+    final Location location = Location.valueOf(in.readUTF());
+    final long epochDay = in.readLong();
+    final long version = in.readLong();
+    final LocalDate expirationDate =
+        epochDay == NO_EXPIRATION ? null : LocalDate.ofEpochDay(epochDay);
+    return Entry.put(new InventoryItem(itemId, name, quantity, location, expirationDate, version));
+  }
+
+  /** Counts the bytes read through it, so that replay knows where each record ends. */
+  private static final class CountingInputStream extends FilterInputStream {
+    private long count;
+
+    private CountingInputStream(final InputStream in) {
+      super(in);
+    }
+
+    @Override
+    public int read() throws IOException {
+      final int read = super.read();
+      if (read != -1) {
+        count++;
+      }
+      return read;
+    }
+
+    @Override
+    public int read(final byte[] buffer, final int offset, final int length) throws IOException {
+      final int read = super.read(buffer, offset, length);
+      if (read > 0) {
+        count += read;
+      }
+      return read;
+    }
+
+    @Override
+    public long skip(final long n) throws IOException {
+      final long skipped = super.skip(n);
+      count += skipped;
+      return skipped;
+    }
+  }
+}
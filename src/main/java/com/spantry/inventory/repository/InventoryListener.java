@@ -0,0 +1,21 @@
+package com.spantry.inventory.repository;
+
+import com.spantry.inventory.domain.InventoryItem;
+
+/**
+ * Receives every change a repository applies, so that derived state (schedules, caches) can be
+ * maintained incrementally instead of rescanning the inventory. Register with {@link
+ * InventoryRepository#subscribe}.
+ */
+@FunctionalInterface
+public interface InventoryListener {
+
+  /**
+   * Called after an item was stored or removed. Repositories call this while holding their lock, so
+   * implementations must be quick and must not call back into the repository.
+   *
+   * @param previous the item before the change, or null if it was added
+   * @param current the item after the change, or null if it was removed
+   */
+  void itemChanged(InventoryItem previous, InventoryItem current);
+}
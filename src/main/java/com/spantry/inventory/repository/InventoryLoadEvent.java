@@ -0,0 +1,29 @@
+package com.spantry.inventory.repository;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/** Flight recorder event for the inventory being read from its snapshot and journal. */
+@Name("com.spantry.InventoryLoad")
+@Label("Inventory Load")
+@Category({"Spantry", "Persistence"})
+@Description("The snapshot file deserialized and the journal replayed on top of it")
+/* package */ final class InventoryLoadEvent extends Event {
+
+  @Label("Path")
+  /* package */ String path;
+
+  @Label("Items")
+  /* package */ int items;
+
+  @Label("Snapshot Size")
+  @DataAmount
+  /* package */ long snapshotBytes;
+
+  @Label("Journal Entries Replayed")
+  /* package */ int journalEntries;
+}
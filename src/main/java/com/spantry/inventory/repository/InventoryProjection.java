@@ -0,0 +1,236 @@
+package com.spantry.inventory.repository;
+
+import com.spantry.inventory.domain.InventoryItem;
+import com.spantry.inventory.domain.Location;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+
+/**
+ * The state derived from a prefix of an {@link InventoryEventLog}: the current items, a location
+ * index, expiry buckets (the dated items per expiration day) and the lots per name, plus the
+ * aggregate counters behind {@link InventoryStats}. Every event updates all of them incrementally,
+ * so a projection built by replaying the whole log and one kept up to date since the start are the
+ * same.
+ *
+ * <p>Not thread-safe; the owning repository guards it with its lock. A projection rebuilt for a
+ * point in the past is private to the query that built it.
+ */
+/* package */ final class InventoryProjection {
+
+  private final Map<String, InventoryItem> items = new HashMap<>();
+  private final Map<Location, Map<String, InventoryItem>> byLocation =
+      new EnumMap<>(Location.class);
+  private final NavigableMap<LocalDate, Map<String, InventoryItem>> byExpiry = new TreeMap<>();
+  private final Map<String, NavigableSet<InventoryItem>> lotsByName = new HashMap<>();
+  private final InventoryAggregates aggregates = new InventoryAggregates();
+
+  // Position of the last applied event: 0 and the epoch for an empty projection
+  private long sequence;
+  private Instant timestamp = Instant.EPOCH;
+
+  /** Creates the projection of an empty log. */
+  /* package */ InventoryProjection() {
+    for (final Location location : Location.values()) {
+      byLocation.put(location, new HashMap<>());
+    }
+  }
+
+  /**
+   * Creates the projection a checkpoint recorded.
+   *
+   * @param sequence the sequence number of the last event the items reflect
+   * @param timestamp that event's timestamp
+   * @param restored the items
+   */
+  /* package */ InventoryProjection(
+      final long sequence, final Instant timestamp, final Collection<InventoryItem> restored) {
+    this();
+    for (final InventoryItem item : restored) {
+      put(item);
+    }
+    this.sequence = sequence;
+    this.timestamp = timestamp;
+  }
+
+  /**
+   * Applies the next event of the log.
+   *
+   * @param entry the event; its sequence number must follow the last applied one
+   * @return the item before the event, or null if the event added it
+   * @throws IllegalStateException if the entry is out of sequence or changes a missing item
+   */
+  /* package */ InventoryItem apply(final InventoryEventLog.Entry entry) {
+    if (entry.sequence() != sequence + 1) {
+      throw new IllegalStateException(
+          "Event #" + entry.sequence() + " does not follow event #" + sequence);
+    }
+    final InventoryEvent event = entry.event();
+    final InventoryItem previous = items.get(event.itemId());
+    final InventoryItem current = event.applyTo(previous);
+    if (previous != null) {
+      remove(previous);
+    }
+    if (current != null) {
+      put(current);
+    }
+    sequence = entry.sequence();
+    timestamp = entry.timestamp();
+    return previous;
+  }
+
+  /**
+   * Returns the sequence number of the last applied event.
+   *
+   * @return the sequence number, 0 if none
+   */
+  /* package */ long sequence() {
+    return sequence;
+  }
+
+  /**
+   * Returns the timestamp of the last applied event.
+   *
+   * @return the timestamp, the epoch if none
+   */
+  /* package */ Instant timestamp() {
+    return timestamp;
+  }
+
+  /* package */ InventoryItem get(final String itemId) {
+    return items.get(itemId);
+  }
+
+  /* package */ Collection<InventoryItem> items() {
+    return items.values();
+  }
+
+  /* package */ int size() {
+    return items.size();
+  }
+
+  /* package */ Collection<InventoryItem> inLocation(final Location location) {
+    return byLocation.get(location).values();
+  }
+
+  /* package */ List<InventoryItem> lots(final String name) {
+    final NavigableSet<InventoryItem> lots = lotsByName.get(ItemOrdering.nameKey(name));
+    return lots == null ? List.of() : List.copyOf(lots);
+  }
+
+  /* package */ InventoryStats stats(final LocalDate asOf) {
+    return aggregates.snapshot(asOf);
+  }
+
+  /**
+   * Runs a query against the projection.
+   *
+   * @param query the query
+   * @return the matching items
+   */
+  /* package */ List<InventoryItem> select(final ItemQuery query) {
+    return query.select(accessPath(query).candidates(), ItemQuery.Sort.NONE);
+  }
+
+  /**
+   * Explains a query against the projection.
+   *
+   * @param query the query
+   * @return the plan with its row counts
+   */
+  /* package */ QueryPlan explain(final ItemQuery query) {
+    final AccessPath path = accessPath(query);
+    return query.explain(path.candidates(), ItemQuery.Sort.NONE, path.description());
+  }
+
+  /**
+   * Picks the candidates of a query: the requested locations, else the expiry buckets of the
+   * window, else the lots of the names with the requested prefix, else every item.
+   */
+  private AccessPath accessPath(final ItemQuery query) {
+    final AccessPath path;
+    if (!query.locations().isEmpty()) {
+      path =
+          new AccessPath(
+              "location index lookup " + new TreeSet<>(query.locations()),
+              query.locations().stream().flatMap(location -> inLocation(location).stream()));
+    } else if (query.hasExpiryWindow()) {
+      path =
+          new AccessPath(
+              "expiry buckets ["
+                  + (query.expiresFrom() == null ? "" : query.expiresFrom())
+                  + ".."
+                  + (query.expiresTo() == null ? "" : query.expiresTo())
+                  + "]",
+              expiryBuckets(query.expiresFrom(), query.expiresTo()));
+    } else if (query.namePrefix().isEmpty()) {
+      path = new AccessPath("full scan", items.values().stream());
+    } else {
+      path =
+          new AccessPath(
+              "name index scan ['" + query.namePrefix() + "'*]",
+              lotsByName.entrySet().stream()
+                  .filter(lots -> lots.getKey().startsWith(query.namePrefix()))
+                  .flatMap(lots -> lots.getValue().stream()));
+    }
+    return path;
+  }
+
+  private Stream<InventoryItem> expiryBuckets(final LocalDate from, final LocalDate to) {
+    final NavigableMap<LocalDate, Map<String, InventoryItem>> buckets;
+    if (from == null) {
+      buckets = to == null ? byExpiry : byExpiry.headMap(to, true);
+    } else if (to == null) {
+      buckets = byExpiry.tailMap(from, true);
+    } else {
+      buckets = from.isAfter(to) ? new TreeMap<>() : byExpiry.subMap(from, true, to, true);
+    }
+    return buckets.values().stream().flatMap(bucket -> bucket.values().stream());
+  }
+
+  private void put(final InventoryItem item) {
+    items.put(item.itemId(), item);
+    byLocation.get(item.location()).put(item.itemId(), item);
+    if (item.expirationDate() != null) {
+      byExpiry
+          .computeIfAbsent(item.expirationDate(), day -> new HashMap<>())
+          .put(item.itemId(), item);
+    }
+    lotsByName
+        .computeIfAbsent(
+            ItemOrdering.nameKey(item.name()), name -> new TreeSet<>(ItemOrdering.EXPIRY_ORDER))
+        .add(item);
+    aggregates.add(item);
+  }
+
+  private void remove(final InventoryItem item) {
+    items.remove(item.itemId());
+    byLocation.get(item.location()).remove(item.itemId());
+    if (item.expirationDate() != null) {
+      final Map<String, InventoryItem> bucket = byExpiry.get(item.expirationDate());
+      bucket.remove(item.itemId());
+      if (bucket.isEmpty()) {
+        byExpiry.remove(item.expirationDate());
+      }
+    }
+    final String key = ItemOrdering.nameKey(item.name());
+    final NavigableSet<InventoryItem> lots = lotsByName.get(key);
+    lots.remove(item);
+    if (lots.isEmpty()) {
+      lotsByName.remove(key);
+    }
+    aggregates.remove(item);
+  }
+
+  /** Candidate items of a query as yielded by one projection, with a description for plans. */
+  private record AccessPath(String description, Stream<InventoryItem> candidates) {}
+}
@@ -2,7 +2,13 @@ package com.spantry.inventory.repository;
 
 import com.spantry.inventory.domain.InventoryItem;
 import com.spantry.inventory.domain.Location;
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 
 /**
@@ -13,7 +19,8 @@ public interface InventoryRepository {
 
   /**
    * Saves a new item or updates an existing item in the repository. If an item with the same ID
-   * already exists, it should be overwritten.
+   * already exists, it should be overwritten regardless of its version. The stored item receives
+   * the next version number (1 for a new item).
    *
    * @param item The item to save (must not be null).
    * @return The saved item (potentially with a generated ID if it was new).
@@ -58,4 +65,217 @@ public interface InventoryRepository {
    * @throws NullPointerException if the location is null.
    */
   List<InventoryItem> findByLocation(Location location);
+
+  /**
+   * Saves a batch of new or existing items as one atomic operation. Items without an ID are
+   * assigned a generated one, items with an ID overwrite any stored item with the same ID. The
+   * whole batch becomes visible at once and is persisted in a single step, so callers importing
+   * many items pay for one write instead of one write per item.
+   *
+   * @param items The items to save (must not be null and must not contain null elements).
+   * @return The saved items in the iteration order of {@code items}, with generated IDs applied.
+   *     The returned list is unmodifiable.
+   * @throws NullPointerException if the collection or any of its elements is null.
+   */
+  List<InventoryItem> saveAll(Collection<InventoryItem> items);
+
+  /**
+   * Deletes all items with the given IDs as one atomic operation, persisting the change in a single
+   * step. IDs that do not exist in the repository are ignored.
+   *
+   * @param itemIds The IDs of the items to delete (must not be null and must not contain null
+   *     elements).
+   * @return The number of items that were actually removed.
+   * @throws NullPointerException if the collection or any of its elements is null.
+   */
+  int deleteAllById(Collection<String> itemIds);
+
+  /**
+   * Atomically deletes an item and returns the state it had immediately before deletion. The lookup
+   * and the removal happen in one critical section, so two concurrent callers can never both
+   * observe the same item as deleted by them.
+   *
+   * @param itemId The ID of the item to delete (must not be null).
+   * @return The deleted item, or an empty Optional if no item with the given ID existed.
+   * @throws NullPointerException if the itemId is null.
+   */
+  Optional<InventoryItem> findAndDeleteById(String itemId);
+
+  /**
+   * Atomically stores an item only if no item with the same ID exists yet. Items without an ID are
+   * assigned a generated one and are therefore always inserted.
+   *
+   * @param item The item to insert (must not be null).
+   * @return The stored item (with generated ID and version 1), or an empty Optional if an item with
+   *     the same ID was already present, in which case nothing is changed.
+   * @throws NullPointerException if the item is null.
+   */
+  Optional<InventoryItem> insertIfAbsent(InventoryItem item);
+
+  /**
+   * Atomically replaces a stored item if, and only if, its stored version still equals {@link
+   * InventoryItem#version()} of the given item. This is the optimistic-concurrency primitive used
+   * for read-modify-write cycles: read an item, derive the new state from it, then compare-and-set.
+   *
+   * @param item The new state of the item, carrying the version it was derived from (must not be
+   *     null and must have an ID).
+   * @return The stored item with its new version, or an empty Optional if the item no longer exists
+   *     or was modified concurrently, in which case nothing is changed.
+   * @throws NullPointerException if the item or its ID is null.
+   */
+  Optional<InventoryItem> compareAndSet(InventoryItem item);
+
+  /**
+   * Atomically deletes an item if, and only if, its stored version equals the expected version.
+   *
+   * @param itemId The ID of the item to delete (must not be null).
+   * @param expectedVersion The version the caller last observed.
+   * @return {@code true} if the item was deleted, {@code false} if it did not exist or its version
+   *     differed.
+   * @throws NullPointerException if the itemId is null.
+   */
+  boolean compareAndDelete(String itemId, long expectedVersion);
+
+  /**
+   * Finds all lots stored under the given name, ignoring case and surrounding whitespace, ordered
+   * by expiration date: the soonest-expiring lot first and lots without a date last.
+   *
+   * @param name The item name to look up (must not be null).
+   * @return An immutable list of the matching items in expiry order. Returns an empty list if none
+   *     match.
+   * @throws NullPointerException if the name is null.
+   */
+  List<InventoryItem> findByNameOrderByExpiry(String name);
+
+  /**
+   * Atomically applies a set of updates and deletions if, and only if, every affected item still
+   * has the version carried by the given item. Either the whole change is applied or nothing is.
+   * This extends {@link #compareAndSet(InventoryItem)} to read-modify-write cycles spanning several
+   * items.
+   *
+   * <p>An update carrying {@link InventoryItem#UNSAVED_VERSION} is an insert: it expects that no
+   * item with its ID exists yet. On success every update is stored with the next version, the one
+   * after the version it carries.
+   *
+   * @param updates The new states of items to replace, each carrying the version it was derived
+   *     from (must not be null).
+   * @param deletions The items to delete, each carrying the version the caller last observed (must
+   *     not be null).
+   * @return {@code true} if the change was applied, {@code false} if any item no longer exists or
+   *     was modified concurrently, in which case nothing is changed.
+   * @throws NullPointerException if either collection, an element, or an element's ID is null.
+   */
+  boolean compareAndApply(Collection<InventoryItem> updates, Collection<InventoryItem> deletions);
+
+  /**
+   * Finds the items matching a query, in the query's order and up to its limit.
+   *
+   * <p>The default implementation filters and sorts {@link #findAll()}. Implementations with
+   * indexes should override it to touch only the candidates an index yields and to skip sorting
+   * when an index already produces the requested order.
+   *
+   * @param query The query to execute (must not be null).
+   * @return An unmodifiable list of the matching items. Returns an empty list if none match.
+   * @throws NullPointerException if the query is null.
+   */
+  default List<InventoryItem> findByQuery(ItemQuery query) {
+    Objects.requireNonNull(query, "Query cannot be null for findByQuery");
+    return query.select(findAll().stream(), ItemQuery.Sort.NONE);
+  }
+
+  /**
+   * Finds the items that matched a query at a point in the past, in the query's order and up to its
+   * limit, as {@link #findByQuery} would have returned them then.
+   *
+   * <p>The default implementation reports that the repository keeps only the latest state.
+   *
+   * @param query The query to execute (must not be null).
+   * @param asOf The point in time (must not be null). A time after the latest change yields the
+   *     current items.
+   * @return An unmodifiable list of the items that matched. Returns an empty list if none did.
+   * @throws NullPointerException if the query or the time is null.
+   * @throws UnsupportedOperationException if the repository does not keep a history.
+   */
+  default List<InventoryItem> findByQueryAsOf(ItemQuery query, Instant asOf) {
+    Objects.requireNonNull(query, "Query cannot be null for findByQueryAsOf");
+    Objects.requireNonNull(asOf, "As-of time cannot be null for findByQueryAsOf");
+    throw new UnsupportedOperationException(
+        getClass().getSimpleName() + " does not keep a history");
+  }
+
+  /**
+   * Executes a query for diagnosis: reports how it is evaluated and how many rows it touches,
+   * without returning the items.
+   *
+   * <p>The default implementation describes the {@link #findByQuery} fallback, a full scan.
+   *
+   * @param query The query to explain (must not be null).
+   * @return The plan with its row counts.
+   * @throws NullPointerException if the query is null.
+   */
+  default QueryPlan explain(ItemQuery query) {
+    Objects.requireNonNull(query, "Query cannot be null for explain");
+    return query.explain(findAll().stream(), ItemQuery.Sort.NONE, "full scan");
+  }
+
+  /**
+   * Returns aggregate figures: item count and quantity per location, expired items, items expiring
+   * within the week and undated items.
+   *
+   * <p>The default implementation recounts every item. Implementations should maintain the figures
+   * as items change, so that dashboards can poll them cheaply.
+   *
+   * @param asOf The day the expiry figures are relative to (must not be null).
+   * @return The figures.
+   * @throws NullPointerException if the date is null.
+   */
+  default InventoryStats stats(LocalDate asOf) {
+    Objects.requireNonNull(asOf, "As-of date cannot be null for stats");
+    return InventoryStats.recount(findAll(), asOf);
+  }
+
+  /**
+   * Registers a listener for every subsequent change. The listener is first called once for each
+   * item already stored, as if it had just been added, atomically with the registration, so it sees
+   * every item exactly once without a gap.
+   *
+   * <p>The default implementation reports that changes cannot be observed.
+   *
+   * @param listener The listener to register (must not be null).
+   * @throws UnsupportedOperationException if the repository does not publish changes.
+   */
+  default void subscribe(InventoryListener listener) {
+    throw new UnsupportedOperationException(
+        getClass().getSimpleName() + " does not publish changes");
+  }
+
+  /**
+   * Removes a listener registered with {@link #subscribe}. Unknown listeners are ignored.
+   *
+   * <p>The default implementation reports that changes cannot be observed.
+   *
+   * @param listener The listener to remove (must not be null).
+   * @throws UnsupportedOperationException if the repository does not publish changes.
+   */
+  default void unsubscribe(InventoryListener listener) {
+    throw new UnsupportedOperationException(
+        getClass().getSimpleName() + " does not publish changes");
+  }
+
+  /**
+   * Streams a consistent snapshot of the whole repository in the implementation's native storage
+   * format to the given channel. Implementations backed by a file should copy it without passing
+   * the bytes through the Java heap where the platform allows it.
+   *
+   * <p>The default implementation reports that no native format exists.
+   *
+   * @param target The channel to write to (must not be null). It is not closed.
+   * @return The number of bytes written.
+   * @throws IOException if the snapshot cannot be produced or written.
+   * @throws UnsupportedOperationException if the repository has no native snapshot format.
+   */
+  default long transferSnapshotTo(WritableByteChannel target) throws IOException {
+    throw new UnsupportedOperationException(
+        getClass().getSimpleName() + " does not support native snapshot export");
+  }
 }
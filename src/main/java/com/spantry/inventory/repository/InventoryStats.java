@@ -0,0 +1,144 @@
+package com.spantry.inventory.repository;
+
+import com.spantry.inventory.domain.InventoryItem;
+import com.spantry.inventory.domain.Location;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Aggregate figures over the inventory as of a given day, as reported by {@link
+ * InventoryRepository#stats}.
+ *
+ * @param asOf the day the expiry figures are relative to
+ * @param locations item count and total quantity for every location, including empty ones
+ * @param expired items whose expiration date is before {@code asOf}
+ * @param expiringThisWeek items expiring within {@value #WEEK_DAYS} days from {@code asOf}
+ *     inclusive, i.e. not expired yet but due within the week
+ * @param undated items without an expiration date
+ */
+public record InventoryStats(
+    LocalDate asOf,
+    Map<Location, LocationTotals> locations,
+    long expired,
+    long expiringThisWeek,
+    long undated) {
+
+  /** Length of the "expiring this week" window in days, starting with {@code asOf}. */
+  public static final int WEEK_DAYS = 7;
+
+  /**
+   * Item count and total quantity of one location.
+   *
+   * @param items the number of items (lots)
+   * @param quantity the sum of their quantities
+   */
+  public record LocationTotals(long items, long quantity) {
+
+    /** No items. */
+    public static final LocationTotals NONE = new LocationTotals(0, 0);
+  }
+
+  /**
+   * Canonical constructor; fills in missing locations and copies the map.
+   *
+   * @param asOf the day the expiry figures are relative to
+   * @param locations item count and total quantity per location
+   * @param expired items expiring before {@code asOf}
+   * @param expiringThisWeek items expiring within the week from {@code asOf}
+   * @param undated items without an expiration date
+   * @throws NullPointerException if the date or the location map is null
+   */
+  public InventoryStats {
+    Objects.requireNonNull(asOf, "As-of date cannot be null");
+    Objects.requireNonNull(locations, "Location totals cannot be null");
+    final Map<Location, LocationTotals> complete = new EnumMap<>(Location.class);
+    for (final Location location : Location.values()) {
+      complete.put(location, locations.getOrDefault(location, LocationTotals.NONE));
+    }
+    locations = Collections.unmodifiableMap(complete);
+  }
+
+  /**
+   * Computes the figures from scratch by visiting every item. This is what repositories without
+   * maintained aggregates do, and what {@code item stats --verify} compares against.
+   *
+   * @param items all items of the inventory
+   * @param asOf the day the expiry figures are relative to
+   * @return the figures
+   */
+  public static InventoryStats recount(
+      final Collection<InventoryItem> items, final LocalDate asOf) {
+    return new InventoryStats(asOf, Map.of(), 0, 0, 0).adjusted(List.of(), items);
+  }
+
+  /**
+   * Returns the number of items in all locations.
+   *
+   * @return the item count
+   */
+  public long totalItems() {
+    return locations.values().stream().mapToLong(LocationTotals::items).sum();
+  }
+
+  /**
+   * Returns the total quantity in all locations.
+   *
+   * @return the quantity sum
+   */
+  public long totalQuantity() {
+    return locations.values().stream().mapToLong(LocationTotals::quantity).sum();
+  }
+
+  /**
+   * Applies a change to the figures without visiting the unchanged items.
+   *
+   * @param removed items no longer in the inventory, or replaced by an entry of {@code added}
+   * @param added items new to the inventory, or replacing an entry of {@code removed}
+   * @return the figures after the change
+   */
+  /* package */ InventoryStats adjusted(
+      final Collection<InventoryItem> removed, final Collection<InventoryItem> added) {
+    final long[] items = new long[Location.values().length];
+    final long[] quantities = new long[items.length];
+    for (final Map.Entry<Location, LocationTotals> entry : locations.entrySet()) {
+      items[entry.getKey().ordinal()] = entry.getValue().items();
+      quantities[entry.getKey().ordinal()] = entry.getValue().quantity();
+    }
+    final long[] expiry = {expired, expiringThisWeek, undated};
+    for (final InventoryItem item : removed) {
+      count(item, -1, items, quantities, expiry);
+    }
+    for (final InventoryItem item : added) {
+      count(item, 1, items, quantities, expiry);
+    }
+    final Map<Location, LocationTotals> totals = new EnumMap<>(Location.class);
+    for (final Location location : Location.values()) {
+      totals.put(
+          location, new LocationTotals(items[location.ordinal()], quantities[location.ordinal()]));
+    }
+    return new InventoryStats(asOf, totals, expiry[0], expiry[1], expiry[2]);
+  }
+
+  private void count(
+      final InventoryItem item,
+      final int sign,
+      final long[] items,
+      final long[] quantities,
+      final long[] expiry) {
+    items[item.location().ordinal()] += sign;
+    quantities[item.location().ordinal()] += (long) sign * item.quantity();
+    final LocalDate date = item.expirationDate();
+    if (date == null) {
+      expiry[2] += sign;
+    } else if (date.isBefore(asOf)) {
+      expiry[0] += sign;
+    } else if (date.isBefore(asOf.plusDays(WEEK_DAYS))) {
+      expiry[1] += sign;
+    }
+  }
+}
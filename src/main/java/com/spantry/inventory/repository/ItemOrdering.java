@@ -0,0 +1,38 @@
+package com.spantry.inventory.repository;
+
+import com.spantry.inventory.domain.InventoryItem;
+import java.util.Comparator;
+import java.util.Locale;
+
+/** Ordering and name matching rules shared by the repository implementations. */
+final class ItemOrdering {
+
+  /** Lot order within a name: earliest expiration first, lots without a date last. */
+  /* package */ static final Comparator<InventoryItem> EXPIRY_ORDER =
+      Comparator.comparing(
+              InventoryItem::expirationDate, Comparator.nullsLast(Comparator.naturalOrder()))
+          .thenComparing(InventoryItem::itemId);
+
+  /** Name order: by lookup key, lots of one name in {@link #EXPIRY_ORDER}. */
+  /* package */ static final Comparator<InventoryItem> NAME_ORDER =
+      Comparator.comparing((InventoryItem item) -> nameKey(item.name()))
+          .thenComparing(EXPIRY_ORDER);
+
+  /** Quantity order: smallest first. */
+  /* package */ static final Comparator<InventoryItem> QUANTITY_ORDER =
+      Comparator.comparingInt(InventoryItem::quantity).thenComparing(InventoryItem::itemId);
+
+  private ItemOrdering() {
+    // Utility class
+  }
+
+  /**
+   * Normalizes a name for matching: names match ignoring case and surrounding whitespace.
+   *
+   * @param name the item name, may be null
+   * @return the lookup key
+   */
+  /* package */ static String nameKey(final String name) {
+    return name == null ? "" : name.trim().toLowerCase(Locale.ROOT);
+  }
+}
@@ -0,0 +1,331 @@
+package com.spantry.inventory.repository;
+
+import com.spantry.inventory.domain.InventoryItem;
+import com.spantry.inventory.domain.Location;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * A filter, sort order and limit over inventory items, executed by {@link
+ * InventoryRepository#findByQuery}. Repositories evaluate queries where the data lives, using their
+ * own indexes to narrow the candidates and to produce the requested order, instead of handing every
+ * item to the caller to filter and sort.
+ *
+ * <p>Start from {@link #ALL} and narrow it with the {@code with...} methods. All criteria are
+ * combined with AND; an unset criterion matches every item.
+ *
+ * @param locations the allowed locations; empty means any location
+ * @param minQuantity the smallest matching quantity, inclusive
+ * @param maxQuantity the largest matching quantity, inclusive
+ * @param expiresFrom the earliest matching expiration date, inclusive, or null for no lower bound
+ * @param expiresTo the latest matching expiration date, inclusive, or null for no upper bound
+ * @param namePrefix the required name prefix, matched ignoring case and surrounding whitespace;
+ *     empty matches every name
+ * @param sort the order of the results
+ * @param limit the maximum number of results
+ * @param filter a further condition evaluated on every candidate, for criteria no index covers
+ */
+public record ItemQuery(
+    Set<Location> locations,
+    int minQuantity,
+    int maxQuantity,
+    LocalDate expiresFrom,
+    LocalDate expiresTo,
+    String namePrefix,
+    Sort sort,
+    int limit,
+    Predicate<InventoryItem> filter) {
+
+  /** Limit of a query returning every match. */
+  public static final int NO_LIMIT = Integer.MAX_VALUE;
+
+  // Shared so that queries without a further condition compare equal
+  private static final Predicate<InventoryItem> ANY_ITEM = item -> true;
+
+  /** Matches every item, in no particular order. */
+  public static final ItemQuery ALL =
+      new ItemQuery(
+          Set.of(),
+          Integer.MIN_VALUE,
+          Integer.MAX_VALUE,
+          null,
+          null,
+          "",
+          Sort.NONE,
+          NO_LIMIT,
+          ANY_ITEM);
+
+  /** Result orders. Ties are broken by item ID, so every order is total and stable. */
+  public enum Sort {
+    /** Whatever order the repository finds cheapest. */
+    NONE(null),
+    /** By name ignoring case, then lots of one name by expiration date. */
+    NAME(ItemOrdering.NAME_ORDER),
+    /** Soonest expiration first, items without a date last. */
+    EXPIRATION(ItemOrdering.EXPIRY_ORDER),
+    /** Smallest quantity first. */
+    QUANTITY(ItemOrdering.QUANTITY_ORDER);
+
+    private final Comparator<InventoryItem> comparator;
+
+    Sort(final Comparator<InventoryItem> comparator) {
+      this.comparator = comparator;
+    }
+  }
+
+  /**
+   * Canonical constructor; normalizes the name prefix and copies the location set.
+   *
+   * @param locations the allowed locations; empty means any location
+   * @param minQuantity the smallest matching quantity, inclusive
+   * @param maxQuantity the largest matching quantity, inclusive
+   * @param expiresFrom the earliest matching expiration date, inclusive, or null
+   * @param expiresTo the latest matching expiration date, inclusive, or null
+   * @param namePrefix the required name prefix; null or empty matches every name
+   * @param sort the order of the results
+   * @param limit the maximum number of results (must not be negative)
+   * @param filter a further condition every result has to satisfy
+   * @throws NullPointerException if the locations, the sort order or the filter are null
+   * @throws IllegalArgumentException if the limit is negative
+   */
+  public ItemQuery {
+    Objects.requireNonNull(locations, "Locations cannot be null");
+    Objects.requireNonNull(sort, "Sort order cannot be null");
+    Objects.requireNonNull(filter, "Filter cannot be null");
+    if (limit < 0) {
+      throw new IllegalArgumentException("Limit cannot be negative: " + limit);
+    }
+    // Every location allowed is the same as no restriction, which keeps the index choice simple
+    locations =
+        locations.containsAll(EnumSet.allOf(Location.class)) ? Set.of() : Set.copyOf(locations);
+    namePrefix = ItemOrdering.nameKey(namePrefix);
+  }
+
+  /**
+   * Restricts the query to the given locations.
+   *
+   * @param allowed the allowed locations; none means any location
+   * @return the narrowed query
+   */
+  public ItemQuery withLocations(final Location... allowed) {
+    return withLocations(List.of(allowed));
+  }
+
+  /**
+   * Restricts the query to the given locations.
+   *
+   * @param allowed the allowed locations; none means any location
+   * @return the narrowed query
+   */
+  public ItemQuery withLocations(final Collection<Location> allowed) {
+    return new ItemQuery(
+        Set.copyOf(allowed),
+        minQuantity,
+        maxQuantity,
+        expiresFrom,
+        expiresTo,
+        namePrefix,
+        sort,
+        limit,
+        filter);
+  }
+
+  /**
+   * Restricts the query to a quantity range.
+   *
+   * @param min the smallest matching quantity, inclusive
+   * @param max the largest matching quantity, inclusive
+   * @return the narrowed query
+   */
+  public ItemQuery withQuantityBetween(final int min, final int max) {
+    return new ItemQuery(
+        locations, min, max, expiresFrom, expiresTo, namePrefix, sort, limit, filter);
+  }
+
+  /**
+   * Restricts the query to items expiring within a window. Items without an expiration date only
+   * match while both bounds are null.
+   *
+   * @param from the earliest matching date, inclusive, or null for no lower bound
+   * @param to the latest matching date, inclusive, or null for no upper bound
+   * @return the narrowed query
+   */
+  public ItemQuery withExpiryBetween(final LocalDate from, final LocalDate to) {
+    return new ItemQuery(
+        locations, minQuantity, maxQuantity, from, to, namePrefix, sort, limit, filter);
+  }
+
+  /**
+   * Restricts the query to names starting with a prefix, ignoring case and surrounding whitespace.
+   *
+   * @param prefix the name prefix; null or empty matches every name
+   * @return the narrowed query
+   */
+  public ItemQuery withNamePrefix(final String prefix) {
+    return new ItemQuery(
+        locations, minQuantity, maxQuantity, expiresFrom, expiresTo, prefix, sort, limit, filter);
+  }
+
+  /**
+   * Sets the result order.
+   *
+   * @param order the order of the results
+   * @return the sorted query
+   */
+  public ItemQuery sortedBy(final Sort order) {
+    return new ItemQuery(
+        locations,
+        minQuantity,
+        maxQuantity,
+        expiresFrom,
+        expiresTo,
+        namePrefix,
+        order,
+        limit,
+        filter);
+  }
+
+  /**
+   * Caps the number of results. Combined with a sort order this returns the first items of that
+   * order.
+   *
+   * @param max the maximum number of results
+   * @return the limited query
+   */
+  public ItemQuery limitedTo(final int max) {
+    return new ItemQuery(
+        locations, minQuantity, maxQuantity, expiresFrom, expiresTo, namePrefix, sort, max, filter);
+  }
+
+  /**
+   * Adds a condition no index covers. Repositories evaluate it on the candidates their indexes
+   * yield for the other criteria.
+   *
+   * @param condition the further condition
+   * @return the narrowed query
+   */
+  public ItemQuery withFilter(final Predicate<InventoryItem> condition) {
+    Objects.requireNonNull(condition, "Condition cannot be null");
+    return new ItemQuery(
+        locations,
+        minQuantity,
+        maxQuantity,
+        expiresFrom,
+        expiresTo,
+        namePrefix,
+        sort,
+        limit,
+        filter == ANY_ITEM ? condition : filter.and(condition));
+  }
+
+  /**
+   * Whether the query restricts expiration dates.
+   *
+   * @return true if either bound of the expiry window is set
+   */
+  public boolean hasExpiryWindow() {
+    return expiresFrom != null || expiresTo != null;
+  }
+
+  /**
+   * Tests an item against every criterion of the query.
+   *
+   * @param item the item to test
+   * @return true if the item matches
+   */
+  public boolean matches(final InventoryItem item) {
+    return (locations.isEmpty() || locations.contains(item.location()))
+        && item.quantity() >= minQuantity
+        && item.quantity() <= maxQuantity
+        && matchesExpiry(item.expirationDate())
+        && (namePrefix.isEmpty() || ItemOrdering.nameKey(item.name()).startsWith(namePrefix))
+        && filter.test(item);
+  }
+
+  private boolean matchesExpiry(final LocalDate date) {
+    return !hasExpiryWindow()
+        || date != null
+            && (expiresFrom == null || !date.isBefore(expiresFrom))
+            && (expiresTo == null || !date.isAfter(expiresTo));
+  }
+
+  /**
+   * Filters, orders and limits candidate items. Sorting is skipped when the candidates already come
+   * in the requested order, in which case the stream stops as soon as the limit is reached. A
+   * limited query in another order keeps only the best {@code limit} matches in a bounded heap
+   * rather than sorting all of them.
+   *
+   * @param candidates a superset of the matching items
+   * @param candidateOrder the order the candidates are produced in
+   * @return the unmodifiable result
+   */
+  /* package */ List<InventoryItem> select(
+      final Stream<InventoryItem> candidates, final Sort candidateOrder) {
+    final Stream<InventoryItem> matches = candidates.filter(this::matches);
+    final List<InventoryItem> result;
+    if (sort == Sort.NONE || sort == candidateOrder) {
+      result = matches.limit(limit).collect(Collectors.toUnmodifiableList());
+    } else if (limit == NO_LIMIT) {
+      result = matches.sorted(sort.comparator).collect(Collectors.toUnmodifiableList());
+    } else {
+      result = topMatches(matches);
+    }
+    return result;
+  }
+
+  /**
+   * Runs the query like {@link #select} but only counts rows. A scan that comes in the requested
+   * order stops at the limit, exactly as {@code select} does, so the counts reflect the work the
+   * query really does.
+   *
+   * @param candidates a superset of the matching items
+   * @param candidateOrder the order the candidates are produced in
+   * @param accessPath description of how the candidates are found
+   * @return the plan with its row counts
+   */
+  /* package */ QueryPlan explain(
+      final Stream<InventoryItem> candidates, final Sort candidateOrder, final String accessPath) {
+    final boolean presorted = sort == Sort.NONE || sort == candidateOrder;
+    long examined = 0;
+    long matched = 0;
+    final Iterator<InventoryItem> iterator = candidates.iterator();
+    while (iterator.hasNext() && !(presorted && matched == limit)) {
+      examined++;
+      if (matches(iterator.next())) {
+        matched++;
+      }
+    }
+    return new QueryPlan(accessPath, !presorted, examined, matched, Math.min(matched, limit));
+  }
+
+  /** The first {@code limit} matches in the query's order, in O(n log limit). */
+  private List<InventoryItem> topMatches(final Stream<InventoryItem> matches) {
+    // Max-heap on the query order: the head is the worst of the best matches seen so far
+    final PriorityQueue<InventoryItem> best =
+        new PriorityQueue<>(Math.max(1, Math.min(limit, 1024)), sort.comparator.reversed());
+    matches.forEachOrdered(
+        item -> {
+          if (best.size() < limit) {
+            best.add(item);
+          } else if (limit > 0 && sort.comparator.compare(item, best.peek()) < 0) {
+            best.poll();
+            best.add(item);
+          }
+        });
+    final List<InventoryItem> result = new ArrayList<>(best);
+    result.sort(sort.comparator);
+    return Collections.unmodifiableList(result);
+  }
+}
@@ -0,0 +1,26 @@
+package com.spantry.inventory.repository;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/** Flight recorder event for changes being appended to the inventory journal. */
+@Name("com.spantry.JournalAppend")
+@Label("Inventory Journal Append")
+@Category({"Spantry", "Persistence"})
+@Description("Journal entries describing one change written to the end of the journal file")
+/* package */ final class JournalAppendEvent extends Event {
+
+  @Label("Path")
+  /* package */ String path;
+
+  @Label("Entries")
+  /* package */ int entries;
+
+  @Label("Bytes Written")
+  @DataAmount
+  /* package */ long bytes;
+}
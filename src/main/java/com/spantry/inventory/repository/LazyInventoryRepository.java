@@ -0,0 +1,158 @@
+package com.spantry.inventory.repository;
+
+import com.spantry.inventory.domain.InventoryItem;
+import com.spantry.inventory.domain.Location;
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Repository that creates its delegate on first use. Loading the inventory is the most expensive
+ * part of opening a repository, and many invocations never touch it ({@code --help}, usage errors,
+ * commands forwarded to a daemon), so the composition root wraps the real repository in this class
+ * to keep those invocations fast.
+ */
+public final class LazyInventoryRepository implements InventoryRepository {
+
+  private final Supplier<? extends InventoryRepository> factory;
+
+  // Held while the factory reads the inventory file (see RequestThreads)
+  private final ReentrantLock lock = new ReentrantLock();
+
+  // Created on first access; guarded by lock
+  private InventoryRepository delegate;
+
+  /**
+   * Creates a repository that opens the real one on first use.
+   *
+   * @param factory creates the real repository; called at most once
+   */
+  public LazyInventoryRepository(final Supplier<? extends InventoryRepository> factory) {
+    this.factory = Objects.requireNonNull(factory, "Repository factory cannot be null");
+  }
+
+  /**
+   * Returns the real repository, creating it on the first call.
+   *
+   * @return the delegate
+   */
+  private InventoryRepository delegate() {
+    lock.lock();
+    try {
+      if (delegate == null) {
+        delegate = Objects.requireNonNull(factory.get(), "Repository factory returned null");
+      }
+      return delegate;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public InventoryItem save(final InventoryItem item) {
+    return delegate().save(item);
+  }
+
+  @Override
+  public Optional<InventoryItem> findById(final String itemId) {
+    return delegate().findById(itemId);
+  }
+
+  @Override
+  public List<InventoryItem> findAll() {
+    return delegate().findAll();
+  }
+
+  @Override
+  public void deleteById(final String itemId) {
+    delegate().deleteById(itemId);
+  }
+
+  @Override
+  public List<InventoryItem> findByLocation(final Location location) {
+    return delegate().findByLocation(location);
+  }
+
+  @Override
+  public List<InventoryItem> saveAll(final Collection<InventoryItem> items) {
+    return delegate().saveAll(items);
+  }
+
+  @Override
+  public int deleteAllById(final Collection<String> itemIds) {
+    return delegate().deleteAllById(itemIds);
+  }
+
+  @Override
+  public Optional<InventoryItem> findAndDeleteById(final String itemId) {
+    return delegate().findAndDeleteById(itemId);
+  }
+
+  @Override
+  public Optional<InventoryItem> insertIfAbsent(final InventoryItem item) {
+    return delegate().insertIfAbsent(item);
+  }
+
+  @Override
+  public Optional<InventoryItem> compareAndSet(final InventoryItem item) {
+    return delegate().compareAndSet(item);
+  }
+
+  @Override
+  public boolean compareAndDelete(final String itemId, final long expectedVersion) {
+    return delegate().compareAndDelete(itemId, expectedVersion);
+  }
+
+  @Override
+  public List<InventoryItem> findByNameOrderByExpiry(final String name) {
+    return delegate().findByNameOrderByExpiry(name);
+  }
+
+  @Override
+  public List<InventoryItem> findByQuery(final ItemQuery query) {
+    return delegate().findByQuery(query);
+  }
+
+  @Override
+  public List<InventoryItem> findByQueryAsOf(final ItemQuery query, final Instant asOf) {
+    return delegate().findByQueryAsOf(query, asOf);
+  }
+
+  @Override
+  public QueryPlan explain(final ItemQuery query) {
+    return delegate().explain(query);
+  }
+
+  @Override
+  public InventoryStats stats(final LocalDate asOf) {
+    return delegate().stats(asOf);
+  }
+
+  @Override
+  public void subscribe(final InventoryListener listener) {
+    delegate().subscribe(listener);
+  }
+
+  @Override
+  public void unsubscribe(final InventoryListener listener) {
+    delegate().unsubscribe(listener);
+  }
+
+  @Override
+  public boolean compareAndApply(
+      final Collection<InventoryItem> updates, final Collection<InventoryItem> deletions) {
+    return delegate().compareAndApply(updates, deletions);
+  }
+
+  @Override
+  public long transferSnapshotTo(final WritableByteChannel target) throws IOException {
+    return delegate().transferSnapshotTo(target);
+  }
+}
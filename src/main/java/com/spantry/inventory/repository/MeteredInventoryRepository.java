@@ -0,0 +1,273 @@
+package com.spantry.inventory.repository;
+
+import com.spantry.inventory.domain.InventoryItem;
+import com.spantry.inventory.domain.Location;
+import com.spantry.metrics.MetricsRegistry;
+import com.spantry.metrics.OperationMetrics;
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Repository that records the calls, errors and latency of every operation of its delegate in a
+ * {@link MetricsRegistry}, under names such as {@code repository.findById}.
+ */
+public final class MeteredInventoryRepository implements InventoryRepository {
+
+  private final InventoryRepository delegate;
+  private final OperationMetrics save;
+  private final OperationMetrics findById;
+  private final OperationMetrics findAll;
+  private final OperationMetrics deleteById;
+  private final OperationMetrics findByLocation;
+  private final OperationMetrics saveAll;
+  private final OperationMetrics deleteAllById;
+  private final OperationMetrics findAndDeleteById;
+  private final OperationMetrics insertIfAbsent;
+  private final OperationMetrics compareAndSet;
+  private final OperationMetrics compareAndDelete;
+  private final OperationMetrics findByNameOrderByExpiry;
+  private final OperationMetrics findByQuery;
+  private final OperationMetrics findByQueryAsOf;
+  private final OperationMetrics explain;
+  private final OperationMetrics stats;
+  private final OperationMetrics compareAndApply;
+  private final OperationMetrics transferSnapshotTo;
+
+  /**
+   * Creates a metered repository.
+   *
+   * @param delegate the repository to measure
+   * @param registry where to record
+   */
+  public MeteredInventoryRepository(
+      final InventoryRepository delegate, final MetricsRegistry registry) {
+    this.delegate = Objects.requireNonNull(delegate, "Delegate repository cannot be null");
+    Objects.requireNonNull(registry, "Metrics registry cannot be null");
+    this.save = registry.operation("repository.save");
+    this.findById = registry.operation("repository.findById");
+    this.findAll = registry.operation("repository.findAll");
+    this.deleteById = registry.operation("repository.deleteById");
+    this.findByLocation = registry.operation("repository.findByLocation");
+    this.saveAll = registry.operation("repository.saveAll");
+    this.deleteAllById = registry.operation("repository.deleteAllById");
+    this.findAndDeleteById = registry.operation("repository.findAndDeleteById");
+    this.insertIfAbsent = registry.operation("repository.insertIfAbsent");
+    this.compareAndSet = registry.operation("repository.compareAndSet");
+    this.compareAndDelete = registry.operation("repository.compareAndDelete");
+    this.findByNameOrderByExpiry = registry.operation("repository.findByNameOrderByExpiry");
+    this.findByQuery = registry.operation("repository.findByQuery");
+    this.findByQueryAsOf = registry.operation("repository.findByQueryAsOf");
+    this.explain = registry.operation("repository.explain");
+    this.stats = registry.operation("repository.stats");
+    this.compareAndApply = registry.operation("repository.compareAndApply");
+    this.transferSnapshotTo = registry.operation("repository.transferSnapshotTo");
+  }
+
+  @Override
+  public InventoryItem save(final InventoryItem item) {
+    final long start = save.start();
+    try {
+      return save.succeeded(start, delegate.save(item));
+    } catch (RuntimeException e) {
+      throw save.failed(start, e);
+    }
+  }
+
+  @Override
+  public Optional<InventoryItem> findById(final String itemId) {
+    final long start = findById.start();
+    try {
+      return findById.succeeded(start, delegate.findById(itemId));
+    } catch (RuntimeException e) {
+      throw findById.failed(start, e);
+    }
+  }
+
+  @Override
+  public List<InventoryItem> findAll() {
+    final long start = findAll.start();
+    try {
+      return findAll.succeeded(start, delegate.findAll());
+    } catch (RuntimeException e) {
+      throw findAll.failed(start, e);
+    }
+  }
+
+  @Override
+  public void deleteById(final String itemId) {
+    final long start = deleteById.start();
+    try {
+      delegate.deleteById(itemId);
+      deleteById.succeeded(start);
+    } catch (RuntimeException e) {
+      throw deleteById.failed(start, e);
+    }
+  }
+
+  @Override
+  public List<InventoryItem> findByLocation(final Location location) {
+    final long start = findByLocation.start();
+    try {
+      return findByLocation.succeeded(start, delegate.findByLocation(location));
+    } catch (RuntimeException e) {
+      throw findByLocation.failed(start, e);
+    }
+  }
+
+  @Override
+  public List<InventoryItem> saveAll(final Collection<InventoryItem> items) {
+    final long start = saveAll.start();
+    try {
+      return saveAll.succeeded(start, delegate.saveAll(items));
+    } catch (RuntimeException e) {
+      throw saveAll.failed(start, e);
+    }
+  }
+
+  @Override
+  public int deleteAllById(final Collection<String> itemIds) {
+    final long start = deleteAllById.start();
+    try {
+      final int deleted = delegate.deleteAllById(itemIds);
+      deleteAllById.succeeded(start);
+      return deleted;
+    } catch (RuntimeException e) {
+      throw deleteAllById.failed(start, e);
+    }
+  }
+
+  @Override
+  public Optional<InventoryItem> findAndDeleteById(final String itemId) {
+    final long start = findAndDeleteById.start();
+    try {
+      return findAndDeleteById.succeeded(start, delegate.findAndDeleteById(itemId));
+    } catch (RuntimeException e) {
+      throw findAndDeleteById.failed(start, e);
+    }
+  }
+
+  @Override
+  public Optional<InventoryItem> insertIfAbsent(final InventoryItem item) {
+    final long start = insertIfAbsent.start();
+    try {
+      return insertIfAbsent.succeeded(start, delegate.insertIfAbsent(item));
+    } catch (RuntimeException e) {
+      throw insertIfAbsent.failed(start, e);
+    }
+  }
+
+  @Override
+  public Optional<InventoryItem> compareAndSet(final InventoryItem item) {
+    final long start = compareAndSet.start();
+    try {
+      return compareAndSet.succeeded(start, delegate.compareAndSet(item));
+    } catch (RuntimeException e) {
+      throw compareAndSet.failed(start, e);
+    }
+  }
+
+  @Override
+  public boolean compareAndDelete(final String itemId, final long expectedVersion) {
+    final long start = compareAndDelete.start();
+    try {
+      final boolean deleted = delegate.compareAndDelete(itemId, expectedVersion);
+      compareAndDelete.succeeded(start);
+      return deleted;
+    } catch (RuntimeException e) {
+      throw compareAndDelete.failed(start, e);
+    }
+  }
+
+  @Override
+  public List<InventoryItem> findByNameOrderByExpiry(final String name) {
+    final long start = findByNameOrderByExpiry.start();
+    try {
+      return findByNameOrderByExpiry.succeeded(start, delegate.findByNameOrderByExpiry(name));
+    } catch (RuntimeException e) {
+      throw findByNameOrderByExpiry.failed(start, e);
+    }
+  }
+
+  @Override
+  public List<InventoryItem> findByQuery(final ItemQuery query) {
+    final long start = findByQuery.start();
+    try {
+      return findByQuery.succeeded(start, delegate.findByQuery(query));
+    } catch (RuntimeException e) {
+      throw findByQuery.failed(start, e);
+    }
+  }
+
+  @Override
+  public List<InventoryItem> findByQueryAsOf(final ItemQuery query, final Instant asOf) {
+    final long start = findByQueryAsOf.start();
+    try {
+      return findByQueryAsOf.succeeded(start, delegate.findByQueryAsOf(query, asOf));
+    } catch (RuntimeException e) {
+      throw findByQueryAsOf.failed(start, e);
+    }
+  }
+
+  @Override
+  public QueryPlan explain(final ItemQuery query) {
+    final long start = explain.start();
+    try {
+      return explain.succeeded(start, delegate.explain(query));
+    } catch (RuntimeException e) {
+      throw explain.failed(start, e);
+    }
+  }
+
+  @Override
+  public InventoryStats stats(final LocalDate asOf) {
+    final long start = stats.start();
+    try {
+      return stats.succeeded(start, delegate.stats(asOf));
+    } catch (RuntimeException e) {
+      throw stats.failed(start, e);
+    }
+  }
+
+  @Override
+  public void subscribe(final InventoryListener listener) {
+    delegate.subscribe(listener);
+  }
+
+  @Override
+  public void unsubscribe(final InventoryListener listener) {
+    delegate.unsubscribe(listener);
+  }
+
+  @Override
+  public boolean compareAndApply(
+      final Collection<InventoryItem> updates, final Collection<InventoryItem> deletions) {
+    final long start = compareAndApply.start();
+    try {
+      final boolean applied = delegate.compareAndApply(updates, deletions);
+      compareAndApply.succeeded(start);
+      return applied;
+    } catch (RuntimeException e) {
+      throw compareAndApply.failed(start, e);
+    }
+  }
+
+  @Override
+  public long transferSnapshotTo(final WritableByteChannel target) throws IOException {
+    final long start = transferSnapshotTo.start();
+    try {
+      final long transferred = delegate.transferSnapshotTo(target);
+      transferSnapshotTo.succeeded(start);
+      return transferred;
+    } catch (IOException e) {
+      throw transferSnapshotTo.failed(start, e);
+    } catch (RuntimeException e) {
+      throw transferSnapshotTo.failed(start, e);
+    }
+  }
+}
@@ -0,0 +1,192 @@
+package com.spantry.inventory.repository;
+
+import com.spantry.inventory.domain.InventoryItem;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Optional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Checkpoints of the current-inventory projection of an {@link InventoryEventLog}, so that loading
+ * the inventory replays only the events after the latest checkpoint instead of the whole history.
+ * Each checkpoint is a file in a directory next to the log, named after the sequence number it
+ * covers, holding that sequence number, its timestamp, the log offset to resume from and the items.
+ *
+ * <p>The newest {@value #RETAINED} checkpoints are kept; they also serve {@link
+ * EventSourcedInventoryRepository#findByQueryAsOf}, which starts from the latest checkpoint not
+ * after the requested time. Checkpoints are written to a temporary file and moved into place, so a
+ * crash never leaves a partial one; a checkpoint that cannot be read is skipped in favour of an
+ * older one, and the log alone always suffices.
+ */
+/* package */ final class ProjectionCheckpoints {
+
+  private static final Logger LOG = LoggerFactory.getLogger(ProjectionCheckpoints.class);
+
+  /** Checkpoints kept on disk. */
+  /* package */ static final int RETAINED = 8;
+
+  private static final int MAGIC = 0x53504350; // "SPCP"
+  private static final String PREFIX = "checkpoint-";
+  private static final String SUFFIX = ".bin";
+  private static final String TEMP_SUFFIX = ".tmp";
+  private static final int BUFFER_SIZE = 1 << 16;
+
+  private final Path directory;
+
+  /**
+   * Creates the checkpoint store of a log.
+   *
+   * @param logPath the log file; checkpoints live in a directory named after it
+   */
+  /* package */ ProjectionCheckpoints(final Path logPath) {
+    Objects.requireNonNull(logPath, "logPath cannot be null");
+    this.directory = logPath.resolveSibling(logPath.getFileName() + ".checkpoints");
+  }
+
+  /**
+   * Where a checkpoint file stands in the log.
+   *
+   * @param path the checkpoint file
+   * @param sequence the sequence number of the last event it reflects
+   * @param timestamp that event's timestamp
+   * @param offset the log offset just after that event
+   */
+  /* package */ record Checkpoint(Path path, long sequence, Instant timestamp, long offset) {}
+
+  /**
+   * Writes a checkpoint of the projection and deletes the checkpoints beyond the retained ones.
+   *
+   * @param projection the projection to record
+   * @param offset the log offset just after the projection's last event
+   * @return the file size in bytes
+   * @throws IOException if the checkpoint cannot be written
+   */
+  /* package */ long write(final InventoryProjection projection, final long offset)
+      throws IOException {
+    Files.createDirectories(directory);
+    final Path target =
+        directory.resolve(
+            PREFIX + String.format(Locale.ROOT, "%020d", projection.sequence()) + SUFFIX);
+    final Path temp = target.resolveSibling(target.getFileName() + TEMP_SUFFIX);
+    try (DataOutputStream out =
+        new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), BUFFER_SIZE))) {
+      out.writeInt(MAGIC);
+      out.writeLong(projection.sequence());
+      out.writeLong(projection.timestamp().toEpochMilli());
+      out.writeLong(offset);
+      out.writeInt(projection.size());
+      for (final InventoryItem item : projection.items()) {
+        InventoryEventLog.writeItem(out, item);
+      }
+    }
+    final long bytes = Files.size(temp);
+    Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    final List<Path> files = files();
+    for (final Path stale : files.subList(0, Math.max(0, files.size() - RETAINED))) {
+      Files.deleteIfExists(stale);
+    }
+    return bytes;
+  }
+
+  /**
+   * Finds the newest readable checkpoint whose timestamp is not after the given time.
+   *
+   * @param notAfter the latest acceptable timestamp, or null for the newest checkpoint
+   * @return the checkpoint header, or empty if there is none
+   */
+  /* package */ Optional<Checkpoint> latest(final Instant notAfter) {
+    Checkpoint found = null;
+    final List<Path> files = files();
+    for (int i = files.size() - 1; i >= 0 && found == null; i--) {
+      final Checkpoint candidate = header(files.get(i));
+      if (candidate != null && (notAfter == null || !candidate.timestamp().isAfter(notAfter))) {
+        found = candidate;
+      }
+    }
+    return Optional.ofNullable(found);
+  }
+
+  /**
+   * Reads the projection recorded in a checkpoint.
+   *
+   * @param checkpoint the checkpoint, as found by {@link #latest}
+   * @return the projection
+   * @throws IOException if the file cannot be read, for instance because it was pruned meanwhile
+   */
+  /* package */ InventoryProjection load(final Checkpoint checkpoint) throws IOException {
+    try (DataInputStream in = open(checkpoint.path())) {
+      readHeader(checkpoint.path(), in);
+      final int count = in.readInt();
+      final List<InventoryItem> items = new ArrayList<>(count);
+      for (int i = 0; i < count; i++) {
+        items.add(InventoryEventLog.readItem(in));
+      }
+      return new InventoryProjection(checkpoint.sequence(), checkpoint.timestamp(), items);
+    }
+  }
+
+  /** Deletes every checkpoint, for instance because the log they describe is gone. */
+  /* package */ void clear() throws IOException {
+    for (final Path file : files()) {
+      Files.deleteIfExists(file);
+    }
+  }
+
+  /** Returns the checkpoint files, oldest first. */
+  private List<Path> files() {
+    final List<Path> files = new ArrayList<>();
+    if (Files.isDirectory(directory)) {
+      try (DirectoryStream<Path> stream =
+          Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX)) {
+        stream.forEach(files::add);
+      } catch (IOException e) {
+        if (LOG.isWarnEnabled()) {
+          LOG.warn("Could not list checkpoints in {}: {}", directory, e.getMessage());
+        }
+      }
+    }
+    // Zero-padded sequence numbers sort in name order
+    files.sort(Comparator.comparing(file -> file.getFileName().toString()));
+    return files;
+  }
+
+  private static Checkpoint header(final Path file) {
+    Checkpoint checkpoint = null;
+    try (DataInputStream in = open(file)) {
+      checkpoint = readHeader(file, in);
+    } catch (IOException e) {
+      if (LOG.isWarnEnabled()) {
+        LOG.warn("Skipping unreadable checkpoint {}: {}", file, e.getMessage());
+      }
+    }
+    return checkpoint;
+  }
+
+  private static Checkpoint readHeader(final Path file, final DataInputStream in)
+      throws IOException {
+    if (in.readInt() != MAGIC) {
+      throw new IOException("Not a checkpoint file: " + file);
+    }
+    final long sequence = in.readLong();
+    final Instant timestamp = Instant.ofEpochMilli(in.readLong());
+    return new Checkpoint(file, sequence, timestamp, in.readLong());
+  }
+
+  private static DataInputStream open(final Path file) throws IOException {
+    return new DataInputStream(new BufferedInputStream(Files.newInputStream(file), BUFFER_SIZE));
+  }
+}
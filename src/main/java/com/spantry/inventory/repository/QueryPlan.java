@@ -0,0 +1,15 @@
+package com.spantry.inventory.repository;
+
+/**
+ * How a repository executed an {@link ItemQuery}, as reported by {@link
+ * InventoryRepository#explain}.
+ *
+ * @param accessPath how the candidate items were found, e.g. which index was scanned
+ * @param sorted whether the matches had to be sorted after the scan, as opposed to coming out of
+ *     the index in the requested order
+ * @param rowsExamined the candidate items tested against the query
+ * @param rowsMatched the examined items that matched
+ * @param rowsReturned the matches returned after applying the limit
+ */
+public record QueryPlan(
+    String accessPath, boolean sorted, long rowsExamined, long rowsMatched, long rowsReturned) {}
@@ -0,0 +1,262 @@
+package com.spantry.inventory.repository;
+
+import com.spantry.inventory.domain.InventoryItem;
+import com.spantry.inventory.domain.Location;
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Repository that emits a {@code com.spantry.RepositoryOperation} flight recorder event for every
+ * call to its delegate, with the number of items involved and whether the call succeeded. Snapshot
+ * writes, journal appends and the initial load raise their own events from inside these calls.
+ *
+ * <p>Events cost next to nothing while no recording is running, so the application always installs
+ * this decorator: a recording started later with {@code jcmd <pid> JFR.start}, for instance against
+ * the daemon, sees the calls as well.
+ */
+public final class RecordedInventoryRepository implements InventoryRepository {
+
+  private final InventoryRepository delegate;
+
+  /**
+   * Creates a recorded repository.
+   *
+   * @param delegate the repository to record
+   */
+  public RecordedInventoryRepository(final InventoryRepository delegate) {
+    this.delegate = Objects.requireNonNull(delegate, "Delegate repository cannot be null");
+  }
+
+  @Override
+  public InventoryItem save(final InventoryItem item) {
+    final RepositoryOperationEvent event = RepositoryOperationEvent.start("save");
+    try {
+      final InventoryItem saved = delegate.save(item);
+      event.succeeded(1);
+      return saved;
+    } finally {
+      event.commit();
+    }
+  }
+
+  @Override
+  public Optional<InventoryItem> findById(final String itemId) {
+    final RepositoryOperationEvent event = RepositoryOperationEvent.start("findById");
+    try {
+      final Optional<InventoryItem> found = delegate.findById(itemId);
+      event.succeeded(found.isPresent() ? 1 : 0);
+      return found;
+    } finally {
+      event.commit();
+    }
+  }
+
+  @Override
+  public List<InventoryItem> findAll() {
+    final RepositoryOperationEvent event = RepositoryOperationEvent.start("findAll");
+    try {
+      final List<InventoryItem> found = delegate.findAll();
+      event.succeeded(found.size());
+      return found;
+    } finally {
+      event.commit();
+    }
+  }
+
+  @Override
+  public void deleteById(final String itemId) {
+    final RepositoryOperationEvent event = RepositoryOperationEvent.start("deleteById");
+    try {
+      delegate.deleteById(itemId);
+      event.succeeded(1);
+    } finally {
+      event.commit();
+    }
+  }
+
+  @Override
+  public List<InventoryItem> findByLocation(final Location location) {
+    final RepositoryOperationEvent event = RepositoryOperationEvent.start("findByLocation");
+    try {
+      final List<InventoryItem> found = delegate.findByLocation(location);
+      event.succeeded(found.size());
+      return found;
+    } finally {
+      event.commit();
+    }
+  }
+
+  @Override
+  public List<InventoryItem> saveAll(final Collection<InventoryItem> items) {
+    final RepositoryOperationEvent event = RepositoryOperationEvent.start("saveAll");
+    try {
+      final List<InventoryItem> saved = delegate.saveAll(items);
+      event.succeeded(saved.size());
+      return saved;
+    } finally {
+      event.commit();
+    }
+  }
+
+  @Override
+  public int deleteAllById(final Collection<String> itemIds) {
+    final RepositoryOperationEvent event = RepositoryOperationEvent.start("deleteAllById");
+    try {
+      final int deleted = delegate.deleteAllById(itemIds);
+      event.succeeded(deleted);
+      return deleted;
+    } finally {
+      event.commit();
+    }
+  }
+
+  @Override
+  public Optional<InventoryItem> findAndDeleteById(final String itemId) {
+    final RepositoryOperationEvent event = RepositoryOperationEvent.start("findAndDeleteById");
+    try {
+      final Optional<InventoryItem> deleted = delegate.findAndDeleteById(itemId);
+      event.succeeded(deleted.isPresent() ? 1 : 0);
+      return deleted;
+    } finally {
+      event.commit();
+    }
+  }
+
+  @Override
+  public Optional<InventoryItem> insertIfAbsent(final InventoryItem item) {
+    final RepositoryOperationEvent event = RepositoryOperationEvent.start("insertIfAbsent");
+    try {
+      final Optional<InventoryItem> inserted = delegate.insertIfAbsent(item);
+      event.succeeded(inserted.isPresent() ? 1 : 0);
+      return inserted;
+    } finally {
+      event.commit();
+    }
+  }
+
+  @Override
+  public Optional<InventoryItem> compareAndSet(final InventoryItem item) {
+    final RepositoryOperationEvent event = RepositoryOperationEvent.start("compareAndSet");
+    try {
+      final Optional<InventoryItem> written = delegate.compareAndSet(item);
+      event.succeeded(written.isPresent() ? 1 : 0);
+      return written;
+    } finally {
+      event.commit();
+    }
+  }
+
+  @Override
+  public boolean compareAndDelete(final String itemId, final long expectedVersion) {
+    final RepositoryOperationEvent event = RepositoryOperationEvent.start("compareAndDelete");
+    try {
+      final boolean deleted = delegate.compareAndDelete(itemId, expectedVersion);
+      event.succeeded(deleted ? 1 : 0);
+      return deleted;
+    } finally {
+      event.commit();
+    }
+  }
+
+  @Override
+  public List<InventoryItem> findByNameOrderByExpiry(final String name) {
+    final RepositoryOperationEvent event =
+        RepositoryOperationEvent.start("findByNameOrderByExpiry");
+    try {
+      final List<InventoryItem> found = delegate.findByNameOrderByExpiry(name);
+      event.succeeded(found.size());
+      return found;
+    } finally {
+      event.commit();
+    }
+  }
+
+  @Override
+  public List<InventoryItem> findByQuery(final ItemQuery query) {
+    final RepositoryOperationEvent event = RepositoryOperationEvent.start("findByQuery");
+    try {
+      final List<InventoryItem> found = delegate.findByQuery(query);
+      event.succeeded(found.size());
+      return found;
+    } finally {
+      event.commit();
+    }
+  }
+
+  @Override
+  public List<InventoryItem> findByQueryAsOf(final ItemQuery query, final Instant asOf) {
+    final RepositoryOperationEvent event = RepositoryOperationEvent.start("findByQueryAsOf");
+    try {
+      final List<InventoryItem> found = delegate.findByQueryAsOf(query, asOf);
+      event.succeeded(found.size());
+      return found;
+    } finally {
+      event.commit();
+    }
+  }
+
+  @Override
+  public QueryPlan explain(final ItemQuery query) {
+    final RepositoryOperationEvent event = RepositoryOperationEvent.start("explain");
+    try {
+      final QueryPlan plan = delegate.explain(query);
+      event.succeeded(0);
+      return plan;
+    } finally {
+      event.commit();
+    }
+  }
+
+  @Override
+  public InventoryStats stats(final LocalDate asOf) {
+    final RepositoryOperationEvent event = RepositoryOperationEvent.start("stats");
+    try {
+      final InventoryStats stats = delegate.stats(asOf);
+      event.succeeded(0);
+      return stats;
+    } finally {
+      event.commit();
+    }
+  }
+
+  @Override
+  public void subscribe(final InventoryListener listener) {
+    delegate.subscribe(listener);
+  }
+
+  @Override
+  public void unsubscribe(final InventoryListener listener) {
+    delegate.unsubscribe(listener);
+  }
+
+  @Override
+  public boolean compareAndApply(
+      final Collection<InventoryItem> updates, final Collection<InventoryItem> deletions) {
+    final RepositoryOperationEvent event = RepositoryOperationEvent.start("compareAndApply");
+    try {
+      final boolean applied = delegate.compareAndApply(updates, deletions);
+      event.succeeded(applied ? updates.size() + deletions.size() : 0);
+      return applied;
+    } finally {
+      event.commit();
+    }
+  }
+
+  @Override
+  public long transferSnapshotTo(final WritableByteChannel target) throws IOException {
+    final RepositoryOperationEvent event = RepositoryOperationEvent.start("transferSnapshotTo");
+    try {
+      final long transferred = delegate.transferSnapshotTo(target);
+      event.succeeded(0);
+      return transferred;
+    } finally {
+      event.commit();
+    }
+  }
+}
@@ -0,0 +1,57 @@
+package com.spantry.inventory.repository;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Flight recorder event for one repository call, committed by {@link RecordedInventoryRepository}.
+ * Calls shorter than the threshold are dropped unless a recording lowers it, as {@code spantry
+ * --jfr} does.
+ */
+@Name("com.spantry.RepositoryOperation")
+@Label("Repository Operation")
+@Category({"Spantry", "Repository"})
+@Description(
+    "A call to the inventory repository, including lock waits and the persistence it caused")
+@Threshold("1 ms")
+@StackTrace(false)
+/* package */ final class RepositoryOperationEvent extends Event {
+
+  @Label("Operation")
+  /* package */ String operation;
+
+  @Label("Items")
+  @Description("Items written, removed or returned")
+  /* package */ int items;
+
+  @Label("Succeeded")
+  /* package */ boolean succeeded;
+
+  /**
+   * Creates the event of a call and starts timing it.
+   *
+   * @param operation the repository method
+   * @return the started event, to be committed when the call returns or throws
+   */
+  /* package */ static RepositoryOperationEvent start(final String operation) {
+    final RepositoryOperationEvent event = new RepositoryOperationEvent();
+    event.operation = operation;
+    event.begin();
+    return event;
+  }
+
+  /**
+   * Marks the call as completed.
+   *
+   * @param count items written, removed or returned
+   */
+  /* package */ void succeeded(final int count) {
+    this.items = count;
+    this.succeeded = true;
+  }
+}
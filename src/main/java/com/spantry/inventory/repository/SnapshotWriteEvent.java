@@ -0,0 +1,26 @@
+package com.spantry.inventory.repository;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/** Flight recorder event for the inventory being written to a new snapshot file. */
+@Name("com.spantry.SnapshotWrite")
+@Label("Inventory Snapshot Write")
+@Category({"Spantry", "Persistence"})
+@Description("The whole inventory serialized to a new snapshot file, which truncates the journal")
+/* package */ final class SnapshotWriteEvent extends Event {
+
+  @Label("Path")
+  /* package */ String path;
+
+  @Label("Items")
+  /* package */ int items;
+
+  @Label("Bytes Written")
+  @DataAmount
+  /* package */ long bytes;
+}
@@ -0,0 +1,466 @@
+package com.spantry.inventory.repository;
+
+import com.spantry.inventory.domain.InventoryItem;
+import com.spantry.inventory.domain.Location;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Repository overlay that stages writes in memory on top of another repository. Reads see the base
+ * repository with the staged changes applied; nothing reaches the base until {@link #commit()},
+ * which hands every staged change to {@link InventoryRepository#compareAndApply} at once. A script
+ * of many commands therefore costs a single load and a single persist.
+ *
+ * <p>Staged items get versions exactly as the base would assign them, so optimistic callers behave
+ * the same on the overlay. On commit each change is checked against the base version observed when
+ * the item was first touched: if another writer changed the item in the meantime, nothing is
+ * applied and the staged changes are kept.
+ */
+public class StagedInventoryRepository implements InventoryRepository {
+
+  private final InventoryRepository base;
+
+  // Held while commit() writes the base repository (see RequestThreads)
+  private final ReentrantLock lock = new ReentrantLock();
+
+  // Current state per touched ID, null for a staged deletion; guarded by lock
+  private final Map<String, InventoryItem> staged = new LinkedHashMap<>();
+
+  // Base state per touched ID when first touched, null if absent from the base; guarded by lock
+  private final Map<String, InventoryItem> originals = new HashMap<>();
+
+  /**
+   * Creates an overlay on top of the given repository.
+   *
+   * @param base the repository receiving the changes on commit
+   */
+  public StagedInventoryRepository(final InventoryRepository base) {
+    this.base = Objects.requireNonNull(base, "Base repository cannot be null");
+  }
+
+  /**
+   * Returns the number of items with staged changes.
+   *
+   * @return the number of touched item IDs
+   */
+  public int pendingChanges() {
+    lock.lock();
+    try {
+      return staged.size();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Applies all staged changes to the base repository as one all-or-nothing change.
+   *
+   * @return {@code true} if the changes were applied (or there were none), {@code false} if an
+   *     affected item was changed in the base repository since it was staged, in which case nothing
+   *     is applied and the staged changes are kept
+   */
+  public boolean commit() {
+    lock.lock();
+    try {
+      final List<InventoryItem> updates = new ArrayList<>();
+      final List<InventoryItem> deletions = new ArrayList<>();
+      for (final Map.Entry<String, InventoryItem> change : staged.entrySet()) {
+        final InventoryItem original = originals.get(change.getKey());
+        final InventoryItem current = change.getValue();
+        if (current != null) {
+          final long expectedVersion =
+              original == null ? InventoryItem.UNSAVED_VERSION : original.version();
+          updates.add(current.withVersion(expectedVersion));
+        } else if (original != null) {
+          deletions.add(original);
+        }
+        // Items both created and deleted in this overlay never reach the base
+      }
+
+      final boolean applied =
+          updates.isEmpty() && deletions.isEmpty() || base.compareAndApply(updates, deletions);
+      if (applied) {
+        discard();
+      }
+      return applied;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** Drops all staged changes. */
+  public void discard() {
+    lock.lock();
+    try {
+      staged.clear();
+      originals.clear();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public InventoryItem save(final InventoryItem item) {
+    lock.lock();
+    try {
+      Objects.requireNonNull(item, "Item cannot be null for saving");
+      return stage(InMemoryInventoryRepository.withAssignedId(item));
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public Optional<InventoryItem> findById(final String itemId) {
+    lock.lock();
+    try {
+      Objects.requireNonNull(itemId, "Item ID cannot be null for findById");
+      return Optional.ofNullable(current(itemId));
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public List<InventoryItem> findAll() {
+    lock.lock();
+    try {
+      final List<InventoryItem> items = new ArrayList<>();
+      for (final InventoryItem item : base.findAll()) {
+        if (!staged.containsKey(item.itemId())) {
+          items.add(item);
+        }
+      }
+      for (final InventoryItem item : staged.values()) {
+        if (item != null) {
+          items.add(item);
+        }
+      }
+      return List.copyOf(items);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public void deleteById(final String itemId) {
+    lock.lock();
+    try {
+      Objects.requireNonNull(itemId, "Item ID cannot be null for deleteById");
+      unstage(itemId);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public List<InventoryItem> findByLocation(final Location location) {
+    lock.lock();
+    try {
+      Objects.requireNonNull(location, "Location cannot be null for findByLocation");
+      return findAll().stream()
+          .filter(item -> item.location() == location)
+          .collect(Collectors.toUnmodifiableList());
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public List<InventoryItem> saveAll(final Collection<InventoryItem> items) {
+    lock.lock();
+    try {
+      Objects.requireNonNull(items, "Items cannot be null for saveAll");
+      final List<InventoryItem> stored = new ArrayList<>(items.size());
+      for (final InventoryItem item : items) {
+        stored.add(
+            stage(
+                InMemoryInventoryRepository.withAssignedId(
+                    Objects.requireNonNull(item, "Item cannot be null"))));
+      }
+      return List.copyOf(stored);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public int deleteAllById(final Collection<String> itemIds) {
+    lock.lock();
+    try {
+      Objects.requireNonNull(itemIds, "Item IDs cannot be null for deleteAllById");
+      int removed = 0;
+      for (final String itemId : itemIds) {
+        if (unstage(Objects.requireNonNull(itemId, "Item ID cannot be null")) != null) {
+          removed++;
+        }
+      }
+      return removed;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public Optional<InventoryItem> findAndDeleteById(final String itemId) {
+    lock.lock();
+    try {
+      Objects.requireNonNull(itemId, "Item ID cannot be null for findAndDeleteById");
+      return Optional.ofNullable(unstage(itemId));
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public Optional<InventoryItem> insertIfAbsent(final InventoryItem item) {
+    lock.lock();
+    try {
+      Objects.requireNonNull(item, "Item cannot be null for insertIfAbsent");
+      final InventoryItem itemWithId = InMemoryInventoryRepository.withAssignedId(item);
+      InventoryItem inserted = null;
+      if (current(itemWithId.itemId()) == null) {
+        inserted = stage(itemWithId);
+      }
+      return Optional.ofNullable(inserted);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public Optional<InventoryItem> compareAndSet(final InventoryItem item) {
+    lock.lock();
+    try {
+      Objects.requireNonNull(item, "Item cannot be null for compareAndSet");
+      Objects.requireNonNull(item.itemId(), "Item ID cannot be null for compareAndSet");
+      final InventoryItem current = current(item.itemId());
+      InventoryItem stored = null;
+      if (current != null && current.version() == item.version()) {
+        stored = stage(item);
+      }
+      return Optional.ofNullable(stored);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public boolean compareAndDelete(final String itemId, final long expectedVersion) {
+    lock.lock();
+    try {
+      Objects.requireNonNull(itemId, "Item ID cannot be null for compareAndDelete");
+      final InventoryItem current = current(itemId);
+      final boolean matches = current != null && current.version() == expectedVersion;
+      if (matches) {
+        unstage(itemId);
+      }
+      return matches;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public List<InventoryItem> findByNameOrderByExpiry(final String name) {
+    lock.lock();
+    try {
+      Objects.requireNonNull(name, "Name cannot be null for findByNameOrderByExpiry");
+      final String key = ItemOrdering.nameKey(name);
+      final List<InventoryItem> lots = new ArrayList<>();
+      for (final InventoryItem lot : base.findByNameOrderByExpiry(name)) {
+        if (!staged.containsKey(lot.itemId())) {
+          lots.add(lot);
+        }
+      }
+      for (final InventoryItem item : staged.values()) {
+        if (item != null && key.equals(ItemOrdering.nameKey(item.name()))) {
+          lots.add(item);
+        }
+      }
+      lots.sort(ItemOrdering.EXPIRY_ORDER);
+      return List.copyOf(lots);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>The query runs on the base repository, over-fetching by the number of staged items since at
+   * most that many base results can be superseded by the overlay; the staged items that match are
+   * then merged in.
+   */
+  @Override
+  public List<InventoryItem> findByQuery(final ItemQuery query) {
+    lock.lock();
+    try {
+      Objects.requireNonNull(query, "Query cannot be null for findByQuery");
+      return query.select(overlayCandidates(query), ItemQuery.Sort.NONE);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>The history is the base repository's: staged changes are not part of it until committed.
+   */
+  @Override
+  public List<InventoryItem> findByQueryAsOf(final ItemQuery query, final Instant asOf) {
+    return base.findByQueryAsOf(query, asOf);
+  }
+
+  @Override
+  public QueryPlan explain(final ItemQuery query) {
+    lock.lock();
+    try {
+      Objects.requireNonNull(query, "Query cannot be null for explain");
+      final QueryPlan basePlan = base.explain(overFetching(query));
+      final QueryPlan merged =
+          query.explain(overlayCandidates(query), ItemQuery.Sort.NONE, "staged overlay");
+      return new QueryPlan(
+          basePlan.accessPath() + " + " + staged.size() + " staged items",
+          merged.sorted(),
+          basePlan.rowsExamined() + staged.size(),
+          merged.rowsMatched(),
+          merged.rowsReturned());
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Returns the base query with its limit raised by the number of staged items: at most that many
+   * base results can be superseded by the overlay. Must be called while holding the lock.
+   */
+  private ItemQuery overFetching(final ItemQuery query) {
+    return query.limitedTo(
+        (int) Math.min(ItemQuery.NO_LIMIT, (long) query.limit() + staged.size()));
+  }
+
+  /**
+   * Returns the base results not superseded by the overlay, followed by the staged items. Must be
+   * called while holding the lock.
+   */
+  private Stream<InventoryItem> overlayCandidates(final ItemQuery query) {
+    final Stream<InventoryItem> fromBase =
+        base.findByQuery(overFetching(query)).stream()
+            .filter(item -> !staged.containsKey(item.itemId()));
+    return Stream.concat(fromBase, staged.values().stream().filter(Objects::nonNull));
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>Takes the figures of the base and corrects them for the staged items only: each touched item
+   * is uncounted in its current base state and counted in its staged state.
+   */
+  @Override
+  public InventoryStats stats(final LocalDate asOf) {
+    lock.lock();
+    try {
+      Objects.requireNonNull(asOf, "As-of date cannot be null for stats");
+      final List<InventoryItem> superseded = new ArrayList<>();
+      for (final String itemId : staged.keySet()) {
+        base.findById(itemId).ifPresent(superseded::add);
+      }
+      final List<InventoryItem> current =
+          staged.values().stream().filter(Objects::nonNull).collect(Collectors.toList());
+      return base.stats(asOf).adjusted(superseded, current);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public boolean compareAndApply(
+      final Collection<InventoryItem> updates, final Collection<InventoryItem> deletions) {
+    lock.lock();
+    try {
+      Objects.requireNonNull(updates, "Updates cannot be null for compareAndApply");
+      Objects.requireNonNull(deletions, "Deletions cannot be null for compareAndApply");
+      boolean matches = true;
+      for (final InventoryItem item : updates) {
+        final InventoryItem current = current(item.itemId());
+        matches =
+            matches
+                && (item.version() == InventoryItem.UNSAVED_VERSION
+                    ? current == null
+                    : current != null && current.version() == item.version());
+      }
+      for (final InventoryItem item : deletions) {
+        final InventoryItem current = current(item.itemId());
+        matches = matches && current != null && current.version() == item.version();
+      }
+      if (matches) {
+        for (final InventoryItem item : updates) {
+          stage(item);
+        }
+        for (final InventoryItem item : deletions) {
+          unstage(item.itemId());
+        }
+      }
+      return matches;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Returns the visible state of an item: the staged one if touched, the base one otherwise. Must
+   * be called while holding the lock.
+   */
+  private InventoryItem current(final String itemId) {
+    return staged.containsKey(itemId) ? staged.get(itemId) : base.findById(itemId).orElse(null);
+  }
+
+  /**
+   * Records the base state of an item the first time it is touched. Must be called while holding
+   * the lock.
+   */
+  private void remember(final String itemId) {
+    if (!originals.containsKey(itemId)) {
+      originals.put(itemId, base.findById(itemId).orElse(null));
+    }
+  }
+
+  /**
+   * Stages a new state, assigning the next version as the base would. Must be called while holding
+   * the lock.
+   */
+  private InventoryItem stage(final InventoryItem item) {
+    final InventoryItem previous = current(item.itemId());
+    remember(item.itemId());
+    final InventoryItem stored = item.withVersion(previous == null ? 1L : previous.version() + 1L);
+    staged.put(stored.itemId(), stored);
+    return stored;
+  }
+
+  /**
+   * Stages the deletion of an item. Must be called while holding the lock.
+   *
+   * @return the removed item, or null if it did not exist
+   */
+  private InventoryItem unstage(final String itemId) {
+    final InventoryItem previous = current(itemId);
+    if (previous != null) {
+      remember(itemId);
+      staged.put(itemId, null);
+    }
+    return previous;
+  }
+}
@@ -0,0 +1,299 @@
+package com.spantry.inventory.repository;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Bounded read-through cache with a W-TinyLFU policy.
+ *
+ * <p>New entries enter a small LRU admission window (1% of the capacity). An entry leaving the
+ * window competes with the least recently used entry of the main area, and only the one a {@link
+ * FrequencySketch} has seen more often stays: a burst of one-off lookups cannot flush entries that
+ * are looked up all the time. The main area is a segmented LRU, where entries hit again move from
+ * the probation segment to the protected segment (80% of the main area).
+ *
+ * <p>Lookups read a {@link ConcurrentHashMap} and never wait: the policy bookkeeping of a hit is
+ * skipped when another thread holds the policy lock, at the cost of a slightly less accurate
+ * recency order. Each missing key is loaded by one caller while concurrent callers for that key
+ * wait for its result. A load racing with {@link #invalidate} is handed to its callers but not
+ * cached: the load is withdrawn, or the value it cached is removed, whichever comes second.
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ */
+/* package */ final class TinyLfuCache<K, V> {
+
+  private static final double WINDOW_SHARE = 0.01;
+  private static final double PROTECTED_SHARE = 0.8;
+
+  private final int maximumSize;
+  private final int windowMaximum;
+  private final int protectedMaximum;
+  private final ConcurrentMap<K, Node<K, V>> data = new ConcurrentHashMap<>();
+  private final ConcurrentMap<K, CompletableFuture<V>> loading = new ConcurrentHashMap<>();
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+  // Guarded by policyLock
+  private final ReentrantLock policyLock = new ReentrantLock();
+  private final FrequencySketch sketch;
+  private final Queue<K, V> window = new Queue<>();
+  private final Queue<K, V> probation = new Queue<>();
+  private final Queue<K, V> protectedQueue = new Queue<>();
+
+  /** A cached entry, linked into one of the three LRU queues. */
+  private static final class Node<K, V> {
+    private final K key;
+    private final V value;
+    // Guarded by policyLock
+    private Queue<K, V> queue;
+    private Node<K, V> previous;
+    private Node<K, V> next;
+    private boolean retired;
+
+    private Node(final K key, final V value) {
+      this.key = key;
+      this.value = value;
+    }
+  }
+
+  /** Intrusive doubly linked LRU list: least recently used at the head. */
+  private static final class Queue<K, V> {
+    private Node<K, V> head;
+    private Node<K, V> tail;
+    private int size;
+
+    private void addLast(final Node<K, V> node) {
+      node.queue = this;
+      node.previous = tail;
+      node.next = null;
+      if (tail == null) {
+        head = node;
+      } else {
+        tail.next = node;
+      }
+      tail = node;
+      size++;
+    }
+
+    private void unlink(final Node<K, V> node) {
+      if (node.previous == null) {
+        head = node.next;
+      } else {
+        node.previous.next = node.next;
+      }
+      if (node.next == null) {
+        tail = node.previous;
+      } else {
+        node.next.previous = node.previous;
+      }
+      node.queue = null;
+      node.previous = null;
+      node.next = null;
+      size--;
+    }
+  }
+
+  /**
+   * Creates an empty cache.
+   *
+   * @param maximumSize the maximum number of entries
+   * @throws IllegalArgumentException if the size is not positive
+   */
+  /* package */ TinyLfuCache(final int maximumSize) {
+    if (maximumSize <= 0) {
+      throw new IllegalArgumentException("Cache size must be positive: " + maximumSize);
+    }
+    this.maximumSize = maximumSize;
+    this.windowMaximum = Math.max(1, (int) (maximumSize * WINDOW_SHARE));
+    this.protectedMaximum = (int) ((maximumSize - windowMaximum) * PROTECTED_SHARE);
+    this.sketch = new FrequencySketch(maximumSize);
+  }
+
+  /**
+   * Returns the cached value of a key, loading it on a miss.
+   *
+   * @param key the key
+   * @param loader computes the value of a missing key; must not return null
+   * @return the value
+   */
+  /* package */ V get(final K key, final Function<? super K, ? extends V> loader) {
+    final Node<K, V> node = data.get(key);
+    if (node != null) {
+      hits.increment();
+      recordHit(node);
+      return node.value;
+    }
+    misses.increment();
+    final CompletableFuture<V> future = new CompletableFuture<>();
+    final CompletableFuture<V> running = loading.putIfAbsent(key, future);
+    if (running != null) {
+      return join(running); // Someone else is loading this key
+    }
+    try {
+      final V value = Objects.requireNonNull(loader.apply(key), "Cache loader returned null");
+      // Only cache the value if no invalidation withdrew this load in the meantime. Checking and
+      // inserting is one atomic step on the key: an invalidation either withdraws the load before
+      // it, or finds and removes the entry after it
+      loading.computeIfPresent(
+          key,
+          (loadingKey, registered) -> {
+            if (registered == future) {
+              insert(new Node<>(key, value));
+            }
+            return registered == future ? null : registered;
+          });
+      future.complete(value);
+      return value;
+    } catch (RuntimeException | Error e) {
+      loading.remove(key, future);
+      future.completeExceptionally(e);
+      throw e;
+    }
+  }
+
+  private static <V> V join(final CompletableFuture<V> future) {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException runtime) {
+        throw runtime;
+      }
+      throw e;
+    }
+  }
+
+  /**
+   * Returns the cached value of a key without loading it or counting a hit or miss.
+   *
+   * @param key the key
+   * @return the value, or null if not cached
+   */
+  /* package */ V getIfPresent(final K key) {
+    final Node<K, V> node = data.get(key);
+    return node == null ? null : node.value;
+  }
+
+  /**
+   * Removes a key, and makes a load of it that is still running skip the cache.
+   *
+   * @param key the key
+   */
+  /* package */ void invalidate(final K key) {
+    loading.remove(key);
+    final Node<K, V> node = data.remove(key);
+    if (node != null) {
+      policyLock.lock();
+      try {
+        retire(node);
+      } finally {
+        policyLock.unlock();
+      }
+    }
+  }
+
+  /**
+   * Makes every load that is still running skip the cache, for changes that may affect keys the
+   * caller cannot name.
+   */
+  /* package */ void withdrawLoads() {
+    loading.clear();
+  }
+
+  /**
+   * Returns the counters.
+   *
+   * @return hits, misses and evictions so far, and the current entry count
+   */
+  /* package */ CachingInventoryRepository.CacheStats stats() {
+    return new CachingInventoryRepository.CacheStats(
+        hits.sum(), misses.sum(), evictions.sum(), data.size());
+  }
+
+  private void recordHit(final Node<K, V> node) {
+    // Hits never wait for the policy: under contention the reordering is dropped
+    if (policyLock.tryLock()) {
+      try {
+        sketch.increment(node.key);
+        if (node.queue == window) {
+          window.unlink(node);
+          window.addLast(node);
+        } else if (node.queue == probation) {
+          probation.unlink(node);
+          protectedQueue.addLast(node);
+          while (protectedQueue.size > protectedMaximum) {
+            final Node<K, V> demoted = protectedQueue.head;
+            protectedQueue.unlink(demoted);
+            probation.addLast(demoted);
+          }
+        } else if (node.queue == protectedQueue) {
+          protectedQueue.unlink(node);
+          protectedQueue.addLast(node);
+        }
+      } finally {
+        policyLock.unlock();
+      }
+    }
+  }
+
+  private void insert(final Node<K, V> node) {
+    final Node<K, V> replaced = data.put(node.key, node);
+    policyLock.lock();
+    try {
+      if (replaced != null) {
+        retire(replaced);
+      }
+      sketch.increment(node.key);
+      if (!node.retired) {
+        window.addLast(node);
+        evict();
+      }
+    } finally {
+      policyLock.unlock();
+    }
+  }
+
+  /** Restores the size bounds. Must be called while holding the policy lock. */
+  private void evict() {
+    while (window.size + probation.size + protectedQueue.size > maximumSize) {
+      final Node<K, V> candidate = window.size > windowMaximum ? window.head : null;
+      final Node<K, V> victim = probation.head == null ? protectedQueue.head : probation.head;
+      if (candidate == null || victim == null) {
+        evict(candidate == null ? victim : candidate);
+      } else if (sketch.frequency(candidate.key) > sketch.frequency(victim.key)) {
+        evict(victim);
+        window.unlink(candidate);
+        probation.addLast(candidate);
+      } else {
+        evict(candidate);
+      }
+    }
+    // Below the bound the window still only keeps its share; the rest is on probation
+    while (window.size > windowMaximum) {
+      final Node<K, V> candidate = window.head;
+      window.unlink(candidate);
+      probation.addLast(candidate);
+    }
+  }
+
+  private void evict(final Node<K, V> node) {
+    data.remove(node.key, node);
+    retire(node);
+    evictions.increment();
+  }
+
+  /** Takes a node out of the policy. Must be called while holding the policy lock. */
+  private void retire(final Node<K, V> node) {
+    node.retired = true;
+    if (node.queue != null) {
+      node.queue.unlink(node);
+    }
+  }
+}
@@ -0,0 +1,38 @@
+package com.spantry.inventory.service;
+
+/**
+ * A unit of work over the inventory. Changes made through {@link #service()} are staged in memory
+ * and become visible to other callers, and durable, only on {@link #commit()}. Reads through the
+ * batch service see the staged changes.
+ *
+ * <p>A batch can be committed repeatedly: each commit applies the changes staged since the previous
+ * one, which allows checkpoints in long scripts.
+ */
+public interface InventoryBatch {
+
+  /**
+   * Returns the service operating on this batch.
+   *
+   * @return the staged service; never null
+   */
+  InventoryService service();
+
+  /**
+   * Returns the number of items with changes staged since the last commit or rollback.
+   *
+   * @return the number of touched items
+   */
+  int pendingChanges();
+
+  /**
+   * Applies the staged changes with a single all-or-nothing write.
+   *
+   * @throws com.spantry.inventory.service.exception.BatchConflictException if an affected item was
+   *     changed outside the batch since it was staged; nothing is applied then and the staged
+   *     changes are kept.
+   */
+  void commit();
+
+  /** Drops the changes staged since the last commit. */
+  void rollback();
+}
@@ -3,8 +3,19 @@ package com.spantry.inventory.service;
 // import com.spantry.inventory.domain.Item;
 import com.spantry.inventory.domain.InventoryItem;
 import com.spantry.inventory.domain.Location;
+import com.spantry.inventory.repository.InventoryListener;
+import com.spantry.inventory.repository.InventoryStats;
+import com.spantry.inventory.repository.ItemQuery;
+import com.spantry.inventory.repository.QueryPlan;
 import com.spantry.inventory.service.dto.AddItemCommandDto; // DTO for adding items
+import com.spantry.inventory.service.dto.LotConsumptionDto;
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Interface defining the application logic (use cases) for managing the inventory. This layer
@@ -22,6 +33,15 @@ public interface InventoryService {
    */
   InventoryItem addItem(AddItemCommandDto command);
 
+  /**
+   * Retrieves a single item by its unique identifier.
+   *
+   * @param itemId The ID of the item (must not be null).
+   * @return The item, or empty if no item has this ID.
+   * @throws NullPointerException if the itemId is null.
+   */
+  Optional<InventoryItem> getItem(String itemId);
+
   /**
    * Retrieves all items currently in the inventory.
    *
@@ -39,6 +59,73 @@ public interface InventoryService {
    */
   List<InventoryItem> getItemsByLocation(Location location);
 
+  /**
+   * Retrieves the items matching a query. Filtering, sorting and limiting are carried out by the
+   * repository, which can use its indexes for them.
+   *
+   * @param query The query to execute (must not be null).
+   * @return The matching items in the query's order, at most the query's limit.
+   * @throws NullPointerException if the query is null.
+   */
+  List<InventoryItem> findItems(ItemQuery query);
+
+  /**
+   * Retrieves the items that matched a query at a point in the past.
+   *
+   * @param query The query to execute (must not be null).
+   * @param asOf The point in time (must not be null).
+   * @return The items that matched then, in the query's order, at most the query's limit.
+   * @throws NullPointerException if the query or the time is null.
+   * @throws UnsupportedOperationException if the repository does not keep a history.
+   */
+  List<InventoryItem> findItemsAsOf(ItemQuery query, Instant asOf);
+
+  /**
+   * Describes how the repository executes a query, running it to count the rows involved.
+   *
+   * @param query The query to explain (must not be null).
+   * @return The access path and row counts of the query.
+   * @throws NullPointerException if the query is null.
+   */
+  QueryPlan explainItems(ItemQuery query);
+
+  /**
+   * Retrieves the aggregate figures of the inventory as maintained by the repository.
+   *
+   * @param asOf The day the expiry figures are relative to (must not be null).
+   * @return Counts and quantities per location plus expired, soon expiring and undated counts.
+   * @throws NullPointerException if the date is null.
+   */
+  InventoryStats getStats(LocalDate asOf);
+
+  /**
+   * Computes the aggregate figures from scratch by visiting every item, bypassing any maintained
+   * counters. Comparing the result with {@link #getStats} detects drift in the counters.
+   *
+   * @param asOf The day the expiry figures are relative to (must not be null).
+   * @return The recounted figures.
+   * @throws NullPointerException if the date is null.
+   */
+  InventoryStats recountStats(LocalDate asOf);
+
+  /**
+   * Registers a listener that is told about every item currently stored and then about every
+   * change. See {@link com.spantry.inventory.repository.InventoryRepository#subscribe}.
+   *
+   * @param listener The listener to register (must not be null).
+   * @throws NullPointerException if the listener is null.
+   * @throws UnsupportedOperationException if the repository does not publish changes.
+   */
+  void subscribe(InventoryListener listener);
+
+  /**
+   * Removes a listener registered with {@link #subscribe}.
+   *
+   * @param listener The listener to remove (must not be null).
+   * @throws NullPointerException if the listener is null.
+   */
+  void unsubscribe(InventoryListener listener);
+
   /**
    * Removes an item from the inventory by its unique identifier.
    *
@@ -47,4 +134,80 @@ public interface InventoryService {
    *     if the ID doesn't exist, // as specified in a later TODO
    */
   void removeItem(String itemId);
+
+  /**
+   * Adds a batch of new items to the inventory. All items are stored atomically and persisted once,
+   * which makes this the preferred entry point for imports and scripted maintenance.
+   *
+   * @param commands The command objects describing the items to add (must not be null and must not
+   *     contain null elements).
+   * @return The newly created items, in the order of {@code commands}.
+   * @throws NullPointerException if the list or any of its elements is null.
+   */
+  List<InventoryItem> addItems(List<AddItemCommandDto> commands);
+
+  /**
+   * Removes a batch of items by their identifiers. All removals are applied atomically and
+   * persisted once. Unlike {@link #removeItem(String)}, unknown IDs are skipped rather than
+   * reported, so the same maintenance script can be re-run safely.
+   *
+   * @param itemIds The IDs of the items to remove (must not be null and must not contain null
+   *     elements).
+   * @return The number of items that were actually removed.
+   * @throws NullPointerException if the collection or any of its elements is null.
+   */
+  int removeItems(Collection<String> itemIds);
+
+  /**
+   * Atomically changes the quantity of an existing item in place, keeping its ID. A positive delta
+   * restocks the item, a negative delta consumes from it. When the quantity reaches zero the item
+   * is removed from the inventory. Concurrent adjustments of the same item never lose updates.
+   *
+   * @param itemId The ID of the item to adjust (must not be null).
+   * @param delta The change in quantity (must not be zero).
+   * @return The updated item, or an empty Optional if the item was used up and removed.
+   * @throws NullPointerException if the itemId is null.
+   * @throws IllegalArgumentException if the delta is zero or the result would overflow.
+   * @throws com.spantry.inventory.service.exception.ItemNotFoundException if no item with the given
+   *     ID exists.
+   * @throws com.spantry.inventory.service.exception.InsufficientQuantityException if the delta
+   *     would take the quantity below zero.
+   */
+  Optional<InventoryItem> adjustQuantity(String itemId, int delta);
+
+  /**
+   * Atomically consumes a quantity of a product stored as several lots under the same name (case
+   * insensitive). Lots are drained in expiry order, soonest-expiring first and lots without a date
+   * last; used-up lots are removed and at most one lot is left partially consumed. Either the whole
+   * quantity is taken or the inventory is left unchanged.
+   *
+   * @param name The product name (must not be null).
+   * @param quantity The quantity to take (must be positive).
+   * @return A summary of the affected lots.
+   * @throws NullPointerException if the name is null.
+   * @throws IllegalArgumentException if the quantity is not positive.
+   * @throws com.spantry.inventory.service.exception.ItemNotFoundException if no item has the name.
+   * @throws com.spantry.inventory.service.exception.InsufficientQuantityException if the lots hold
+   *     less than the requested quantity in total.
+   */
+  LotConsumptionDto consumeByName(String name, int quantity);
+
+  /**
+   * Writes a consistent snapshot of the whole inventory in the repository's native binary format.
+   * This is the fastest way to back up the inventory.
+   *
+   * @param target The channel to write to (must not be null). It is not closed.
+   * @return The number of bytes written.
+   * @throws IOException if the snapshot cannot be produced or written.
+   * @throws UnsupportedOperationException if the repository has no native snapshot format.
+   */
+  long exportSnapshot(WritableByteChannel target) throws IOException;
+
+  /**
+   * Starts a batch: changes made through the batch's service are staged in memory and written with
+   * a single persist when the batch is committed.
+   *
+   * @return A new, empty batch.
+   */
+  InventoryBatch beginBatch();
 }
@@ -3,9 +3,21 @@ package com.spantry.inventory.service;
 // import com.spantry.inventory.domain.Item;
 import com.spantry.inventory.domain.InventoryItem;
 import com.spantry.inventory.domain.Location;
+import com.spantry.inventory.repository.InventoryListener;
 import com.spantry.inventory.repository.InventoryRepository;
+import com.spantry.inventory.repository.InventoryStats;
+import com.spantry.inventory.repository.ItemQuery;
+import com.spantry.inventory.repository.QueryPlan;
 import com.spantry.inventory.service.dto.AddItemCommandDto;
+import com.spantry.inventory.service.dto.LotConsumptionDto;
+import com.spantry.inventory.service.exception.InsufficientQuantityException;
 import com.spantry.inventory.service.exception.ItemNotFoundException;
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
@@ -40,19 +52,17 @@ public class InventoryServiceImpl implements InventoryService {
     // Create domain Item from command DTO (ID is generated by repository)
     // Basic validation should ideally be done using Validation API on the DTO,
     // either here or at a boundary layer (e.g., controller/command).
-    final InventoryItem newItem =
-        new InventoryItem(
-            null, // ID will be generated by the repository
-            commandDto.name(),
-            commandDto.quantity(),
-            commandDto.location(),
-            commandDto.expirationDate());
+    final InventoryItem newItem = toNewItem(commandDto);
 
     // Add log guard
     if (LOG.isDebugEnabled()) {
       LOG.debug("Attempting to save new item: {}", newItem.name());
     }
-    final InventoryItem savedItem = this.repository.save(newItem);
+    // Insert-if-absent: a freshly generated ID must never overwrite an existing item
+    final InventoryItem savedItem =
+        this.repository
+            .insertIfAbsent(newItem)
+            .orElseThrow(() -> new IllegalStateException("Generated item ID already exists"));
     // Add log guard
     if (LOG.isInfoEnabled()) {
       LOG.info("Successfully saved item with ID: {}", savedItem.itemId());
@@ -60,6 +70,15 @@ public class InventoryServiceImpl implements InventoryService {
     return savedItem;
   }
 
+  @Override
+  public Optional<InventoryItem> getItem(final String itemId) {
+    Objects.requireNonNull(itemId, "Item ID cannot be null for lookup");
+    if (LOG.isDebugEnabled()) {
+      LOG.debug("Retrieving item with ID: {}", itemId);
+    }
+    return this.repository.findById(itemId);
+  }
+
   @Override
   public List<InventoryItem> getAllItems() {
     // Add log guard
@@ -79,6 +98,61 @@ public class InventoryServiceImpl implements InventoryService {
     return this.repository.findByLocation(location);
   }
 
+  @Override
+  public List<InventoryItem> findItems(final ItemQuery query) {
+    Objects.requireNonNull(query, "Query cannot be null");
+    if (LOG.isDebugEnabled()) {
+      LOG.debug("Retrieving items by query: {}", query);
+    }
+    return this.repository.findByQuery(query);
+  }
+
+  @Override
+  public List<InventoryItem> findItemsAsOf(final ItemQuery query, final Instant asOf) {
+    Objects.requireNonNull(query, "Query cannot be null");
+    Objects.requireNonNull(asOf, "As-of time cannot be null");
+    if (LOG.isDebugEnabled()) {
+      LOG.debug("Retrieving items by query: {} as of {}", query, asOf);
+    }
+    return this.repository.findByQueryAsOf(query, asOf);
+  }
+
+  @Override
+  public QueryPlan explainItems(final ItemQuery query) {
+    Objects.requireNonNull(query, "Query cannot be null");
+    if (LOG.isDebugEnabled()) {
+      LOG.debug("Explaining query: {}", query);
+    }
+    return this.repository.explain(query);
+  }
+
+  @Override
+  public InventoryStats getStats(final LocalDate asOf) {
+    Objects.requireNonNull(asOf, "As-of date cannot be null");
+    return this.repository.stats(asOf);
+  }
+
+  @Override
+  public InventoryStats recountStats(final LocalDate asOf) {
+    Objects.requireNonNull(asOf, "As-of date cannot be null");
+    if (LOG.isDebugEnabled()) {
+      LOG.debug("Recounting inventory statistics as of {}", asOf);
+    }
+    return InventoryStats.recount(this.repository.findAll(), asOf);
+  }
+
+  @Override
+  public void subscribe(final InventoryListener listener) {
+    Objects.requireNonNull(listener, "Listener cannot be null");
+    this.repository.subscribe(listener);
+  }
+
+  @Override
+  public void unsubscribe(final InventoryListener listener) {
+    Objects.requireNonNull(listener, "Listener cannot be null");
+    this.repository.unsubscribe(listener);
+  }
+
   @Override
   public void removeItem(final String itemId) {
     Objects.requireNonNull(itemId, "Item ID cannot be null for removal");
@@ -87,18 +161,274 @@ public class InventoryServiceImpl implements InventoryService {
       LOG.debug("Attempting to remove item with ID: {}", itemId);
     }
 
-    final Optional<InventoryItem> itemOptional = this.repository.findById(itemId);
-    if (itemOptional.isEmpty()) {
+    // Lookup and removal happen in a single repository operation, so a concurrent removal
+    // cannot slip in between them
+    final Optional<InventoryItem> removedItem = this.repository.findAndDeleteById(itemId);
+    if (removedItem.isEmpty()) {
       final String errorMsg = "Item not found with ID: " + itemId;
       // No guard needed for WARN/ERROR generally, but check conventions if specified
       LOG.warn(errorMsg);
       throw new ItemNotFoundException(errorMsg);
     }
 
-    this.repository.deleteById(itemId);
     // Add log guard
     if (LOG.isInfoEnabled()) {
       LOG.info("Successfully removed item with ID: {}", itemId);
     }
   }
+
+  @Override
+  public List<InventoryItem> addItems(final List<AddItemCommandDto> commands) {
+    Objects.requireNonNull(commands, "Command list cannot be null");
+    final List<InventoryItem> newItems = new ArrayList<>(commands.size());
+    for (final AddItemCommandDto commandDto : commands) {
+      newItems.add(
+          toNewItem(Objects.requireNonNull(commandDto, "AddItemCommandDto cannot be null")));
+    }
+
+    if (LOG.isDebugEnabled()) {
+      LOG.debug("Attempting to save {} new items", newItems.size());
+    }
+    final List<InventoryItem> savedItems = this.repository.saveAll(newItems);
+    if (LOG.isInfoEnabled()) {
+      LOG.info("Successfully saved {} items", savedItems.size());
+    }
+    return savedItems;
+  }
+
+  @Override
+  public int removeItems(final Collection<String> itemIds) {
+    Objects.requireNonNull(itemIds, "Item ID collection cannot be null for removal");
+    if (LOG.isDebugEnabled()) {
+      LOG.debug("Attempting to remove {} items", itemIds.size());
+    }
+    final int removed = this.repository.deleteAllById(itemIds);
+    if (LOG.isInfoEnabled()) {
+      LOG.info("Successfully removed {} of {} requested items", removed, itemIds.size());
+    }
+    return removed;
+  }
+
+  @Override
+  public Optional<InventoryItem> adjustQuantity(final String itemId, final int delta) {
+    Objects.requireNonNull(itemId, "Item ID cannot be null for quantity adjustment");
+    if (delta == 0) {
+      throw new IllegalArgumentException("Quantity delta must not be zero");
+    }
+    if (LOG.isDebugEnabled()) {
+      LOG.debug("Adjusting quantity of item {} by {}", itemId, delta);
+    }
+
+    // Optimistic read-modify-write: derive the new state from the version we read and retry
+    // if another caller changed the item in between. No update can be lost this way.
+    Optional<InventoryItem> result = Optional.empty();
+    boolean applied = false;
+    while (!applied) {
+      final InventoryItem current = findExisting(itemId);
+      final int newQuantity = newQuantity(current, delta);
+      if (newQuantity == 0) {
+        result = Optional.empty();
+        applied = this.repository.compareAndDelete(itemId, current.version());
+      } else {
+        final InventoryItem updated =
+            new InventoryItem(
+                current.itemId(),
+                current.name(),
+                newQuantity,
+                current.location(),
+                current.expirationDate(),
+                current.version());
+        result = this.repository.compareAndSet(updated);
+        applied = result.isPresent();
+      }
+    }
+
+    if (LOG.isInfoEnabled()) {
+      LOG.info(
+          "Adjusted quantity of item {} by {}: {}",
+          itemId,
+          delta,
+          result.map(item -> "now " + item.quantity()).orElse("used up and removed"));
+    }
+    return result;
+  }
+
+  @Override
+  public LotConsumptionDto consumeByName(final String name, final int quantity) {
+    Objects.requireNonNull(name, "Name cannot be null for consumption");
+    if (quantity <= 0) {
+      throw new IllegalArgumentException("Quantity to consume must be positive: " + quantity);
+    }
+    if (LOG.isDebugEnabled()) {
+      LOG.debug("Consuming {} of '{}' in expiry order", quantity, name);
+    }
+
+    // Same optimistic scheme as adjustQuantity, but the compare-and-apply spans every lot we take
+    // from, so a concurrent change to any of them restarts the whole plan.
+    LotConsumptionDto result = null;
+    boolean applied = false;
+    while (!applied) {
+      final List<InventoryItem> lots = this.repository.findByNameOrderByExpiry(name);
+      result = planConsumption(name, quantity, lots);
+      applied = this.repository.compareAndApply(result.updatedLots(), result.removedLots());
+    }
+    result = asStored(result);
+
+    if (LOG.isInfoEnabled()) {
+      LOG.info(
+          "Consumed {} of '{}': {} lot(s) removed, {} lot(s) reduced, {} remaining",
+          quantity,
+          name,
+          result.removedLots().size(),
+          result.updatedLots().size(),
+          result.remainingQuantity());
+    }
+    return result;
+  }
+
+  @Override
+  public long exportSnapshot(final WritableByteChannel target) throws IOException {
+    Objects.requireNonNull(target, "Target channel cannot be null for export");
+    final long bytes = this.repository.transferSnapshotTo(target);
+    if (LOG.isDebugEnabled()) {
+      LOG.debug("Exported inventory snapshot ({} bytes)", bytes);
+    }
+    return bytes;
+  }
+
+  @Override
+  public InventoryBatch beginBatch() {
+    return new StagedInventoryBatch(this.repository);
+  }
+
+  /**
+   * Decides which lots to take from, draining them in the given (expiry) order.
+   *
+   * @param name the requested product name
+   * @param quantity the quantity to take
+   * @param lots the lots of the product in expiry order
+   * @return the planned change; updated lots still carry the version they were read with
+   * @throws ItemNotFoundException if there are no lots
+   * @throws InsufficientQuantityException if the lots hold less than the quantity in total
+   */
+  private static LotConsumptionDto planConsumption(
+      final String name, final int quantity, final List<InventoryItem> lots) {
+    if (lots.isEmpty()) {
+      final String errorMsg = "Item not found with name: " + name;
+      LOG.warn(errorMsg);
+      throw new ItemNotFoundException(errorMsg);
+    }
+    final long available = lots.stream().mapToLong(InventoryItem::quantity).sum();
+    if (available < quantity) {
+      throw new InsufficientQuantityException(
+          "Cannot take " + quantity + " of '" + name + "': only " + available + " in stock");
+    }
+
+    final List<InventoryItem> updated = new ArrayList<>();
+    final List<InventoryItem> removed = new ArrayList<>();
+    int remaining = quantity;
+    for (final InventoryItem lot : lots) {
+      if (remaining > 0) {
+        final int taken = Math.min(remaining, lot.quantity());
+        remaining -= taken;
+        if (taken == lot.quantity()) {
+          removed.add(lot);
+        } else {
+          updated.add(
+              new InventoryItem(
+                  lot.itemId(),
+                  lot.name(),
+                  lot.quantity() - taken,
+                  lot.location(),
+                  lot.expirationDate(),
+                  lot.version()));
+        }
+      }
+    }
+    return new LotConsumptionDto(
+        name, quantity, updated, removed, (int) Math.min(Integer.MAX_VALUE, available - quantity));
+  }
+
+  /**
+   * Describes an applied consumption plan with the updated lots as the repository now stores them.
+   * A successful compare-and-apply gives every update the next version, so the versions follow from
+   * the ones the plan was derived from.
+   *
+   * @param applied the plan that was applied
+   * @return the same outcome with each updated lot carrying its stored version
+   */
+  private static LotConsumptionDto asStored(final LotConsumptionDto applied) {
+    final List<InventoryItem> stored = new ArrayList<>(applied.updatedLots().size());
+    for (final InventoryItem lot : applied.updatedLots()) {
+      stored.add(lot.withVersion(lot.version() + 1L));
+    }
+    return new LotConsumptionDto(
+        applied.name(),
+        applied.consumed(),
+        stored,
+        applied.removedLots(),
+        applied.remainingQuantity());
+  }
+
+  /**
+   * Looks up an item that is expected to exist.
+   *
+   * @param itemId the ID to look up
+   * @return the stored item
+   * @throws ItemNotFoundException if no item with the ID exists
+   */
+  private InventoryItem findExisting(final String itemId) {
+    return this.repository
+        .findById(itemId)
+        .orElseThrow(
+            () -> {
+              final String errorMsg = "Item not found with ID: " + itemId;
+              LOG.warn(errorMsg);
+              return new ItemNotFoundException(errorMsg);
+            });
+  }
+
+  /**
+   * Computes the quantity after applying a delta, rejecting results below zero.
+   *
+   * @param current the current item state
+   * @param delta the requested change
+   * @return the new quantity (zero or more)
+   * @throws InsufficientQuantityException if the result would be negative
+   * @throws IllegalArgumentException if the result overflows
+   */
+  private static int newQuantity(final InventoryItem current, final int delta) {
+    final int newQuantity;
+    try {
+      newQuantity = Math.addExact(current.quantity(), delta);
+    } catch (ArithmeticException e) {
+      throw new IllegalArgumentException("Quantity adjustment overflows: " + delta, e);
+    }
+    if (newQuantity < 0) {
+      throw new InsufficientQuantityException(
+          "Cannot take "
+              + -delta
+              + " of item "
+              + current.itemId()
+              + ": only "
+              + current.quantity()
+              + " in stock");
+    }
+    return newQuantity;
+  }
+
+  /**
+   * Maps an add command to a new, not yet persisted domain item.
+   *
+   * @param commandDto the command describing the item
+   * @return a domain item without an ID (the repository assigns it)
+   */
+  private static InventoryItem toNewItem(final AddItemCommandDto commandDto) {
+    return new InventoryItem(
+        null, // ID will be generated by the repository
+        commandDto.name(),
+        commandDto.quantity(),
+        commandDto.location(),
+        commandDto.expirationDate());
+  }
 }
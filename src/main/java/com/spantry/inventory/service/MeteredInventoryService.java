@@ -0,0 +1,243 @@
+package com.spantry.inventory.service;
+
+import com.spantry.inventory.domain.InventoryItem;
+import com.spantry.inventory.domain.Location;
+import com.spantry.inventory.repository.InventoryListener;
+import com.spantry.inventory.repository.InventoryStats;
+import com.spantry.inventory.repository.ItemQuery;
+import com.spantry.inventory.repository.QueryPlan;
+import com.spantry.inventory.service.dto.AddItemCommandDto;
+import com.spantry.inventory.service.dto.LotConsumptionDto;
+import com.spantry.metrics.MetricsRegistry;
+import com.spantry.metrics.OperationMetrics;
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Service that records the calls, errors and latency of every use case of its delegate in a {@link
+ * MetricsRegistry}, under names such as {@code service.addItem}. Validation failures count as
+ * errors. Batches are not measured.
+ */
+public final class MeteredInventoryService implements InventoryService {
+
+  private final InventoryService delegate;
+  private final OperationMetrics addItem;
+  private final OperationMetrics getItem;
+  private final OperationMetrics getAllItems;
+  private final OperationMetrics getItemsByLocation;
+  private final OperationMetrics findItems;
+  private final OperationMetrics findItemsAsOf;
+  private final OperationMetrics explainItems;
+  private final OperationMetrics getStats;
+  private final OperationMetrics recountStats;
+  private final OperationMetrics removeItem;
+  private final OperationMetrics addItems;
+  private final OperationMetrics removeItems;
+  private final OperationMetrics adjustQuantity;
+  private final OperationMetrics consumeByName;
+  private final OperationMetrics exportSnapshot;
+
+  /**
+   * Creates a metered service.
+   *
+   * @param delegate the service to measure
+   * @param registry where to record
+   */
+  public MeteredInventoryService(final InventoryService delegate, final MetricsRegistry registry) {
+    this.delegate = Objects.requireNonNull(delegate, "Delegate service cannot be null");
+    Objects.requireNonNull(registry, "Metrics registry cannot be null");
+    this.addItem = registry.operation("service.addItem");
+    this.getItem = registry.operation("service.getItem");
+    this.getAllItems = registry.operation("service.getAllItems");
+    this.getItemsByLocation = registry.operation("service.getItemsByLocation");
+    this.findItems = registry.operation("service.findItems");
+    this.findItemsAsOf = registry.operation("service.findItemsAsOf");
+    this.explainItems = registry.operation("service.explainItems");
+    this.getStats = registry.operation("service.getStats");
+    this.recountStats = registry.operation("service.recountStats");
+    this.removeItem = registry.operation("service.removeItem");
+    this.addItems = registry.operation("service.addItems");
+    this.removeItems = registry.operation("service.removeItems");
+    this.adjustQuantity = registry.operation("service.adjustQuantity");
+    this.consumeByName = registry.operation("service.consumeByName");
+    this.exportSnapshot = registry.operation("service.exportSnapshot");
+  }
+
+  @Override
+  public InventoryItem addItem(final AddItemCommandDto command) {
+    final long start = addItem.start();
+    try {
+      return addItem.succeeded(start, delegate.addItem(command));
+    } catch (RuntimeException e) {
+      throw addItem.failed(start, e);
+    }
+  }
+
+  @Override
+  public Optional<InventoryItem> getItem(final String itemId) {
+    final long start = getItem.start();
+    try {
+      return getItem.succeeded(start, delegate.getItem(itemId));
+    } catch (RuntimeException e) {
+      throw getItem.failed(start, e);
+    }
+  }
+
+  @Override
+  public List<InventoryItem> getAllItems() {
+    final long start = getAllItems.start();
+    try {
+      return getAllItems.succeeded(start, delegate.getAllItems());
+    } catch (RuntimeException e) {
+      throw getAllItems.failed(start, e);
+    }
+  }
+
+  @Override
+  public List<InventoryItem> getItemsByLocation(final Location location) {
+    final long start = getItemsByLocation.start();
+    try {
+      return getItemsByLocation.succeeded(start, delegate.getItemsByLocation(location));
+    } catch (RuntimeException e) {
+      throw getItemsByLocation.failed(start, e);
+    }
+  }
+
+  @Override
+  public List<InventoryItem> findItems(final ItemQuery query) {
+    final long start = findItems.start();
+    try {
+      return findItems.succeeded(start, delegate.findItems(query));
+    } catch (RuntimeException e) {
+      throw findItems.failed(start, e);
+    }
+  }
+
+  @Override
+  public List<InventoryItem> findItemsAsOf(final ItemQuery query, final Instant asOf) {
+    final long start = findItemsAsOf.start();
+    try {
+      return findItemsAsOf.succeeded(start, delegate.findItemsAsOf(query, asOf));
+    } catch (RuntimeException e) {
+      throw findItemsAsOf.failed(start, e);
+    }
+  }
+
+  @Override
+  public QueryPlan explainItems(final ItemQuery query) {
+    final long start = explainItems.start();
+    try {
+      return explainItems.succeeded(start, delegate.explainItems(query));
+    } catch (RuntimeException e) {
+      throw explainItems.failed(start, e);
+    }
+  }
+
+  @Override
+  public InventoryStats getStats(final LocalDate asOf) {
+    final long start = getStats.start();
+    try {
+      return getStats.succeeded(start, delegate.getStats(asOf));
+    } catch (RuntimeException e) {
+      throw getStats.failed(start, e);
+    }
+  }
+
+  @Override
+  public InventoryStats recountStats(final LocalDate asOf) {
+    final long start = recountStats.start();
+    try {
+      return recountStats.succeeded(start, delegate.recountStats(asOf));
+    } catch (RuntimeException e) {
+      throw recountStats.failed(start, e);
+    }
+  }
+
+  @Override
+  public void subscribe(final InventoryListener listener) {
+    delegate.subscribe(listener);
+  }
+
+  @Override
+  public void unsubscribe(final InventoryListener listener) {
+    delegate.unsubscribe(listener);
+  }
+
+  @Override
+  public void removeItem(final String itemId) {
+    final long start = removeItem.start();
+    try {
+      delegate.removeItem(itemId);
+      removeItem.succeeded(start);
+    } catch (RuntimeException e) {
+      throw removeItem.failed(start, e);
+    }
+  }
+
+  @Override
+  public List<InventoryItem> addItems(final List<AddItemCommandDto> commands) {
+    final long start = addItems.start();
+    try {
+      return addItems.succeeded(start, delegate.addItems(commands));
+    } catch (RuntimeException e) {
+      throw addItems.failed(start, e);
+    }
+  }
+
+  @Override
+  public int removeItems(final Collection<String> itemIds) {
+    final long start = removeItems.start();
+    try {
+      final int removed = delegate.removeItems(itemIds);
+      removeItems.succeeded(start);
+      return removed;
+    } catch (RuntimeException e) {
+      throw removeItems.failed(start, e);
+    }
+  }
+
+  @Override
+  public Optional<InventoryItem> adjustQuantity(final String itemId, final int delta) {
+    final long start = adjustQuantity.start();
+    try {
+      return adjustQuantity.succeeded(start, delegate.adjustQuantity(itemId, delta));
+    } catch (RuntimeException e) {
+      throw adjustQuantity.failed(start, e);
+    }
+  }
+
+  @Override
+  public LotConsumptionDto consumeByName(final String name, final int quantity) {
+    final long start = consumeByName.start();
+    try {
+      return consumeByName.succeeded(start, delegate.consumeByName(name, quantity));
+    } catch (RuntimeException e) {
+      throw consumeByName.failed(start, e);
+    }
+  }
+
+  @Override
+  public long exportSnapshot(final WritableByteChannel target) throws IOException {
+    final long start = exportSnapshot.start();
+    try {
+      final long exported = delegate.exportSnapshot(target);
+      exportSnapshot.succeeded(start);
+      return exported;
+    } catch (IOException e) {
+      throw exportSnapshot.failed(start, e);
+    } catch (RuntimeException e) {
+      throw exportSnapshot.failed(start, e);
+    }
+  }
+
+  @Override
+  public InventoryBatch beginBatch() {
+    return delegate.beginBatch();
+  }
+}
@@ -0,0 +1,56 @@
+package com.spantry.inventory.service;
+
+import com.spantry.inventory.repository.InventoryRepository;
+import com.spantry.inventory.repository.StagedInventoryRepository;
+import com.spantry.inventory.service.exception.BatchConflictException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/** {@link InventoryBatch} staging its changes in a {@link StagedInventoryRepository}. */
+final class StagedInventoryBatch implements InventoryBatch {
+
+  private static final Logger LOG = LoggerFactory.getLogger(StagedInventoryBatch.class);
+
+  private final StagedInventoryRepository staged;
+  private final InventoryService service;
+
+  /**
+   * Starts a batch on top of the given repository.
+   *
+   * @param repository the repository receiving the changes on commit
+   */
+  /* package */ StagedInventoryBatch(final InventoryRepository repository) {
+    this.staged = new StagedInventoryRepository(repository);
+    this.service = new InventoryServiceImpl(staged);
+  }
+
+  @Override
+  public InventoryService service() {
+    return service;
+  }
+
+  @Override
+  public int pendingChanges() {
+    return staged.pendingChanges();
+  }
+
+  @Override
+  public void commit() {
+    final int changes = staged.pendingChanges();
+    if (!staged.commit()) {
+      throw new BatchConflictException(
+          "Inventory was modified concurrently; none of the " + changes + " change(s) was applied");
+    }
+    if (LOG.isDebugEnabled()) {
+      LOG.debug("Committed batch of {} change(s)", changes);
+    }
+  }
+
+  @Override
+  public void rollback() {
+    if (LOG.isDebugEnabled()) {
+      LOG.debug("Rolling back batch of {} change(s)", staged.pendingChanges());
+    }
+    staged.discard();
+  }
+}
@@ -0,0 +1,31 @@
+package com.spantry.inventory.service.dto;
+
+import com.spantry.inventory.domain.InventoryItem;
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) describing the outcome of consuming a quantity of a product by name
+ * across its lots. Used as output of the InventoryService.consumeByName method.
+ *
+ * <p>Using record for concise immutable data carrier.
+ *
+ * @param name The product name that was consumed.
+ * @param consumed The total quantity taken.
+ * @param updatedLots Lots that were partially consumed, as stored with their new quantities and
+ *     versions.
+ * @param removedLots Lots that were used up and removed, as they were before consumption.
+ * @param remainingQuantity The quantity of the product left across all of its lots.
+ */
+public record LotConsumptionDto(
+    String name,
+    int consumed,
+    List<InventoryItem> updatedLots,
+    List<InventoryItem> removedLots,
+    int remainingQuantity) {
+
+  /** Compact constructor making defensive copies of the lot lists. */
+  public LotConsumptionDto {
+    updatedLots = List.copyOf(updatedLots);
+    removedLots = List.copyOf(removedLots);
+  }
+}
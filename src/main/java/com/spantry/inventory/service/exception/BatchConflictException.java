@@ -0,0 +1,20 @@
+package com.spantry.inventory.service.exception;
+
+/**
+ * Runtime exception thrown when a batch cannot be committed because an item it changed was modified
+ * outside the batch in the meantime. None of the batch's changes are applied.
+ */
+public class BatchConflictException extends RuntimeException {
+
+  // Recommended for Serializable classes
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * Constructs a new BatchConflictException with the specified detail message.
+   *
+   * @param message the detail message.
+   */
+  public BatchConflictException(final String message) {
+    super(message);
+  }
+}
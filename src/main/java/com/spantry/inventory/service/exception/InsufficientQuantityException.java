@@ -0,0 +1,20 @@
+package com.spantry.inventory.service.exception;
+
+/**
+ * Runtime exception thrown when an operation would take more of an item than is in stock (e.g.,
+ * consuming five eggs when only three are left). The inventory is left unchanged.
+ */
+public class InsufficientQuantityException extends RuntimeException {
+
+  // Recommended for Serializable classes
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * Constructs a new InsufficientQuantityException with the specified detail message.
+   *
+   * @param message the detail message.
+   */
+  public InsufficientQuantityException(final String message) {
+    super(message);
+  }
+}
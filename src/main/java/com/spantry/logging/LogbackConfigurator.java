@@ -0,0 +1,72 @@
+package com.spantry.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.Configurator;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.ConsoleAppender;
+import ch.qos.logback.core.spi.ContextAwareBase;
+
+/**
+ * Configures Logback in code, found through {@link java.util.ServiceLoader}. It replaces the former
+ * {@code logback.xml}: parsing XML configuration loads several hundred Joran and XML classes and
+ * was the largest single cost of starting the CLI.
+ *
+ * <p>Log messages go to standard error: standard output carries command results only (see {@link
+ * com.spantry.cli.render.OutputFormat}), so it can be piped or redirected without log lines mixed
+ * in.
+ *
+ * <p>An explicit configuration still wins: if {@code -Dlogback.configurationFile} is set or a
+ * {@code logback-test.xml} / {@code logback.xml} is on the class path, Logback's own configurators
+ * take over as usual.
+ */
+public class LogbackConfigurator extends ContextAwareBase implements Configurator {
+
+  /** Layout of every log line. */
+  /* package */ static final String PATTERN =
+      "%d{yyyy-MM-dd HH:mm:ss.SSS} [%thread] %-5level %logger{36} - %msg%n";
+
+  private static final String CONFIG_FILE_PROPERTY = "logback.configurationFile";
+  private static final String[] CONFIG_RESOURCES = {"logback-test.xml", "logback.xml"};
+
+  /** Default constructor used by the service loader. */
+  @SuppressWarnings("PMD.UnnecessaryConstructor")
+  public LogbackConfigurator() {
+    super();
+  }
+
+  @Override
+  public ExecutionStatus configure(final LoggerContext context) {
+    ExecutionStatus status = ExecutionStatus.INVOKE_NEXT_IF_ANY;
+    if (!hasExplicitConfiguration()) {
+      final PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+      encoder.setContext(context);
+      encoder.setPattern(PATTERN);
+      encoder.start();
+
+      final ConsoleAppender<ILoggingEvent> appender = new ConsoleAppender<>();
+      appender.setContext(context);
+      appender.setName("STDERR");
+      appender.setTarget("System.err");
+      appender.setEncoder(encoder);
+      appender.start();
+
+      final Logger root = context.getLogger(Logger.ROOT_LOGGER_NAME);
+      root.setLevel(Level.INFO);
+      root.addAppender(appender);
+      status = ExecutionStatus.DO_NOT_INVOKE_NEXT_IF_ANY;
+    }
+    return status;
+  }
+
+  private static boolean hasExplicitConfiguration() {
+    boolean explicit = System.getProperty(CONFIG_FILE_PROPERTY) != null;
+    final ClassLoader loader = LogbackConfigurator.class.getClassLoader();
+    for (final String resource : CONFIG_RESOURCES) {
+      explicit = explicit || loader.getResource(resource) != null;
+    }
+    return explicit;
+  }
+}
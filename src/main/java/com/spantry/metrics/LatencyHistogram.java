@@ -0,0 +1,119 @@
+package com.spantry.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram of durations in nanoseconds, with HDR-style log-linear buckets: exact up to
+ * 63 ns, then 32 buckets per power of two, so every reported value is within about 3% of the
+ * recorded one. Recording costs a few atomic increments and never allocates.
+ */
+public final class LatencyHistogram {
+
+  private static final int SUB_BITS = 5;
+  private static final int SUB_COUNT = 1 << SUB_BITS;
+  private static final int LINEAR = SUB_COUNT << 1;
+  private static final int BUCKETS = (Long.SIZE - SUB_BITS) * SUB_COUNT;
+
+  private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+  private final LongAdder count = new LongAdder();
+  private final LongAdder sum = new LongAdder();
+  private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+  /**
+   * Records a duration. Negative durations, which a clock adjustment can produce, count as zero.
+   *
+   * @param nanos the duration in nanoseconds
+   */
+  public void record(final long nanos) {
+    final long value = Math.max(0, nanos);
+    counts.incrementAndGet(index(value));
+    count.increment();
+    sum.add(value);
+    max.accumulate(value);
+  }
+
+  /**
+   * Returns the number of recorded durations.
+   *
+   * @return the count
+   */
+  public long count() {
+    return count.sum();
+  }
+
+  /**
+   * Returns the sum of the recorded durations.
+   *
+   * @return the total in nanoseconds
+   */
+  public long sum() {
+    return sum.sum();
+  }
+
+  /**
+   * Returns the longest recorded duration.
+   *
+   * @return the maximum in nanoseconds, or 0 if nothing was recorded
+   */
+  public long max() {
+    return max.get();
+  }
+
+  /**
+   * Returns the durations at several quantiles, read from one pass over the buckets. Each value is
+   * the upper bound of the bucket holding the quantile, capped at the maximum.
+   *
+   * @param quantiles the quantiles, each between 0 and 1
+   * @return one duration in nanoseconds per quantile, all 0 if nothing was recorded
+   */
+  public long[] valuesAt(final double... quantiles) {
+    final long[] snapshot = new long[BUCKETS];
+    long total = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      snapshot[i] = counts.get(i);
+      total += snapshot[i];
+    }
+    final long highest = max();
+    final long[] values = new long[quantiles.length];
+    for (int q = 0; q < quantiles.length; q++) {
+      if (quantiles[q] < 0 || quantiles[q] > 1) {
+        throw new IllegalArgumentException("Quantile must be between 0 and 1: " + quantiles[q]);
+      }
+      final long rank = Math.max(1, (long) Math.ceil(quantiles[q] * total));
+      long seen = 0;
+      for (int i = 0; i < BUCKETS && total > 0; i++) {
+        seen += snapshot[i];
+        if (seen >= rank) {
+          values[q] = Math.min(highestValue(i), highest);
+          break;
+        }
+      }
+    }
+    return values;
+  }
+
+  /* package */ static int index(final long value) {
+    final int index;
+    if (value < LINEAR) {
+      index = (int) value;
+    } else {
+      final int shift = Long.SIZE - 1 - Long.numberOfLeadingZeros(value) - SUB_BITS;
+      index = (shift << SUB_BITS) + (int) (value >>> shift);
+    }
+    return index;
+  }
+
+  /* package */ static long highestValue(final int index) {
+    final long value;
+    if (index < LINEAR) {
+      value = index;
+    } else {
+      final int shift = (index >>> SUB_BITS) - 1;
+      final long top = (index & (SUB_COUNT - 1)) + SUB_COUNT;
+      value = ((top + 1) << shift) - 1;
+    }
+    return value;
+  }
+}
@@ -0,0 +1,145 @@
+package com.spantry.metrics;
+
+import java.util.List;
+import java.util.Locale;
+
+/** Renderings of a {@link MetricsRegistry#snapshot()}. */
+public enum MetricsFormat {
+
+  /** A table for people, durations in microseconds. */
+  TEXT {
+    @Override
+    public String render(final List<OperationStats> operations) {
+      final StringBuilder out = new StringBuilder(128 + 96 * operations.size());
+      if (operations.isEmpty()) {
+        out.append("No operations recorded yet.\n");
+      } else {
+        out.append(
+            String.format(
+                Locale.ROOT,
+                "%-36s %10s %8s %7s %10s %10s %10s %10s%n",
+                "OPERATION",
+                "CALLS",
+                "ERRORS",
+                "ERR%",
+                "P50 us",
+                "P99 us",
+                "P99.9 us",
+                "MAX us"));
+        for (final OperationStats operation : operations) {
+          out.append(
+              String.format(
+                  Locale.ROOT,
+                  "%-36s %10d %8d %7.2f %10.1f %10.1f %10.1f %10.1f%n",
+                  operation.name(),
+                  operation.calls(),
+                  operation.errors(),
+                  100 * operation.errorRate(),
+                  micros(operation.p50Nanos()),
+                  micros(operation.p99Nanos()),
+                  micros(operation.p999Nanos()),
+                  micros(operation.maxNanos())));
+        }
+      }
+      return out.toString();
+    }
+  },
+
+  /** One JSON object holding an array of operations, durations in nanoseconds. */
+  JSON {
+    @Override
+    public String render(final List<OperationStats> operations) {
+      final StringBuilder out = new StringBuilder(64 + 256 * operations.size());
+      out.append("{\"operations\":[");
+      for (int i = 0; i < operations.size(); i++) {
+        final OperationStats operation = operations.get(i);
+        out.append(i == 0 ? "\n" : ",\n")
+            .append(
+                String.format(
+                    Locale.ROOT,
+                    "{\"name\":\"%s\",\"calls\":%d,\"errors\":%d,\"errorRate\":%.6f,"
+                        + "\"timed\":%d,\"meanNanos\":%d,\"p50Nanos\":%d,\"p99Nanos\":%d,"
+                        + "\"p999Nanos\":%d,\"maxNanos\":%d}",
+                    escape(operation.name()),
+                    operation.calls(),
+                    operation.errors(),
+                    operation.errorRate(),
+                    operation.timed(),
+                    operation.meanNanos(),
+                    operation.p50Nanos(),
+                    operation.p99Nanos(),
+                    operation.p999Nanos(),
+                    operation.maxNanos()));
+      }
+      out.append(operations.isEmpty() ? "]}\n" : "\n]}\n");
+      return out.toString();
+    }
+  },
+
+  /** The Prometheus text exposition format: counters and a summary per operation, in seconds. */
+  PROMETHEUS {
+    @Override
+    public String render(final List<OperationStats> operations) {
+      final StringBuilder out = new StringBuilder(256 + 512 * operations.size());
+      out.append("# HELP spantry_operation_calls_total Calls completed, successful or not.\n")
+          .append("# TYPE spantry_operation_calls_total counter\n");
+      for (final OperationStats operation : operations) {
+        sample(out, "spantry_operation_calls_total", operation, null, operation.calls());
+      }
+      out.append("# HELP spantry_operation_errors_total Calls that threw.\n")
+          .append("# TYPE spantry_operation_errors_total counter\n");
+      for (final OperationStats operation : operations) {
+        sample(out, "spantry_operation_errors_total", operation, null, operation.errors());
+      }
+      out.append("# HELP spantry_operation_duration_seconds Duration of the sampled calls.\n")
+          .append("# TYPE spantry_operation_duration_seconds summary\n");
+      for (final OperationStats operation : operations) {
+        final String name = "spantry_operation_duration_seconds";
+        sample(out, name, operation, "0.5", seconds(operation.p50Nanos()));
+        sample(out, name, operation, "0.99", seconds(operation.p99Nanos()));
+        sample(out, name, operation, "0.999", seconds(operation.p999Nanos()));
+        sample(
+            out,
+            name + "_sum",
+            operation,
+            null,
+            seconds(operation.meanNanos() * operation.timed()));
+        sample(out, name + "_count", operation, null, operation.timed());
+      }
+      return out.toString();
+    }
+
+    private void sample(
+        final StringBuilder out,
+        final String metric,
+        final OperationStats operation,
+        final String quantile,
+        final Object value) {
+      out.append(metric).append("{operation=\"").append(escape(operation.name())).append('"');
+      if (quantile != null) {
+        out.append(",quantile=\"").append(quantile).append('"');
+      }
+      out.append("} ").append(value).append('\n');
+    }
+  };
+
+  /**
+   * Renders the figures.
+   *
+   * @param operations the figures of each operation
+   * @return the text, ending with a line break
+   */
+  public abstract String render(List<OperationStats> operations);
+
+  private static double micros(final long nanos) {
+    return nanos / 1_000.0;
+  }
+
+  private static double seconds(final long nanos) {
+    return nanos / 1_000_000_000.0;
+  }
+
+  private static String escape(final String text) {
+    return text.replace("\\", "\\\\").replace("\"", "\\\"");
+  }
+}
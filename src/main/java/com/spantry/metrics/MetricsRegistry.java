@@ -0,0 +1,96 @@
+package com.spantry.metrics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The operations measured in this process, by name. Instrumented classes look their operations up
+ * once, when they are created, so recording never touches the registry.
+ */
+public final class MetricsRegistry {
+
+  /**
+   * System property setting how many calls share one timed call: 1 times every call, 0 turns the
+   * instrumentation off.
+   */
+  public static final String SAMPLE_PROPERTY = "spantry.metrics.sample";
+
+  /** Default of {@link #SAMPLE_PROPERTY}. */
+  public static final int DEFAULT_SAMPLE_EVERY = 16;
+
+  private static final MetricsRegistry GLOBAL =
+      new MetricsRegistry(Math.max(1, Integer.getInteger(SAMPLE_PROPERTY, DEFAULT_SAMPLE_EVERY)));
+
+  private final int sampleEvery;
+  private final ConcurrentMap<String, OperationMetrics> operations = new ConcurrentHashMap<>();
+
+  /**
+   * Creates an empty registry.
+   *
+   * @param sampleEvery time one call in this many, at random
+   * @throws IllegalArgumentException if the rate is not positive
+   */
+  public MetricsRegistry(final int sampleEvery) {
+    if (sampleEvery < 1) {
+      throw new IllegalArgumentException("Sample rate must be positive: " + sampleEvery);
+    }
+    this.sampleEvery = sampleEvery;
+  }
+
+  /**
+   * Returns the registry the application records into, sampling as {@link #SAMPLE_PROPERTY} says.
+   *
+   * @return the process-wide registry
+   */
+  public static MetricsRegistry global() {
+    return GLOBAL;
+  }
+
+  /**
+   * Tells whether the application should instrument itself at all.
+   *
+   * @return false if {@link #SAMPLE_PROPERTY} is 0
+   */
+  public static boolean enabled() {
+    return Integer.getInteger(SAMPLE_PROPERTY, DEFAULT_SAMPLE_EVERY) > 0;
+  }
+
+  /**
+   * Returns the sampling rate.
+   *
+   * @return how many calls share one timed call
+   */
+  public int sampleEvery() {
+    return sampleEvery;
+  }
+
+  /**
+   * Returns an operation, registering it on first use.
+   *
+   * @param name the operation name, such as {@code repository.findById}
+   * @return the operation's metrics
+   */
+  public OperationMetrics operation(final String name) {
+    return operations.computeIfAbsent(name, key -> new OperationMetrics(key, sampleEvery));
+  }
+
+  /**
+   * Returns the figures of every operation that has been called.
+   *
+   * @return the figures, by operation name
+   */
+  public List<OperationStats> snapshot() {
+    final List<OperationStats> stats = new ArrayList<>(operations.size());
+    for (final OperationMetrics operation : operations.values()) {
+      final OperationStats snapshot = operation.snapshot();
+      if (snapshot.calls() > 0) {
+        stats.add(snapshot);
+      }
+    }
+    stats.sort(Comparator.comparing(OperationStats::name));
+    return stats;
+  }
+}
@@ -0,0 +1,117 @@
+package com.spantry.metrics;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Call and error counts and a latency histogram of one operation. Instrumented code brackets each
+ * call:
+ *
+ * <pre>{@code
+ * final long start = operation.start();
+ * try {
+ *   return operation.succeeded(start, delegate.call());
+ * } catch (RuntimeException e) {
+ *   throw operation.failed(start, e);
+ * }
+ * }</pre>
+ *
+ * <p>After the first {@value #WARM_UP_CALLS} calls, which are all timed so that rarely used
+ * operations still show real latencies, only one call in {@link MetricsRegistry#sampleEvery()},
+ * picked at random, reads the clock. The cost on fast operations is then little more than a counter
+ * increment.
+ */
+public final class OperationMetrics {
+
+  /** Number of calls timed before sampling starts. */
+  public static final int WARM_UP_CALLS = 100;
+
+  private static final long NOT_TIMED = Long.MIN_VALUE;
+  private static final double[] QUANTILES = {0.5, 0.99, 0.999};
+
+  private final String name;
+  private final int sampleEvery;
+  private final LongAdder calls = new LongAdder();
+  private final LongAdder errors = new LongAdder();
+  private final LatencyHistogram latency = new LatencyHistogram();
+  // Only written during warm-up; afterwards a plain read
+  private final AtomicInteger warmUp = new AtomicInteger(WARM_UP_CALLS);
+
+  /* package */ OperationMetrics(final String name, final int sampleEvery) {
+    this.name = name;
+    this.sampleEvery = sampleEvery;
+  }
+
+  /**
+   * Marks the start of a call.
+   *
+   * @return the value to hand to {@link #succeeded} or {@link #failed}
+   */
+  public long start() {
+    final boolean timed =
+        sampleEvery == 1
+            || warmUp.get() > 0 && warmUp.getAndDecrement() > 0
+            || ThreadLocalRandom.current().nextInt(sampleEvery) == 0;
+    return timed ? System.nanoTime() : NOT_TIMED;
+  }
+
+  /**
+   * Records a call that completed normally.
+   *
+   * @param start the value returned by {@link #start()}
+   */
+  public void succeeded(final long start) {
+    calls.increment();
+    if (start != NOT_TIMED) {
+      latency.record(System.nanoTime() - start);
+    }
+  }
+
+  /**
+   * Records a call that completed normally and passes its result on.
+   *
+   * @param start the value returned by {@link #start()}
+   * @param result the call's result
+   * @param <T> the result type
+   * @return the result
+   */
+  public <T> T succeeded(final long start, final T result) {
+    succeeded(start);
+    return result;
+  }
+
+  /**
+   * Records a call that threw and passes the exception on, to be rethrown.
+   *
+   * @param start the value returned by {@link #start()}
+   * @param failure what the call threw
+   * @param <E> the exception type
+   * @return the exception
+   */
+  public <E extends Exception> E failed(final long start, final E failure) {
+    errors.increment();
+    succeeded(start);
+    return failure;
+  }
+
+  /**
+   * Returns the current figures.
+   *
+   * @return the figures
+   */
+  public OperationStats snapshot() {
+    final long timed = latency.count();
+    final long[] percentiles = latency.valuesAt(QUANTILES);
+    return new OperationStats(
+        name,
+        calls.sum(),
+        errors.sum(),
+        timed,
+        timed == 0 ? 0 : latency.sum() / timed,
+        percentiles[0],
+        percentiles[1],
+        percentiles[2],
+        latency.max());
+  }
+}
@@ -0,0 +1,36 @@
+package com.spantry.metrics;
+
+/**
+ * Figures of one operation at the time of a {@link MetricsRegistry#snapshot()}. Latencies come from
+ * the sampled calls only; counts cover every call.
+ *
+ * @param name the operation, such as {@code repository.findById}
+ * @param calls calls completed, successful or not
+ * @param errors calls that threw
+ * @param timed calls whose duration was recorded
+ * @param meanNanos mean duration of the timed calls
+ * @param p50Nanos median duration
+ * @param p99Nanos 99th percentile duration
+ * @param p999Nanos 99.9th percentile duration
+ * @param maxNanos longest duration
+ */
+public record OperationStats(
+    String name,
+    long calls,
+    long errors,
+    long timed,
+    long meanNanos,
+    long p50Nanos,
+    long p99Nanos,
+    long p999Nanos,
+    long maxNanos) {
+
+  /**
+   * Returns the share of calls that threw.
+   *
+   * @return the error rate between 0 and 1, or 0 before the first call
+   */
+  public double errorRate() {
+    return calls == 0 ? 0 : (double) errors / calls;
+  }
+}
@@ -0,0 +1,55 @@
+package com.spantry.validation;
+
+import com.spantry.exception.InitializationException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Validator backed by Hibernate Validator, used for types without a generated validator. The
+ * validation framework is only bootstrapped when the first object is validated.
+ *
+ * @param <T> the validated type
+ */
+/* package */ final class BeanValidationFallback<T> implements ObjectValidator<T> {
+
+  @Override
+  public List<String> validate(final T value) {
+    Objects.requireNonNull(value, "Value to validate cannot be null");
+    final List<String> messages = new ArrayList<>();
+    for (final ConstraintViolation<T> violation : Holder.VALIDATOR.validate(value)) {
+      messages.add(violation.getMessage());
+    }
+    return messages;
+  }
+
+  /** Lazily bootstrapped, shared Hibernate Validator (initialization-on-demand holder). */
+  private static final class Holder {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BeanValidationFallback.class);
+
+    private static final Validator VALIDATOR = create();
+
+    private static Validator create() {
+      final ValidatorBootstrapEvent event = new ValidatorBootstrapEvent();
+      event.begin();
+      try (ValidatorFactory factory = Validation.buildDefaultValidatorFactory()) {
+        final Validator validator = factory.getValidator();
+        event.implementation = validator.getClass().getName();
+        event.commit();
+        return validator;
+      } catch (jakarta.validation.ValidationException e) {
+        if (LOG.isErrorEnabled()) {
+          LOG.error("Critical: Failed to initialize validator: {}", e.getMessage(), e);
+        }
+        throw new InitializationException("Failed to initialize validation framework", e);
+      }
+    }
+  }
+}
@@ -0,0 +1,22 @@
+package com.spantry.validation;
+
+import java.util.List;
+
+/**
+ * Checks an object against the Jakarta Bean Validation constraints declared on its type.
+ *
+ * <p>Implementations are thread-safe. Obtain one with {@link Validators#forType(Class)}.
+ *
+ * @param <T> the validated type
+ */
+@FunctionalInterface
+public interface ObjectValidator<T> {
+
+  /**
+   * Validates an object.
+   *
+   * @param value the object to validate (must not be null)
+   * @return the messages of the violated constraints, empty if the object is valid
+   */
+  List<String> validate(T value);
+}
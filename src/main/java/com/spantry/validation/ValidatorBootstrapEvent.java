@@ -0,0 +1,25 @@
+package com.spantry.validation;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event for a validator being created: once per validated type, plus once for the
+ * shared Hibernate Validator when the first type falls back to it.
+ */
+@Name("com.spantry.ValidatorBootstrap")
+@Label("Validator Bootstrap")
+@Category({"Spantry", "Validation"})
+@Description("A validator looked up or created; the Hibernate Validator bootstrap is the slow one")
+/* package */ final class ValidatorBootstrapEvent extends Event {
+
+  @Label("Validated Type")
+  @Description("The type validated, or null for the shared Hibernate Validator")
+  /* package */ String validatedType;
+
+  @Label("Implementation")
+  /* package */ String implementation;
+}
@@ -0,0 +1,85 @@
+package com.spantry.validation;
+
+import com.spantry.exception.InitializationException;
+import java.lang.reflect.InvocationTargetException;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * Looks up the validator of a type.
+ *
+ * <p>For records whose constraints the annotation processor understands, a plain Java validator
+ * named {@code <Type>Validator} is generated at compile time next to the type: it checks each
+ * constraint with a direct comparison and reports the same messages as Bean Validation, without
+ * bootstrapping Hibernate Validator and Jakarta EL. Types without a generated validator fall back
+ * to Hibernate Validator, which is also used for every type when the system property {@value
+ * #MODE_PROPERTY} is set to {@code runtime}.
+ */
+public final class Validators {
+
+  /**
+   * System property selecting the validation mode: {@code generated} (default) or {@code runtime}.
+   */
+  public static final String MODE_PROPERTY = "spantry.validation";
+
+  private static final String GENERATED_SUFFIX = "Validator";
+
+  private static final ClassValue<ObjectValidator<?>> VALIDATORS =
+      new ClassValue<>() {
+        @Override
+        protected ObjectValidator<?> computeValue(final Class<?> type) {
+          final ValidatorBootstrapEvent event = new ValidatorBootstrapEvent();
+          event.begin();
+          final ObjectValidator<?> generated = useRuntimeValidation() ? null : generated(type);
+          final ObjectValidator<?> validator =
+              generated == null ? new BeanValidationFallback<>() : generated;
+          event.validatedType = type.getName();
+          event.implementation = validator.getClass().getName();
+          event.commit();
+          return validator;
+        }
+      };
+
+  private Validators() {
+    // Static lookup only
+  }
+
+  /**
+   * Returns the validator of a type: the generated one if there is one, otherwise one backed by
+   * Hibernate Validator. Validators are created once per type.
+   *
+   * @param type the validated type
+   * @param <T> the validated type
+   * @return the validator
+   */
+  @SuppressWarnings("unchecked")
+  public static <T> ObjectValidator<T> forType(final Class<T> type) {
+    Objects.requireNonNull(type, "Type cannot be null");
+    return (ObjectValidator<T>) VALIDATORS.get(type);
+  }
+
+  private static boolean useRuntimeValidation() {
+    return "runtime".equals(System.getProperty(MODE_PROPERTY, "").toLowerCase(Locale.ROOT));
+  }
+
+  /** Instantiates the generated validator of a type, or returns null if none was generated. */
+  private static ObjectValidator<?> generated(final Class<?> type) {
+    ObjectValidator<?> validator = null;
+    try {
+      final Class<?> validatorClass =
+          Class.forName(type.getName() + GENERATED_SUFFIX, true, type.getClassLoader());
+      if (ObjectValidator.class.isAssignableFrom(validatorClass)) {
+        validator = (ObjectValidator<?>) validatorClass.getDeclaredConstructor().newInstance();
+      }
+    } catch (ClassNotFoundException e) {
+      // No generated validator: the caller falls back to Hibernate Validator
+    } catch (NoSuchMethodException
+        | InstantiationException
+        | IllegalAccessException
+        | InvocationTargetException e) {
+      throw new InitializationException(
+          "Failed to create the generated validator of " + type.getName(), e);
+    }
+    return validator;
+  }
+}
@@ -0,0 +1,113 @@
+package com.spantry.bench;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.spantry.core.RequestThreads;
+import com.spantry.inventory.service.InventoryService;
+import com.spantry.inventory.service.InventoryServiceImpl;
+import com.spantry.metrics.OperationStats;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Tests for {@link LoadGenerator} and {@link LoadMix}. */
+class LoadGeneratorTest {
+
+  @TempDir Path tempDir;
+
+  private InventoryService service(final LoadBackend backend) {
+    return new InventoryServiceImpl(backend.open(tempDir.resolve("inventory.dat")));
+  }
+
+  @Test
+  void mixShouldParseWeightsAndRejectUnknownOperations() {
+    assertEquals(new LoadMix(30, 20, 10, 40), LoadMix.parse(LoadMix.DEFAULT));
+    assertEquals(new LoadMix(0, 0, 0, 5), LoadMix.parse(" Location = 5 "));
+    assertThrows(IllegalArgumentException.class, () -> LoadMix.parse("add=1,update=2"));
+    assertThrows(IllegalArgumentException.class, () -> LoadMix.parse("add=x"));
+    assertThrows(IllegalArgumentException.class, () -> LoadMix.parse("add=0"));
+  }
+
+  @Test
+  void mixShouldOnlyPickOperationsWithWeight() {
+    final LoadMix mix = LoadMix.parse("add=1,list=1");
+    final SplittableRandom random = new SplittableRandom(7);
+    int adds = 0;
+    for (int i = 0; i < 1000; i++) {
+      final LoadMix.Operation operation = mix.pick(random);
+      assertTrue(
+          operation == LoadMix.Operation.ADD || operation == LoadMix.Operation.LIST,
+          "Unweighted operation picked: " + operation);
+      adds += operation == LoadMix.Operation.ADD ? 1 : 0;
+    }
+    assertTrue(adds > 400 && adds < 600, "Equal weights should split evenly: " + adds);
+  }
+
+  @Test
+  void closedLoopShouldRunEveryOperationWithoutErrors() throws InterruptedException {
+    final InventoryService service = service(LoadBackend.CACHED);
+    final LoadGenerator generator =
+        new LoadGenerator(service, LoadMix.parse(LoadMix.DEFAULT), 3, 0, RequestThreads.PLATFORM);
+
+    final LoadReport report = generator.run(30, Duration.ZERO, Duration.ofMillis(300));
+
+    assertEquals(
+        List.of("add", "list", "location", "remove"),
+        report.serviceTimes().stream().map(OperationStats::name).toList());
+    assertTrue(report.completed() > 0, "Calls should complete");
+    assertEquals(0, report.errors(), "Workers only remove items they own");
+    assertTrue(report.peakInFlight() >= 1 && report.peakInFlight() <= 3, "One call per worker");
+    final long adds = report.serviceTimes().get(0).calls();
+    final long removes = report.serviceTimes().get(3).calls();
+    assertEquals(
+        30 + adds - removes, service.getAllItems().size(), "Inventory should reflect the calls");
+  }
+
+  @Test
+  void openLoopShouldFollowTheScheduleAndTimeFromScheduledStarts() throws InterruptedException {
+    final LoadGenerator generator =
+        new LoadGenerator(
+            service(LoadBackend.MEMORY),
+            LoadMix.parse("location=1"),
+            2,
+            1000,
+            RequestThreads.PLATFORM);
+
+    final LoadReport report = generator.run(10, Duration.ofMillis(100), Duration.ofMillis(500));
+
+    // 1000 calls/s for half a second; the last scheduled calls may still be running at the end
+    assertTrue(
+        report.completed() >= 250 && report.completed() <= 502,
+        "Calls should follow the schedule: " + report.completed());
+    final OperationStats service = report.serviceTimes().get(0);
+    final OperationStats response = report.responseTimes().get(0);
+    assertEquals(service.calls(), response.calls());
+    assertTrue(
+        response.maxNanos() >= service.maxNanos(),
+        "A call never starts before it is scheduled, so response times cover service times");
+  }
+
+  @Test
+  void manyWorkersShouldShareTheRepositoryOnConfiguredThreads() throws InterruptedException {
+    final InventoryService service = service(LoadBackend.MEMORY);
+    final LoadGenerator generator =
+        new LoadGenerator(
+            service, LoadMix.parse("add=1,remove=1"), 500, 5000, RequestThreads.configured());
+
+    final LoadReport report = generator.run(500, Duration.ZERO, Duration.ofMillis(400));
+
+    assertEquals(RequestThreads.configured(), report.threads());
+    assertEquals(0, report.errors(), "Workers only remove items they own");
+    assertTrue(report.peakInFlight() >= 1, "Calls should be in flight");
+    assertTrue(report.peakPlatformThreads() > 0, "The running thread is a platform thread");
+    final long adds = report.serviceTimes().get(0).calls();
+    final long removes = report.serviceTimes().get(1).calls();
+    assertEquals(
+        500 + adds - removes, service.getAllItems().size(), "Inventory should reflect the calls");
+  }
+}
@@ -0,0 +1,74 @@
+package com.spantry.cli;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.spantry.inventory.repository.InMemoryInventoryRepository;
+import com.spantry.inventory.service.InventoryServiceImpl;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import picocli.CommandLine;
+
+/** Tests for {@link RecordedExecutionStrategy} and the events it records. */
+class RecordedExecutionStrategyTest {
+
+  @TempDir Path tempDir;
+
+  private CommandLine commandLine() {
+    return RecordedExecutionStrategy.install(
+        new SpantryCliAppFactory(
+                new InventoryServiceImpl(
+                    new InMemoryInventoryRepository(tempDir.resolve("inventory.dat"))))
+            .commandLine());
+  }
+
+  @Test
+  void jfrOptionShouldRecordTheCommandToTheFile() throws IOException {
+    final Path recording = tempDir.resolve("add.jfr");
+
+    final int exitCode =
+        commandLine()
+            .execute(
+                "--jfr",
+                recording.toString(),
+                "item",
+                "add",
+                "-n",
+                "Milk",
+                "-q",
+                "1",
+                "-l",
+                "FRIDGE");
+
+    assertEquals(0, exitCode);
+    assertTrue(Files.size(recording) > 0, "The recording should be written when the command ends");
+    final List<RecordedEvent> commands =
+        RecordingFile.readAllEvents(recording).stream()
+            .filter(event -> "com.spantry.CommandExecution".equals(event.getEventType().getName()))
+            .toList();
+    assertEquals(1, commands.size());
+    assertEquals("spantry item add", commands.get(0).getString("command"));
+    assertEquals(0, commands.get(0).getInt("exitCode"));
+  }
+
+  @Test
+  void commandsShouldRunUnrecordedWithoutTheOption() {
+    assertEquals(0, commandLine().execute("item", "list"));
+    assertEquals(List.of(), listRecordings());
+  }
+
+  private List<Path> listRecordings() {
+    try (Stream<Path> files = Files.list(tempDir)) {
+      return files.filter(file -> file.toString().endsWith(".jfr")).toList();
+    } catch (IOException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
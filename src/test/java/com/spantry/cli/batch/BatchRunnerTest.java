@@ -0,0 +1,141 @@
+package com.spantry.cli.batch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import com.spantry.cli.SpantryCliAppFactory;
+import com.spantry.inventory.domain.InventoryItem;
+import com.spantry.inventory.domain.Location;
+import com.spantry.inventory.repository.InMemoryInventoryRepository;
+import com.spantry.inventory.service.InventoryBatch;
+import com.spantry.inventory.service.InventoryServiceImpl;
+import com.spantry.testsupport.ListAppender;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.LoggerFactory;
+import picocli.CommandLine;
+
+/** Tests for {@link BatchRunner} running scripts against the real command tree. */
+class BatchRunnerTest {
+
+  @TempDir Path tempDir;
+
+  private Path dataFile;
+  private InMemoryInventoryRepository repository;
+
+  @BeforeEach
+  void setUp() {
+    dataFile = tempDir.resolve("inventory.dat");
+    repository = new InMemoryInventoryRepository(dataFile);
+  }
+
+  private int run(final String script, final boolean continueOnError, final int checkpoint)
+      throws IOException {
+    final InventoryBatch batch = new InventoryServiceImpl(repository).beginBatch();
+    final CommandLine commandLine = new SpantryCliAppFactory(batch.service()).commandLine();
+    return new BatchRunner(commandLine, batch, continueOnError, checkpoint)
+        .run(new BufferedReader(new StringReader(script)));
+  }
+
+  private List<InventoryItem> reloaded() {
+    return new InMemoryInventoryRepository(dataFile).findAll();
+  }
+
+  @Test
+  void runShouldExecuteAllLinesAndPersistThem() throws IOException {
+    final String script =
+        "# weekly shopping\n"
+            + "item add -n Milk -q 2 -l FRIDGE\n"
+            + "\n"
+            + "item add -n \"Rye bread\" -q 1 -l PANTRY\n"
+            + "item consume --name milk -q 1\n";
+
+    assertEquals(0, run(script, false, 0));
+
+    final List<InventoryItem> items = reloaded();
+    assertEquals(2, items.size());
+    assertTrue(items.stream().anyMatch(item -> "Rye bread".equals(item.name())));
+    assertTrue(items.stream().anyMatch(item -> "Milk".equals(item.name()) && item.quantity() == 1));
+  }
+
+  @Test
+  void runShouldPersistNothingWhenAnyLineFailsInAllOrNothingMode() throws IOException {
+    final String script =
+        "item add -n Milk -q 2 -l FRIDGE\n"
+            + "item remove no-such-id\n"
+            + "item add -n Eggs -q 6 -l FRIDGE\n";
+
+    assertEquals(1, run(script, false, 0));
+
+    assertTrue(repository.findAll().isEmpty(), "Nothing should be applied");
+    assertTrue(reloaded().isEmpty(), "Nothing should be persisted");
+  }
+
+  @Test
+  void runShouldPassQuotedEmptyArgumentsLikeTheCommandLine() throws IOException {
+    final Logger logger = (Logger) LoggerFactory.getLogger(BatchRunner.class);
+    final ListAppender appender = new ListAppender();
+    appender.start();
+    logger.addAppender(appender);
+    try {
+      assertEquals(
+          1, run("item add -n Milk -q 2 -l FRIDGE\nitem add -n \"\" -q 0 -l PANTRY\n\n", true, 0));
+      assertEquals(1, run("item add -n Eggs -q 6 -l FRIDGE\n\"\"\n", false, 0));
+    } finally {
+      logger.detachAppender(appender);
+      appender.stop();
+    }
+
+    final List<String> messages =
+        appender.getEvents().stream().map(ILoggingEvent::getFormattedMessage).toList();
+    // Rejected by validation (1) as on the command line, not for a missing option value (2)
+    assertTrue(messages.contains("Line 2: FAILED (exit code 1)"), messages::toString);
+    // An empty command is an unknown subcommand, as on the command line, and the batch rolls back
+    assertTrue(messages.contains("Line 2: FAILED (exit code 2)"), messages::toString);
+    assertEquals(List.of("Milk"), reloaded().stream().map(InventoryItem::name).toList());
+  }
+
+  @Test
+  void runShouldKeepSuccessfulLinesInContinueOnErrorMode() throws IOException {
+    final String script =
+        "item add -n Milk -q 2 -l FRIDGE\n"
+            + "shell\n"
+            + "item add -n Eggs -q 0 -l FRIDGE\n"
+            + "item add -n Eggs -q 6 -l FRIDGE\n";
+
+    assertEquals(1, run(script, true, 0));
+
+    assertEquals(2, reloaded().size());
+  }
+
+  @Test
+  void runShouldCommitAtCheckpoints() throws IOException {
+    final String script =
+        "item add -n Milk -q 2 -l FRIDGE\n"
+            + "item add -n Eggs -q 6 -l FRIDGE\n"
+            + "item add -n Oats -q 1 -l PANTRY\n";
+    repository.save(new InventoryItem(null, "Salt", 1, Location.PANTRY, null));
+
+    assertEquals(0, run(script, true, 2));
+
+    assertEquals(4, reloaded().size());
+  }
+
+  @Test
+  void constructorShouldRejectCheckpointsInAllOrNothingMode() {
+    final InventoryBatch batch = new InventoryServiceImpl(repository).beginBatch();
+    final CommandLine commandLine = new SpantryCliAppFactory(batch.service()).commandLine();
+
+    assertThrows(
+        IllegalArgumentException.class, () -> new BatchRunner(commandLine, batch, false, 10));
+  }
+}
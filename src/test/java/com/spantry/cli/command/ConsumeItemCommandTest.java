@@ -0,0 +1,202 @@
+package com.spantry.cli.command;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import com.spantry.inventory.domain.InventoryItem;
+import com.spantry.inventory.domain.Location;
+import com.spantry.inventory.service.InventoryService;
+import com.spantry.inventory.service.dto.LotConsumptionDto;
+import com.spantry.inventory.service.exception.InsufficientQuantityException;
+import com.spantry.inventory.service.exception.ItemNotFoundException;
+import com.spantry.testsupport.ListAppender;
+import java.lang.reflect.Field;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.slf4j.LoggerFactory;
+
+@ExtendWith(MockitoExtension.class)
+class ConsumeItemCommandTest {
+
+  @Mock private InventoryService mockInventoryService;
+
+  @InjectMocks private ConsumeItemCommand consumeItemCommand;
+
+  // --- Log Capture Setup ---
+  private ListAppender listAppender;
+  private Logger commandLogger;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    // Setup Logback capture
+    commandLogger = (Logger) LoggerFactory.getLogger(ConsumeItemCommand.class);
+    listAppender = new ListAppender();
+    listAppender.start();
+    commandLogger.addAppender(listAppender);
+    // Picocli would apply the default; mirror it for direct call() invocations
+    setField(consumeItemCommand, "quantity", 1);
+  }
+
+  @AfterEach
+  void tearDown() {
+    // Detach appender and stop it
+    if (commandLogger != null && listAppender != null) {
+      commandLogger.detachAppender(listAppender);
+      listAppender.stop();
+    }
+  }
+
+  // Helper to check if log messages contain specific text
+  private boolean logsContain(String text) {
+    return listAppender.getEvents().stream()
+        .map(ILoggingEvent::getFormattedMessage)
+        .anyMatch(msg -> msg != null && msg.contains(text));
+  }
+
+  // Helper to set private fields using reflection
+  private void setField(Object target, String fieldName, Object value) throws Exception {
+    Field field = target.getClass().getDeclaredField(fieldName);
+    field.setAccessible(true);
+    field.set(target, value);
+  }
+
+  @Test
+  void call_PartialConsume_ShouldReportRemainingQuantity() throws Exception {
+    // Arrange
+    setField(consumeItemCommand, "itemId", "egg-1");
+    setField(consumeItemCommand, "quantity", 2);
+    InventoryItem remaining = new InventoryItem("egg-1", "Eggs", 4, Location.FRIDGE, null, 3L);
+    when(mockInventoryService.adjustQuantity("egg-1", -2)).thenReturn(Optional.of(remaining));
+
+    // Act
+    int exitCode = consumeItemCommand.call();
+
+    // Assert
+    assertEquals(0, exitCode, "Exit code should be 0 for success.");
+    verify(mockInventoryService).adjustQuantity("egg-1", -2);
+    assertTrue(logsContain("Remaining quantity: 4"), "Remaining quantity expected in logs.");
+  }
+
+  @Test
+  void call_ConsumeLastUnit_ShouldReportRemoval() throws Exception {
+    // Arrange
+    setField(consumeItemCommand, "itemId", "egg-1");
+    when(mockInventoryService.adjustQuantity("egg-1", -1)).thenReturn(Optional.empty());
+
+    // Act
+    int exitCode = consumeItemCommand.call();
+
+    // Assert
+    assertEquals(0, exitCode, "Exit code should be 0 for success.");
+    assertTrue(logsContain("used up and removed"), "Removal message expected in logs.");
+  }
+
+  @Test
+  void call_InsufficientQuantity_ShouldPrintErrorAndReturnErrorCode() throws Exception {
+    // Arrange
+    setField(consumeItemCommand, "itemId", "egg-1");
+    setField(consumeItemCommand, "quantity", 10);
+    when(mockInventoryService.adjustQuantity("egg-1", -10))
+        .thenThrow(new InsufficientQuantityException("Only 4 left"));
+
+    // Act
+    int exitCode = consumeItemCommand.call();
+
+    // Assert
+    assertEquals(1, exitCode, "Exit code should be 1 for insufficient quantity.");
+    assertTrue(logsContain("Error: Only 4 left"), "Insufficient quantity error expected.");
+  }
+
+  @Test
+  void call_ItemNotFound_ShouldPrintErrorAndReturnErrorCode() throws Exception {
+    // Arrange
+    setField(consumeItemCommand, "itemId", "missing");
+    when(mockInventoryService.adjustQuantity("missing", -1))
+        .thenThrow(new ItemNotFoundException("Item not found with ID: missing"));
+
+    // Act
+    int exitCode = consumeItemCommand.call();
+
+    // Assert
+    assertEquals(1, exitCode, "Exit code should be 1 for item not found.");
+    assertTrue(logsContain("Error: Item not found with ID: missing"), "Error expected in logs.");
+  }
+
+  @Test
+  void call_NonPositiveQuantity_ShouldPrintErrorAndReturnErrorCode() throws Exception {
+    // Arrange
+    setField(consumeItemCommand, "itemId", "egg-1");
+    setField(consumeItemCommand, "quantity", 0);
+
+    // Act
+    int exitCode = consumeItemCommand.call();
+
+    // Assert
+    assertEquals(1, exitCode, "Exit code should be 1 for invalid quantity.");
+    verify(mockInventoryService, never()).adjustQuantity(anyString(), anyInt());
+    assertTrue(logsContain("Error: Quantity to consume must be positive."));
+  }
+
+  @Test
+  void call_BlankId_ShouldPrintErrorAndReturnErrorCode() throws Exception {
+    // Arrange
+    setField(consumeItemCommand, "itemId", "  ");
+
+    // Act
+    int exitCode = consumeItemCommand.call();
+
+    // Assert
+    assertEquals(1, exitCode, "Exit code should be 1 for blank ID.");
+    verify(mockInventoryService, never()).adjustQuantity(anyString(), anyInt());
+    assertTrue(logsContain("Error: Item ID must be provided."), "Blank ID error expected in logs.");
+  }
+
+  @Test
+  void call_ByName_ShouldConsumeAcrossLots() throws Exception {
+    // Arrange
+    setField(consumeItemCommand, "name", "Eggs");
+    setField(consumeItemCommand, "quantity", 3);
+    InventoryItem usedUp = new InventoryItem("egg-1", "Eggs", 2, Location.FRIDGE, null, 1L);
+    InventoryItem reduced = new InventoryItem("egg-2", "Eggs", 5, Location.FRIDGE, null, 1L);
+    when(mockInventoryService.consumeByName("Eggs", 3))
+        .thenReturn(new LotConsumptionDto("Eggs", 3, List.of(reduced), List.of(usedUp), 5));
+
+    // Act
+    int exitCode = consumeItemCommand.call();
+
+    // Assert
+    assertEquals(0, exitCode, "Exit code should be 0 for success.");
+    verify(mockInventoryService, never()).adjustQuantity(anyString(), anyInt());
+    assertTrue(logsContain("from 2 lot(s). Remaining quantity: 5"), "Summary expected in logs.");
+    assertTrue(logsContain("Used up and removed lot egg-1"), "Removed lot expected in logs.");
+  }
+
+  @Test
+  void call_IdAndName_ShouldPrintErrorAndReturnErrorCode() throws Exception {
+    // Arrange
+    setField(consumeItemCommand, "itemId", "egg-1");
+    setField(consumeItemCommand, "name", "Eggs");
+
+    // Act
+    int exitCode = consumeItemCommand.call();
+
+    // Assert
+    assertEquals(1, exitCode, "Exit code should be 1 for conflicting arguments.");
+    verify(mockInventoryService, never()).consumeByName(anyString(), anyInt());
+    assertTrue(logsContain("Error: Specify either an item ID or --name, not both."));
+  }
+}
@@ -0,0 +1,122 @@
+package com.spantry.cli.command;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import com.spantry.inventory.domain.InventoryItem;
+import com.spantry.inventory.domain.Location;
+import com.spantry.inventory.service.InventoryService;
+import com.spantry.testsupport.ListAppender;
+import java.lang.reflect.Field;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.slf4j.LoggerFactory;
+
+@ExtendWith(MockitoExtension.class)
+class ExportItemsCommandTest {
+
+  @Mock private InventoryService mockInventoryService;
+
+  @InjectMocks private ExportItemsCommand exportItemsCommand;
+
+  @TempDir Path tempDir;
+
+  // --- Log Capture Setup ---
+  private ListAppender listAppender;
+  private Logger commandLogger;
+
+  @BeforeEach
+  void setUp() {
+    // Setup Logback capture
+    commandLogger = (Logger) LoggerFactory.getLogger(ExportItemsCommand.class);
+    listAppender = new ListAppender();
+    listAppender.start();
+    commandLogger.addAppender(listAppender);
+  }
+
+  @AfterEach
+  void tearDown() {
+    // Detach appender and stop it
+    if (commandLogger != null && listAppender != null) {
+      commandLogger.detachAppender(listAppender);
+      listAppender.stop();
+    }
+  }
+
+  // Helper to check if log messages contain specific text
+  private boolean logsContain(String text) {
+    return listAppender.getEvents().stream()
+        .map(ILoggingEvent::getFormattedMessage)
+        .anyMatch(msg -> msg != null && msg.contains(text));
+  }
+
+  // Helper to set private fields using reflection
+  private void setField(Object target, String fieldName, Object value) throws Exception {
+    Field field = target.getClass().getDeclaredField(fieldName);
+    field.setAccessible(true);
+    field.set(target, value);
+  }
+
+  @Test
+  void call_NdjsonToFile_ShouldWriteRecordsAndSucceed() throws Exception {
+    // Arrange
+    Path output = tempDir.resolve("items.ndjson");
+    setField(exportItemsCommand, "format", ExportItemsCommand.Format.NDJSON);
+    setField(exportItemsCommand, "output", output);
+    when(mockInventoryService.getAllItems())
+        .thenReturn(List.of(new InventoryItem("a", "Milk", 1, Location.FRIDGE, null, 1L)));
+
+    // Act
+    int exitCode = exportItemsCommand.call();
+
+    // Assert
+    assertEquals(0, exitCode, "Exit code should be 0 for success.");
+    assertTrue(Files.readString(output).startsWith("{\"itemId\":\"a\""), "Record expected.");
+    assertTrue(logsContain("Exported 1 items to"), "Summary expected in logs.");
+  }
+
+  @Test
+  void call_BinaryToFile_ShouldUseSnapshotExport() throws Exception {
+    // Arrange
+    Path output = tempDir.resolve("items.bin");
+    setField(exportItemsCommand, "format", ExportItemsCommand.Format.BINARY);
+    setField(exportItemsCommand, "output", output);
+    when(mockInventoryService.exportSnapshot(any())).thenReturn(42L);
+
+    // Act
+    int exitCode = exportItemsCommand.call();
+
+    // Assert
+    assertEquals(0, exitCode, "Exit code should be 0 for success.");
+    assertTrue(logsContain("Exported 42 bytes to"), "Summary expected in logs.");
+  }
+
+  @Test
+  void call_UnsupportedSnapshot_ShouldPrintErrorAndReturnErrorCode() throws Exception {
+    // Arrange
+    setField(exportItemsCommand, "format", ExportItemsCommand.Format.BINARY);
+    setField(exportItemsCommand, "output", tempDir.resolve("items.bin"));
+    when(mockInventoryService.exportSnapshot(any()))
+        .thenThrow(new UnsupportedOperationException("No native format"));
+
+    // Act
+    int exitCode = exportItemsCommand.call();
+
+    // Assert
+    assertEquals(1, exitCode, "Exit code should be 1 for unsupported export.");
+    assertTrue(logsContain("Error: No native format"), "Error expected in logs.");
+  }
+}
@@ -0,0 +1,109 @@
+package com.spantry.cli.command;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.spantry.inventory.domain.Location;
+import com.spantry.inventory.repository.InventoryStats;
+import com.spantry.inventory.service.InventoryService;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Map;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class ItemStatsCommandTest {
+
+  private static final LocalDate DAY = LocalDate.of(2024, 5, 1);
+  private static final InventoryStats STATS =
+      new InventoryStats(
+          DAY,
+          Map.of(
+              Location.PANTRY, new InventoryStats.LocationTotals(3, 12),
+              Location.FRIDGE, new InventoryStats.LocationTotals(2, 5)),
+          1,
+          2,
+          0);
+
+  @Mock private InventoryService mockInventoryService;
+
+  @InjectMocks private ItemStatsCommand statsCommand;
+
+  // --- Stdout Capture Setup ---
+  private PrintStream originalOut;
+  private ByteArrayOutputStream capturedOut;
+
+  @BeforeEach
+  void setUp() {
+    originalOut = System.out;
+    capturedOut = new ByteArrayOutputStream();
+    System.setOut(new PrintStream(capturedOut, true, StandardCharsets.UTF_8));
+    statsCommand.asOf = DAY;
+  }
+
+  @AfterEach
+  void tearDown() {
+    System.setOut(originalOut);
+  }
+
+  private String output() {
+    return capturedOut.toString(StandardCharsets.UTF_8);
+  }
+
+  @Test
+  void call_ShouldPrintMaintainedFiguresWithoutRecounting() {
+    // Arrange
+    when(mockInventoryService.getStats(DAY)).thenReturn(STATS);
+
+    // Act
+    int exitCode = statsCommand.call();
+
+    // Assert
+    assertEquals(0, exitCode);
+    assertTrue(output().contains("PANTRY             3           12"));
+    assertTrue(output().contains("TOTAL              5           17"));
+    assertTrue(output().contains("Expiring in 7 days: 2"));
+    verify(mockInventoryService, never()).recountStats(DAY);
+  }
+
+  @Test
+  void call_WithVerifyAndMatchingRecount_ShouldSucceed() {
+    // Arrange
+    statsCommand.verify = true;
+    when(mockInventoryService.getStats(DAY)).thenReturn(STATS);
+    when(mockInventoryService.recountStats(DAY)).thenReturn(STATS);
+
+    // Act
+    int exitCode = statsCommand.call();
+
+    // Assert
+    assertEquals(0, exitCode);
+  }
+
+  @Test
+  void call_WithVerifyAndDrift_ShouldPrintRecountAndFail() {
+    // Arrange
+    statsCommand.verify = true;
+    when(mockInventoryService.getStats(DAY)).thenReturn(STATS);
+    when(mockInventoryService.recountStats(DAY))
+        .thenReturn(new InventoryStats(DAY, STATS.locations(), 2, 1, 0));
+
+    // Act
+    int exitCode = statsCommand.call();
+
+    // Assert
+    assertEquals(1, exitCode);
+    assertTrue(output().contains("Recounted:"));
+  }
+}
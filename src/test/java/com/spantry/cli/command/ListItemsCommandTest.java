@@ -2,6 +2,7 @@ package com.spantry.cli.command;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.never;
@@ -11,15 +12,24 @@ import static org.mockito.Mockito.when;
 import ch.qos.logback.classic.Level;
 import ch.qos.logback.classic.Logger;
 import ch.qos.logback.classic.spi.ILoggingEvent;
+import com.spantry.cli.render.OutputFormat;
 import com.spantry.inventory.domain.InventoryItem;
 import com.spantry.inventory.domain.Location;
+import com.spantry.inventory.repository.ItemQuery;
+import com.spantry.inventory.repository.QueryPlan;
 import com.spantry.inventory.service.InventoryService;
 import com.spantry.testsupport.ListAppender;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
 import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.time.ZoneId;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -41,8 +51,16 @@ class ListItemsCommandTest {
   private ListAppender listAppender;
   private Logger commandLogger;
 
+  // --- Stdout Capture Setup ---
+  private PrintStream originalOut;
+  private ByteArrayOutputStream capturedOut;
+
   @BeforeEach
   void setUp() {
+    originalOut = System.out;
+    capturedOut = new ByteArrayOutputStream();
+    System.setOut(new PrintStream(capturedOut, true, StandardCharsets.UTF_8));
+
     // Setup Logback capture
     commandLogger = (Logger) LoggerFactory.getLogger(ListItemsCommand.class);
     listAppender = new ListAppender();
@@ -52,6 +70,7 @@ class ListItemsCommandTest {
 
   @AfterEach
   void tearDown() {
+    System.setOut(originalOut);
     // Detach appender and stop it
     if (commandLogger != null && listAppender != null) {
       commandLogger.detachAppender(listAppender);
@@ -66,6 +85,11 @@ class ListItemsCommandTest {
         .anyMatch(msg -> msg != null && msg.contains(text));
   }
 
+  // Helper to check if the rendered output contains specific text
+  private boolean outputContains(String text) {
+    return capturedOut.toString(StandardCharsets.UTF_8).contains(text);
+  }
+
   // Helper to set private fields using reflection
   private void setField(Object target, String fieldName, Object value) throws Exception {
     Field field = target.getClass().getDeclaredField(fieldName);
@@ -82,25 +106,27 @@ class ListItemsCommandTest {
         new InventoryItem(
             UUID.randomUUID().toString(), "Bread", 1, Location.PANTRY, LocalDate.now().plusDays(5));
     List<InventoryItem> allItems = Arrays.asList(item1, item2);
-    when(mockInventoryService.getAllItems()).thenReturn(allItems);
+    when(mockInventoryService.findItems(ItemQuery.ALL)).thenReturn(allItems);
 
     // Act
     int exitCode = listItemsCommand.call();
 
     // Assert
     assertEquals(0, exitCode);
-    verify(mockInventoryService).getAllItems();
-    verify(mockInventoryService, never()).getItemsByLocation(any());
+    verify(mockInventoryService).findItems(ItemQuery.ALL);
+    verify(mockInventoryService, never()).getAllItems();
 
-    // Assertions check logs for table and status
+    // Status goes to the log, the table to stdout
     assertTrue(logsContain("Listing all inventory items:"), "Log should contain header.");
-    assertTrue(logsContain("ID"), "Log should contain table header ID."); // Check header part
-    assertTrue(logsContain(item1.itemId()), "Log should contain item1 ID.");
-    assertTrue(logsContain(item1.name()), "Log should contain item1 name.");
-    assertTrue(logsContain(item2.itemId()), "Log should contain item2 ID.");
-    assertTrue(logsContain(item2.name()), "Log should contain item2 name.");
-    assertTrue(logsContain(item2.expirationDate().toString()), "Log should contain item2 expiry.");
-    assertTrue(logsContain("N/A"), "Log should contain N/A for item1 expiry.");
+    assertTrue(outputContains("ID"), "Output should contain table header ID.");
+    assertTrue(outputContains(item1.itemId()), "Output should contain item1 ID.");
+    assertTrue(outputContains(item1.name()), "Output should contain item1 name.");
+    assertTrue(outputContains(item2.itemId()), "Output should contain item2 ID.");
+    assertTrue(outputContains(item2.name()), "Output should contain item2 name.");
+    assertTrue(
+        outputContains(item2.expirationDate().toString()), "Output should contain item2 expiry.");
+    assertTrue(outputContains("N/A"), "Output should contain N/A for item1 expiry.");
+    assertFalse(logsContain(item1.itemId()), "Items should not be logged.");
     assertFalse(hasErrorLogs(), "No ERROR level logs expected.");
   }
 
@@ -120,7 +146,8 @@ class ListItemsCommandTest {
     List<InventoryItem> fridgeItems = Arrays.asList(item1, item2);
 
     setField(listItemsCommand, "location", filterLocation);
-    when(mockInventoryService.getItemsByLocation(filterLocation)).thenReturn(fridgeItems);
+    final ItemQuery fridgeQuery = ItemQuery.ALL.withLocations(filterLocation);
+    when(mockInventoryService.findItems(fridgeQuery)).thenReturn(fridgeItems);
 
     // Act
     int exitCode = listItemsCommand.call();
@@ -128,37 +155,39 @@ class ListItemsCommandTest {
     // Assert
     assertEquals(0, exitCode);
     verify(mockInventoryService, never()).getAllItems();
-    verify(mockInventoryService).getItemsByLocation(filterLocation);
+    verify(mockInventoryService).findItems(fridgeQuery);
 
-    // Assertions check logs for table and status
+    // Status goes to the log, the table to stdout
     assertTrue(
         logsContain("Listing items in location: " + filterLocation),
         "Log should contain filtered header.");
-    assertTrue(logsContain("ID"), "Log should contain table header ID."); // Check header part
-    assertTrue(logsContain(item1.itemId()), "Log should contain item1 ID.");
-    assertTrue(logsContain(item1.name()), "Log should contain item1 name.");
-    assertTrue(logsContain(item2.itemId()), "Log should contain item2 ID.");
-    assertTrue(logsContain(item2.name()), "Log should contain item2 name.");
-    assertTrue(logsContain(item2.expirationDate().toString()), "Log should contain item2 expiry.");
-    assertFalse(logsContain("Bread"), "Log should not contain items from other locations.");
+    assertTrue(outputContains("ID"), "Output should contain table header ID.");
+    assertTrue(outputContains(item1.itemId()), "Output should contain item1 ID.");
+    assertTrue(outputContains(item1.name()), "Output should contain item1 name.");
+    assertTrue(outputContains(item2.itemId()), "Output should contain item2 ID.");
+    assertTrue(outputContains(item2.name()), "Output should contain item2 name.");
+    assertTrue(
+        outputContains(item2.expirationDate().toString()), "Output should contain item2 expiry.");
+    assertFalse(outputContains("Bread"), "Output should not contain items from other locations.");
     assertFalse(hasErrorLogs(), "No ERROR level logs expected.");
   }
 
   @Test
   void call_NoItemsFound_ShouldPrintNoItemsMessage() {
     // Arrange
-    when(mockInventoryService.getAllItems()).thenReturn(Collections.emptyList());
+    when(mockInventoryService.findItems(ItemQuery.ALL)).thenReturn(Collections.emptyList());
 
     // Act
     int exitCode = listItemsCommand.call();
 
     // Assert
     assertEquals(0, exitCode);
-    verify(mockInventoryService).getAllItems();
+    verify(mockInventoryService).findItems(ItemQuery.ALL);
 
     // Assertions check logs
     assertTrue(logsContain("Listing all inventory items:"), "Log should contain header.");
     assertTrue(logsContain("No items found in inventory."), "Log message for no items not found.");
+    assertEquals("", capturedOut.toString(StandardCharsets.UTF_8), "Nothing should be rendered.");
     assertFalse(hasErrorLogs(), "No ERROR level logs expected.");
   }
 
@@ -166,14 +195,15 @@ class ListItemsCommandTest {
   void call_ServiceThrowsException_ShouldPrintErrorAndReturnErrorCode() {
     // Arrange
     String errorMessage = "Failed to connect";
-    when(mockInventoryService.getAllItems()).thenThrow(new RuntimeException(errorMessage));
+    when(mockInventoryService.findItems(ItemQuery.ALL))
+        .thenThrow(new RuntimeException(errorMessage));
 
     // Act
     int exitCode = listItemsCommand.call();
 
     // Assert
     assertEquals(1, exitCode);
-    verify(mockInventoryService).getAllItems();
+    verify(mockInventoryService).findItems(ItemQuery.ALL);
     assertTrue(logsContain("Error listing items:"), "Error message expected in logs.");
     assertTrue(
         listAppender.getEvents().stream()
@@ -186,8 +216,152 @@ class ListItemsCommandTest {
 
     // Assert that the initial status message was logged, but no table details.
     assertTrue(logsContain("Listing all inventory items:"));
-    assertFalse(logsContain("  ID "), "Table header ID should not be logged on error.");
-    assertFalse(logsContain(" Name "), "Table header Name should not be logged on error.");
+    assertFalse(outputContains("ID"), "Table header should not be rendered on error.");
+  }
+
+  @Test
+  void call_WithFormat_ShouldRenderInThatFormat() throws Exception {
+    // Arrange
+    InventoryItem item = new InventoryItem("id-1", "Milk", 2, Location.FRIDGE, null);
+    when(mockInventoryService.findItems(ItemQuery.ALL)).thenReturn(List.of(item));
+    setField(listItemsCommand, "format", OutputFormat.NDJSON);
+
+    // Act
+    int exitCode = listItemsCommand.call();
+
+    // Assert
+    assertEquals(0, exitCode);
+    assertEquals(
+        "{\"itemId\":\"id-1\",\"name\":\"Milk\",\"quantity\":2,\"location\":\"FRIDGE\","
+            + "\"expirationDate\":null}\n",
+        capturedOut.toString(StandardCharsets.UTF_8));
+  }
+
+  @Test
+  void buildQuery_WithFilterOptions_ShouldPushThemDownAsOneQuery() throws Exception {
+    // Arrange
+    setField(listItemsCommand, "location", Location.PANTRY);
+    setField(listItemsCommand, "namePrefix", "Ri");
+    setField(listItemsCommand, "minQuantity", 2);
+    setField(listItemsCommand, "expiresTo", LocalDate.of(2024, 6, 30));
+    setField(listItemsCommand, "sortBy", ItemQuery.Sort.EXPIRATION);
+    setField(listItemsCommand, "limit", 5);
+
+    // Act
+    ItemQuery query = listItemsCommand.buildQuery();
+
+    // Assert
+    assertEquals(
+        ItemQuery.ALL
+            .withLocations(Location.PANTRY)
+            .withNamePrefix("ri")
+            .withQuantityBetween(2, Integer.MAX_VALUE)
+            .withExpiryBetween(null, LocalDate.of(2024, 6, 30))
+            .sortedBy(ItemQuery.Sort.EXPIRATION)
+            .limitedTo(5),
+        query);
+  }
+
+  @Test
+  void buildQuery_WithWhere_ShouldCombineFilterWithOptions() throws Exception {
+    // Arrange
+    setField(listItemsCommand, "location", Location.FRIDGE);
+    setField(listItemsCommand, "minQuantity", 2);
+    setField(listItemsCommand, "where", "loc in (FRIDGE, FREEZER) and qty < 5 and name != Milk");
+
+    // Act
+    ItemQuery query = listItemsCommand.buildQuery();
+
+    // Assert
+    assertEquals(Set.of(Location.FRIDGE), query.locations());
+    assertEquals(2, query.minQuantity());
+    assertEquals(4, query.maxQuantity());
+    assertFalse(query.matches(new InventoryItem("id-1", " milk ", 3, Location.FRIDGE, null)));
+    assertTrue(query.matches(new InventoryItem("id-2", "Tea", 3, Location.FRIDGE, null)));
+  }
+
+  @Test
+  void call_WithInvalidWhere_ShouldReportPositionAndReturnErrorCode() throws Exception {
+    // Arrange
+    setField(listItemsCommand, "where", "qty < lots");
+
+    // Act
+    int exitCode = listItemsCommand.call();
+
+    // Assert
+    assertEquals(1, exitCode);
+    assertTrue(logsContain("Expected a whole number instead of 'lots' at position 1"));
+    verify(mockInventoryService, never()).findItems(any());
+  }
+
+  @Test
+  void call_WithExplain_ShouldPrintPlanInsteadOfItems() throws Exception {
+    // Arrange
+    setField(listItemsCommand, "where", "loc = FRIDGE and name contains milk");
+    setField(listItemsCommand, "explain", true);
+    when(mockInventoryService.explainItems(any()))
+        .thenReturn(new QueryPlan("location index lookup [FRIDGE]", false, 10, 3, 3));
+
+    // Act
+    int exitCode = listItemsCommand.call();
+
+    // Assert
+    assertEquals(0, exitCode);
+    assertTrue(outputContains("Pushed down:   loc = FRIDGE"));
+    assertTrue(outputContains("Residual:      name contains milk"));
+    assertTrue(outputContains("Access path:   location index lookup [FRIDGE]"));
+    assertTrue(outputContains("Rows examined: 10"));
+    verify(mockInventoryService, never()).findItems(any());
+  }
+
+  @Test
+  void parseAsOf_ShouldAcceptInstantsLocalTimesAndDays() {
+    final ZoneId zone = ZoneId.of("Europe/Berlin");
+
+    assertEquals(
+        Instant.parse("2026-10-19T08:00:00Z"),
+        ListItemsCommand.parseAsOf("2026-10-19T08:00:00Z", zone));
+    assertEquals(
+        Instant.parse("2026-10-19T08:00:00Z"),
+        ListItemsCommand.parseAsOf("2026-10-19T10:00", zone));
+    assertEquals(
+        Instant.parse("2026-10-19T21:59:59.999Z"), ListItemsCommand.parseAsOf("2026-10-19", zone));
+    assertThrows(
+        IllegalArgumentException.class, () -> ListItemsCommand.parseAsOf("yesterday", zone));
+  }
+
+  @Test
+  void call_WithAsOf_ShouldQueryThePastState() throws Exception {
+    // Arrange
+    setField(listItemsCommand, "asOf", "2026-10-19T08:00:00Z");
+    InventoryItem item = new InventoryItem("id-1", "Milk", 2, Location.FRIDGE, null);
+    when(mockInventoryService.findItemsAsOf(ItemQuery.ALL, Instant.parse("2026-10-19T08:00:00Z")))
+        .thenReturn(List.of(item));
+
+    // Act
+    int exitCode = listItemsCommand.call();
+
+    // Assert
+    assertEquals(0, exitCode);
+    assertTrue(outputContains("Milk"));
+    verify(mockInventoryService, never()).findItems(any());
+  }
+
+  @Test
+  void call_WithAsOfWithoutHistory_ShouldPointToTheEventStore() throws Exception {
+    // Arrange
+    setField(listItemsCommand, "asOf", "2026-10-19");
+    when(mockInventoryService.findItemsAsOf(any(), any()))
+        .thenThrow(
+            new UnsupportedOperationException(
+                "InMemoryInventoryRepository does not keep a history"));
+
+    // Act
+    int exitCode = listItemsCommand.call();
+
+    // Assert
+    assertEquals(1, exitCode);
+    assertTrue(logsContain("-Dspantry.storage=events"));
   }
 
   // Helper to check if any ERROR level log messages exist
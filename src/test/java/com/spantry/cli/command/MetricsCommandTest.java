@@ -0,0 +1,76 @@
+package com.spantry.cli.command;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.spantry.metrics.MetricsFormat;
+import com.spantry.metrics.MetricsRegistry;
+import com.spantry.metrics.OperationMetrics;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class MetricsCommandTest {
+
+  @TempDir Path tempDir;
+
+  private final MetricsRegistry registry = new MetricsRegistry(1);
+  private final MetricsCommand metricsCommand = new MetricsCommand(registry);
+
+  // --- Stdout Capture Setup ---
+  private PrintStream originalOut;
+  private ByteArrayOutputStream capturedOut;
+
+  @BeforeEach
+  void setUp() {
+    originalOut = System.out;
+    capturedOut = new ByteArrayOutputStream();
+    System.setOut(new PrintStream(capturedOut, true, StandardCharsets.UTF_8));
+    metricsCommand.format = MetricsFormat.TEXT;
+    final OperationMetrics operation = registry.operation("service.addItem");
+    operation.succeeded(operation.start());
+  }
+
+  @AfterEach
+  void tearDown() {
+    System.setOut(originalOut);
+  }
+
+  @Test
+  void call_shouldPrintTheTable() {
+    final int exitCode = metricsCommand.call();
+
+    final String output = capturedOut.toString(StandardCharsets.UTF_8);
+    assertEquals(0, exitCode);
+    assertTrue(output.startsWith("OPERATION"), output);
+    assertTrue(output.contains("service.addItem"), output);
+  }
+
+  @Test
+  void call_shouldExportToAFile() throws IOException {
+    metricsCommand.format = MetricsFormat.PROMETHEUS;
+    metricsCommand.output = tempDir.resolve("metrics.prom");
+
+    final int exitCode = metricsCommand.call();
+
+    assertEquals(0, exitCode);
+    assertEquals("", capturedOut.toString(StandardCharsets.UTF_8));
+    assertTrue(
+        Files.readString(metricsCommand.output)
+            .contains("spantry_operation_calls_total{operation=\"service.addItem\"} 1\n"));
+  }
+
+  @Test
+  void call_shouldFailWhenTheFileCannotBeWritten() {
+    metricsCommand.output = tempDir.resolve("missing").resolve("metrics.txt");
+
+    assertEquals(1, metricsCommand.call());
+  }
+}
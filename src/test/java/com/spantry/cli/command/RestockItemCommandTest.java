@@ -0,0 +1,119 @@
+package com.spantry.cli.command;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import com.spantry.inventory.domain.InventoryItem;
+import com.spantry.inventory.domain.Location;
+import com.spantry.inventory.service.InventoryService;
+import com.spantry.inventory.service.exception.ItemNotFoundException;
+import com.spantry.testsupport.ListAppender;
+import java.lang.reflect.Field;
+import java.util.Optional;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.slf4j.LoggerFactory;
+
+@ExtendWith(MockitoExtension.class)
+class RestockItemCommandTest {
+
+  @Mock private InventoryService mockInventoryService;
+
+  @InjectMocks private RestockItemCommand restockItemCommand;
+
+  // --- Log Capture Setup ---
+  private ListAppender listAppender;
+  private Logger commandLogger;
+
+  @BeforeEach
+  void setUp() {
+    // Setup Logback capture
+    commandLogger = (Logger) LoggerFactory.getLogger(RestockItemCommand.class);
+    listAppender = new ListAppender();
+    listAppender.start();
+    commandLogger.addAppender(listAppender);
+  }
+
+  @AfterEach
+  void tearDown() {
+    // Detach appender and stop it
+    if (commandLogger != null && listAppender != null) {
+      commandLogger.detachAppender(listAppender);
+      listAppender.stop();
+    }
+  }
+
+  // Helper to check if log messages contain specific text
+  private boolean logsContain(String text) {
+    return listAppender.getEvents().stream()
+        .map(ILoggingEvent::getFormattedMessage)
+        .anyMatch(msg -> msg != null && msg.contains(text));
+  }
+
+  // Helper to set private fields using reflection
+  private void setField(Object target, String fieldName, Object value) throws Exception {
+    Field field = target.getClass().getDeclaredField(fieldName);
+    field.setAccessible(true);
+    field.set(target, value);
+  }
+
+  @Test
+  void call_ValidRestock_ShouldReportNewQuantity() throws Exception {
+    // Arrange
+    setField(restockItemCommand, "itemId", "rice-1");
+    setField(restockItemCommand, "quantity", 3);
+    InventoryItem updated = new InventoryItem("rice-1", "Rice", 5, Location.PANTRY, null, 2L);
+    when(mockInventoryService.adjustQuantity("rice-1", 3)).thenReturn(Optional.of(updated));
+
+    // Act
+    int exitCode = restockItemCommand.call();
+
+    // Assert
+    assertEquals(0, exitCode, "Exit code should be 0 for success.");
+    verify(mockInventoryService).adjustQuantity("rice-1", 3);
+    assertTrue(logsContain("New quantity: 5"), "New quantity expected in logs.");
+  }
+
+  @Test
+  void call_ItemNotFound_ShouldPrintErrorAndReturnErrorCode() throws Exception {
+    // Arrange
+    setField(restockItemCommand, "itemId", "missing");
+    setField(restockItemCommand, "quantity", 1);
+    when(mockInventoryService.adjustQuantity("missing", 1))
+        .thenThrow(new ItemNotFoundException("Item not found with ID: missing"));
+
+    // Act
+    int exitCode = restockItemCommand.call();
+
+    // Assert
+    assertEquals(1, exitCode, "Exit code should be 1 for item not found.");
+    assertTrue(logsContain("Error: Item not found with ID: missing"), "Error expected in logs.");
+  }
+
+  @Test
+  void call_NonPositiveQuantity_ShouldPrintErrorAndReturnErrorCode() throws Exception {
+    // Arrange
+    setField(restockItemCommand, "itemId", "rice-1");
+    setField(restockItemCommand, "quantity", -2);
+
+    // Act
+    int exitCode = restockItemCommand.call();
+
+    // Assert
+    assertEquals(1, exitCode, "Exit code should be 1 for invalid quantity.");
+    verify(mockInventoryService, never()).adjustQuantity(anyString(), anyInt());
+    assertTrue(logsContain("Error: Quantity to restock must be positive."));
+  }
+}
@@ -0,0 +1,128 @@
+package com.spantry.cli.daemon;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.OptionalInt;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import picocli.CommandLine;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Parameters;
+
+/** Tests for {@link DaemonServer} together with {@link DaemonClient}. */
+class DaemonServerTest {
+
+  @TempDir Path tempDir;
+
+  private PrintStream originalOut;
+  private ByteArrayOutputStream capturedOut;
+  private Path socketPath;
+  private ExecutorService serverThread;
+  private Future<?> serving;
+
+  /** Minimal command standing in for the real CLI. */
+  @Command(name = "echo")
+  static class EchoCommand implements Callable<Integer> {
+    @Parameters(index = "0")
+    private String word;
+
+    @Parameters(index = "1", arity = "0..1")
+    private Path file;
+
+    @Override
+    public Integer call() {
+      System.out.println("echo " + word + (file == null ? "" : " " + file));
+      return 3;
+    }
+  }
+
+  @BeforeEach
+  void startDaemon() throws Exception {
+    originalOut = System.out;
+    capturedOut = new ByteArrayOutputStream();
+    System.setOut(new PrintStream(capturedOut, true, StandardCharsets.UTF_8));
+    socketPath = tempDir.resolve("test.sock");
+    final DaemonServer server =
+        new DaemonServer(socketPath, () -> new CommandLine(new EchoCommand()));
+    serverThread = Executors.newSingleThreadExecutor();
+    final CountDownLatch started = new CountDownLatch(1);
+    serving =
+        serverThread.submit(
+            () -> {
+              started.countDown();
+              server.serve();
+              return null;
+            });
+    started.await();
+  }
+
+  @AfterEach
+  void stopDaemon() throws Exception {
+    DaemonClient.shutdown(socketPath);
+    serving.get(5, TimeUnit.SECONDS);
+    serverThread.shutdownNow();
+    System.setOut(originalOut);
+  }
+
+  @Test
+  void forwardShouldReturnExitCodeAndRelayOutput() {
+    final OptionalInt exitCode = DaemonClient.forward(socketPath, "hello");
+
+    assertEquals(OptionalInt.of(3), exitCode, "Exit code should come from the daemon");
+    assertTrue(
+        capturedOut.toString(StandardCharsets.UTF_8).contains("echo hello"),
+        "Command output should be relayed to the client");
+  }
+
+  @Test
+  void forwardShouldResolvePathsAgainstClientDirectory() {
+    DaemonClient.forward(socketPath, "file", "data.csv");
+
+    final String expected = Path.of("").toAbsolutePath().resolve("data.csv").toString();
+    assertTrue(
+        capturedOut.toString(StandardCharsets.UTF_8).contains("echo file " + expected),
+        "Relative paths should be resolved in the client's working directory");
+  }
+
+  @Test
+  void concurrentClientsShouldAllBeServed() throws Exception {
+    final ExecutorService clients = Executors.newFixedThreadPool(4);
+    try {
+      final Callable<OptionalInt> client = () -> DaemonClient.forward(socketPath, "x");
+      final List<Future<OptionalInt>> results = clients.invokeAll(Collections.nCopies(8, client));
+      for (final Future<OptionalInt> result : results) {
+        assertEquals(OptionalInt.of(3), result.get(5, TimeUnit.SECONDS));
+      }
+    } finally {
+      clients.shutdownNow();
+    }
+  }
+
+  @Test
+  void shutdownShouldStopServerAndRemoveSocket() throws Exception {
+    assertTrue(DaemonClient.shutdown(socketPath), "Running daemon should acknowledge shutdown");
+    serving.get(5, TimeUnit.SECONDS);
+
+    assertFalse(Files.exists(socketPath), "Socket file should be removed");
+    assertTrue(
+        DaemonClient.forward(socketPath, "hello").isEmpty(),
+        "Without a daemon the command should run locally");
+  }
+}
@@ -0,0 +1,101 @@
+package com.spantry.cli.render;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.spantry.inventory.domain.InventoryItem;
+import com.spantry.inventory.domain.Location;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/** Tests for the item renderers of each {@link OutputFormat}. */
+class OutputFormatTest {
+
+  private static final List<InventoryItem> ITEMS =
+      List.of(
+          new InventoryItem("a1", "Milk", 2, Location.FRIDGE, LocalDate.of(2024, 4, 5)),
+          new InventoryItem("b22", "Crème fraîche", 120, Location.FREEZER, null));
+
+  private static String render(final OutputFormat format, final List<InventoryItem> items)
+      throws IOException {
+    final StringWriter out = new StringWriter();
+    format.renderer().render(items, out);
+    return out.toString();
+  }
+
+  @Test
+  void tableShouldAlignColumnsAndRightAlignQuantities() throws IOException {
+    assertEquals(
+        """
+        ID   NAME           QTY  LOCATION  EXPIRES
+        a1   Milk             2  FRIDGE    2024-04-05
+        b22  Crème fraîche  120  FREEZER   N/A
+        """,
+        render(OutputFormat.TABLE, ITEMS));
+  }
+
+  @Test
+  void tableWithoutItemsShouldOnlyContainTheHeader() throws IOException {
+    assertEquals("ID  NAME  QTY  LOCATION  EXPIRES\n", render(OutputFormat.TABLE, List.of()));
+  }
+
+  @Test
+  void plainShouldWriteOneLabelledLinePerItem() throws IOException {
+    assertEquals(
+        """
+        ID: a1, Name: Milk, Qty: 2, Loc: FRIDGE, Exp: 2024-04-05
+        ID: b22, Name: Crème fraîche, Qty: 120, Loc: FREEZER, Exp: N/A
+        """,
+        render(OutputFormat.PLAIN, ITEMS));
+  }
+
+  @Test
+  void recordFormatsShouldMatchTheExportLayout() throws IOException {
+    assertEquals(
+        """
+        name,quantity,location,expirationDate,itemId
+        Milk,2,FRIDGE,2024-04-05,a1
+        Crème fraîche,120,FREEZER,,b22
+        """,
+        render(OutputFormat.CSV, ITEMS));
+    assertEquals(
+        "{\"itemId\":\"a1\",\"name\":\"Milk\",\"quantity\":2,\"location\":\"FRIDGE\","
+            + "\"expirationDate\":\"2024-04-05\"}\n",
+        render(OutputFormat.NDJSON, ITEMS.subList(0, 1)));
+  }
+
+  @Test
+  void datesShouldBeWrittenLikeLocalDateToString() throws IOException {
+    final List<InventoryItem> items = new ArrayList<>();
+    for (final LocalDate date :
+        List.of(
+            LocalDate.of(1, 1, 1),
+            LocalDate.of(999, 12, 31),
+            LocalDate.of(9999, 10, 9),
+            LocalDate.of(10_000, 1, 1),
+            LocalDate.of(-5, 6, 7))) {
+      items.add(new InventoryItem("x", "Tea", 1, Location.PANTRY, date));
+    }
+    final String plain = render(OutputFormat.PLAIN, items);
+    for (final InventoryItem item : items) {
+      assertTrue(plain.contains("Exp: " + item.expirationDate() + "\n"), plain);
+    }
+  }
+
+  @Test
+  void renderShouldWriteUtf8AndLeaveTheStreamOpen() throws IOException {
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    OutputFormat.PLAIN.render(ITEMS, bytes);
+    OutputFormat.PLAIN.render(ITEMS.subList(0, 1), bytes);
+
+    assertEquals(
+        render(OutputFormat.PLAIN, ITEMS) + render(OutputFormat.PLAIN, ITEMS.subList(0, 1)),
+        bytes.toString(StandardCharsets.UTF_8));
+  }
+}
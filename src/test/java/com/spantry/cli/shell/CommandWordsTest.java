@@ -0,0 +1,27 @@
+package com.spantry.cli.shell;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/** Tests for {@link CommandWords}. */
+class CommandWordsTest {
+
+  @Test
+  void splitShouldHonourQuotesAndEscapesLikeJline() {
+    assertEquals(
+        List.of("item", "add", "-n", "Rye bread"), CommandWords.split("item add -n 'Rye bread'"));
+    assertEquals(List.of("a b", "c"), CommandWords.split("a\\ b\tc"));
+    assertEquals(List.of("a\"b", "p'q"), CommandWords.split("\"a\\\"b\" \"p'q\""));
+    assertEquals(List.of("ab\"cd", "ef\"gh"), CommandWords.split("ab\"cd ef\"gh"));
+    assertEquals(List.of("unclosed word"), CommandWords.split("\"unclosed word"));
+  }
+
+  @Test
+  void splitShouldKeepQuotedEmptyWordsButNoTrailingOne() {
+    assertEquals(List.of("add", "-n", "", "-q", "0"), CommandWords.split("add -n \"\" -q 0 "));
+    assertEquals(List.of(""), CommandWords.split("''"));
+    assertEquals(List.of(), CommandWords.split("   "));
+  }
+}
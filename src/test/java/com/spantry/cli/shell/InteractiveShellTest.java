@@ -0,0 +1,142 @@
+package com.spantry.cli.shell;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.jline.reader.Candidate;
+import org.jline.reader.LineReader;
+import org.jline.reader.LineReaderBuilder;
+import org.jline.reader.Parser.ParseContext;
+import org.jline.reader.impl.DefaultParser;
+import org.jline.terminal.Terminal;
+import org.jline.terminal.impl.DumbTerminal;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import picocli.CommandLine;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+
+/** Tests for {@link InteractiveShell} and {@link PicocliCompleter}. */
+class InteractiveShellTest {
+
+  @TempDir Path tempDir;
+
+  /** Root command standing in for the real CLI. */
+  @Command(name = "root", subcommands = CountCommand.class)
+  static class RootCommand implements Runnable {
+    @Override
+    public void run() {
+      // Nothing to do without a subcommand
+    }
+  }
+
+  /** Records how often it ran and with which option values. */
+  @Command(name = "count")
+  static class CountCommand implements Runnable {
+    static final List<String> CALLS = new ArrayList<>();
+
+    @Option(names = "--label", defaultValue = "none")
+    private String label;
+
+    @Option(names = "--mode")
+    private Mode mode;
+
+    enum Mode {
+      FAST,
+      FRUGAL
+    }
+
+    @Override
+    public void run() {
+      CALLS.add(label + "/" + mode);
+    }
+  }
+
+  private static Terminal terminal(final String input, final ByteArrayOutputStream output)
+      throws IOException {
+    // A dumb terminal reads its input directly, so scripted input is consumed in order
+    return new DumbTerminal(
+        "test",
+        Terminal.TYPE_DUMB,
+        new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)),
+        output,
+        StandardCharsets.UTF_8);
+  }
+
+  @Test
+  void runShouldExecuteEachLineWithFreshOptionsUntilExit() throws IOException {
+    CountCommand.CALLS.clear();
+    final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    final Path history = tempDir.resolve("history");
+    try (Terminal terminal =
+        terminal(
+            "count --label \"two words\" --mode FAST\n\ncount\nshell\nexit\ncount\n", output)) {
+      final InteractiveShell shell =
+          new InteractiveShell(new CommandLine(new RootCommand()), terminal, history);
+
+      shell.run();
+    }
+
+    assertEquals(
+        List.of("two words/FAST", "none/null"),
+        CountCommand.CALLS,
+        "Options must not leak between lines and nothing runs after exit");
+    assertTrue(
+        output.toString(StandardCharsets.UTF_8).contains("'shell' is not available"),
+        "Nested shells should be refused");
+    assertTrue(Files.readString(history).contains("count --label"), "History should be saved");
+  }
+
+  @Test
+  void runShouldPassQuotedEmptyWordsLikeTheCommandLine() throws IOException {
+    CountCommand.CALLS.clear();
+    try (Terminal terminal =
+        terminal("count --label \"\" --mode FRUGAL \n", new ByteArrayOutputStream())) {
+      new InteractiveShell(new CommandLine(new RootCommand()), terminal, null).run();
+    }
+
+    assertEquals(List.of("/FRUGAL"), CountCommand.CALLS, "The empty label should be kept");
+  }
+
+  @Test
+  void runShouldStopAtEndOfInput() throws IOException {
+    CountCommand.CALLS.clear();
+    try (Terminal terminal = terminal("count\n", new ByteArrayOutputStream())) {
+      final int exitCode =
+          new InteractiveShell(new CommandLine(new RootCommand()), terminal, null).run();
+
+      assertEquals(0, exitCode);
+    }
+    assertEquals(1, CountCommand.CALLS.size(), "The last line should still run");
+  }
+
+  @Test
+  void completerShouldSuggestSubcommandsOptionsAndEnumValues() throws IOException {
+    final PicocliCompleter completer =
+        new PicocliCompleter(new CommandLine(new RootCommand()).getCommandSpec());
+    try (Terminal terminal = terminal("", new ByteArrayOutputStream())) {
+      final LineReader reader = LineReaderBuilder.builder().terminal(terminal).build();
+
+      assertEquals(List.of("count"), complete(completer, reader, "co"));
+      assertTrue(complete(completer, reader, "count --").contains("--label"));
+      assertEquals(List.of("FAST", "FRUGAL"), complete(completer, reader, "count --mode F"));
+    }
+  }
+
+  private static List<String> complete(
+      final PicocliCompleter completer, final LineReader reader, final String line) {
+    final List<Candidate> candidates = new ArrayList<>();
+    completer.complete(
+        reader, new DefaultParser().parse(line, line.length(), ParseContext.COMPLETE), candidates);
+    return candidates.stream().map(Candidate::value).sorted().collect(Collectors.toList());
+  }
+}
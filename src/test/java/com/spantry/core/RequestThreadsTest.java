@@ -0,0 +1,73 @@
+package com.spantry.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+/** Tests for {@link RequestThreads}. */
+class RequestThreadsTest {
+
+  @Test
+  void platformThreadsShouldBeNamedDaemonThreads() throws Exception {
+    final ExecutorService executor = RequestThreads.PLATFORM.newExecutor("spantry-test-");
+    try {
+      final Future<Thread> thread = executor.submit(Thread::currentThread);
+      assertTrue(thread.get().isDaemon(), "Requests must not keep the JVM alive");
+      assertEquals("spantry-test-1", thread.get().getName());
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  void virtualThreadsShouldBeRejectedBeforeJava21() {
+    assumeFalse(RequestThreads.VIRTUAL.isSupported(), "Runs on Java 17 to 20 only");
+
+    assertEquals(RequestThreads.PLATFORM, RequestThreads.configured());
+    assertThrows(
+        IllegalArgumentException.class, () -> RequestThreads.VIRTUAL.newExecutor("spantry-"));
+  }
+
+  @Test
+  void virtualThreadsShouldKeepTensOfThousandsOfRequestsInFlight() throws Exception {
+    assumeTrue(RequestThreads.VIRTUAL.isSupported(), "Needs Java 21");
+    final int requests = 20_000;
+    final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+    threadBean.resetPeakThreadCount();
+    final CountDownLatch started = new CountDownLatch(requests);
+    final CountDownLatch release = new CountDownLatch(1);
+
+    final ExecutorService executor = RequestThreads.VIRTUAL.newExecutor("spantry-test-");
+    try {
+      for (int i = 0; i < requests; i++) {
+        executor.execute(
+            () -> {
+              started.countDown();
+              try {
+                release.await();
+              } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+              }
+            });
+      }
+      assertTrue(started.await(30, TimeUnit.SECONDS), "Every request should be in flight at once");
+      // Virtual threads are not counted; their carriers are bounded by the number of cores
+      assertTrue(
+          threadBean.getPeakThreadCount() < 1000,
+          "Platform threads: " + threadBean.getPeakThreadCount());
+    } finally {
+      release.countDown();
+      executor.shutdown();
+    }
+  }
+}
@@ -0,0 +1,198 @@
+package com.spantry.http;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.spantry.inventory.domain.Location;
+import com.spantry.inventory.repository.InMemoryInventoryRepository;
+import com.spantry.inventory.service.InventoryService;
+import com.spantry.inventory.service.InventoryServiceImpl;
+import com.spantry.inventory.service.dto.AddItemCommandDto;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Tests for {@link InventoryHttpServer} and {@link JsonWriter}. */
+class InventoryHttpServerTest {
+
+  @TempDir Path tempDir;
+
+  private final HttpClient client = HttpClient.newHttpClient();
+  private InventoryService service;
+  private InventoryHttpServer server;
+
+  @BeforeEach
+  void startServer() throws IOException {
+    service = new InventoryServiceImpl(new InMemoryInventoryRepository(tempDir.resolve("i.dat")));
+    server =
+        new InventoryHttpServer(
+            new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), service, 2);
+    server.start();
+  }
+
+  @AfterEach
+  void stopServer() {
+    server.close();
+  }
+
+  private HttpResponse<String> send(final HttpRequest.Builder request)
+      throws IOException, InterruptedException {
+    return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+  }
+
+  private HttpRequest.Builder request(final String path) {
+    return HttpRequest.newBuilder(server.uri().resolve(path));
+  }
+
+  @Test
+  void itemsShouldBeAddedReadAndRemoved() throws IOException, InterruptedException {
+    final HttpResponse<String> created =
+        send(
+            request("items")
+                .POST(
+                    HttpRequest.BodyPublishers.ofString(
+                        "{\n  \"name\": \"Milk \\\"A\\\"\",\n  \"quantity\": 2,\n"
+                            + "  \"location\": \"fridge\",\n"
+                            + "  \"expirationDate\": \"2030-01-02\"\n}")));
+    assertEquals(201, created.statusCode(), created.body());
+    final String location = created.headers().firstValue("Location").orElseThrow();
+    final String itemId = location.substring("/items/".length());
+    assertEquals(
+        "{\"itemId\":\""
+            + itemId
+            + "\",\"name\":\"Milk \\\"A\\\"\",\"quantity\":2,\"location\":\"FRIDGE\","
+            + "\"expirationDate\":\"2030-01-02\",\"version\":1}",
+        created.body());
+
+    final HttpResponse<String> read = send(request(location.substring(1)).GET());
+    assertEquals(200, read.statusCode());
+    assertEquals(created.body(), read.body());
+
+    assertEquals(204, send(request(location.substring(1)).DELETE()).statusCode());
+    assertEquals(404, send(request(location.substring(1)).GET()).statusCode());
+    assertEquals(404, send(request(location.substring(1)).DELETE()).statusCode());
+  }
+
+  @Test
+  void invalidRequestsShouldBeRejected() throws IOException, InterruptedException {
+    final HttpResponse<String> invalid =
+        send(
+            request("items")
+                .POST(
+                    HttpRequest.BodyPublishers.ofString(
+                        "{\"name\":\" \",\"quantity\":1,\"location\":\"PANTRY\"}")));
+    assertEquals(400, invalid.statusCode());
+    assertTrue(invalid.body().startsWith("{\"error\":"), invalid.body());
+    assertEquals(400, send(request("items?limit=x").GET()).statusCode());
+    assertEquals(400, send(request("items?where=qty%20%3C").GET()).statusCode());
+    assertEquals(400, send(request("stats?asOf=tomorrow").GET()).statusCode());
+    final HttpResponse<String> put =
+        send(request("items").PUT(HttpRequest.BodyPublishers.noBody()));
+    assertEquals(405, put.statusCode());
+    assertEquals("GET, POST", put.headers().firstValue("Allow").orElseThrow());
+    assertEquals(0, service.getAllItems().size());
+  }
+
+  @Test
+  void listsShouldBeFilteredAndPaged() throws IOException, InterruptedException {
+    service.addItems(
+        List.of(
+            new AddItemCommandDto("Cheese", 1, Location.FRIDGE, null),
+            new AddItemCommandDto("Apples", 4, Location.PANTRY, null),
+            new AddItemCommandDto("Butter", 2, Location.FRIDGE, null),
+            new AddItemCommandDto("Dates", 3, Location.PANTRY, null)));
+
+    final HttpResponse<String> first = send(request("items?limit=2").GET());
+    assertEquals(200, first.statusCode());
+    assertTrue(first.body().startsWith("{\"offset\":0,\"limit\":2,\"more\":true,\"items\":["));
+    assertTrue(first.body().indexOf("Apples") < first.body().indexOf("Butter"), first.body());
+    assertEquals(-1, first.body().indexOf("Cheese"));
+
+    final HttpResponse<String> last = send(request("items?limit=2&offset=2").GET());
+    assertTrue(last.body().contains("\"more\":false"), last.body());
+    assertTrue(last.body().contains("Cheese") && last.body().contains("Dates"), last.body());
+
+    final String fridge = send(request("items?location=fridge&where=qty%20%3E%201").GET()).body();
+    assertTrue(fridge.contains("Butter") && !fridge.contains("Cheese"), fridge);
+  }
+
+  @Test
+  void unchangedResourcesShouldAnswerNotModified() throws IOException, InterruptedException {
+    service.addItem(new AddItemCommandDto("Rice", 1, Location.PANTRY, null));
+    final HttpResponse<String> stats = send(request("stats").GET());
+    assertEquals(200, stats.statusCode());
+    assertTrue(
+        stats.body().startsWith("{\"asOf\":\"" + LocalDate.now() + "\",\"totalItems\":1,"),
+        stats.body());
+    final String etag = stats.headers().firstValue("ETag").orElseThrow();
+
+    final HttpResponse<String> cached = send(request("stats").header("If-None-Match", etag).GET());
+    assertEquals(304, cached.statusCode());
+    assertEquals("", cached.body());
+    assertEquals(
+        304, send(request("items").header("If-None-Match", "W/" + etag).GET()).statusCode());
+
+    service.addItem(new AddItemCommandDto("Pasta", 1, Location.PANTRY, null));
+    final HttpResponse<String> changed = send(request("stats").header("If-None-Match", etag).GET());
+    assertEquals(200, changed.statusCode());
+    assertNotEquals(etag, changed.headers().firstValue("ETag").orElseThrow());
+  }
+
+  @Test
+  void connectionsShouldStayUsableAfterResponsesWithoutBody()
+      throws IOException, InterruptedException {
+    // A POST is not retried on a connection the server closed, so it fails if one was dropped
+    for (int i = 0; i < 20; i++) {
+      final String itemId =
+          service.addItem(new AddItemCommandDto("Tea", 1, Location.PANTRY, null)).itemId();
+      assertEquals(204, send(request("items/" + itemId).DELETE()).statusCode());
+      final HttpResponse<String> created =
+          send(
+              request("items")
+                  .POST(
+                      HttpRequest.BodyPublishers.ofString(
+                          "{\"name\":\"Tea\",\"quantity\":1,\"location\":\"PANTRY\"}")));
+      assertEquals(201, created.statusCode());
+    }
+  }
+
+  @Test
+  void jsonWriterShouldEscapeAndSeparateValues() throws IOException {
+    final StringWriter out = new StringWriter();
+    new JsonWriter(out)
+        .beginObject()
+        .name("text")
+        .value("a\"b\\c\nd\u0001")
+        .name("list")
+        .beginArray()
+        .value(1)
+        .value(true)
+        .value((String) null)
+        .beginObject()
+        .endObject()
+        .endArray()
+        .endObject()
+        .flush();
+    assertEquals("{\"text\":\"a\\\"b\\\\c\\nd\\u0001\",\"list\":[1,true,null,{}]}", out.toString());
+  }
+
+  @Test
+  void serverUriShouldReportTheBoundPort() {
+    final URI uri = server.uri();
+    assertEquals("127.0.0.1", uri.getHost());
+    assertTrue(uri.getPort() > 0);
+  }
+}
@@ -0,0 +1,151 @@
+package com.spantry.inventory.expiry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.spantry.inventory.domain.InventoryItem;
+import com.spantry.inventory.domain.Location;
+import com.spantry.inventory.repository.InMemoryInventoryRepository;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Tests for {@link ExpiryScheduler} subscribed to a repository. */
+class ExpirySchedulerTest {
+
+  private static final LocalDate TODAY = LocalDate.of(2024, 5, 1);
+
+  @TempDir Path tempDir;
+
+  private final MutableClock clock = new MutableClock(TODAY);
+  private final List<InventoryItem> notified = new ArrayList<>();
+  private InMemoryInventoryRepository repository;
+  private ExpiryScheduler scheduler;
+
+  /** A clock that tests move by whole days. */
+  private static final class MutableClock extends Clock {
+    private LocalDate day;
+
+    private MutableClock(final LocalDate day) {
+      this.day = day;
+    }
+
+    @Override
+    public ZoneId getZone() {
+      return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(final ZoneId zone) {
+      return this;
+    }
+
+    @Override
+    public Instant instant() {
+      return day.atStartOfDay(ZoneOffset.UTC).toInstant();
+    }
+  }
+
+  @BeforeEach
+  void setUp() {
+    repository = new InMemoryInventoryRepository(tempDir.resolve("inventory.dat"));
+    // Callbacks run on the ticking thread, so they are visible right after tick()
+    scheduler = new ExpiryScheduler(2, clock, notified::add, Runnable::run);
+  }
+
+  @AfterEach
+  void tearDown() {
+    scheduler.close();
+  }
+
+  private List<String> notifiedNames() {
+    return notified.stream().map(InventoryItem::name).collect(Collectors.toList());
+  }
+
+  private InventoryItem save(final String name, final LocalDate expires) {
+    return repository.save(new InventoryItem(null, name, 1, Location.PANTRY, expires));
+  }
+
+  @Test
+  void itemsShouldFireWhenTheyComeWithinTheHorizon() {
+    save("Old", TODAY.plusDays(1));
+    scheduler.tick();
+    repository.subscribe(scheduler);
+    save("Milk", TODAY.plusDays(5));
+    save("Salt", null);
+
+    assertEquals(1, scheduler.tick());
+    assertEquals(List.of("Old"), notifiedNames());
+
+    clock.day = TODAY.plusDays(2);
+    assertEquals(0, scheduler.tick());
+    clock.day = TODAY.plusDays(3);
+    assertEquals(1, scheduler.tick());
+    assertEquals(List.of("Old", "Milk"), notifiedNames());
+    assertEquals(0, scheduler.pending());
+  }
+
+  @Test
+  void changesShouldMoveOrCancelTimers() {
+    repository.subscribe(scheduler);
+    final InventoryItem milk = save("Milk", TODAY.plusDays(10));
+    final InventoryItem rice = save("Rice", TODAY.plusDays(10));
+    final InventoryItem tea = save("Tea", TODAY.plusDays(4));
+
+    // Earlier date, quantity only, deletion
+    repository.save(
+        new InventoryItem(milk.itemId(), "Milk", 1, Location.FRIDGE, TODAY.plusDays(3)));
+    repository.save(new InventoryItem(tea.itemId(), "Tea", 7, Location.PANTRY, TODAY.plusDays(4)));
+    repository.deleteById(rice.itemId());
+
+    clock.day = TODAY.plusDays(1);
+    scheduler.tick();
+    assertEquals(List.of("Milk"), notifiedNames());
+    assertEquals(Location.FRIDGE, notified.get(0).location());
+
+    clock.day = TODAY.plusDays(30);
+    scheduler.tick();
+    assertEquals(List.of("Milk", "Tea"), notifiedNames());
+    assertEquals(7, notified.get(1).quantity());
+  }
+
+  @Test
+  void anItemShouldFireOnceUnlessItsDateChanges() {
+    repository.subscribe(scheduler);
+    final InventoryItem milk = save("Milk", TODAY);
+    scheduler.tick();
+
+    repository.save(new InventoryItem(milk.itemId(), "Milk", 3, Location.PANTRY, TODAY));
+    scheduler.tick();
+    repository.save(
+        new InventoryItem(milk.itemId(), "Milk", 3, Location.PANTRY, TODAY.plusDays(1)));
+    scheduler.tick();
+
+    assertEquals(2, notified.size());
+  }
+
+  @Test
+  void unsubscribedSchedulerShouldStopTracking() {
+    repository.subscribe(scheduler);
+    repository.unsubscribe(scheduler);
+    save("Milk", TODAY);
+
+    assertEquals(0, scheduler.tick());
+  }
+
+  @Test
+  void negativeHorizonShouldBeRejected() {
+    assertThrows(
+        IllegalArgumentException.class, () -> new ExpiryScheduler(-1, clock, notified::add));
+  }
+}
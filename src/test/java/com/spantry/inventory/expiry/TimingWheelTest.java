@@ -0,0 +1,80 @@
+package com.spantry.inventory.expiry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+/** Tests for {@link TimingWheel}. */
+class TimingWheelTest {
+
+  @Test
+  void timersShouldFireExactlyOnTheirDayAcrossAllWheels() {
+    final Random random = new Random(17);
+    final long start = 19_000; // An epoch day that is not aligned to a week or a month
+    final TimingWheel<Integer, Integer> wheel = new TimingWheel<>(start);
+    // Reference: the day each live timer is due
+    final Map<Integer, Long> expected = new HashMap<>();
+    long today = start;
+    int nextKey = 0;
+
+    for (int step = 0; step < 3000; step++) {
+      final int action = random.nextInt(10);
+      if (action < 5) {
+        // Mostly near timers, some months and years out, a few in the past
+        final long offset =
+            switch (random.nextInt(4)) {
+              case 0 -> random.nextInt(10) - 3;
+              case 1 -> random.nextInt(60);
+              case 2 -> random.nextInt(500);
+              default -> random.nextInt(2000);
+            };
+        final int key = random.nextInt(5) == 0 && nextKey > 0 ? random.nextInt(nextKey) : nextKey++;
+        wheel.schedule(key, today + offset, key);
+        expected.put(key, today + offset);
+      } else if (action < 6 && nextKey > 0) {
+        final int key = random.nextInt(nextKey);
+        assertEquals(expected.remove(key) != null, wheel.cancel(key));
+      } else {
+        today += random.nextInt(20) == 0 ? random.nextInt(400) : random.nextInt(3);
+        final List<Integer> fired = wheel.advanceTo(today);
+        final Set<Integer> due = new HashSet<>();
+        for (final Map.Entry<Integer, Long> entry : expected.entrySet()) {
+          if (entry.getValue() <= today) {
+            due.add(entry.getKey());
+          }
+        }
+        assertEquals(due, new HashSet<>(fired), "day " + today);
+        assertEquals(due.size(), fired.size());
+        expected.keySet().removeAll(due);
+      }
+      assertEquals(expected.size(), wheel.size());
+    }
+  }
+
+  @Test
+  void updateShouldKeepTheTimerInPlace() {
+    final TimingWheel<String, String> wheel = new TimingWheel<>(100);
+    wheel.schedule("a", 110, "old");
+
+    assertTrue(wheel.update("a", "new"));
+    assertEquals(List.of(), wheel.advanceTo(109));
+    assertEquals(List.of("new"), wheel.advanceTo(110));
+    assertEquals(0, wheel.size());
+  }
+
+  @Test
+  void goingBackShouldFireNothing() {
+    final TimingWheel<String, String> wheel = new TimingWheel<>(100);
+    wheel.schedule("a", 101, "a");
+
+    assertEquals(List.of(), wheel.advanceTo(50));
+    assertEquals(List.of("a"), wheel.advanceTo(101));
+  }
+}
@@ -0,0 +1,83 @@
+package com.spantry.inventory.filter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.spantry.inventory.filter.FilterExpression.Comparison;
+import com.spantry.inventory.filter.FilterExpression.Field;
+import com.spantry.inventory.filter.FilterExpression.Operator;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/** Tests for {@link FilterParser}. */
+class FilterParserTest {
+
+  @Test
+  void andShouldBindTighterThanOr() {
+    final FilterExpression expression =
+        FilterParser.parse("qty < 2 or loc = FRIDGE and expires < today+3");
+
+    assertEquals("(qty < 2 or (loc = FRIDGE and expires < today+3))", expression.toString());
+  }
+
+  @Test
+  void keywordsAndFieldNamesShouldIgnoreCase() {
+    final FilterExpression expression =
+        FilterParser.parse("NOT Quantity >= 3 AND Location IN (fridge,FREEZER)");
+
+    assertEquals("(not qty >= 3 and loc in (fridge, FREEZER))", expression.toString());
+  }
+
+  @Test
+  void notInShouldNegateTheListComparison() {
+    final FilterExpression expression = FilterParser.parse("loc not in (PANTRY, OTHER)");
+
+    final FilterExpression.Not not = assertInstanceOf(FilterExpression.Not.class, expression);
+    assertEquals(
+        new Comparison(Field.LOCATION, Operator.IN, List.of("PANTRY", "OTHER"), 0), not.operand());
+  }
+
+  @Test
+  void quotedValuesShouldKeepSpacesAndDoubledQuotes() {
+    final Comparison comparison =
+        (Comparison) FilterParser.parse("name = 'chef''s special or not'");
+
+    assertEquals(List.of("chef's special or not"), comparison.values());
+    assertEquals("name = 'chef''s special or not'", comparison.toString());
+    assertEquals(comparison, FilterParser.parse(comparison.toString()));
+  }
+
+  @Test
+  void keywordValuesShouldBeQuotedInTheCanonicalForm() {
+    final FilterExpression expression = FilterParser.parse("name = \"and\"");
+
+    assertEquals("name = 'and'", expression.toString());
+  }
+
+  @Test
+  void errorsShouldReportThePosition() {
+    final IllegalArgumentException unknownField =
+        assertThrows(
+            IllegalArgumentException.class, () -> FilterParser.parse("qty < 2 and colour = red"));
+    final IllegalArgumentException unbalanced =
+        assertThrows(IllegalArgumentException.class, () -> FilterParser.parse("(qty < 2"));
+    final IllegalArgumentException trailing =
+        assertThrows(IllegalArgumentException.class, () -> FilterParser.parse("qty < 2 qty"));
+
+    assertTrue(unknownField.getMessage().startsWith("Unknown field 'colour'"));
+    assertTrue(unknownField.getMessage().contains("at position 13"));
+    assertTrue(unbalanced.getMessage().startsWith("Expected ')' at position 9"));
+    assertTrue(trailing.getMessage().startsWith("Unexpected 'qty' at position 9"));
+  }
+
+  @Test
+  void missingValuesShouldBeRejected() {
+    assertThrows(IllegalArgumentException.class, () -> FilterParser.parse("qty <"));
+    assertThrows(IllegalArgumentException.class, () -> FilterParser.parse("name = and"));
+    assertThrows(IllegalArgumentException.class, () -> FilterParser.parse("loc in ()"));
+    assertThrows(IllegalArgumentException.class, () -> FilterParser.parse("name = 'open"));
+    assertThrows(IllegalArgumentException.class, () -> FilterParser.parse(""));
+  }
+}
@@ -0,0 +1,190 @@
+package com.spantry.inventory.filter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.spantry.inventory.domain.InventoryItem;
+import com.spantry.inventory.domain.Location;
+import com.spantry.inventory.repository.InMemoryInventoryRepository;
+import com.spantry.inventory.repository.ItemQuery;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Tests for {@link ItemFilter}: type checking, push-down and the compiled filter cache. */
+class ItemFilterTest {
+
+  private static final LocalDate TODAY = LocalDate.of(2024, 5, 1);
+
+  private static final String[] ATOMS = {
+    "loc = FRIDGE",
+    "loc != PANTRY",
+    "loc in (FRIDGE, FREEZER)",
+    "qty < 3",
+    "qty >= 2",
+    "qty = 4",
+    "qty != 1",
+    "qty in (1, 5, 9)",
+    "expires < today+5",
+    "expires >= today+2",
+    "expires = today+3",
+    "expires != today+1",
+    "expires = none",
+    "expires != none",
+    "name starts mi",
+    "name = Rice",
+    "name contains 'ea'",
+    "name in (rye, 'milk powder')",
+  };
+
+  @TempDir Path tempDir;
+
+  private static String randomExpression(final Random random, final int depth) {
+    final String expression;
+    final int kind = depth == 0 ? 0 : random.nextInt(4);
+    if (kind == 1) {
+      expression =
+          "("
+              + randomExpression(random, depth - 1)
+              + " or "
+              + randomExpression(random, depth - 1)
+              + ")";
+    } else if (kind == 2) {
+      expression = "not (" + randomExpression(random, depth - 1) + ")";
+    } else if (kind == 3) {
+      expression =
+          randomExpression(random, depth - 1) + " and " + randomExpression(random, depth - 1);
+    } else {
+      expression = ATOMS[random.nextInt(ATOMS.length)];
+    }
+    return expression;
+  }
+
+  @Test
+  void pushedDownExecutionShouldMatchPlainEvaluation() {
+    final Random random = new Random(11);
+    final String[] names = {"Milk", "milk powder", "Rice", "Rye", "Tea"};
+    final List<InventoryItem> items = new ArrayList<>();
+    for (int i = 0; i < 300; i++) {
+      items.add(
+          new InventoryItem(
+              null,
+              names[random.nextInt(names.length)],
+              1 + random.nextInt(9),
+              Location.values()[random.nextInt(4)],
+              random.nextInt(4) == 0 ? null : TODAY.plusDays(random.nextInt(10))));
+    }
+    final InMemoryInventoryRepository repository =
+        new InMemoryInventoryRepository(tempDir.resolve("inventory.dat"));
+    final List<InventoryItem> stored = repository.saveAll(items);
+
+    for (int i = 0; i < 500; i++) {
+      final String text = randomExpression(random, 3);
+      final ItemFilter filter = ItemFilter.compile(text, TODAY);
+      final Predicate<InventoryItem> plain =
+          new PredicateCompiler(TODAY).compile(filter.expression());
+
+      final Set<InventoryItem> expected = stored.stream().filter(plain).collect(Collectors.toSet());
+      assertEquals(
+          expected, Set.copyOf(repository.findByQuery(filter.applyTo(ItemQuery.ALL))), text);
+    }
+  }
+
+  @Test
+  void indexableConjunctsShouldBePushedDown() {
+    final ItemFilter filter =
+        ItemFilter.compile(
+            "loc in (FRIDGE,FREEZER) and qty < 2 and expires < today+3 and name contains milk",
+            TODAY);
+
+    final ItemQuery query = filter.applyTo(ItemQuery.ALL);
+
+    assertEquals(3, filter.pushedDown().size());
+    assertEquals("name contains milk", filter.residual().get(0).toString());
+    assertEquals(Set.of(Location.FRIDGE, Location.FREEZER), query.locations());
+    assertEquals(Integer.MIN_VALUE, query.minQuantity());
+    assertEquals(1, query.maxQuantity());
+    assertNull(query.expiresFrom());
+    assertEquals(TODAY.plusDays(2), query.expiresTo());
+  }
+
+  @Test
+  void applyToShouldIntersectWithTheBaseQuery() {
+    final ItemQuery base =
+        ItemQuery.ALL
+            .withLocations(Location.PANTRY, Location.FRIDGE)
+            .withQuantityBetween(2, 8)
+            .withExpiryBetween(TODAY, TODAY.plusDays(9))
+            .withNamePrefix("mi");
+
+    final ItemQuery query =
+        ItemFilter.compile(
+                "loc != PANTRY and qty > 4 and expires <= today+4 and name starts milk", TODAY)
+            .applyTo(base);
+    final ItemQuery disjoint = ItemFilter.compile("loc = FREEZER", TODAY).applyTo(base);
+
+    assertEquals(Set.of(Location.FRIDGE), query.locations());
+    assertEquals(5, query.minQuantity());
+    assertEquals(8, query.maxQuantity());
+    assertEquals(TODAY, query.expiresFrom());
+    assertEquals(TODAY.plusDays(4), query.expiresTo());
+    assertEquals("milk", query.namePrefix());
+    // No location satisfies both, which must not widen into "any location"
+    assertEquals(
+        false, disjoint.matches(new InventoryItem("id", "Milk", 4, Location.PANTRY, TODAY)));
+  }
+
+  @Test
+  void undatedItemsShouldOnlyMatchNoneAndInequality() {
+    final InventoryItem undated = new InventoryItem("id", "Salt", 1, Location.PANTRY, null);
+
+    assertTrue(ItemFilter.compile("expires = none", TODAY).applyTo(ItemQuery.ALL).matches(undated));
+    assertTrue(
+        ItemFilter.compile("expires != today", TODAY).applyTo(ItemQuery.ALL).matches(undated));
+    assertTrue(
+        ItemFilter.compile("not expires < today", TODAY).applyTo(ItemQuery.ALL).matches(undated));
+    assertEquals(
+        false,
+        ItemFilter.compile("expires > today-9", TODAY).applyTo(ItemQuery.ALL).matches(undated));
+  }
+
+  @Test
+  void valuesShouldBeTypeChecked() {
+    final IllegalArgumentException badLocation =
+        assertThrows(
+            IllegalArgumentException.class, () -> ItemFilter.compile("loc = GARAGE", TODAY));
+    final IllegalArgumentException badOperator =
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> ItemFilter.compile("qty < 2 or qty starts 1", TODAY));
+
+    assertTrue(badLocation.getMessage().startsWith("Expected one of [PANTRY"));
+    assertTrue(badOperator.getMessage().startsWith("Operator 'starts' does not apply to qty"));
+    assertThrows(IllegalArgumentException.class, () -> ItemFilter.compile("expires < none", TODAY));
+    assertThrows(
+        IllegalArgumentException.class, () -> ItemFilter.compile("expires > tomorrow", TODAY));
+    assertThrows(IllegalArgumentException.class, () -> ItemFilter.compile("loc < FRIDGE", TODAY));
+  }
+
+  @Test
+  void repeatedExpressionsShouldHitTheCache() {
+    final String text = "qty < 2 and name contains 'cache test'";
+    final ItemFilter first = ItemFilter.compile(text);
+    final long hits = ItemFilter.cacheStats().hits();
+
+    final ItemFilter second = ItemFilter.compile("  " + text);
+
+    assertSame(first, second);
+    assertEquals(hits + 1, ItemFilter.cacheStats().hits());
+  }
+}
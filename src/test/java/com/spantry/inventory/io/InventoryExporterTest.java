@@ -0,0 +1,61 @@
+package com.spantry.inventory.io;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.spantry.inventory.domain.InventoryItem;
+import com.spantry.inventory.domain.Location;
+import com.spantry.inventory.service.InventoryService;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+/** Unit tests for {@link InventoryExporter}. */
+@ExtendWith(MockitoExtension.class)
+class InventoryExporterTest {
+
+  @Mock private InventoryService inventoryService;
+
+  @Test
+  void exportRecordsShouldWriteHeaderAndOneLinePerItem() throws IOException {
+    Mockito.when(inventoryService.getAllItems())
+        .thenReturn(
+            List.of(
+                new InventoryItem("a", "Milk", 1, Location.FRIDGE, LocalDate.of(2030, 1, 2), 1L),
+                new InventoryItem("b", "Salt", 3, Location.CUPBOARD, null, 2L)));
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    final long count =
+        new InventoryExporter(inventoryService)
+            .exportRecords(ItemRecordFormat.CSV, Channels.newChannel(out));
+
+    assertEquals(2, count);
+    assertEquals(
+        "name,quantity,location,expirationDate,itemId\n"
+            + "Milk,1,FRIDGE,2030-01-02,a\n"
+            + "Salt,3,CUPBOARD,,b\n",
+        out.toString(StandardCharsets.UTF_8));
+  }
+
+  @Test
+  void exportRecordsShouldWriteNdjson() throws IOException {
+    Mockito.when(inventoryService.getAllItems())
+        .thenReturn(List.of(new InventoryItem("a", "Milk", 1, Location.FRIDGE, null, 1L)));
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    new InventoryExporter(inventoryService)
+        .exportRecords(ItemRecordFormat.NDJSON, Channels.newChannel(out));
+
+    assertEquals(
+        "{\"itemId\":\"a\",\"name\":\"Milk\",\"quantity\":1,\"location\":\"FRIDGE\","
+            + "\"expirationDate\":null}\n",
+        out.toString(StandardCharsets.UTF_8));
+  }
+}
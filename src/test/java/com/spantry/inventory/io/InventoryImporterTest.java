@@ -0,0 +1,126 @@
+package com.spantry.inventory.io;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.spantry.inventory.domain.Location;
+import com.spantry.inventory.service.InventoryService;
+import com.spantry.inventory.service.dto.AddItemCommandDto;
+import com.spantry.validation.ObjectValidator;
+import com.spantry.validation.Validators;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+/** Unit tests for {@link InventoryImporter}. */
+@ExtendWith(MockitoExtension.class)
+class InventoryImporterTest {
+
+  private static final ObjectValidator<AddItemCommandDto> VALIDATOR =
+      Validators.forType(AddItemCommandDto.class);
+
+  @Mock private InventoryService inventoryService;
+
+  @Captor private ArgumentCaptor<List<AddItemCommandDto>> batches;
+
+  private static BufferedReader input(final String text) {
+    return new BufferedReader(new StringReader(text));
+  }
+
+  @Test
+  void importShouldStoreValidRecordsInOrderedBatches() throws IOException {
+    final StringBuilder csv = new StringBuilder("name,quantity,location,expirationDate\n");
+    for (int i = 1; i <= 10; i++) {
+      csv.append("Item ").append(i).append(',').append(i).append(",PANTRY,\n");
+    }
+    final InventoryImporter importer = new InventoryImporter(inventoryService, VALIDATOR, 4, 3);
+
+    final ImportReport report = importer.importFrom(input(csv.toString()), ItemRecordFormat.CSV);
+
+    Mockito.verify(inventoryService, Mockito.times(3)).addItems(batches.capture());
+    final List<AddItemCommandDto> stored = new ArrayList<>();
+    batches.getAllValues().forEach(stored::addAll);
+    assertEquals(10, stored.size(), "All records should be stored");
+    for (int i = 0; i < stored.size(); i++) {
+      assertEquals(
+          new AddItemCommandDto("Item " + (i + 1), i + 1, Location.PANTRY, null),
+          stored.get(i),
+          "Records should be stored in input order");
+    }
+    assertEquals(10, report.recordsRead(), "Header should not count as a record");
+    assertEquals(10, report.imported());
+    assertTrue(report.rejected().isEmpty(), "Nothing should be rejected");
+  }
+
+  @Test
+  void importShouldReportRejectedLinesWithLineNumbers() throws IOException {
+    final String ndjson =
+        """
+        {"name": "Milk", "quantity": 1, "location": "FRIDGE"}
+
+        {"name": "", "quantity": 1, "location": "FRIDGE"}
+        {"name": "Eggs", "quantity": "six", "location": "FRIDGE"}
+        {"name": "Rice", "quantity": 0, "location": "PANTRY"}
+        {"name": "Flour", "quantity": 2, "location": "PANTRY"}
+        """;
+    final InventoryImporter importer = new InventoryImporter(inventoryService, VALIDATOR, 2, 2);
+
+    final ImportReport report = importer.importFrom(input(ndjson), ItemRecordFormat.NDJSON);
+
+    assertEquals(5, report.recordsRead(), "Blank lines should be ignored");
+    assertEquals(2, report.imported());
+    assertEquals(
+        List.of(
+            new ImportReport.RejectedLine(3, "Item name cannot be blank."),
+            new ImportReport.RejectedLine(4, "Invalid quantity 'six'"),
+            new ImportReport.RejectedLine(5, "Item quantity must be positive.")),
+        report.rejected());
+  }
+
+  @Test
+  void malformedFirstLineShouldBeRejectedLikeAnyOtherLine() throws IOException {
+    final String csv =
+        """
+        "Milk,1,FRIDGE
+        Flour,2,PANTRY
+        """;
+    final InventoryImporter importer = new InventoryImporter(inventoryService, VALIDATOR, 8, 2);
+
+    final ImportReport report = importer.importFrom(input(csv), ItemRecordFormat.CSV);
+
+    assertEquals(2, report.recordsRead());
+    assertEquals(1, report.imported());
+    assertEquals(
+        List.of(new ImportReport.RejectedLine(1, "Unterminated quoted field")), report.rejected());
+  }
+
+  @Test
+  void importOfEmptyInputShouldNotTouchInventory() throws IOException {
+    final InventoryImporter importer = new InventoryImporter(inventoryService, VALIDATOR, 8, 2);
+
+    final ImportReport report = importer.importFrom(input(""), ItemRecordFormat.CSV);
+
+    assertEquals(0, report.recordsRead());
+    Mockito.verifyNoInteractions(inventoryService);
+  }
+
+  @Test
+  void constructorShouldRejectNonPositiveSizes() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> new InventoryImporter(inventoryService, VALIDATOR, 0, 1));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> new InventoryImporter(inventoryService, VALIDATOR, 1, 0));
+  }
+}
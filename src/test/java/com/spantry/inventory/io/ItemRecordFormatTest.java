@@ -0,0 +1,124 @@
+package com.spantry.inventory.io;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.spantry.inventory.domain.InventoryItem;
+import com.spantry.inventory.domain.Location;
+import com.spantry.inventory.service.dto.AddItemCommandDto;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import org.junit.jupiter.api.Test;
+
+/** Unit tests for {@link ItemRecordFormat}. */
+class ItemRecordFormatTest {
+
+  @Test
+  void csvShouldParseRecordWithQuotedName() {
+    final AddItemCommandDto command =
+        ItemRecordFormat.CSV.parse("\"Beans, \"\"black\"\"\", 3, pantry, 2030-01-31");
+
+    assertEquals(
+        new AddItemCommandDto("Beans, \"black\"", 3, Location.PANTRY, LocalDate.of(2030, 1, 31)),
+        command);
+  }
+
+  @Test
+  void csvShouldAcceptMissingExpirationDate() {
+    assertNull(ItemRecordFormat.CSV.parse("Salt,1,CUPBOARD,").expirationDate());
+    assertNull(ItemRecordFormat.CSV.parse("Salt,1,CUPBOARD").expirationDate());
+  }
+
+  @Test
+  void csvShouldRecognizeHeader() {
+    assertTrue(ItemRecordFormat.CSV.isHeader("name,quantity,location,expirationDate"));
+    assertFalse(ItemRecordFormat.CSV.isHeader("Milk,1,FRIDGE,"));
+  }
+
+  @Test
+  void csvShouldRejectMalformedRecords() {
+    assertThrows(IllegalArgumentException.class, () -> ItemRecordFormat.CSV.parse("Milk,1"));
+    assertThrows(
+        IllegalArgumentException.class, () -> ItemRecordFormat.CSV.parse("Milk,lots,FRIDGE"));
+    assertThrows(IllegalArgumentException.class, () -> ItemRecordFormat.CSV.parse("Milk,1,GARAGE"));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> ItemRecordFormat.CSV.parse("Milk,1,FRIDGE,31/01/2030"));
+    assertThrows(IllegalArgumentException.class, () -> ItemRecordFormat.CSV.parse("\"Milk,1"));
+  }
+
+  @Test
+  void ndjsonShouldParseRecord() {
+    final AddItemCommandDto command =
+        ItemRecordFormat.NDJSON.parse(
+            "{\"name\": \"Caf\\u00e9 \\\"beans\\\"\", \"quantity\": 2, \"location\": \"PANTRY\","
+                + " \"expirationDate\": null}");
+
+    assertEquals(new AddItemCommandDto("Café \"beans\"", 2, Location.PANTRY, null), command);
+  }
+
+  @Test
+  void ndjsonShouldRejectMalformedRecords() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> ItemRecordFormat.NDJSON.parse("{\"name\": \"Milk\", \"quantity\": 1"));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> ItemRecordFormat.NDJSON.parse("{\"name\": \"Milk\", \"location\": \"FRIDGE\"}"));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> ItemRecordFormat.NDJSON.parse("{\"name\": [\"Milk\"], \"quantity\": 1}"));
+  }
+
+  @Test
+  void forFileShouldPickFormatFromExtension() {
+    assertEquals(ItemRecordFormat.NDJSON, ItemRecordFormat.forFile(Path.of("items.ndjson")));
+    assertEquals(ItemRecordFormat.NDJSON, ItemRecordFormat.forFile(Path.of("ITEMS.JSONL")));
+    assertEquals(ItemRecordFormat.CSV, ItemRecordFormat.forFile(Path.of("items.csv")));
+  }
+
+  @Test
+  void writtenRecordsShouldParseBackIntoTheSameItemData() throws IOException {
+    final InventoryItem item =
+        new InventoryItem(
+            "id-1", "Beans, \"black\"", 3, Location.PANTRY, LocalDate.of(2030, 1, 31), 4L);
+    final AddItemCommandDto expected =
+        new AddItemCommandDto(item.name(), item.quantity(), item.location(), item.expirationDate());
+
+    for (final ItemRecordFormat format : ItemRecordFormat.values()) {
+      final StringBuilder out = new StringBuilder();
+      format.write(item, out);
+      assertTrue(out.toString().endsWith("\n"), "Records should end with a newline");
+      assertTrue(out.toString().contains("id-1"), "Exported records should carry the ID");
+      assertEquals(expected, format.parse(out.toString().strip()), format + " round trip");
+    }
+  }
+
+  @Test
+  void namesWithLineBreaksShouldStillBeWrittenAsOneRecordPerLine() throws IOException {
+    final InventoryItem item =
+        new InventoryItem("id-1", "Beans,\r\nblack\nor red", 3, Location.PANTRY, null, 4L);
+
+    final StringBuilder csv = new StringBuilder();
+    ItemRecordFormat.CSV.write(item, csv);
+    assertEquals(1, csv.toString().lines().count(), "CSV records must fit on one line");
+    assertEquals("Beans, black or red", ItemRecordFormat.CSV.parse(csv.toString().strip()).name());
+
+    final StringBuilder ndjson = new StringBuilder();
+    ItemRecordFormat.NDJSON.write(item, ndjson);
+    assertEquals(1, ndjson.toString().lines().count(), "NDJSON records must fit on one line");
+    assertEquals(item.name(), ItemRecordFormat.NDJSON.parse(ndjson.toString().strip()).name());
+  }
+
+  @Test
+  void csvHeaderShouldBeRecognizedOnImport() throws IOException {
+    final StringBuilder header = new StringBuilder();
+    ItemRecordFormat.CSV.writeHeader(header);
+
+    assertTrue(ItemRecordFormat.CSV.isHeader(header.toString().strip()));
+  }
+}
@@ -0,0 +1,261 @@
+package com.spantry.inventory.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.spantry.inventory.domain.InventoryItem;
+import com.spantry.inventory.domain.Location;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Unit tests for {@link CachingInventoryRepository} and its {@link TinyLfuCache}. */
+class CachingInventoryRepositoryTest {
+
+  private static final LocalDate TODAY = LocalDate.of(2024, 5, 1);
+
+  @TempDir Path tempDir;
+
+  private InMemoryInventoryRepository newDelegate() {
+    return new InMemoryInventoryRepository(tempDir.resolve("inventory.dat"));
+  }
+
+  @Test
+  void repeatedLookupsShouldBeServedFromMemory() {
+    final CachingInventoryRepository repository =
+        new CachingInventoryRepository(newDelegate(), 100);
+    final InventoryItem milk =
+        repository.save(new InventoryItem(null, "Milk", 1, Location.FRIDGE, TODAY));
+
+    for (int i = 0; i < 3; i++) {
+      assertEquals(milk, repository.findById(milk.itemId()).orElseThrow());
+      assertEquals(List.of(milk), repository.findByNameOrderByExpiry("milk"));
+    }
+
+    final CachingInventoryRepository.CacheStats stats = repository.cacheStats();
+    assertEquals(2, stats.misses());
+    assertEquals(4, stats.hits());
+    assertEquals(2, stats.size());
+  }
+
+  @Test
+  void writesShouldInvalidateIdAndNameLookups() {
+    final CachingInventoryRepository repository =
+        new CachingInventoryRepository(newDelegate(), 100);
+    final InventoryItem milk =
+        repository.save(new InventoryItem(null, "Milk", 1, Location.FRIDGE, TODAY));
+    assertEquals(List.of(milk), repository.findByNameOrderByExpiry("Milk"));
+    assertEquals(List.of(), repository.findByNameOrderByExpiry("Oat milk"));
+    repository.findById(milk.itemId());
+
+    // Renaming must update the old name's lots, the new name's lots and the ID lookup
+    final InventoryItem renamed = repository.save(with(milk, "Oat milk", milk.quantity()));
+    assertEquals(List.of(), repository.findByNameOrderByExpiry("Milk"));
+    assertEquals(List.of(renamed), repository.findByNameOrderByExpiry("Oat milk"));
+    assertEquals(renamed, repository.findById(milk.itemId()).orElseThrow());
+
+    assertTrue(repository.compareAndApply(List.of(with(renamed, renamed.name(), 5)), List.of()));
+    assertEquals(5, repository.findById(milk.itemId()).orElseThrow().quantity());
+    assertEquals(5, repository.findByNameOrderByExpiry("Oat milk").get(0).quantity());
+
+    repository.deleteById(milk.itemId());
+    assertTrue(repository.findById(milk.itemId()).isEmpty());
+    assertEquals(List.of(), repository.findByNameOrderByExpiry("Oat milk"));
+  }
+
+  @Test
+  void cachedReadsShouldMatchTheDelegateUnderRandomWrites() {
+    final Random random = new Random(43);
+    final InMemoryInventoryRepository delegate = newDelegate();
+    final CachingInventoryRepository repository = new CachingInventoryRepository(delegate, 16);
+    final List<String> itemIds = new ArrayList<>();
+    for (int i = 0; i < 5000; i++) {
+      final int operation = random.nextInt(10);
+      final String name = "Item " + random.nextInt(30);
+      if (itemIds.isEmpty() || operation == 0) {
+        itemIds.add(
+            repository
+                .save(new InventoryItem(null, name, 1, Location.PANTRY, TODAY.plusDays(i % 9)))
+                .itemId());
+      } else {
+        final String itemId = itemIds.get(random.nextInt(itemIds.size()));
+        final InventoryItem current = repository.findById(itemId).orElse(null);
+        if (operation == 1 && current != null) {
+          repository.deleteById(itemId);
+        } else if (operation == 2 && current != null) {
+          repository.save(with(current, name, random.nextInt(9) + 1));
+        } else if (operation == 3 && current != null) {
+          repository.compareAndSet(with(current, current.name(), current.quantity() + 1));
+        }
+        assertEquals(delegate.findById(itemId), repository.findById(itemId));
+        assertEquals(
+            delegate.findByNameOrderByExpiry(name), repository.findByNameOrderByExpiry(name));
+      }
+    }
+    assertTrue(repository.cacheStats().evictions() > 0, "The bound should have been enforced");
+    assertTrue(repository.cacheStats().size() <= 32);
+  }
+
+  @Test
+  void frequentKeysShouldSurviveAScanOfOneOffKeys() {
+    final TinyLfuCache<Integer, Integer> cache = new TinyLfuCache<>(100);
+    // Fifty hot keys keep being looked up while ten thousand others are looked up once each
+    for (int key = 1000; key < 11_000; key++) {
+      cache.get(key % 50, k -> k);
+      cache.get(key, k -> k);
+    }
+
+    int survivors = 0;
+    for (int key = 0; key < 50; key++) {
+      if (cache.getIfPresent(key) != null) {
+        survivors++;
+      }
+    }
+    assertEquals(50, survivors, "A scan should not flush keys that are used all the time");
+  }
+
+  @Test
+  void concurrentMissesShouldLoadAKeyOnce() throws Exception {
+    final TinyLfuCache<String, String> cache = new TinyLfuCache<>(10);
+    final AtomicInteger loads = new AtomicInteger();
+    final CountDownLatch loading = new CountDownLatch(1);
+    final CountDownLatch release = new CountDownLatch(1);
+    final ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      final List<Future<String>> results = new ArrayList<>();
+      results.add(
+          executor.submit(
+              () ->
+                  cache.get(
+                      "eggs",
+                      key -> {
+                        loads.incrementAndGet();
+                        loading.countDown();
+                        awaitQuietly(release);
+                        return "loaded " + key;
+                      })));
+      assertTrue(loading.await(5, TimeUnit.SECONDS));
+      for (int i = 0; i < 7; i++) {
+        results.add(
+            executor.submit(
+                () ->
+                    cache.get(
+                        "eggs",
+                        key -> {
+                          loads.incrementAndGet();
+                          return "loaded again " + key;
+                        })));
+      }
+      release.countDown();
+      for (final Future<String> result : results) {
+        assertEquals("loaded eggs", result.get(5, TimeUnit.SECONDS));
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    assertEquals(1, loads.get());
+  }
+
+  @Test
+  void invalidatingDuringALoadShouldKeepTheLoadedValueOutOfTheCache() {
+    final TinyLfuCache<String, String> cache = new TinyLfuCache<>(10);
+    final String value =
+        cache.get(
+            "milk",
+            key -> {
+              cache.invalidate(key); // A write lands while the old value is being read
+              return "stale";
+            });
+
+    assertEquals("stale", value);
+    assertEquals(null, cache.getIfPresent("milk"));
+    assertEquals("fresh", cache.get("milk", key -> "fresh"));
+  }
+
+  @Test
+  void invalidatingWhileALoadIsStoredShouldKeepTheLoadedValueOutOfTheCache() throws Exception {
+    final TinyLfuCache<TrappedKey, String> cache = new TinyLfuCache<>(10);
+    final TrappedKey milk = new TrappedKey();
+    final ExecutorService writer = Executors.newSingleThreadExecutor();
+    try {
+      // The write lands after the load has finished reading, while its value is being stored:
+      // the key is hashed once to withdraw the load from the running loads and once to store it
+      milk.trap =
+          () -> {
+            final Future<?> invalidation = writer.submit(() -> cache.invalidate(milk));
+            try {
+              invalidation.get(200, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+              // Held off until the value is stored; it removes the value afterwards
+            } catch (InterruptedException | ExecutionException e) {
+              throw new IllegalStateException(e);
+            }
+          };
+      final String value =
+          cache.get(
+              milk,
+              key -> {
+                milk.armAfter(1, Thread.currentThread());
+                return "stale";
+              });
+      writer.shutdown();
+      assertTrue(writer.awaitTermination(5, TimeUnit.SECONDS));
+
+      assertEquals("stale", value);
+      assertEquals(null, cache.getIfPresent(milk));
+    } finally {
+      writer.shutdownNow();
+    }
+  }
+
+  /** A key that runs an action on a chosen hash of it by one thread, to stage interleavings. */
+  private static final class TrappedKey {
+    private Runnable trap;
+    private Thread owner;
+    private int hashesLeft = -1;
+
+    private void armAfter(final int skippedHashes, final Thread thread) {
+      owner = thread;
+      hashesLeft = skippedHashes;
+    }
+
+    @Override
+    public int hashCode() {
+      if (Thread.currentThread() == owner && hashesLeft >= 0 && hashesLeft-- == 0) {
+        trap.run();
+      }
+      return 42;
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+      return this == other;
+    }
+  }
+
+  private static InventoryItem with(
+      final InventoryItem item, final String name, final int quantity) {
+    return new InventoryItem(
+        item.itemId(), name, quantity, item.location(), item.expirationDate(), item.version());
+  }
+
+  private static void awaitQuietly(final CountDownLatch latch) {
+    try {
+      latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,216 @@
+package com.spantry.inventory.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.spantry.exception.InitializationException;
+import com.spantry.inventory.domain.InventoryItem;
+import com.spantry.inventory.domain.Location;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Tests for {@link EventSourcedInventoryRepository} and its event log. */
+class EventSourcedInventoryRepositoryTest {
+
+  private static final Instant START = Instant.parse("2026-10-01T08:00:00Z");
+  private static final LocalDate BEST_BEFORE = LocalDate.of(2026, 10, 20);
+
+  @TempDir Path tempDir;
+
+  private final SteppingClock clock = new SteppingClock();
+
+  private EventSourcedInventoryRepository open() {
+    return new EventSourcedInventoryRepository(tempDir.resolve("inventory.events"), clock);
+  }
+
+  private static List<InventoryItem> sorted(final List<InventoryItem> items) {
+    final List<InventoryItem> copy = new ArrayList<>(items);
+    copy.sort(Comparator.comparing(InventoryItem::itemId));
+    return copy;
+  }
+
+  @Test
+  void changesShouldBeRecordedAsTheNarrowestEvent() {
+    final InventoryItem milk = new InventoryItem("m", "Milk", 2, Location.FRIDGE, BEST_BEFORE, 1);
+
+    assertInstanceOf(InventoryEvent.ItemAdded.class, InventoryEvent.between(null, milk));
+    assertEquals(
+        new InventoryEvent.QuantityChanged("m", 1),
+        InventoryEvent.between(
+            milk, new InventoryItem("m", "Milk", 1, Location.FRIDGE, BEST_BEFORE, 2)));
+    assertEquals(
+        new InventoryEvent.ItemMoved("m", Location.FREEZER),
+        InventoryEvent.between(
+            milk, new InventoryItem("m", "Milk", 2, Location.FREEZER, BEST_BEFORE, 2)));
+    assertInstanceOf(
+        InventoryEvent.ItemRevised.class,
+        InventoryEvent.between(
+            milk, new InventoryItem("m", "Oat milk", 2, Location.FRIDGE, BEST_BEFORE, 2)));
+    assertInstanceOf(
+        InventoryEvent.ItemRevised.class,
+        InventoryEvent.between(
+            milk, new InventoryItem("m", "Milk", 1, Location.FREEZER, BEST_BEFORE, 2)));
+    assertEquals(new InventoryEvent.ItemRemoved("m"), InventoryEvent.between(milk, null));
+  }
+
+  @Test
+  void restartShouldReplayTheLogIntoTheSameItemsAndVersions() {
+    final EventSourcedInventoryRepository repository = open();
+    final InventoryItem milk =
+        repository.save(new InventoryItem(null, "Milk", 2, Location.FRIDGE, BEST_BEFORE));
+    final InventoryItem rice =
+        repository.save(new InventoryItem(null, "Rice", 5, Location.PANTRY, null));
+    repository.compareAndSet(
+        new InventoryItem(milk.itemId(), "Milk", 1, Location.FRIDGE, BEST_BEFORE, 1));
+    repository.save(new InventoryItem(rice.itemId(), "Rice", 5, Location.CUPBOARD, null));
+    repository.save(new InventoryItem(null, "Tea", 1, Location.PANTRY, null));
+    repository.deleteById(repository.findByNameOrderByExpiry("Tea").get(0).itemId());
+
+    final EventSourcedInventoryRepository reopened = open();
+
+    assertEquals(sorted(repository.findAll()), sorted(reopened.findAll()));
+    assertEquals(2, reopened.findById(milk.itemId()).orElseThrow().version());
+    assertEquals(
+        List.of(reopened.findById(rice.itemId()).orElseThrow()),
+        reopened.findByLocation(Location.CUPBOARD));
+    assertEquals(repository.stats(BEST_BEFORE), reopened.stats(BEST_BEFORE));
+  }
+
+  @Test
+  void queriesAsOfShouldSeeEachEarlierState() {
+    final EventSourcedInventoryRepository repository = open();
+    final Instant added = clock.instant();
+    final InventoryItem milk =
+        repository.save(new InventoryItem(null, "Milk", 2, Location.FRIDGE, BEST_BEFORE));
+    final Instant consumed = clock.step();
+    repository.save(new InventoryItem(milk.itemId(), "Milk", 1, Location.FRIDGE, BEST_BEFORE));
+    final Instant moved = clock.step();
+    repository.save(new InventoryItem(milk.itemId(), "Milk", 1, Location.FREEZER, BEST_BEFORE));
+    final Instant removed = clock.step();
+    repository.deleteById(milk.itemId());
+
+    final ItemQuery all = ItemQuery.ALL;
+    assertEquals(List.of(), repository.findByQueryAsOf(all, added.minusSeconds(1)));
+    assertEquals(2, repository.findByQueryAsOf(all, added).get(0).quantity());
+    assertEquals(2, repository.findByQueryAsOf(all, consumed.minusMillis(1)).get(0).quantity());
+    assertEquals(1, repository.findByQueryAsOf(all, consumed).get(0).quantity());
+    assertEquals(List.of(), repository.findByQueryAsOf(all.withLocations(Location.FRIDGE), moved));
+    assertEquals(
+        3, repository.findByQueryAsOf(all.withLocations(Location.FREEZER), moved).get(0).version());
+    assertEquals(List.of(), repository.findByQueryAsOf(all, removed));
+    assertEquals(List.of(), repository.findByQueryAsOf(all, removed.plusSeconds(60)));
+  }
+
+  @Test
+  void restartShouldResumeFromTheCheckpointAndReplayOnlyTheTail() throws IOException {
+    final Path logPath = tempDir.resolve("inventory.events");
+    final EventSourcedInventoryRepository repository = open();
+    final List<InventoryItem> batch = new ArrayList<>();
+    for (int i = 0; i < EventSourcedInventoryRepository.CHECKPOINT_INTERVAL; i++) {
+      batch.add(new InventoryItem(null, "Item " + i, 1 + i % 7, Location.PANTRY, null));
+    }
+    final List<InventoryItem> saved = repository.saveAll(batch);
+    final Instant checkpointed = clock.instant();
+    clock.step();
+    repository.save(new InventoryItem(saved.get(0).itemId(), "Item 0", 9, Location.PANTRY, null));
+    repository.deleteById(saved.get(1).itemId());
+    final List<InventoryItem> expected = sorted(repository.findAll());
+
+    try (Stream<Path> checkpoints = Files.list(tempDir.resolve("inventory.events.checkpoints"))) {
+      assertEquals(1, checkpoints.count(), "The batch should have been checkpointed");
+    }
+    // Damage the first record: a restart that read the log from the start would fail
+    try (FileChannel channel = FileChannel.open(logPath, StandardOpenOption.WRITE)) {
+      channel.write(ByteBuffer.allocate(Integer.BYTES), 0);
+    }
+
+    final EventSourcedInventoryRepository reopened = open();
+
+    assertEquals(expected, sorted(reopened.findAll()));
+    assertEquals(
+        EventSourcedInventoryRepository.CHECKPOINT_INTERVAL,
+        reopened.findByQueryAsOf(ItemQuery.ALL, checkpointed).size());
+  }
+
+  @Test
+  void restartShouldCutOffATornRecordAndKeepAppending() throws IOException {
+    final Path logPath = tempDir.resolve("inventory.events");
+    final EventSourcedInventoryRepository repository = open();
+    final InventoryItem milk =
+        repository.save(new InventoryItem(null, "Milk", 2, Location.FRIDGE, BEST_BEFORE));
+    final long intactSize = Files.size(logPath);
+    // A crash halfway through an append: a length prefix followed by part of the record
+    Files.write(logPath, new byte[] {0, 0, 0, 40, 0, 0, 0, 0, 0}, StandardOpenOption.APPEND);
+
+    final EventSourcedInventoryRepository reopened = open();
+    assertEquals(intactSize, Files.size(logPath));
+    reopened.save(new InventoryItem(milk.itemId(), "Milk", 1, Location.FRIDGE, BEST_BEFORE));
+
+    assertEquals(1, open().findById(milk.itemId()).orElseThrow().quantity());
+  }
+
+  @Test
+  void restartShouldFailCleanlyOnARecordWithAnUnknownLocation() throws IOException {
+    final Path logPath = tempDir.resolve("inventory.events");
+    open().save(new InventoryItem(null, "Milk", 2, Location.FRIDGE, BEST_BEFORE));
+    // Same length as FRIDGE, so the record still frames correctly
+    final String damaged =
+        new String(Files.readAllBytes(logPath), StandardCharsets.ISO_8859_1)
+            .replace("FRIDGE", "GARAGE");
+    Files.write(logPath, damaged.getBytes(StandardCharsets.ISO_8859_1));
+
+    assertThrows(InitializationException.class, this::open);
+  }
+
+  @Test
+  void snapshotRepositoryShouldReportThatItKeepsNoHistory() {
+    final InventoryRepository repository =
+        new InMemoryInventoryRepository(tempDir.resolve("inventory.dat"));
+
+    assertThrows(
+        UnsupportedOperationException.class,
+        () -> repository.findByQueryAsOf(ItemQuery.ALL, Instant.now()));
+  }
+
+  /** A clock that stands still until told to move on, a minute at a time. */
+  private static final class SteppingClock extends Clock {
+    private Instant now = START;
+
+    /* package */ Instant step() {
+      now = now.plusSeconds(60);
+      return now;
+    }
+
+    @Override
+    public ZoneId getZone() {
+      return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(final ZoneId zone) {
+      throw new UnsupportedOperationException("Fixed to UTC");
+    }
+
+    @Override
+    public Instant instant() {
+      return now;
+    }
+  }
+}
@@ -1,14 +1,26 @@
 package com.spantry.inventory.repository;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import com.spantry.inventory.domain.InventoryItem;
 import com.spantry.inventory.domain.Location;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -200,8 +212,357 @@ class InMemoryInventoryRepositoryTest {
     assertTrue(freezerItems.isEmpty(), "Should find no freezer items");
   }
 
+  @Test
+  void saveAllShouldAssignIdsAndPersistWholeBatch() {
+    // Arrange
+    final InventoryItem existing =
+        repository.save(new InventoryItem(null, "Existing", 1, Location.PANTRY, null));
+    final InventoryItem updatedExisting =
+        new InventoryItem(existing.itemId(), "Existing Updated", 3, Location.PANTRY, null);
+    final InventoryItem newItem = new InventoryItem(null, "Batch New", 2, Location.FRIDGE, null);
+
+    // Act
+    final List<InventoryItem> saved = repository.saveAll(List.of(updatedExisting, newItem));
+
+    // Assert
+    assertEquals(2, saved.size(), "Both items should be returned");
+    assertEquals(updatedExisting.withVersion(2L), saved.get(0), "Existing item should keep its ID");
+    assertNotNull(saved.get(1).itemId(), "New item should receive an ID");
+    assertEquals(newItem.name(), saved.get(1).name(), "Order of the batch should be preserved");
+
+    final InMemoryInventoryRepository reloadedRepo = new InMemoryInventoryRepository();
+    assertEquals(2, reloadedRepo.findAll().size(), "Batch should be persisted");
+    assertEquals(
+        Optional.of(saved.get(0)),
+        reloadedRepo.findById(existing.itemId()),
+        "Existing item should be overwritten");
+    assertEquals(
+        Optional.of(saved.get(1)),
+        reloadedRepo.findById(saved.get(1).itemId()),
+        "New item should be persisted");
+  }
+
+  @Test
+  void saveAllEmptyCollectionShouldReturnEmptyList() {
+    final List<InventoryItem> saved = repository.saveAll(List.of());
+
+    assertTrue(saved.isEmpty(), "Saving nothing should return an empty list");
+    assertTrue(repository.findAll().isEmpty(), "Repository should remain empty");
+  }
+
+  @Test
+  void deleteAllByIdShouldRemoveKnownIdsAndIgnoreUnknown() {
+    // Arrange
+    final List<InventoryItem> saved =
+        repository.saveAll(
+            List.of(
+                new InventoryItem(null, "Keep", 1, Location.PANTRY, null),
+                new InventoryItem(null, "Drop 1", 1, Location.FRIDGE, null),
+                new InventoryItem(null, "Drop 2", 1, Location.FREEZER, null)));
+
+    // Act
+    final int removed =
+        repository.deleteAllById(
+            List.of(saved.get(1).itemId(), saved.get(2).itemId(), "non-existent-id"));
+
+    // Assert
+    assertEquals(2, removed, "Only existing items should be counted");
+    final InMemoryInventoryRepository reloadedRepo = new InMemoryInventoryRepository();
+    assertEquals(List.of(saved.get(0)), reloadedRepo.findAll(), "Only the kept item should remain");
+  }
+
+  @Test
+  void saveShouldAssignIncreasingVersions() {
+    final InventoryItem first =
+        repository.save(new InventoryItem(null, "Versioned", 1, Location.PANTRY, null));
+    final InventoryItem second =
+        repository.save(new InventoryItem(first.itemId(), "Versioned", 2, Location.PANTRY, null));
+
+    assertEquals(1L, first.version(), "New items should start at version 1");
+    assertEquals(2L, second.version(), "Overwrites should bump the version");
+  }
+
+  @Test
+  void findAndDeleteByIdShouldReturnRemovedItemOnce() {
+    final InventoryItem item =
+        repository.save(new InventoryItem(null, "Take Me", 1, Location.FRIDGE, null));
+
+    assertEquals(Optional.of(item), repository.findAndDeleteById(item.itemId()));
+    assertTrue(
+        repository.findAndDeleteById(item.itemId()).isEmpty(), "Second delete should find nothing");
+    assertTrue(
+        new InMemoryInventoryRepository().findById(item.itemId()).isEmpty(),
+        "Deletion should be persisted");
+  }
+
+  @Test
+  void insertIfAbsentShouldNotOverwriteExistingItem() {
+    final InventoryItem inserted =
+        repository
+            .insertIfAbsent(new InventoryItem("fixed-id", "Original", 1, Location.PANTRY, null))
+            .orElseThrow();
+    final Optional<InventoryItem> second =
+        repository.insertIfAbsent(
+            new InventoryItem("fixed-id", "Intruder", 9, Location.OTHER, null));
+
+    assertEquals(1L, inserted.version(), "Inserted item should be at version 1");
+    assertTrue(second.isEmpty(), "Insert should be rejected when the ID exists");
+    assertEquals(Optional.of(inserted), repository.findById("fixed-id"), "Original must survive");
+  }
+
+  @Test
+  void compareAndSetShouldRejectStaleVersion() {
+    final InventoryItem stored =
+        repository.save(new InventoryItem(null, "Counter", 1, Location.PANTRY, null));
+    final InventoryItem firstWriter =
+        new InventoryItem(stored.itemId(), "Counter", 2, Location.PANTRY, null, stored.version());
+    final InventoryItem secondWriter =
+        new InventoryItem(stored.itemId(), "Counter", 5, Location.PANTRY, null, stored.version());
+
+    final Optional<InventoryItem> firstResult = repository.compareAndSet(firstWriter);
+    final Optional<InventoryItem> secondResult = repository.compareAndSet(secondWriter);
+
+    assertTrue(firstResult.isPresent(), "First writer should win");
+    assertEquals(2L, firstResult.get().version(), "Successful CAS should bump the version");
+    assertTrue(secondResult.isEmpty(), "Second writer holds a stale version");
+    assertEquals(
+        2, new InMemoryInventoryRepository().findById(stored.itemId()).orElseThrow().quantity());
+  }
+
+  @Test
+  void compareAndSetMissingItemShouldReturnEmpty() {
+    final InventoryItem ghost = new InventoryItem("ghost", "Ghost", 1, Location.OTHER, null, 1L);
+
+    assertTrue(repository.compareAndSet(ghost).isEmpty(), "Missing items cannot be updated");
+    assertTrue(repository.findAll().isEmpty(), "CAS must not insert");
+  }
+
+  @Test
+  void compareAndDeleteShouldOnlyDeleteMatchingVersion() {
+    final InventoryItem stored =
+        repository.save(new InventoryItem(null, "Conditional", 1, Location.PANTRY, null));
+
+    assertFalse(repository.compareAndDelete(stored.itemId(), stored.version() + 1));
+    assertTrue(repository.findById(stored.itemId()).isPresent(), "Stale delete must not apply");
+    assertTrue(repository.compareAndDelete(stored.itemId(), stored.version()));
+    assertTrue(repository.findById(stored.itemId()).isEmpty(), "Matching delete should apply");
+  }
+
   // --- Null Argument Tests ---
 
+  @Test
+  void reloadShouldReplayJournaledChanges() {
+    final InventoryItem kept =
+        repository.save(new InventoryItem(null, "Eggs", 12, Location.FRIDGE, LocalDate.now()));
+    final InventoryItem removed =
+        repository.save(new InventoryItem(null, "Flour", 1, Location.PANTRY, null));
+    repository.compareAndSet(
+        new InventoryItem(
+            kept.itemId(), "Eggs", 10, Location.FRIDGE, kept.expirationDate(), kept.version()));
+    repository.deleteById(removed.itemId());
+
+    final InMemoryInventoryRepository reloadedRepo = new InMemoryInventoryRepository();
+
+    assertEquals(1, reloadedRepo.findAll().size(), "Deletion should survive a reload");
+    final InventoryItem reloaded = reloadedRepo.findById(kept.itemId()).orElseThrow();
+    assertEquals(10, reloaded.quantity(), "Latest quantity should survive a reload");
+    assertEquals(2L, reloaded.version(), "Version should survive a reload");
+  }
+
+  @Test
+  void reloadShouldIgnoreTornJournalTail() throws IOException {
+    final InventoryItem saved =
+        repository.save(new InventoryItem(null, "Rice", 2, Location.PANTRY, null));
+    final Path journalPath = Paths.get("build", "e2e-inventory.dat.journal");
+    assertTrue(Files.exists(journalPath), "Single-item changes should go to the journal");
+    // Simulate a crash in the middle of appending the next record
+    Files.write(journalPath, new byte[] {1, 0, 42, 'x'}, StandardOpenOption.APPEND);
+
+    final InMemoryInventoryRepository reloadedRepo = new InMemoryInventoryRepository();
+
+    assertEquals(List.of(saved), reloadedRepo.findAll(), "Intact records should be replayed");
+  }
+
+  @Test
+  void appendsAfterTornJournalTailShouldSurviveReload() throws IOException {
+    final InventoryItem saved =
+        repository.save(new InventoryItem(null, "Rice", 2, Location.PANTRY, null));
+    final Path journalPath = Paths.get("build", "e2e-inventory.dat.journal");
+    final long intactSize = Files.size(journalPath);
+    Files.write(journalPath, new byte[] {1, 0, 42, 'x'}, StandardOpenOption.APPEND);
+
+    final InMemoryInventoryRepository reloadedRepo = new InMemoryInventoryRepository();
+    assertEquals(intactSize, Files.size(journalPath), "The torn tail should be cut off");
+    final InventoryItem tea =
+        reloadedRepo.save(new InventoryItem(null, "Tea", 1, Location.PANTRY, null));
+
+    final InMemoryInventoryRepository againReloaded = new InMemoryInventoryRepository();
+    assertEquals(saved, againReloaded.findById(saved.itemId()).orElseThrow());
+    assertEquals(tea, againReloaded.findById(tea.itemId()).orElseThrow());
+  }
+
+  @Test
+  void reloadShouldStopAtUndecodableJournalRecord() throws IOException {
+    final InventoryItem saved =
+        repository.save(new InventoryItem(null, "Rice", 2, Location.PANTRY, null));
+    final Path journalPath = Paths.get("build", "e2e-inventory.dat.journal");
+    final long intactSize = Files.size(journalPath);
+    // A complete record whose location is no location
+    final ByteArrayOutputStream damaged = new ByteArrayOutputStream();
+    try (DataOutputStream out = new DataOutputStream(damaged)) {
+      out.writeByte(1);
+      out.writeUTF("id-x");
+      out.writeUTF("Salt");
+      out.writeInt(1);
+      out.writeUTF("GARAGE");
+      out.writeLong(Long.MIN_VALUE);
+      out.writeLong(1);
+    }
+    Files.write(journalPath, damaged.toByteArray(), StandardOpenOption.APPEND);
+
+    final InMemoryInventoryRepository reloadedRepo = new InMemoryInventoryRepository();
+
+    assertEquals(List.of(saved), reloadedRepo.findAll(), "Intact records should be replayed");
+    assertEquals(intactSize, Files.size(journalPath), "The damaged record should be cut off");
+  }
+
+  @Test
+  void manyChangesShouldCompactJournalIntoSnapshot() {
+    final InventoryItem saved =
+        repository.save(new InventoryItem(null, "Salt", 1, Location.PANTRY, null));
+    InventoryItem current = saved;
+    for (int i = 0; i < 1100; i++) {
+      current = repository.compareAndSet(current).orElseThrow();
+    }
+
+    final Path journalPath = Paths.get("build", "e2e-inventory.dat.journal");
+    // 1101 entries exceed the compaction threshold, so only the changes since then remain
+    assertTrue(
+        !Files.exists(journalPath) || journalPathSize(journalPath) < 20 * 1024,
+        "Journal should have been compacted");
+    assertEquals(
+        current,
+        new InMemoryInventoryRepository().findById(saved.itemId()).orElseThrow(),
+        "Compacted state should match the latest version");
+  }
+
+  private static long journalPathSize(final Path path) {
+    try {
+      return Files.size(path);
+    } catch (IOException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  @Test
+  void findByNameOrderByExpiryShouldReturnLotsSoonestFirst() {
+    final LocalDate today = LocalDate.now();
+    final InventoryItem late =
+        repository.save(new InventoryItem(null, "Eggs", 6, Location.FRIDGE, today.plusDays(9)));
+    final InventoryItem undated =
+        repository.save(new InventoryItem(null, "eggs", 2, Location.PANTRY, null));
+    final InventoryItem soon =
+        repository.save(new InventoryItem(null, "EGGS ", 4, Location.FRIDGE, today.plusDays(1)));
+    repository.save(new InventoryItem(null, "Milk", 1, Location.FRIDGE, today));
+
+    assertEquals(
+        List.of(soon, late, undated),
+        repository.findByNameOrderByExpiry("eggs"),
+        "Lots should be ordered by expiry, undated last, ignoring case");
+    assertTrue(repository.findByNameOrderByExpiry("Bread").isEmpty(), "Unknown name has no lots");
+  }
+
+  @Test
+  void findByNameOrderByExpiryShouldFollowUpdatesAndDeletes() {
+    final LocalDate today = LocalDate.now();
+    final InventoryItem first =
+        repository.save(new InventoryItem(null, "Eggs", 6, Location.FRIDGE, today.plusDays(1)));
+    final InventoryItem second =
+        repository.save(new InventoryItem(null, "Eggs", 6, Location.FRIDGE, today.plusDays(2)));
+    final InventoryItem renamed =
+        repository
+            .compareAndSet(
+                new InventoryItem(
+                    second.itemId(), "Quail Eggs", 6, Location.FRIDGE, null, second.version()))
+            .orElseThrow();
+    repository.deleteById(first.itemId());
+
+    assertTrue(repository.findByNameOrderByExpiry("Eggs").isEmpty(), "Old entries must be gone");
+    assertEquals(List.of(renamed), repository.findByNameOrderByExpiry("quail eggs"));
+    assertEquals(
+        List.of(renamed),
+        new InMemoryInventoryRepository().findByNameOrderByExpiry("Quail Eggs"),
+        "Index should be rebuilt on load");
+  }
+
+  @Test
+  void compareAndApplyShouldApplyAllChangesAtomically() {
+    final InventoryItem reduce =
+        repository.save(new InventoryItem(null, "Eggs", 6, Location.FRIDGE, null));
+    final InventoryItem remove =
+        repository.save(new InventoryItem(null, "Eggs", 2, Location.FRIDGE, null));
+    final InventoryItem reduced =
+        new InventoryItem(reduce.itemId(), "Eggs", 3, Location.FRIDGE, null, 1L);
+
+    assertTrue(
+        repository.compareAndApply(List.of(reduced), List.of(remove)), "Change should apply");
+
+    assertEquals(
+        List.of(reduced.withVersion(2L)),
+        new InMemoryInventoryRepository().findAll(),
+        "Both changes should be persisted");
+  }
+
+  @Test
+  void compareAndApplyShouldChangeNothingWhenAnyVersionIsStale() {
+    final InventoryItem reduce =
+        repository.save(new InventoryItem(null, "Eggs", 6, Location.FRIDGE, null));
+    final InventoryItem remove =
+        repository.save(new InventoryItem(null, "Eggs", 2, Location.FRIDGE, null));
+    repository.save(remove); // Bumps the version to 2
+    final InventoryItem reduced =
+        new InventoryItem(reduce.itemId(), "Eggs", 3, Location.FRIDGE, null, 1L);
+
+    assertFalse(
+        repository.compareAndApply(List.of(reduced), List.of(remove)),
+        "Stale deletion should reject the whole change");
+    assertEquals(6, repository.findById(reduce.itemId()).orElseThrow().quantity());
+    assertTrue(repository.findById(remove.itemId()).isPresent(), "Nothing should be deleted");
+  }
+
+  @Test
+  void compareAndApplyShouldInsertUnsavedItemsOnlyIfAbsent() {
+    final InventoryItem existing =
+        repository.save(new InventoryItem(null, "Milk", 1, Location.FRIDGE, null));
+    final InventoryItem fresh = new InventoryItem("fresh-id", "Bread", 1, Location.PANTRY, null);
+
+    assertTrue(repository.compareAndApply(List.of(fresh), List.of()), "Insert should apply");
+    assertEquals(1L, repository.findById("fresh-id").orElseThrow().version());
+    assertFalse(
+        repository.compareAndApply(List.of(existing.withVersion(0L)), List.of()),
+        "Insert of an existing ID should be rejected");
+    assertEquals(1L, repository.findById(existing.itemId()).orElseThrow().version());
+  }
+
+  @Test
+  void transferSnapshotToShouldWriteCurrentStateIncludingJournal() throws Exception {
+    final InventoryItem kept =
+        repository.save(new InventoryItem(null, "Tea", 2, Location.PANTRY, null));
+    final InventoryItem removed =
+        repository.save(new InventoryItem(null, "Jam", 1, Location.PANTRY, null));
+    repository.deleteById(removed.itemId());
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    final long bytes = repository.transferSnapshotTo(Channels.newChannel(out));
+
+    assertEquals(out.size(), bytes, "Reported size should match the bytes written");
+    try (ObjectInputStream in =
+        new ObjectInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+      final Map<?, ?> snapshot = (Map<?, ?>) in.readObject();
+      assertEquals(Map.of(kept.itemId(), kept), snapshot, "Snapshot should match current state");
+    }
+  }
+
   @Test
   void saveNullItemShouldThrowNullPointerException() {
     assertThrows(
@@ -233,4 +594,23 @@ class InMemoryInventoryRepositoryTest {
         () -> repository.findByLocation(null),
         "Finding by null location should throw NullPointerException");
   }
+
+  @Test
+  void saveAllWithNullElementShouldThrowNullPointerException() {
+    final List<InventoryItem> items = new java.util.ArrayList<>();
+    items.add(null);
+    assertThrows(
+        NullPointerException.class,
+        () -> repository.saveAll(items),
+        "Saving a batch with a null item should throw NullPointerException");
+    assertTrue(repository.findAll().isEmpty(), "Nothing should be stored on failure");
+  }
+
+  @Test
+  void deleteAllByIdNullCollectionShouldThrowNullPointerException() {
+    assertThrows(
+        NullPointerException.class,
+        () -> repository.deleteAllById(null),
+        "Deleting a null collection should throw NullPointerException");
+  }
 }
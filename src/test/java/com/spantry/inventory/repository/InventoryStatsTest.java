@@ -0,0 +1,114 @@
+package com.spantry.inventory.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.spantry.inventory.domain.InventoryItem;
+import com.spantry.inventory.domain.Location;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Tests for {@link InventoryStats} and the aggregates the repositories maintain for it. */
+class InventoryStatsTest {
+
+  private static final LocalDate TODAY = LocalDate.of(2024, 5, 1);
+
+  @TempDir Path tempDir;
+
+  private static InventoryItem randomItem(final Random random, final String itemId) {
+    return new InventoryItem(
+        itemId,
+        "Item " + random.nextInt(50),
+        1 + random.nextInt(20),
+        Location.values()[random.nextInt(Location.values().length)],
+        random.nextInt(5) == 0 ? null : TODAY.plusDays(random.nextInt(60) - 20));
+  }
+
+  @Test
+  void recountShouldClassifyExpiryRelativeToTheDay() {
+    final InventoryStats stats =
+        InventoryStats.recount(
+            List.of(
+                new InventoryItem("a", "Milk", 2, Location.FRIDGE, TODAY.minusDays(1)),
+                new InventoryItem("b", "Rice", 5, Location.PANTRY, TODAY),
+                new InventoryItem("c", "Tea", 1, Location.PANTRY, TODAY.plusDays(6)),
+                new InventoryItem("d", "Salt", 3, Location.PANTRY, TODAY.plusDays(7)),
+                new InventoryItem("e", "Honey", 4, Location.CUPBOARD, null)),
+            TODAY);
+
+    assertEquals(new InventoryStats.LocationTotals(3, 9), stats.locations().get(Location.PANTRY));
+    assertEquals(InventoryStats.LocationTotals.NONE, stats.locations().get(Location.FREEZER));
+    assertEquals(5, stats.totalItems());
+    assertEquals(15, stats.totalQuantity());
+    assertEquals(1, stats.expired());
+    assertEquals(2, stats.expiringThisWeek());
+    assertEquals(1, stats.undated());
+  }
+
+  @Test
+  void maintainedFiguresShouldMatchRecountWhileItemsAndDaysChange() {
+    final Random random = new Random(3);
+    final InMemoryInventoryRepository repository =
+        new InMemoryInventoryRepository(tempDir.resolve("inventory.dat"));
+    final List<InventoryItem> batch = new ArrayList<>();
+    for (int i = 0; i < 200; i++) {
+      batch.add(randomItem(random, null));
+    }
+    repository.saveAll(batch);
+
+    LocalDate day = TODAY;
+    for (int step = 0; step < 300; step++) {
+      final List<InventoryItem> stored = repository.findAll();
+      final InventoryItem victim = stored.get(random.nextInt(stored.size()));
+      switch (random.nextInt(3)) {
+        case 0 -> repository.deleteById(victim.itemId());
+        case 1 -> repository.save(randomItem(random, victim.itemId()));
+        default -> repository.save(randomItem(random, null));
+      }
+      // Mostly small steps forward, sometimes a jump either way
+      day = day.plusDays(random.nextInt(10) == 0 ? random.nextInt(80) - 40 : random.nextInt(2));
+      assertEquals(
+          InventoryStats.recount(repository.findAll(), day), repository.stats(day), "step " + step);
+    }
+
+    // Reopening rebuilds the same figures from the snapshot and journal
+    final InMemoryInventoryRepository reopened =
+        new InMemoryInventoryRepository(tempDir.resolve("inventory.dat"));
+    assertEquals(repository.stats(day), reopened.stats(day));
+  }
+
+  @Test
+  void stagedFiguresShouldCorrectTheBaseForStagedItems() {
+    final Random random = new Random(5);
+    final InMemoryInventoryRepository base =
+        new InMemoryInventoryRepository(tempDir.resolve("inventory.dat"));
+    final List<InventoryItem> stored = new ArrayList<>();
+    for (int i = 0; i < 50; i++) {
+      stored.add(base.save(randomItem(random, null)));
+    }
+    final StagedInventoryRepository staged = new StagedInventoryRepository(base);
+    for (int i = 0; i < 10; i++) {
+      staged.deleteById(stored.get(i).itemId());
+      staged.save(randomItem(random, stored.get(i + 10).itemId()));
+      staged.save(randomItem(random, null));
+    }
+
+    assertEquals(InventoryStats.recount(staged.findAll(), TODAY), staged.stats(TODAY));
+    assertEquals(InventoryStats.recount(base.findAll(), TODAY), base.stats(TODAY));
+  }
+
+  @Test
+  void missingLocationsShouldBeFilledWithZeroes() {
+    final InventoryStats stats =
+        new InventoryStats(
+            TODAY, Map.of(Location.OTHER, new InventoryStats.LocationTotals(1, 2)), 0, 0, 1);
+
+    assertEquals(Location.values().length, stats.locations().size());
+    assertEquals(1, stats.totalItems());
+  }
+}
@@ -0,0 +1,202 @@
+package com.spantry.inventory.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.spantry.inventory.domain.InventoryItem;
+import com.spantry.inventory.domain.Location;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Tests for {@link ItemQuery} and its execution by the repositories. */
+class ItemQueryTest {
+
+  private static final String[] NAMES = {"Milk", "milk powder", "Rice", "Rye", "Tea", " tea bags"};
+  private static final LocalDate TODAY = LocalDate.of(2024, 5, 1);
+
+  @TempDir Path tempDir;
+
+  private InMemoryInventoryRepository repository;
+
+  @BeforeEach
+  void setUp() {
+    repository = new InMemoryInventoryRepository(tempDir.resolve("inventory.dat"));
+  }
+
+  /** The obvious implementation every repository has to agree with. */
+  private static List<InventoryItem> reference(
+      final List<InventoryItem> items, final ItemQuery query) {
+    final Comparator<InventoryItem> order =
+        switch (query.sort()) {
+          case NAME -> ItemOrdering.NAME_ORDER;
+          case EXPIRATION -> ItemOrdering.EXPIRY_ORDER;
+          case QUANTITY -> ItemOrdering.QUANTITY_ORDER;
+          case NONE -> Comparator.comparing(InventoryItem::itemId);
+        };
+    return items.stream()
+        .filter(query::matches)
+        .sorted(order)
+        .limit(query.limit())
+        .collect(Collectors.toList());
+  }
+
+  private static ItemQuery randomQuery(final Random random) {
+    ItemQuery query = ItemQuery.ALL.sortedBy(ItemQuery.Sort.values()[random.nextInt(4)]);
+    if (random.nextBoolean()) {
+      query = query.withNamePrefix(NAMES[random.nextInt(NAMES.length)].substring(0, 2));
+    }
+    if (random.nextBoolean()) {
+      final LocalDate from = random.nextBoolean() ? TODAY.plusDays(random.nextInt(20)) : null;
+      final LocalDate to = random.nextBoolean() ? TODAY.plusDays(random.nextInt(40)) : null;
+      query = query.withExpiryBetween(from, to);
+    }
+    if (random.nextBoolean()) {
+      query = query.withLocations(Location.values()[random.nextInt(3)]);
+    }
+    if (random.nextBoolean()) {
+      query = query.withQuantityBetween(random.nextInt(5), 2 + random.nextInt(8));
+    }
+    if (random.nextBoolean()) {
+      query = query.limitedTo(random.nextInt(10));
+    }
+    return query;
+  }
+
+  private List<InventoryItem> fill(final Random random, final int count) {
+    final List<InventoryItem> items = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      items.add(
+          new InventoryItem(
+              null,
+              NAMES[random.nextInt(NAMES.length)],
+              1 + random.nextInt(9),
+              Location.values()[random.nextInt(3)],
+              random.nextInt(4) == 0 ? null : TODAY.plusDays(random.nextInt(30))));
+    }
+    return repository.saveAll(items);
+  }
+
+  @Test
+  void indexedExecutionShouldMatchReference() {
+    final Random random = new Random(42);
+    fill(random, 300);
+    // Rename and delete a few items so the indexes have to follow updates
+    final List<InventoryItem> stored = repository.findAll();
+    for (int i = 0; i < 30; i++) {
+      final InventoryItem item = stored.get(i);
+      repository.save(
+          new InventoryItem(item.itemId(), "Rice", 3, Location.FREEZER, TODAY.plusDays(i)));
+      repository.deleteById(stored.get(i + 100).itemId());
+    }
+
+    for (int i = 0; i < 500; i++) {
+      final ItemQuery query = randomQuery(random);
+      final List<InventoryItem> actual = repository.findByQuery(query);
+      final List<InventoryItem> expected = reference(repository.findAll(), query);
+      if (query.sort() == ItemQuery.Sort.NONE) {
+        // Any order, and with a limit any subset of the matches of the right size
+        assertEquals(expected.size(), actual.size(), query::toString);
+        actual.forEach(item -> assertTrue(query.matches(item), query::toString));
+      } else {
+        assertEquals(expected, actual, query::toString);
+      }
+    }
+  }
+
+  @Test
+  void stagedExecutionShouldMatchReference() {
+    final Random random = new Random(7);
+    final List<InventoryItem> stored = fill(random, 200);
+    final StagedInventoryRepository staged = new StagedInventoryRepository(repository);
+    for (int i = 0; i < 20; i++) {
+      staged.deleteById(stored.get(i).itemId());
+      staged.save(new InventoryItem(null, "Rye", 1 + i % 9, Location.PANTRY, TODAY.plusDays(i)));
+    }
+
+    for (int i = 0; i < 300; i++) {
+      final ItemQuery query = randomQuery(random).sortedBy(ItemQuery.Sort.EXPIRATION);
+      assertEquals(reference(staged.findAll(), query), staged.findByQuery(query), query::toString);
+    }
+  }
+
+  @Test
+  void namePrefixShouldIgnoreCaseAndSurroundingWhitespace() {
+    repository.saveAll(
+        List.of(
+            new InventoryItem(null, "Milk", 1, Location.FRIDGE, null),
+            new InventoryItem(null, " milk powder", 1, Location.PANTRY, null),
+            new InventoryItem(null, "Millet", 1, Location.PANTRY, null)));
+
+    final List<String> names =
+        repository
+            .findByQuery(ItemQuery.ALL.withNamePrefix(" MILK").sortedBy(ItemQuery.Sort.NAME))
+            .stream()
+            .map(InventoryItem::name)
+            .collect(Collectors.toList());
+
+    assertEquals(List.of("Milk", " milk powder"), names);
+  }
+
+  @Test
+  void expiryWindowShouldExcludeUndatedItems() {
+    repository.saveAll(
+        List.of(
+            new InventoryItem(null, "Tea", 1, Location.PANTRY, null),
+            new InventoryItem(null, "Milk", 1, Location.FRIDGE, TODAY),
+            new InventoryItem(null, "Rice", 1, Location.PANTRY, TODAY.plusDays(10))));
+
+    assertEquals(1, repository.findByQuery(ItemQuery.ALL.withExpiryBetween(null, TODAY)).size());
+    assertEquals(2, repository.findByQuery(ItemQuery.ALL.withExpiryBetween(TODAY, null)).size());
+    assertEquals(
+        0,
+        repository.findByQuery(ItemQuery.ALL.withExpiryBetween(TODAY.plusDays(1), TODAY)).size());
+    assertEquals(
+        List.of("Milk", "Rice", "Tea"),
+        repository.findByQuery(ItemQuery.ALL.sortedBy(ItemQuery.Sort.EXPIRATION)).stream()
+            .map(InventoryItem::name)
+            .collect(Collectors.toList()));
+  }
+
+  @Test
+  void explainShouldReportTheIndexAndRowCounts() {
+    repository.saveAll(
+        List.of(
+            new InventoryItem(null, "Milk", 1, Location.FRIDGE, TODAY),
+            new InventoryItem(null, "Rice", 1, Location.PANTRY, TODAY.plusDays(1)),
+            new InventoryItem(null, "Rye", 5, Location.PANTRY, TODAY.plusDays(2)),
+            new InventoryItem(null, "Tea", 1, Location.PANTRY, null)));
+
+    final QueryPlan byLocation =
+        repository.explain(ItemQuery.ALL.withLocations(Location.PANTRY).withQuantityBetween(1, 1));
+    final QueryPlan byExpiry =
+        repository.explain(
+            ItemQuery.ALL
+                .withExpiryBetween(TODAY, null)
+                .sortedBy(ItemQuery.Sort.EXPIRATION)
+                .limitedTo(1));
+
+    assertEquals(new QueryPlan("location index lookup [PANTRY]", false, 3, 2, 2), byLocation);
+    assertEquals(new QueryPlan("expiry index range scan [2024-05-01..]", false, 1, 1, 1), byExpiry);
+  }
+
+  @Test
+  void allLocationsShouldMeanNoRestriction() {
+    assertEquals(Set.of(), ItemQuery.ALL.withLocations(Location.values()).locations());
+    assertEquals(ItemQuery.ALL, ItemQuery.ALL.withNamePrefix(null).withLocations());
+  }
+
+  @Test
+  void negativeLimitShouldBeRejected() {
+    assertThrows(IllegalArgumentException.class, () -> ItemQuery.ALL.limitedTo(-1));
+  }
+}
@@ -0,0 +1,34 @@
+package com.spantry.inventory.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.spantry.inventory.domain.InventoryItem;
+import com.spantry.inventory.domain.Location;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Unit tests for {@link LazyInventoryRepository}. */
+class LazyInventoryRepositoryTest {
+
+  @TempDir Path tempDir;
+
+  @Test
+  void delegateShouldBeCreatedOnFirstUseOnly() {
+    final AtomicInteger created = new AtomicInteger();
+    final LazyInventoryRepository repository =
+        new LazyInventoryRepository(
+            () -> {
+              created.incrementAndGet();
+              return new InMemoryInventoryRepository(tempDir.resolve("inventory.dat"));
+            });
+    assertEquals(0, created.get(), "Nothing should be loaded before the first call");
+
+    final InventoryItem saved =
+        repository.save(new InventoryItem(null, "Milk", 1, Location.FRIDGE, null));
+    assertEquals(saved, repository.findById(saved.itemId()).orElseThrow());
+    assertEquals(1, repository.findAll().size());
+    assertEquals(1, created.get(), "The delegate should be created exactly once");
+  }
+}
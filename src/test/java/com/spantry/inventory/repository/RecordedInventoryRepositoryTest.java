@@ -0,0 +1,65 @@
+package com.spantry.inventory.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.spantry.inventory.domain.InventoryItem;
+import com.spantry.inventory.domain.Location;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Tests for {@link RecordedInventoryRepository} and the persistence events. */
+class RecordedInventoryRepositoryTest {
+
+  @TempDir Path tempDir;
+
+  @Test
+  void callsAndPersistenceShouldBeRecorded() throws IOException {
+    final Path dump = tempDir.resolve("repository.jfr");
+    try (Recording recording = new Recording()) {
+      recording.enable("com.spantry.RepositoryOperation").withoutThreshold();
+      recording.enable("com.spantry.InventoryLoad");
+      recording.enable("com.spantry.JournalAppend");
+      recording.start();
+
+      final RecordedInventoryRepository repository =
+          new RecordedInventoryRepository(
+              new InMemoryInventoryRepository(tempDir.resolve("inventory.dat")));
+      repository.save(new InventoryItem(null, "Milk", 1, Location.FRIDGE, null));
+      repository.save(new InventoryItem(null, "Eggs", 6, Location.FRIDGE, null));
+      assertEquals(2, repository.findByLocation(Location.FRIDGE).size());
+      assertThrows(NullPointerException.class, () -> repository.findById(null));
+
+      recording.stop();
+      recording.dump(dump);
+    }
+
+    final List<RecordedEvent> events = RecordingFile.readAllEvents(dump);
+    final List<RecordedEvent> operations = named(events, "com.spantry.RepositoryOperation");
+    assertEquals(
+        List.of("save", "save", "findByLocation", "findById"),
+        operations.stream().map(event -> event.getString("operation")).toList());
+    assertEquals(2, operations.get(2).getInt("items"));
+    assertTrue(operations.get(2).getBoolean("succeeded"));
+    assertFalse(operations.get(3).getBoolean("succeeded"), "A call that threw is recorded too");
+    assertEquals(1, named(events, "com.spantry.InventoryLoad").size());
+    final List<RecordedEvent> appends = named(events, "com.spantry.JournalAppend");
+    assertEquals(2, appends.size(), "Each save appends to the journal");
+    assertTrue(appends.get(0).getLong("bytes") > 0);
+  }
+
+  private static List<RecordedEvent> named(final List<RecordedEvent> events, final String name) {
+    return events.stream()
+        .filter(event -> name.equals(event.getEventType().getName()))
+        .sorted((a, b) -> a.getStartTime().compareTo(b.getStartTime()))
+        .toList();
+  }
+}
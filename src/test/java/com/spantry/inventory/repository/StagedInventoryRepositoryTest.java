@@ -0,0 +1,107 @@
+package com.spantry.inventory.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.spantry.inventory.domain.InventoryItem;
+import com.spantry.inventory.domain.Location;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Unit tests for {@link StagedInventoryRepository}. */
+class StagedInventoryRepositoryTest {
+
+  @TempDir Path tempDir;
+
+  private InMemoryInventoryRepository base;
+  private StagedInventoryRepository staged;
+
+  @BeforeEach
+  void setUp() {
+    base = new InMemoryInventoryRepository(tempDir.resolve("inventory.dat"));
+    staged = new StagedInventoryRepository(base);
+  }
+
+  @Test
+  void writesShouldBeVisibleInOverlayButNotInBaseUntilCommit() {
+    final InventoryItem milk = base.save(new InventoryItem(null, "Milk", 1, Location.FRIDGE, null));
+    final InventoryItem bread =
+        staged.save(new InventoryItem(null, "Bread", 2, Location.PANTRY, null));
+    staged.deleteById(milk.itemId());
+
+    assertEquals(List.of(bread), staged.findAll());
+    assertEquals(List.of(milk), base.findAll(), "Base should be untouched before commit");
+    assertEquals(2, staged.pendingChanges());
+
+    assertTrue(staged.commit(), "Commit should apply");
+    assertEquals(0, staged.pendingChanges());
+    assertTrue(base.findById(milk.itemId()).isEmpty(), "Deletion should reach the base");
+    assertEquals(2, base.findById(bread.itemId()).orElseThrow().quantity());
+  }
+
+  @Test
+  void commitShouldReachDiskWithSingleJournalWrite() {
+    for (int i = 0; i < 10; i++) {
+      staged.save(new InventoryItem(null, "Item " + i, i + 1, Location.PANTRY, null));
+    }
+    assertTrue(staged.commit());
+
+    final InMemoryInventoryRepository reloaded =
+        new InMemoryInventoryRepository(tempDir.resolve("inventory.dat"));
+    assertEquals(10, reloaded.findAll().size());
+  }
+
+  @Test
+  void versionsShouldAdvanceInOverlayAsInBase() {
+    final InventoryItem stored =
+        base.save(new InventoryItem(null, "Rice", 5, Location.PANTRY, null));
+    final InventoryItem updated =
+        staged
+            .compareAndSet(new InventoryItem(stored.itemId(), "Rice", 4, Location.PANTRY, null, 1L))
+            .orElseThrow();
+
+    assertEquals(2L, updated.version());
+    assertTrue(
+        staged
+            .compareAndSet(new InventoryItem(stored.itemId(), "Rice", 3, Location.PANTRY, null, 1L))
+            .isEmpty(),
+        "Stale version should be rejected in the overlay");
+  }
+
+  @Test
+  void findByNameOrderByExpiryShouldMergeStagedLots() {
+    final InventoryItem late =
+        base.save(new InventoryItem(null, "Milk", 1, Location.FRIDGE, LocalDate.of(2025, 3, 1)));
+    final InventoryItem early =
+        staged.save(new InventoryItem(null, "milk", 1, Location.FRIDGE, LocalDate.of(2025, 1, 1)));
+
+    assertEquals(List.of(early, late), staged.findByNameOrderByExpiry("MILK"));
+  }
+
+  @Test
+  void commitShouldFailAndKeepStagedChangesWhenBaseChangedConcurrently() {
+    final InventoryItem stored =
+        base.save(new InventoryItem(null, "Oats", 3, Location.PANTRY, null));
+    staged.deleteById(stored.itemId());
+    base.save(stored); // Someone else bumps the version
+
+    assertFalse(staged.commit(), "Commit should detect the conflict");
+    assertTrue(base.findById(stored.itemId()).isPresent(), "Nothing should be applied");
+    assertEquals(1, staged.pendingChanges(), "Staged changes should be kept");
+  }
+
+  @Test
+  void itemsCreatedAndDeletedInOverlayShouldNeverReachBase() {
+    final InventoryItem temp =
+        staged.save(new InventoryItem(null, "Temp", 1, Location.PANTRY, null));
+    staged.deleteById(temp.itemId());
+
+    assertTrue(staged.commit());
+    assertTrue(base.findAll().isEmpty());
+  }
+}
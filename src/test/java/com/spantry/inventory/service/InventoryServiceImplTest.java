@@ -4,14 +4,19 @@ import com.spantry.inventory.domain.InventoryItem;
 import com.spantry.inventory.domain.Location;
 import com.spantry.inventory.repository.InventoryRepository;
 import com.spantry.inventory.service.dto.AddItemCommandDto;
+import com.spantry.inventory.service.dto.LotConsumptionDto;
+import com.spantry.inventory.service.exception.InsufficientQuantityException;
 import com.spantry.inventory.service.exception.ItemNotFoundException;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
@@ -27,6 +32,9 @@ class InventoryServiceImplTest {
   @InjectMocks // Re-enable injection
   private InventoryServiceImpl inventoryService;
 
+  @Captor // Typed captor for the collections passed to the bulk repository calls
+  private ArgumentCaptor<Collection<InventoryItem>> itemsCaptor;
+
   private InventoryItem sampleItem1;
   private InventoryItem sampleItem2;
   private AddItemCommandDto sampleAddCommand;
@@ -55,8 +63,9 @@ class InventoryServiceImplTest {
             sampleAddCommand.location(),
             sampleAddCommand.expirationDate());
 
-    // Simulate repository save behavior - SIMPLIFIED
-    Mockito.when(repository.save(Mockito.any(InventoryItem.class))).thenReturn(savedItem);
+    // Simulate repository insert behavior - SIMPLIFIED
+    Mockito.when(repository.insertIfAbsent(Mockito.any(InventoryItem.class)))
+        .thenReturn(Optional.of(savedItem));
 
     // Act
     final InventoryItem result = inventoryService.addItem(sampleAddCommand);
@@ -66,8 +75,9 @@ class InventoryServiceImplTest {
     Assertions.assertEquals(savedItem.itemId(), result.itemId(), "Item ID should match");
     Assertions.assertEquals(sampleAddCommand.name(), result.name(), "Item name should match");
 
-    // Verify repository.save was called
-    Mockito.verify(repository, Mockito.times(1)).save(Mockito.any(InventoryItem.class));
+    // Verify the item was inserted without overwriting anything
+    Mockito.verify(repository, Mockito.times(1)).insertIfAbsent(Mockito.any(InventoryItem.class));
+    Mockito.verify(repository, Mockito.never()).save(Mockito.any(InventoryItem.class));
   }
 
   @Test
@@ -105,27 +115,26 @@ class InventoryServiceImplTest {
   void removeItemWhenItemExistsShouldCallRepositoryDelete() {
     // Arrange
     final String itemIdToRemove = sampleItem1.itemId();
-    // Simulate findById returning the item, indicating it exists
-    Mockito.when(repository.findById(itemIdToRemove)).thenReturn(Optional.of(sampleItem1));
+    // Simulate the atomic delete returning the item, indicating it existed
+    Mockito.when(repository.findAndDeleteById(itemIdToRemove)).thenReturn(Optional.of(sampleItem1));
 
     // Act
     Assertions.assertDoesNotThrow(
         () -> inventoryService.removeItem(itemIdToRemove),
         "Should not throw exception when removing existing item");
 
-    // Assert
-    Mockito.verify(repository, Mockito.times(1))
-        .findById(itemIdToRemove); // Verify findById was checked
-    Mockito.verify(repository, Mockito.times(1))
-        .deleteById(itemIdToRemove); // Verify deleteById was called
+    // Assert: a single atomic operation, no separate lookup
+    Mockito.verify(repository, Mockito.times(1)).findAndDeleteById(itemIdToRemove);
+    Mockito.verify(repository, Mockito.never()).findById(Mockito.anyString());
+    Mockito.verify(repository, Mockito.never()).deleteById(Mockito.anyString());
   }
 
   @Test
   void removeItemWhenItemDoesNotExistShouldThrowItemNotFoundException() {
     // Arrange
     final String nonExistentItemId = "nonExistentId";
-    // Simulate findById returning empty, indicating item does not exist
-    Mockito.when(repository.findById(nonExistentItemId)).thenReturn(Optional.empty());
+    // Simulate the atomic delete finding nothing, indicating item does not exist
+    Mockito.when(repository.findAndDeleteById(nonExistentItemId)).thenReturn(Optional.empty());
 
     // Act & Assert
     final ItemNotFoundException exception =
@@ -141,7 +150,7 @@ class InventoryServiceImplTest {
         "Exception message should contain the item ID"); // Check exception message
 
     Mockito.verify(repository, Mockito.times(1))
-        .findById(nonExistentItemId); // Verify findById was checked
+        .findAndDeleteById(nonExistentItemId); // Verify the atomic delete was attempted
     Mockito.verify(repository, Mockito.never())
         .deleteById(Mockito.anyString()); // Verify deleteById was NOT called
   }
@@ -153,7 +162,7 @@ class InventoryServiceImplTest {
         () -> inventoryService.addItem(null),
         "Should throw NullPointerException for null command");
     Mockito.verify(repository, Mockito.never())
-        .save(Mockito.any()); // Ensure repository save was not called
+        .insertIfAbsent(Mockito.any()); // Ensure repository insert was not called
   }
 
   @Test
@@ -173,8 +182,199 @@ class InventoryServiceImplTest {
         () -> inventoryService.removeItem(null),
         "Should throw NullPointerException for null item ID");
     Mockito.verify(repository, Mockito.never())
-        .findById(Mockito.any()); // Ensure repository findById was not called
+        .findAndDeleteById(Mockito.any()); // Ensure repository delete was not called
+  }
+
+  @Test
+  void addItemsShouldSaveWholeBatchWithOneRepositoryCall() {
+    // Arrange
+    final AddItemCommandDto secondCommand =
+        new AddItemCommandDto("Rice", 2, Location.PANTRY, LocalDate.now().plusDays(30));
+    final List<InventoryItem> savedItems =
+        List.of(
+            new InventoryItem("b1", "Banana", 3, Location.COUNTER, null),
+            new InventoryItem("b2", "Rice", 2, Location.PANTRY, secondCommand.expirationDate()));
+    Mockito.when(repository.saveAll(Mockito.anyCollection())).thenReturn(savedItems);
+
+    // Act
+    final List<InventoryItem> result =
+        inventoryService.addItems(List.of(sampleAddCommand, secondCommand));
+
+    // Assert
+    Assertions.assertEquals(savedItems, result, "Saved items should be returned");
+    Mockito.verify(repository, Mockito.times(1)).saveAll(itemsCaptor.capture());
+    Mockito.verify(repository, Mockito.never()).save(Mockito.any());
+    final List<InventoryItem> passed = List.copyOf(itemsCaptor.getValue());
+    Assertions.assertEquals(2, passed.size(), "Both items should be passed to the repository");
+    Assertions.assertNull(passed.get(0).itemId(), "IDs should be left to the repository");
+    Assertions.assertEquals("Rice", passed.get(1).name(), "Order should be preserved");
+  }
+
+  @Test
+  void removeItemsShouldDelegateToBulkDeleteAndReturnCount() {
+    // Arrange
+    final List<String> ids = List.of("id1", "id2", "missing");
+    Mockito.when(repository.deleteAllById(ids)).thenReturn(2);
+
+    // Act
+    final int removed = inventoryService.removeItems(ids);
+
+    // Assert
+    Assertions.assertEquals(2, removed, "Removed count should come from the repository");
+    Mockito.verify(repository, Mockito.times(1)).deleteAllById(ids);
+    Mockito.verify(repository, Mockito.never()).deleteById(Mockito.anyString());
+  }
+
+  @Test
+  void addItemsWhenListIsNullShouldThrowNullPointerException() {
+    Assertions.assertThrows(
+        NullPointerException.class,
+        () -> inventoryService.addItems(null),
+        "Should throw NullPointerException for null command list");
+    Mockito.verify(repository, Mockito.never()).saveAll(Mockito.any());
+  }
+
+  @Test
+  void adjustQuantityShouldWriteNewQuantityConditionally() {
+    final InventoryItem stored = sampleItem1.withVersion(3L);
+    final InventoryItem expected = new InventoryItem("id1", "Apple", 3, Location.PANTRY, null, 3L);
+    Mockito.when(repository.findById("id1")).thenReturn(Optional.of(stored));
+    Mockito.when(repository.compareAndSet(expected))
+        .thenReturn(Optional.of(expected.withVersion(4L)));
+
+    final Optional<InventoryItem> result = inventoryService.adjustQuantity("id1", -2);
+
+    Assertions.assertEquals(3, result.orElseThrow().quantity(), "Quantity should be reduced");
+    Mockito.verify(repository).compareAndSet(expected);
+  }
+
+  @Test
+  void adjustQuantityToZeroShouldDeleteItem() {
+    final InventoryItem stored = sampleItem1.withVersion(2L);
+    Mockito.when(repository.findById("id1")).thenReturn(Optional.of(stored));
+    Mockito.when(repository.compareAndDelete("id1", 2L)).thenReturn(true);
+
+    final Optional<InventoryItem> result = inventoryService.adjustQuantity("id1", -5);
+
+    Assertions.assertTrue(result.isEmpty(), "Used-up item should be removed");
+    Mockito.verify(repository, Mockito.never()).compareAndSet(Mockito.any());
+  }
+
+  @Test
+  void adjustQuantityShouldRetryOnConcurrentModification() {
+    final InventoryItem first = sampleItem1.withVersion(1L);
+    final InventoryItem second = new InventoryItem("id1", "Apple", 8, Location.PANTRY, null, 2L);
+    Mockito.when(repository.findById("id1"))
+        .thenReturn(Optional.of(first))
+        .thenReturn(Optional.of(second));
+    Mockito.when(repository.compareAndSet(Mockito.any(InventoryItem.class)))
+        .thenReturn(Optional.empty())
+        .thenAnswer(invocation -> Optional.of(invocation.<InventoryItem>getArgument(0)));
+
+    final Optional<InventoryItem> result = inventoryService.adjustQuantity("id1", 1);
+
+    Assertions.assertEquals(
+        9, result.orElseThrow().quantity(), "Delta should be applied to the latest state");
+    Mockito.verify(repository, Mockito.times(2)).compareAndSet(Mockito.any(InventoryItem.class));
+  }
+
+  @Test
+  void adjustQuantityBelowZeroShouldThrowAndNotWrite() {
+    Mockito.when(repository.findById("id1")).thenReturn(Optional.of(sampleItem1));
+
+    Assertions.assertThrows(
+        InsufficientQuantityException.class,
+        () -> inventoryService.adjustQuantity("id1", -6),
+        "Consuming more than is stocked should fail");
+    Mockito.verify(repository, Mockito.never()).compareAndSet(Mockito.any());
+    Mockito.verify(repository, Mockito.never()).compareAndDelete(Mockito.any(), Mockito.anyLong());
+  }
+
+  @Test
+  void adjustQuantityOfMissingItemShouldThrowItemNotFoundException() {
+    Mockito.when(repository.findById("missing")).thenReturn(Optional.empty());
+
+    Assertions.assertThrows(
+        ItemNotFoundException.class,
+        () -> inventoryService.adjustQuantity("missing", 1),
+        "Adjusting an unknown item should fail");
+  }
+
+  @Test
+  void adjustQuantityWithZeroDeltaShouldThrowIllegalArgumentException() {
+    Assertions.assertThrows(
+        IllegalArgumentException.class,
+        () -> inventoryService.adjustQuantity("id1", 0),
+        "A zero delta should be rejected");
+  }
+
+  @Test
+  void consumeByNameShouldDrainSoonestExpiringLotsFirst() {
+    final LocalDate today = LocalDate.now();
+    final InventoryItem soon = new InventoryItem("a", "Eggs", 2, Location.FRIDGE, today, 1L);
+    final InventoryItem later =
+        new InventoryItem("b", "Eggs", 6, Location.FRIDGE, today.plusDays(5), 4L);
+    final InventoryItem latest =
+        new InventoryItem("c", "Eggs", 6, Location.FRIDGE, today.plusDays(9), 2L);
+    Mockito.when(repository.findByNameOrderByExpiry("eggs"))
+        .thenReturn(List.of(soon, later, latest));
+    Mockito.when(repository.compareAndApply(Mockito.anyCollection(), Mockito.anyCollection()))
+        .thenReturn(true);
+
+    final LotConsumptionDto result = inventoryService.consumeByName("eggs", 5);
+
+    final InventoryItem reduced =
+        new InventoryItem("b", "Eggs", 3, Location.FRIDGE, today.plusDays(5), 4L);
+    Mockito.verify(repository).compareAndApply(List.of(reduced), List.of(soon));
+    Assertions.assertEquals(List.of(soon), result.removedLots(), "Soonest lot should be used up");
+    Assertions.assertEquals(
+        List.of(reduced.withVersion(5L)),
+        result.updatedLots(),
+        "Next lot should be reported as stored, with its new version");
+    Assertions.assertEquals(9, result.remainingQuantity(), "Remaining total should be reported");
+  }
+
+  @Test
+  void consumeByNameShouldRetryWhenLotsChangedConcurrently() {
+    final InventoryItem lot = new InventoryItem("a", "Eggs", 4, Location.FRIDGE, null, 1L);
+    final InventoryItem refreshed = new InventoryItem("a", "Eggs", 3, Location.FRIDGE, null, 2L);
+    Mockito.when(repository.findByNameOrderByExpiry("Eggs"))
+        .thenReturn(List.of(lot))
+        .thenReturn(List.of(refreshed));
+    Mockito.when(repository.compareAndApply(Mockito.anyCollection(), Mockito.anyCollection()))
+        .thenReturn(false)
+        .thenReturn(true);
+
+    final LotConsumptionDto result = inventoryService.consumeByName("Eggs", 3);
+
+    Assertions.assertEquals(List.of(refreshed), result.removedLots(), "Plan uses the fresh state");
+    Mockito.verify(repository, Mockito.times(2))
+        .compareAndApply(Mockito.anyCollection(), Mockito.anyCollection());
+  }
+
+  @Test
+  void consumeByNameShouldRejectMoreThanAvailableAcrossLots() {
+    Mockito.when(repository.findByNameOrderByExpiry("Eggs"))
+        .thenReturn(
+            List.of(
+                new InventoryItem("a", "Eggs", 2, Location.FRIDGE, null, 1L),
+                new InventoryItem("b", "Eggs", 2, Location.FRIDGE, null, 1L)));
+
+    Assertions.assertThrows(
+        InsufficientQuantityException.class,
+        () -> inventoryService.consumeByName("Eggs", 5),
+        "Taking more than all lots hold should fail");
     Mockito.verify(repository, Mockito.never())
-        .deleteById(Mockito.any()); // Ensure repository deleteById was not called
+        .compareAndApply(Mockito.anyCollection(), Mockito.anyCollection());
+  }
+
+  @Test
+  void consumeByNameWithUnknownNameShouldThrowItemNotFoundException() {
+    Mockito.when(repository.findByNameOrderByExpiry("Bread")).thenReturn(List.of());
+
+    Assertions.assertThrows(
+        ItemNotFoundException.class,
+        () -> inventoryService.consumeByName("Bread", 1),
+        "Consuming an unknown product should fail");
   }
 }
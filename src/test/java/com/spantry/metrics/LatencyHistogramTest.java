@@ -0,0 +1,60 @@
+package com.spantry.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/** Unit tests for {@link LatencyHistogram}. */
+class LatencyHistogramTest {
+
+  @Test
+  void bucketsShouldCoverEveryValueWithinThreePercent() {
+    final Random random = new Random(44);
+    for (int i = 0; i < 100_000; i++) {
+      final long value = (random.nextLong() >>> 1) >>> random.nextInt(63);
+      final int index = LatencyHistogram.index(value);
+      final long highest = LatencyHistogram.highestValue(index);
+      assertTrue(highest >= value, "Bucket " + index + " must hold " + value);
+      assertTrue(
+          index == 0 || LatencyHistogram.highestValue(index - 1) < value,
+          "Value " + value + " belongs in an earlier bucket than " + index);
+      assertTrue(highest - value <= value / 32, "Bucket " + index + " is too wide for " + value);
+    }
+    assertEquals(
+        Long.MAX_VALUE, LatencyHistogram.highestValue(LatencyHistogram.index(Long.MAX_VALUE)));
+  }
+
+  @Test
+  void percentilesShouldMatchTheExactOnesWithinThePrecision() {
+    final Random random = new Random(7);
+    final LatencyHistogram histogram = new LatencyHistogram();
+    final long[] values = new long[20_000];
+    for (int i = 0; i < values.length; i++) {
+      // Mostly fast calls and a slow tail
+      values[i] = i % 100 == 0 ? 1_000_000 + random.nextInt(9_000_000) : 200 + random.nextInt(800);
+      histogram.record(values[i]);
+    }
+    Arrays.sort(values);
+
+    final double[] quantiles = {0.5, 0.99, 0.999, 1.0};
+    final long[] estimates = histogram.valuesAt(quantiles);
+    for (int q = 0; q < quantiles.length; q++) {
+      final long exact = values[(int) Math.ceil(quantiles[q] * values.length) - 1];
+      assertTrue(
+          Math.abs(estimates[q] - exact) <= exact / 32,
+          "Quantile " + quantiles[q] + ": " + estimates[q] + " vs " + exact);
+    }
+    assertEquals(values.length, histogram.count());
+    assertEquals(values[values.length - 1], histogram.max());
+    assertEquals(Arrays.stream(values).sum(), histogram.sum());
+  }
+
+  @Test
+  void emptyHistogramShouldReportZeros() {
+    assertArrayEquals(new long[] {0, 0}, new LatencyHistogram().valuesAt(0.5, 0.99));
+  }
+}
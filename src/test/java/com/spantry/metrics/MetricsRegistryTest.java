@@ -0,0 +1,104 @@
+package com.spantry.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.spantry.inventory.domain.InventoryItem;
+import com.spantry.inventory.domain.Location;
+import com.spantry.inventory.repository.InMemoryInventoryRepository;
+import com.spantry.inventory.repository.MeteredInventoryRepository;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Tests for {@link MetricsRegistry}, its renderings and the metered decorators. */
+class MetricsRegistryTest {
+
+  @TempDir Path tempDir;
+
+  @Test
+  void meteredRepositoryShouldCountCallsAndErrors() {
+    final MetricsRegistry registry = new MetricsRegistry(1);
+    final MeteredInventoryRepository repository =
+        new MeteredInventoryRepository(
+            new InMemoryInventoryRepository(tempDir.resolve("inventory.dat")), registry);
+    final InventoryItem milk =
+        repository.save(new InventoryItem(null, "Milk", 1, Location.FRIDGE, null));
+    for (int i = 0; i < 9; i++) {
+      repository.findById(milk.itemId());
+    }
+    assertThrows(NullPointerException.class, () -> repository.findById(null));
+
+    final List<OperationStats> stats = registry.snapshot();
+    assertEquals(
+        List.of("repository.findById", "repository.save"),
+        stats.stream().map(OperationStats::name).toList());
+    final OperationStats findById = stats.get(0);
+    assertEquals(10, findById.calls());
+    assertEquals(1, findById.errors());
+    assertEquals(10, findById.timed(), "Every call is timed without sampling");
+    assertEquals(0.1, findById.errorRate(), 1e-9);
+    assertTrue(findById.p50Nanos() <= findById.p99Nanos());
+    assertTrue(findById.p999Nanos() <= findById.maxNanos());
+  }
+
+  @Test
+  void samplingShouldTimeAFractionOfTheCalls() {
+    final OperationMetrics operation = new MetricsRegistry(16).operation("test");
+    for (int i = 0; i < OperationMetrics.WARM_UP_CALLS; i++) {
+      operation.succeeded(operation.start());
+    }
+    assertEquals(OperationMetrics.WARM_UP_CALLS, operation.snapshot().timed());
+
+    for (int i = 0; i < 16_000; i++) {
+      operation.succeeded(operation.start());
+    }
+    final OperationStats stats = operation.snapshot();
+    final long sampled = stats.timed() - OperationMetrics.WARM_UP_CALLS;
+    assertEquals(16_000 + OperationMetrics.WARM_UP_CALLS, stats.calls());
+    assertTrue(sampled > 700 && sampled < 1300, "Timed " + sampled);
+  }
+
+  @Test
+  void operationsShouldBeRegisteredOnce() {
+    final MetricsRegistry registry = new MetricsRegistry(4);
+    assertSame(registry.operation("a"), registry.operation("a"));
+    assertEquals(List.of(), registry.snapshot(), "Operations never called are not reported");
+    assertThrows(IllegalArgumentException.class, () -> new MetricsRegistry(0));
+  }
+
+  @Test
+  void formatsShouldRenderEveryOperation() {
+    final List<OperationStats> stats =
+        List.of(
+            new OperationStats("service.addItem", 4, 1, 4, 1500, 1000, 3000, 3000, 3000),
+            new OperationStats("service.findItems", 2, 0, 2, 800, 700, 900, 900, 900));
+
+    final String text = MetricsFormat.TEXT.render(stats);
+    assertTrue(text.startsWith("OPERATION"), text);
+    assertTrue(text.contains("service.addItem"), text);
+    assertTrue(text.contains("25.00"), text);
+
+    final String json = MetricsFormat.JSON.render(stats);
+    assertTrue(json.startsWith("{\"operations\":[\n{\"name\":\"service.addItem\""), json);
+    assertTrue(json.contains("\"p99Nanos\":900"), json);
+    assertEquals("{\"operations\":[]}\n", MetricsFormat.JSON.render(List.of()));
+
+    final String prometheus = MetricsFormat.PROMETHEUS.render(stats);
+    assertTrue(
+        prometheus.contains("spantry_operation_calls_total{operation=\"service.addItem\"} 4\n"),
+        prometheus);
+    assertTrue(
+        prometheus.contains(
+            "spantry_operation_duration_seconds{operation=\"service.findItems\","
+                + "quantile=\"0.99\"} 9.0E-7\n"),
+        prometheus);
+    assertTrue(
+        prometheus.contains(
+            "spantry_operation_duration_seconds_count{operation=\"service.addItem\"} 4\n"),
+        prometheus);
+  }
+}
@@ -0,0 +1,87 @@
+package com.spantry.validation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.spantry.inventory.domain.InventoryItem;
+import com.spantry.inventory.domain.Location;
+import com.spantry.inventory.service.dto.AddItemCommandDto;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/** Tests for {@link Validators}: generated validators must agree with Hibernate Validator. */
+class ValidatorsTest {
+
+  private static final List<AddItemCommandDto> COMMANDS =
+      List.of(
+          new AddItemCommandDto("Milk", 1, Location.FRIDGE, LocalDate.of(2024, 4, 15)),
+          new AddItemCommandDto("Rice", Integer.MAX_VALUE, Location.PANTRY, null),
+          new AddItemCommandDto(null, 1, Location.PANTRY, null),
+          new AddItemCommandDto("", 1, Location.PANTRY, null),
+          new AddItemCommandDto(" \t\n", 1, Location.PANTRY, null),
+          new AddItemCommandDto("Eggs", 0, Location.FRIDGE, null),
+          new AddItemCommandDto("Eggs", Integer.MIN_VALUE, Location.FRIDGE, null),
+          new AddItemCommandDto("Peas", 2, null, null),
+          new AddItemCommandDto(" ", -1, null, null));
+
+  @Test
+  void forTypeShouldReturnTheGeneratedValidator() {
+    final ObjectValidator<AddItemCommandDto> validator =
+        Validators.forType(AddItemCommandDto.class);
+
+    assertFalse(validator instanceof BeanValidationFallback, "Generated validator expected");
+    assertSame(validator, Validators.forType(AddItemCommandDto.class), "Validators are cached");
+    assertEquals(
+        List.of(
+            "Item name cannot be blank.",
+            "Item quantity must be positive.",
+            "Item location cannot be null."),
+        validator.validate(new AddItemCommandDto(" ", 0, null, null)));
+  }
+
+  @Test
+  void forTypeShouldFallBackToBeanValidationWithoutGeneratedValidator() {
+    assertInstanceOf(BeanValidationFallback.class, Validators.forType(String.class));
+  }
+
+  @Test
+  void generatedCommandValidatorShouldMatchBeanValidation() {
+    final ObjectValidator<AddItemCommandDto> generated =
+        Validators.forType(AddItemCommandDto.class);
+    final ObjectValidator<AddItemCommandDto> runtime = new BeanValidationFallback<>();
+
+    for (final AddItemCommandDto command : COMMANDS) {
+      assertEquals(
+          sorted(runtime.validate(command)),
+          sorted(generated.validate(command)),
+          command::toString);
+    }
+  }
+
+  @Test
+  void generatedItemValidatorShouldMatchBeanValidation() {
+    final ObjectValidator<InventoryItem> generated = Validators.forType(InventoryItem.class);
+    final ObjectValidator<InventoryItem> runtime = new BeanValidationFallback<>();
+    assertFalse(generated instanceof BeanValidationFallback, "Generated validator expected");
+
+    for (final AddItemCommandDto command : COMMANDS) {
+      final InventoryItem item =
+          new InventoryItem("id", command.name(), command.quantity(), command.location(), null, 3L);
+      assertEquals(
+          sorted(runtime.validate(item)), sorted(generated.validate(item)), item::toString);
+    }
+    assertTrue(
+        generated.validate(new InventoryItem(null, "Tea", 1, Location.PANTRY, null)).isEmpty());
+  }
+
+  private static List<String> sorted(final List<String> messages) {
+    final List<String> copy = new ArrayList<>(messages);
+    copy.sort(null);
+    return copy;
+  }
+}